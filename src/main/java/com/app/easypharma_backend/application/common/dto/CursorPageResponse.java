@@ -0,0 +1,46 @@
+package com.app.easypharma_backend.application.common.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageResponse<T> {
+
+    @Schema(description = "Contenu de la page")
+    private List<T> content;
+
+    @Schema(description = "Taille de la page demandée")
+    private int pageSize;
+
+    @Schema(description = "Curseur opaque à renvoyer pour obtenir la page suivante (absent s'il n'y en a pas)")
+    private String nextCursor;
+
+    @Schema(description = "Indique s'il y a une page suivante")
+    private boolean hasNext;
+
+    /**
+     * Construit une page à partir de {@code pageSize + 1} lignes lues : la ligne
+     * en trop sert uniquement à savoir s'il existe une page suivante.
+     */
+    public static <T> CursorPageResponse<T> of(List<T> rows, int pageSize,
+            java.util.function.Function<T, String> cursorOf) {
+        boolean hasNext = rows.size() > pageSize;
+        List<T> content = hasNext ? rows.subList(0, pageSize) : rows;
+        return CursorPageResponse.<T>builder()
+                .content(content)
+                .pageSize(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null)
+                .build();
+    }
+}
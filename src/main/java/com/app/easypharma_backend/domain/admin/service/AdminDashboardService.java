@@ -6,7 +6,9 @@ import com.app.easypharma_backend.domain.auth.entity.UserRole;
 import com.app.easypharma_backend.domain.auth.repository.UserRepository;
 import com.app.easypharma_backend.domain.order.repository.OrderRepository;
 import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
-import com.app.easypharma_backend.domain.search.repository.SearchLogRepository;
+import com.app.easypharma_backend.domain.search.dto.SearchCountDTO;
+import com.app.easypharma_backend.domain.search.entity.SearchReportKind;
+import com.app.easypharma_backend.domain.search.service.SearchAnalyticsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -24,7 +26,7 @@ public class AdminDashboardService {
     private final OrderRepository orderRepository;
     private final PharmacyRepository pharmacyRepository;
     private final UserRepository userRepository;
-    private final SearchLogRepository searchLogRepository;
+    private final SearchAnalyticsService searchAnalyticsService;
 
     public GlobalStatsDTO getGlobalStats() {
         return GlobalStatsDTO.builder()
@@ -50,13 +52,21 @@ public class AdminDashboardService {
                 .collect(Collectors.toList());
     }
 
-    public List<TopMedicationDTO> getTopSearchedMedications() {
-        List<Object[]> results = searchLogRepository.findTopSearchedQueries(PageRequest.of(0, 10));
-        return results.stream()
-                .map(row -> TopMedicationDTO.builder()
-                        .name((String) row[0])
-                        .count((long) row[1])
-                        .type("SEARCHED")
+    // Lu depuis le top quotidien (SearchAnalyticsService), pas depuis toute la table search_logs
+    public List<TopMedicationDTO> getTopSearchedMedications(int days) {
+        return toTopMedications(searchAnalyticsService.top(SearchReportKind.SEARCHED, days, 10), "SEARCHED");
+    }
+
+    public List<TopMedicationDTO> getTopZeroResultSearches(int days) {
+        return toTopMedications(searchAnalyticsService.top(SearchReportKind.ZERO_RESULT, days, 10), "ZERO_RESULT");
+    }
+
+    private List<TopMedicationDTO> toTopMedications(List<SearchCountDTO> counts, String type) {
+        return counts.stream()
+                .map(count -> TopMedicationDTO.builder()
+                        .name(count.getQuery())
+                        .count(count.getCount())
+                        .type(type)
                         .build())
                 .collect(Collectors.toList());
     }
@@ -18,6 +18,10 @@ public interface UserRepository extends JpaRepository<User, UUID> {
         @Query("SELECT u FROM User u LEFT JOIN FETCH u.pharmacy WHERE LOWER(u.email) = LOWER(:email)")
         Optional<User> findByEmail(@Param("email") String email);
 
+        // Pharmacie de rattachement, sans charger l'utilisateur
+        @Query("SELECT u.pharmacy.id FROM User u WHERE LOWER(u.email) = LOWER(:email)")
+        Optional<UUID> findPharmacyIdByEmail(@Param("email") String email);
+
         // Recherche par téléphone
         Optional<User> findByPhone(String phone);
 
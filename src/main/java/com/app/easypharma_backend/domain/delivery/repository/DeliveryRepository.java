@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -36,6 +37,18 @@ public interface DeliveryRepository extends JpaRepository<Delivery, UUID> {
         """)
     List<Delivery> findOngoingDeliveriesByPerson(@Param("deliveryPersonId") UUID deliveryPersonId);
 
+    // Livreurs ayant une livraison en cours, parmi ceux donnés
+    @Query("""
+        SELECT DISTINCT d.deliveryPerson.id FROM Delivery d
+        WHERE d.deliveryPerson.id IN :deliveryPersonIds
+        AND d.status IN ('ASSIGNED', 'PICKED_UP', 'IN_TRANSIT')
+        """)
+    List<UUID> findBusyDeliveryPersonIds(@Param("deliveryPersonIds") Collection<UUID> deliveryPersonIds);
+
+    // Commandes déjà confiées à un livreur, parmi celles données
+    @Query("SELECT d.order.id FROM Delivery d WHERE d.order.id IN :orderIds")
+    List<UUID> findAssignedOrderIds(@Param("orderIds") Collection<UUID> orderIds);
+
     // Livraisons dans une période
     @Query("SELECT d FROM Delivery d WHERE d.createdAt BETWEEN :startDate AND :endDate ORDER BY d.createdAt DESC")
     List<Delivery> findDeliveriesBetweenDates(
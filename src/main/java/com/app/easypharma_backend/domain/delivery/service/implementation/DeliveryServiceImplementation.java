@@ -20,9 +20,16 @@ import org.springframework.lang.NonNull;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -81,7 +88,12 @@ public class DeliveryServiceImplementation implements DeliveryServiceInterface {
                                 .build();
 
                 Delivery saved = deliveryRepository.save(delivery);
+                notifyAssignment(order, courier);
 
+                return saved;
+        }
+
+        private void notifyAssignment(Order order, User courier) {
                 // Notify Courier
                 String courierTitle = "Nouvelle livraison attribuée";
                 String courierMsg = String.format("Vous avez une nouvelle livraison à effectuer pour la commande %s.",
@@ -96,8 +108,6 @@ public class DeliveryServiceImplementation implements DeliveryServiceInterface {
                 notificationService.sendInAppNotification(order.getPatient(), patientTitle, patientMsg,
                                 NotificationType.DELIVERY);
                 notificationService.sendPushNotification(order.getPatient(), patientTitle, patientMsg);
-
-                return saved;
         }
 
         @Override
@@ -266,4 +276,49 @@ public class DeliveryServiceImplementation implements DeliveryServiceInterface {
 
                 return null;
         }
+
+        @Override
+        public List<Delivery> autoAssignCouriers(@NonNull Collection<UUID> orderIds) {
+                Objects.requireNonNull(orderIds, "Order IDs cannot be null");
+                if (orderIds.isEmpty()) {
+                        return List.of();
+                }
+
+                Set<UUID> assigned = new HashSet<>(deliveryRepository.findAssignedOrderIds(orderIds));
+                Map<UUID, List<Order>> ordersByPharmacy = orderRepository.findAllWithPatientByIdIn(orderIds).stream()
+                                .filter(order -> !assigned.contains(order.getId()))
+                                .collect(Collectors.groupingBy(order -> order.getPharmacy().getId(),
+                                                LinkedHashMap::new, Collectors.toList()));
+
+                List<Delivery> deliveries = new ArrayList<>();
+                for (Map.Entry<UUID, List<Order>> entry : ordersByPharmacy.entrySet()) {
+                        // Livreurs de la pharmacie sans livraison en cours, chargés une fois pour le lot
+                        List<User> couriers = userRepository.findActiveDeliveryPersonsByPharmacy(entry.getKey());
+                        if (couriers.isEmpty()) {
+                                continue;
+                        }
+                        Set<UUID> busy = new HashSet<>(deliveryRepository.findBusyDeliveryPersonIds(
+                                        couriers.stream().map(User::getId).toList()));
+                        Iterator<User> available = couriers.stream()
+                                        .filter(courier -> !busy.contains(courier.getId()))
+                                        .iterator();
+
+                        List<Delivery> batch = new ArrayList<>();
+                        for (Order order : entry.getValue()) {
+                                if (!available.hasNext()) {
+                                        break;
+                                }
+                                batch.add(Delivery.builder()
+                                                .order(order)
+                                                .deliveryPerson(available.next())
+                                                .status(DeliveryStatus.ASSIGNED)
+                                                .assignedAt(LocalDateTime.now())
+                                                .build());
+                        }
+                        deliveries.addAll(deliveryRepository.saveAll(batch));
+                }
+
+                deliveries.forEach(delivery -> notifyAssignment(delivery.getOrder(), delivery.getDeliveryPerson()));
+                return deliveries;
+        }
 }
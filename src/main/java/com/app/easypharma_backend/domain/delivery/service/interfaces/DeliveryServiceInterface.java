@@ -5,6 +5,7 @@ import com.app.easypharma_backend.domain.delivery.entity.Delivery;
 import org.springframework.lang.NonNull;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -60,4 +61,15 @@ public interface DeliveryServiceInterface {
      * @return La livraison créée si un livreur a été trouvé, sinon null
      */
     Delivery autoAssignCourier(@NonNull UUID orderId);
+
+    /**
+     * Affectation automatique groupée : les livreurs de chaque pharmacie et
+     * leurs livraisons en cours sont chargés une seule fois pour tout le lot,
+     * chaque livreur disponible reçoit au plus une commande. Les commandes
+     * déjà affectées sont ignorées.
+     *
+     * @param orderIds IDs des commandes à assigner
+     * @return Les livraisons créées (commandes sans livreur disponible exclues)
+     */
+    List<Delivery> autoAssignCouriers(@NonNull Collection<UUID> orderIds);
 }
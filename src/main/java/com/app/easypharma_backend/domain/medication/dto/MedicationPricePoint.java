@@ -0,0 +1,14 @@
+package com.app.easypharma_backend.domain.medication.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Prix d'une offre disponible et ville de sa pharmacie, pour le calcul des
+ * statistiques de prix d'un médicament
+ */
+public interface MedicationPricePoint {
+
+    String getCity();
+
+    BigDecimal getPrice();
+}
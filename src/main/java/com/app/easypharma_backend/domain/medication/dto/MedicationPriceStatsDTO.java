@@ -0,0 +1,24 @@
+package com.app.easypharma_backend.domain.medication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicationPriceStatsDTO {
+    private UUID medicationId;
+    private String city; // "*" : toutes villes confondues
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private BigDecimal medianPrice;
+    private int offerCount;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,55 @@
+package com.app.easypharma_backend.domain.medication.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Projection plate d'une offre (pharmacie + médicament) pour la recherche
+ * paginée : une seule requête, sans chargement d'entités ni N+1.
+ */
+public interface MedicationSearchRow {
+
+    UUID getOfferId();
+
+    UUID getMedicationId();
+
+    String getMedicationName();
+
+    String getMedicationGenericName();
+
+    String getMedicationDescription();
+
+    String getMedicationPhotoUrl();
+
+    BigDecimal getPrice();
+
+    // Quantité disponible : stock moins réservations en cours
+    Integer getStockQuantity();
+
+    Boolean getIsAvailable();
+
+    LocalDate getExpiryDate();
+
+    UUID getPharmacyId();
+
+    String getPharmacyName();
+
+    String getPharmacyAddress();
+
+    String getPharmacyCity();
+
+    String getPharmacyPhone();
+
+    BigDecimal getPharmacyLatitude();
+
+    BigDecimal getPharmacyLongitude();
+
+    String getPharmacyOpeningHours();
+
+    Double getAverageRating();
+
+    Integer getRatingCount();
+
+    Double getDistanceKm();
+}
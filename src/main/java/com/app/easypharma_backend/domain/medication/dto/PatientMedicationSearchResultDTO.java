@@ -6,15 +6,17 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
-public class PatientMedicationSearchResultDTO {
+public class PatientMedicationSearchResultDTO implements Serializable {
+    private UUID offerId; // PharmacyMedication id
     private UUID medicationId;
     private String medicationName;
     private String medicationGenericName;
@@ -20,6 +20,7 @@ public class PharmacyMedicationDTO {
     private UUID medicationId; // Useful for creation when we just pass the ID
     private BigDecimal price;
     private Integer stockQuantity;
+    private Integer reservedQuantity; // Retenu par les commandes non confirmées
     private Boolean isAvailable;
     private LocalDate expiryDate;
 }
@@ -0,0 +1,59 @@
+package com.app.easypharma_backend.domain.medication.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Résumé des prix des offres disponibles d'un médicament, par ville et
+ * toutes villes confondues (city = ALL_CITIES). Recalculé après chaque écriture
+ * d'offre par MedicationPriceStatsService (tâche planifiée).
+ */
+@Entity
+@Table(name = "medication_price_stats", uniqueConstraints = @UniqueConstraint(columnNames = { "medication_id",
+        "city" }))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MedicationPriceStats {
+
+    public static final String ALL_CITIES = "*";
+
+    @Id
+    @UuidGenerator
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "medication_id", nullable = false)
+    private UUID medicationId;
+
+    @Column(name = "city", nullable = false, length = 100)
+    private String city;
+
+    @Column(name = "min_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal minPrice;
+
+    @Column(name = "max_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal maxPrice;
+
+    @Column(name = "median_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal medianPrice;
+
+    @Column(name = "offer_count", nullable = false)
+    private int offerCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -4,6 +4,7 @@ import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.UuidGenerator;
 
 import java.math.BigDecimal;
@@ -43,6 +44,13 @@ public class PharmacyMedication {
     @Builder.Default
     private Integer stockQuantity = 0;
 
+    // Quantité retenue par les commandes en attente de confirmation. Écrite
+    // uniquement en SQL (PharmacyMedicationStockRepository), jamais par l'entité
+    @Column(name = "reserved_quantity", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer reservedQuantity = 0;
+
     @Column(name = "is_available", nullable = false)
     @Builder.Default
     private Boolean isAvailable = true;
@@ -56,6 +64,13 @@ public class PharmacyMedication {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    /**
+     * Quantité encore commandable : stock moins les réservations actives
+     */
+    public int getAvailableQuantity() {
+        return stockQuantity - (reservedQuantity != null ? reservedQuantity : 0);
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
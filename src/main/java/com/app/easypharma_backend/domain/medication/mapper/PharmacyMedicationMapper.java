@@ -21,6 +21,7 @@ public interface PharmacyMedicationMapper {
     @Mapping(target = "medication", ignore = true) // Managed by service
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "reservedQuantity", ignore = true)
     PharmacyMedication toEntity(PharmacyMedicationDTO dto);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
@@ -29,5 +30,6 @@ public interface PharmacyMedicationMapper {
     @Mapping(target = "medication", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "reservedQuantity", ignore = true)
     void updateEntityFromDTO(PharmacyMedicationDTO dto, @MappingTarget PharmacyMedication entity);
 }
@@ -0,0 +1,47 @@
+package com.app.easypharma_backend.domain.medication.repository;
+
+import com.app.easypharma_backend.domain.medication.entity.MedicationPriceStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MedicationPriceStatsRepository extends JpaRepository<MedicationPriceStats, UUID> {
+
+    List<MedicationPriceStats> findByMedicationIdOrderByCityAsc(UUID medicationId);
+
+    List<MedicationPriceStats> findByMedicationIdAndCityIgnoreCase(UUID medicationId, String city);
+
+    @Modifying
+    @Query("DELETE FROM MedicationPriceStats s WHERE s.medicationId = :medicationId")
+    void deleteByMedicationId(@Param("medicationId") UUID medicationId);
+
+    // Villes où le médicament n'a plus d'offre disponible
+    @Modifying
+    @Query("DELETE FROM MedicationPriceStats s WHERE s.medicationId = :medicationId AND s.city NOT IN :cities")
+    void deleteByMedicationIdAndCityNotIn(@Param("medicationId") UUID medicationId,
+            @Param("cities") Collection<String> cities);
+
+    // Écrit la ligne (médicament, ville) sans lecture préalable : deux recalculs
+    // concurrents ne se heurtent pas sur uk_medication_price_stats
+    @Modifying
+    @Query(value = """
+            INSERT INTO medication_price_stats
+                (id, medication_id, city, min_price, max_price, median_price, offer_count, updated_at)
+            VALUES (:id, :medicationId, :city, :minPrice, :maxPrice, :medianPrice, :offerCount, CURRENT_TIMESTAMP)
+            ON CONFLICT (medication_id, city) DO UPDATE
+            SET min_price = EXCLUDED.min_price, max_price = EXCLUDED.max_price,
+                median_price = EXCLUDED.median_price, offer_count = EXCLUDED.offer_count,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    void upsert(@Param("id") UUID id, @Param("medicationId") UUID medicationId, @Param("city") String city,
+            @Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice,
+            @Param("medianPrice") BigDecimal medianPrice, @Param("offerCount") int offerCount);
+}
@@ -38,6 +38,21 @@ public interface MedicationRepository extends JpaRepository<Medication, UUID> {
             """, nativeQuery = true)
     List<Medication> searchByNameOrGenericName(@Param("query") String query);
 
+    // Recherche classée par similarité trigramme (index GIN pg_trgm), limitée côté serveur
+    @Query(value = """
+            SELECT * FROM medications
+            WHERE name ILIKE '%' || CAST(:query AS text) || '%'
+            OR generic_name ILIKE '%' || CAST(:query AS text) || '%'
+            OR name % CAST(:query AS text)
+            OR generic_name % CAST(:query AS text)
+            ORDER BY GREATEST(
+                similarity(name, CAST(:query AS text)),
+                similarity(COALESCE(generic_name, ''), CAST(:query AS text))
+            ) DESC, name ASC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Medication> searchByRelevance(@Param("query") String query, @Param("limit") int limit);
+
     // Recherche avec filtres multiples (Requête Native pour compatibilité
     // PostgreSQL stricte)
     @Query(value = """
@@ -1,5 +1,7 @@
 package com.app.easypharma_backend.domain.medication.repository;
 
+import com.app.easypharma_backend.domain.medication.dto.MedicationPricePoint;
+import com.app.easypharma_backend.domain.medication.dto.MedicationSearchRow;
 import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
 
 import jakarta.persistence.LockModeType;
@@ -11,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,6 +21,46 @@ import java.util.UUID;
 @Repository
 public interface PharmacyMedicationRepository extends JpaRepository<PharmacyMedication, UUID> {
 
+        // Colonnes de la projection MedicationSearchRow (recherche paginée) ; stockQuantity
+        // est la quantité disponible (stock moins réservations), comme dans l'index
+        String SEARCH_ROW_COLUMNS = """
+                        SELECT pm.id AS "offerId",
+                               m.id AS "medicationId",
+                               m.name AS "medicationName",
+                               m.generic_name AS "medicationGenericName",
+                               m.description AS "medicationDescription",
+                               m.photo_url AS "medicationPhotoUrl",
+                               pm.price AS "price",
+                               pm.stock_quantity - pm.reserved_quantity AS "stockQuantity",
+                               pm.is_available AS "isAvailable",
+                               pm.expiry_date AS "expiryDate",
+                               p.id AS "pharmacyId",
+                               p.name AS "pharmacyName",
+                               p.address AS "pharmacyAddress",
+                               p.city AS "pharmacyCity",
+                               p.phone AS "pharmacyPhone",
+                               p.latitude AS "pharmacyLatitude",
+                               p.longitude AS "pharmacyLongitude",
+                               p.opening_hours AS "pharmacyOpeningHours",
+                               COALESCE(p.average_rating, 0) AS "averageRating",
+                               COALESCE(p.rating_count, 0) AS "ratingCount"
+                        """;
+
+        String SEARCH_ROW_FILTERS = """
+                        FROM pharmacy_medications pm
+                        JOIN medications m ON pm.medication_id = m.id
+                        JOIN pharmacies p ON pm.pharmacy_id = p.id
+                        WHERE pm.is_available = true
+                        AND pm.stock_quantity - pm.reserved_quantity > 0
+                        AND p.status = 'APPROVED'
+                        AND (
+                            m.name ILIKE '%' || CAST(:query AS text) || '%'
+                            OR m.generic_name ILIKE '%' || CAST(:query AS text) || '%'
+                            OR m.symptoms ILIKE '%' || CAST(:query AS text) || '%'
+                        )
+                        AND (CAST(:therapeuticClass AS text) IS NULL OR m.therapeutic_class = CAST(:therapeuticClass AS text))
+                        """;
+
         // Recherche par pharmacie
         List<PharmacyMedication> findByPharmacyId(UUID pharmacyId);
 
@@ -27,6 +70,16 @@ public interface PharmacyMedicationRepository extends JpaRepository<PharmacyMedi
         // Recherche par pharmacie et médicament
         Optional<PharmacyMedication> findByPharmacyIdAndMedicationId(UUID pharmacyId, UUID medicationId);
 
+        // Offres d'une pharmacie pour plusieurs médicaments, médicament chargé dans la même requête
+        @Query("""
+                        SELECT pm FROM PharmacyMedication pm
+                        JOIN FETCH pm.medication m
+                        WHERE pm.pharmacy.id = :pharmacyId
+                        AND m.id IN :medicationIds
+                        """)
+        List<PharmacyMedication> findByPharmacyIdAndMedicationIds(@Param("pharmacyId") UUID pharmacyId,
+                        @Param("medicationIds") Collection<UUID> medicationIds);
+
         @Lock(LockModeType.PESSIMISTIC_WRITE) // Empêche tout autre thread de lire/écrire pendant la transaction
         @Query("SELECT pm FROM PharmacyMedication pm WHERE pm.pharmacy.id = :pId AND pm.medication.id = :mId")
         Optional<PharmacyMedication> findByPharmacyIdAndMedicationIdForUpdate(@Param("pId") UUID pId,
@@ -56,6 +109,16 @@ public interface PharmacyMedicationRepository extends JpaRepository<PharmacyMedi
                         """)
         List<PharmacyMedication> findAvailablePricesForMedication(@Param("medicationId") UUID medicationId);
 
+        // Prix des offres disponibles d'un médicament, sans charger les entités (statistiques de prix)
+        @Query("""
+                        SELECT p.city AS city, pm.price AS price FROM PharmacyMedication pm
+                        JOIN pm.pharmacy p
+                        WHERE pm.medication.id = :medicationId
+                        AND pm.isAvailable = true
+                        AND p.status = 'APPROVED'
+                        """)
+        List<MedicationPricePoint> findAvailablePricePoints(@Param("medicationId") UUID medicationId);
+
         // Recherche par plage de prix
         @Query("SELECT pm FROM PharmacyMedication pm WHERE pm.pharmacy.id = :pharmacyId AND pm.price BETWEEN :minPrice AND :maxPrice")
         List<PharmacyMedication> findByPharmacyAndPriceRange(
@@ -63,12 +126,65 @@ public interface PharmacyMedicationRepository extends JpaRepository<PharmacyMedi
                         @Param("minPrice") BigDecimal minPrice,
                         @Param("maxPrice") BigDecimal maxPrice);
 
+        // Chargement complet pour l'index de recherche en mémoire (évite le N+1)
+        @Query("""
+                        SELECT pm FROM PharmacyMedication pm
+                        JOIN FETCH pm.medication
+                        JOIN FETCH pm.pharmacy p
+                        LEFT JOIN FETCH p.user
+                        """)
+        List<PharmacyMedication> findAllForSearchIndex();
+
+        // Offres candidates d'un panier, en une seule requête (boîte englobant le rayon de recherche)
+        @Query("""
+                        SELECT pm FROM PharmacyMedication pm
+                        JOIN FETCH pm.medication m
+                        JOIN FETCH pm.pharmacy p
+                        LEFT JOIN FETCH p.user
+                        WHERE m.id IN :medicationIds
+                        AND pm.isAvailable = true
+                        AND pm.stockQuantity - pm.reservedQuantity > 0
+                        AND p.status = 'APPROVED'
+                        AND p.latitude BETWEEN :minLat AND :maxLat
+                        AND p.longitude BETWEEN :minLon AND :maxLon
+                        """)
+        List<PharmacyMedication> findBasketCandidates(
+                        @Param("medicationIds") Collection<UUID> medicationIds,
+                        @Param("minLat") BigDecimal minLat,
+                        @Param("maxLat") BigDecimal maxLat,
+                        @Param("minLon") BigDecimal minLon,
+                        @Param("maxLon") BigDecimal maxLon);
+
+        // Offres en stock de médicaments équivalents : dans la pharmacie donnée ou dans la boîte englobante
+        @Query("""
+                        SELECT pm FROM PharmacyMedication pm
+                        JOIN FETCH pm.medication m
+                        JOIN FETCH pm.pharmacy p
+                        LEFT JOIN FETCH p.user
+                        WHERE m.id IN :medicationIds
+                        AND pm.isAvailable = true
+                        AND pm.stockQuantity - pm.reservedQuantity > 0
+                        AND p.status = 'APPROVED'
+                        AND (p.id = :pharmacyId
+                            OR (p.latitude BETWEEN :minLat AND :maxLat
+                                AND p.longitude BETWEEN :minLon AND :maxLon))
+                        ORDER BY pm.price ASC
+                        """)
+        List<PharmacyMedication> findSubstituteOffers(
+                        @Param("medicationIds") Collection<UUID> medicationIds,
+                        @Param("pharmacyId") UUID pharmacyId,
+                        @Param("minLat") BigDecimal minLat,
+                        @Param("maxLat") BigDecimal maxLat,
+                        @Param("minLon") BigDecimal minLon,
+                        @Param("maxLon") BigDecimal maxLon);
+
         // Recherche globale pour les patients
         @Query(value = """
                         SELECT pm.* FROM pharmacy_medications pm
                         JOIN medications m ON pm.medication_id = m.id
                         JOIN pharmacies p ON pm.pharmacy_id = p.id
                         WHERE pm.is_available = true
+                        AND pm.stock_quantity - pm.reserved_quantity > 0
                         AND p.status = 'APPROVED'
                         AND (
                             m.name ILIKE '%' || CAST(:query AS text) || '%'
@@ -81,27 +197,121 @@ public interface PharmacyMedicationRepository extends JpaRepository<PharmacyMedi
                         @Param("query") String query,
                         @Param("therapeuticClass") String therapeuticClass);
 
-        // Recherche avec tri PostGIS natif (ST_DistanceSphere)
+        // Recherche classée par pertinence (similarité trigramme, index GIN pg_trgm)
         @Query(value = """
                         SELECT pm.* FROM pharmacy_medications pm
                         JOIN medications m ON pm.medication_id = m.id
                         JOIN pharmacies p ON pm.pharmacy_id = p.id
                         WHERE pm.is_available = true
+                        AND pm.stock_quantity - pm.reserved_quantity > 0
                         AND p.status = 'APPROVED'
                         AND (
                             m.name ILIKE '%' || CAST(:query AS text) || '%'
                             OR m.generic_name ILIKE '%' || CAST(:query AS text) || '%'
                             OR m.symptoms ILIKE '%' || CAST(:query AS text) || '%'
+                            OR m.name % CAST(:query AS text)
+                            OR m.generic_name % CAST(:query AS text)
                         )
                         AND (CAST(:therapeuticClass AS text) IS NULL OR m.therapeutic_class = CAST(:therapeuticClass AS text))
-                        ORDER BY ST_DistanceSphere(
-                            ST_MakePoint(CAST(p.longitude AS DOUBLE PRECISION), CAST(p.latitude AS DOUBLE PRECISION)),
-                            ST_MakePoint(:userLon, :userLat)
-                        ) ASC
+                        ORDER BY GREATEST(
+                            similarity(m.name, CAST(:query AS text)),
+                            similarity(COALESCE(m.generic_name, ''), CAST(:query AS text)),
+                            word_similarity(CAST(:query AS text), COALESCE(m.symptoms, ''))
+                        ) DESC, pm.price ASC
+                        LIMIT :limit
+                        """, nativeQuery = true)
+        List<PharmacyMedication> searchGlobalByRelevance(
+                        @Param("query") String query,
+                        @Param("therapeuticClass") String therapeuticClass,
+                        @Param("limit") int limit);
+
+        // Recherche avec tri PostGIS natif (KNN <-> sur la colonne geography indexée),
+        // bornée par ST_DWithin (index GiST) et LIMIT
+        @Query(value = """
+                        SELECT pm.* FROM pharmacy_medications pm
+                        JOIN medications m ON pm.medication_id = m.id
+                        JOIN pharmacies p ON pm.pharmacy_id = p.id
+                        WHERE pm.is_available = true
+                        AND pm.stock_quantity - pm.reserved_quantity > 0
+                        AND p.status = 'APPROVED'
+                        AND (
+                            m.name ILIKE '%' || CAST(:query AS text) || '%'
+                            OR m.generic_name ILIKE '%' || CAST(:query AS text) || '%'
+                            OR m.symptoms ILIKE '%' || CAST(:query AS text) || '%'
+                        )
+                        AND (CAST(:therapeuticClass AS text) IS NULL OR m.therapeutic_class = CAST(:therapeuticClass AS text))
+                        AND ST_DWithin(
+                            p.location,
+                            CAST(ST_SetSRID(ST_MakePoint(:userLon, :userLat), 4326) AS geography),
+                            :radiusKm * 1000
+                        )
+                        ORDER BY p.location <-> CAST(ST_SetSRID(ST_MakePoint(:userLon, :userLat), 4326) AS geography) ASC
+                        LIMIT :limit
                         """, nativeQuery = true)
         List<PharmacyMedication> searchGlobalPostGIS(
                         @Param("query") String query,
                         @Param("therapeuticClass") String therapeuticClass,
                         @Param("userLat") Double userLat,
-                        @Param("userLon") Double userLon);
+                        @Param("userLon") Double userLon,
+                        @Param("radiusKm") double radiusKm,
+                        @Param("limit") int limit);
+
+        // Recherche paginée par clé (keyset) : tri par prix croissant
+        @Query(value = SEARCH_ROW_COLUMNS + ", CAST(NULL AS DOUBLE PRECISION) AS \"distanceKm\" "
+                        + SEARCH_ROW_FILTERS + """
+                        AND (CAST(:cursorId AS text) IS NULL
+                            OR pm.price > CAST(CAST(:cursorValue AS text) AS NUMERIC)
+                            OR (pm.price = CAST(CAST(:cursorValue AS text) AS NUMERIC)
+                                AND pm.id > CAST(CAST(:cursorId AS text) AS UUID)))
+                        ORDER BY pm.price ASC, pm.id ASC
+                        LIMIT :limit
+                        """, nativeQuery = true)
+        List<MedicationSearchRow> searchPageByPrice(
+                        @Param("query") String query,
+                        @Param("therapeuticClass") String therapeuticClass,
+                        @Param("cursorValue") String cursorValue,
+                        @Param("cursorId") String cursorId,
+                        @Param("limit") int limit);
+
+        // Recherche paginée par clé (keyset) : tri par note décroissante
+        @Query(value = SEARCH_ROW_COLUMNS + ", CAST(NULL AS DOUBLE PRECISION) AS \"distanceKm\" "
+                        + SEARCH_ROW_FILTERS + """
+                        AND (CAST(:cursorId AS text) IS NULL
+                            OR COALESCE(p.average_rating, 0) < CAST(CAST(:cursorValue AS text) AS DOUBLE PRECISION)
+                            OR (COALESCE(p.average_rating, 0) = CAST(CAST(:cursorValue AS text) AS DOUBLE PRECISION)
+                                AND pm.id > CAST(CAST(:cursorId AS text) AS UUID)))
+                        ORDER BY COALESCE(p.average_rating, 0) DESC, pm.id ASC
+                        LIMIT :limit
+                        """, nativeQuery = true)
+        List<MedicationSearchRow> searchPageByRating(
+                        @Param("query") String query,
+                        @Param("therapeuticClass") String therapeuticClass,
+                        @Param("cursorValue") String cursorValue,
+                        @Param("cursorId") String cursorId,
+                        @Param("limit") int limit);
+
+        // Recherche paginée par clé (keyset) : tri par distance croissante (PostGIS)
+        @Query(value = "SELECT * FROM (" + SEARCH_ROW_COLUMNS + """
+                        , ST_Distance(
+                            p.location,
+                            CAST(ST_SetSRID(ST_MakePoint(:userLon, :userLat), 4326) AS geography),
+                            false
+                        ) / 1000.0 AS "distanceKm"
+                        """ + SEARCH_ROW_FILTERS + """
+                        ) r
+                        WHERE (CAST(:cursorId AS text) IS NULL
+                            OR r."distanceKm" > CAST(CAST(:cursorValue AS text) AS DOUBLE PRECISION)
+                            OR (r."distanceKm" = CAST(CAST(:cursorValue AS text) AS DOUBLE PRECISION)
+                                AND r."offerId" > CAST(CAST(:cursorId AS text) AS UUID)))
+                        ORDER BY r."distanceKm" ASC, r."offerId" ASC
+                        LIMIT :limit
+                        """, nativeQuery = true)
+        List<MedicationSearchRow> searchPageByDistance(
+                        @Param("query") String query,
+                        @Param("therapeuticClass") String therapeuticClass,
+                        @Param("userLat") Double userLat,
+                        @Param("userLon") Double userLon,
+                        @Param("cursorValue") String cursorValue,
+                        @Param("cursorId") String cursorId,
+                        @Param("limit") int limit);
 }
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.app.easypharma_backend.domain.medication.repository;
+
+import com.app.easypharma_backend.domain.order.entity.StockReservation;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Écritures de stock conditionnelles, en un aller-retour pour toute une
+ * commande : chaque ligne est décrémentée (ou réservée) par un UPDATE gardé
+ * par "stock_quantity - reserved_quantity >= quantité", sans lecture
+ * préalable verrouillée.
+ */
+@Repository
+public class PharmacyMedicationStockRepository {
+
+    private static final String DECREMENT_SQL = """
+            UPDATE pharmacy_medications
+            SET stock_quantity = stock_quantity - ?, is_available = (stock_quantity - ? > 0), updated_at = ?
+            WHERE pharmacy_id = ? AND medication_id = ? AND stock_quantity - reserved_quantity >= ?
+            """;
+
+    private static final String RESERVE_SQL = """
+            UPDATE pharmacy_medications
+            SET reserved_quantity = reserved_quantity + ?
+            WHERE pharmacy_id = ? AND medication_id = ? AND stock_quantity - reserved_quantity >= ?
+            """;
+
+    private static final String UNRESERVE_SQL = """
+            UPDATE pharmacy_medications
+            SET reserved_quantity = GREATEST(reserved_quantity - ?, 0)
+            WHERE pharmacy_id = ? AND medication_id = ?
+            """;
+
+    private static final String INSERT_RESERVATION_SQL = """
+            INSERT INTO stock_reservations (id, order_id, pharmacy_id, medication_id, quantity, expires_at, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String DELETE_RESERVATION_SQL = "DELETE FROM stock_reservations WHERE id = ?";
+
+    private static final String INCREMENT_SQL = """
+            UPDATE pharmacy_medications
+            SET stock_quantity = stock_quantity + ?, is_available = true, updated_at = ?
+            WHERE pharmacy_id = ? AND medication_id = ?
+            """;
+
+    private static final String STOCK_LEVELS_SQL = """
+            SELECT id, medication_id, stock_quantity, reserved_quantity, is_available
+            FROM pharmacy_medications
+            WHERE pharmacy_id = :pharmacyId AND medication_id IN (:medicationIds)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public PharmacyMedicationStockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Décrémente le stock de chaque médicament, dans l'ordre des clés (toutes
+     * les transactions verrouillent les lignes dans le même ordre : pas
+     * d'interblocage). Retourne les médicaments dont le stock était
+     * insuffisant ou l'offre absente ; l'appelant doit alors annuler la
+     * transaction.
+     */
+    public List<UUID> decrement(UUID pharmacyId, SortedMap<UUID, Integer> quantities) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(quantities.size());
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            int quantity = entry.getValue();
+            rows.add(new Object[] { quantity, quantity, now, pharmacyId, entry.getKey(), quantity });
+        }
+        return rejected(quantities, jdbcTemplate.batchUpdate(DECREMENT_SQL, rows));
+    }
+
+    /**
+     * Retient les quantités pour une commande jusqu'à expiresAt, dans l'ordre
+     * des clés. Retourne les médicaments dont la quantité disponible (stock
+     * moins réservations) était insuffisante ; aucune réservation n'est alors
+     * enregistrée et l'appelant doit annuler la transaction.
+     */
+    public List<UUID> reserve(UUID orderId, UUID pharmacyId, SortedMap<UUID, Integer> quantities,
+            LocalDateTime expiresAt) {
+        List<Object[]> rows = new ArrayList<>(quantities.size());
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            rows.add(new Object[] { entry.getValue(), pharmacyId, entry.getKey(), entry.getValue() });
+        }
+        List<UUID> rejected = rejected(quantities, jdbcTemplate.batchUpdate(RESERVE_SQL, rows));
+        if (!rejected.isEmpty()) {
+            return rejected;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp expiry = Timestamp.valueOf(expiresAt);
+        List<Object[]> reservations = new ArrayList<>(quantities.size());
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            reservations.add(new Object[] { UUID.randomUUID(), orderId, pharmacyId, entry.getKey(), entry.getValue(),
+                    expiry, now });
+        }
+        jdbcTemplate.batchUpdate(INSERT_RESERVATION_SQL, reservations);
+        return rejected;
+    }
+
+    /**
+     * Libère des réservations : seules celles effectivement supprimées ici
+     * (pas déjà libérées par une transaction concurrente, confirmation ou
+     * balayage) sont déduites de reserved_quantity. Retourne leur nombre.
+     */
+    public int release(List<StockReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> ids = new ArrayList<>(reservations.size());
+        for (StockReservation reservation : reservations) {
+            ids.add(new Object[] { reservation.getId() });
+        }
+        int[] deleted = jdbcTemplate.batchUpdate(DELETE_RESERVATION_SQL, ids);
+
+        // pharmacie -> médicament -> quantité, triés pour un ordre de verrouillage stable
+        SortedMap<UUID, SortedMap<UUID, Integer>> released = new TreeMap<>();
+        int count = 0;
+        for (int i = 0; i < deleted.length; i++) {
+            if (deleted[i] > 0) {
+                StockReservation reservation = reservations.get(i);
+                released.computeIfAbsent(reservation.getPharmacyId(), id -> new TreeMap<>())
+                        .merge(reservation.getMedicationId(), reservation.getQuantity(), Integer::sum);
+                count++;
+            }
+        }
+        List<Object[]> rows = new ArrayList<>();
+        released.forEach((pharmacyId, quantities) -> quantities.forEach(
+                (medicationId, quantity) -> rows.add(new Object[] { quantity, pharmacyId, medicationId })));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UNRESERVE_SQL, rows);
+        }
+        return count;
+    }
+
+    /**
+     * Remet en stock les quantités (annulation). Une offre supprimée entre
+     * temps est ignorée.
+     */
+    public void increment(UUID pharmacyId, SortedMap<UUID, Integer> quantities) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(quantities.size());
+        for (Map.Entry<UUID, Integer> entry : quantities.entrySet()) {
+            rows.add(new Object[] { entry.getValue(), now, pharmacyId, entry.getKey() });
+        }
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, rows);
+    }
+
+    /**
+     * Remet en stock les quantités de plusieurs pharmacies en un seul lot
+     * (pharmacie puis médicament triés : ordre de verrouillage stable)
+     */
+    public void incrementAll(SortedMap<UUID, SortedMap<UUID, Integer>> quantitiesByPharmacy) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        quantitiesByPharmacy.forEach((pharmacyId, quantities) -> quantities.forEach(
+                (medicationId, quantity) -> rows.add(new Object[] { quantity, now, pharmacyId, medicationId })));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INCREMENT_SQL, rows);
+        }
+    }
+
+    /**
+     * Stocks après écriture, en une requête
+     */
+    public List<StockLevel> findStockLevels(UUID pharmacyId, Collection<UUID> medicationIds) {
+        if (medicationIds.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("pharmacyId", pharmacyId)
+                .addValue("medicationIds", medicationIds);
+        return namedJdbcTemplate.query(STOCK_LEVELS_SQL, params, (rs, rowNum) -> new StockLevel(
+                rs.getObject("id", UUID.class),
+                rs.getObject("medication_id", UUID.class),
+                rs.getInt("stock_quantity"),
+                rs.getInt("reserved_quantity"),
+                rs.getBoolean("is_available")));
+    }
+
+    // Un UPDATE gardé qui ne touche aucune ligne : quantité insuffisante ou offre absente
+    private static List<UUID> rejected(SortedMap<UUID, Integer> quantities, int[] counts) {
+        List<UUID> rejected = new ArrayList<>();
+        int i = 0;
+        for (UUID medicationId : quantities.keySet()) {
+            if (counts[i++] == 0) {
+                rejected.add(medicationId);
+            }
+        }
+        return rejected;
+    }
+
+    @Value
+    public static class StockLevel {
+        UUID offerId;
+        UUID medicationId;
+        int stockQuantity;
+        int reservedQuantity;
+        boolean available;
+    }
+}
@@ -0,0 +1,134 @@
+package com.app.easypharma_backend.domain.medication.service.implementation;
+
+import com.app.easypharma_backend.domain.medication.dto.MedicationPricePoint;
+import com.app.easypharma_backend.domain.medication.dto.MedicationPriceStatsDTO;
+import com.app.easypharma_backend.domain.medication.entity.MedicationPriceStats;
+import com.app.easypharma_backend.domain.medication.repository.MedicationPriceStatsRepository;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.domain.medication.service.interfaces.MedicationPriceStatsService;
+import com.app.easypharma_backend.infrastructure.persistence.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Statistiques de prix matérialisées (min, max, médiane, nombre d'offres)
+ * par médicament et par ville. Une écriture d'offre marque le médicament
+ * après son commit ; une tâche planifiée recalcule les médicaments marqués
+ * à partir de leurs seules offres, chacun dans sa propre transaction, hors
+ * du chemin des commandes. La comparaison de prix lit quelques lignes au
+ * lieu de parcourir toutes les offres.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MedicationPriceStatsServiceImplementation implements MedicationPriceStatsService {
+
+    private final MedicationPriceStatsRepository medicationPriceStatsRepository;
+    private final PharmacyMedicationRepository pharmacyMedicationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Médicaments dont une offre a changé depuis le dernier passage
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void markDirty(UUID medicationId) {
+        AfterCommit.run(() -> pending.add(medicationId));
+    }
+
+    /**
+     * Recalcule les médicaments marqués. Un médicament en échec est remis
+     * dans la file pour le passage suivant. Retourne le nombre recalculé.
+     */
+    @Scheduled(fixedDelayString = "${app.search.price-stats.refresh-ms:5000}")
+    public int refreshPending() {
+        List<UUID> batch = new ArrayList<>(pending);
+        pending.removeAll(batch);
+        int refreshed = 0;
+        for (UUID medicationId : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> recompute(medicationId));
+                refreshed++;
+            } catch (RuntimeException e) {
+                log.warn("Price stats refresh failed for medication {}: {}", medicationId, e.getMessage());
+                pending.add(medicationId);
+            }
+        }
+        return refreshed;
+    }
+
+    @Override
+    public List<MedicationPriceStatsDTO> getStats(UUID medicationId, String city) {
+        List<MedicationPriceStats> stats = city == null || city.isBlank()
+                ? medicationPriceStatsRepository.findByMedicationIdOrderByCityAsc(medicationId)
+                : medicationPriceStatsRepository.findByMedicationIdAndCityIgnoreCase(medicationId, city.trim());
+        return stats.stream().map(this::toDTO).toList();
+    }
+
+    // Réécrit les lignes du médicament à partir de ses offres disponibles
+    void recompute(UUID medicationId) {
+        Map<String, List<BigDecimal>> pricesByCity = new TreeMap<>();
+        List<BigDecimal> allPrices = new ArrayList<>();
+        for (MedicationPricePoint point : pharmacyMedicationRepository.findAvailablePricePoints(medicationId)) {
+            pricesByCity.computeIfAbsent(point.getCity().trim(), c -> new ArrayList<>()).add(point.getPrice());
+            allPrices.add(point.getPrice());
+        }
+
+        if (allPrices.isEmpty()) {
+            medicationPriceStatsRepository.deleteByMedicationId(medicationId);
+            return;
+        }
+        List<MedicationPriceStats> rows = new ArrayList<>(pricesByCity.size() + 1);
+        rows.add(summarize(medicationId, MedicationPriceStats.ALL_CITIES, allPrices));
+        pricesByCity.forEach((city, prices) -> rows.add(summarize(medicationId, city, prices)));
+        for (MedicationPriceStats row : rows) {
+            medicationPriceStatsRepository.upsert(UUID.randomUUID(), medicationId, row.getCity(), row.getMinPrice(),
+                    row.getMaxPrice(), row.getMedianPrice(), row.getOfferCount());
+        }
+        medicationPriceStatsRepository.deleteByMedicationIdAndCityNotIn(medicationId,
+                rows.stream().map(MedicationPriceStats::getCity).toList());
+        log.debug("Price stats refreshed for medication {}: {} offers in {} cities", medicationId, allPrices.size(),
+                pricesByCity.size());
+    }
+
+    static MedicationPriceStats summarize(UUID medicationId, String city, List<BigDecimal> prices) {
+        List<BigDecimal> sorted = new ArrayList<>(prices);
+        sorted.sort(null);
+        int count = sorted.size();
+        BigDecimal median = count % 2 == 1
+                ? sorted.get(count / 2)
+                : sorted.get(count / 2 - 1).add(sorted.get(count / 2)).divide(BigDecimal.valueOf(2));
+        return MedicationPriceStats.builder()
+                .medicationId(medicationId)
+                .city(city)
+                .minPrice(sorted.get(0))
+                .maxPrice(sorted.get(count - 1))
+                .medianPrice(median.setScale(2, RoundingMode.HALF_UP))
+                .offerCount(count)
+                .build();
+    }
+
+    private MedicationPriceStatsDTO toDTO(MedicationPriceStats stats) {
+        return MedicationPriceStatsDTO.builder()
+                .medicationId(stats.getMedicationId())
+                .city(stats.getCity())
+                .minPrice(stats.getMinPrice())
+                .maxPrice(stats.getMaxPrice())
+                .medianPrice(stats.getMedianPrice())
+                .offerCount(stats.getOfferCount())
+                .updatedAt(stats.getUpdatedAt())
+                .build();
+    }
+}
@@ -10,6 +10,7 @@ import com.app.easypharma_backend.domain.medication.service.interfaces.PharmacyM
 import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
 import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
 import com.app.easypharma_backend.domain.audit.service.AuditLogService;
+import com.app.easypharma_backend.domain.search.service.MedicationSearchIndex;
 import com.app.easypharma_backend.infrastructure.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -33,6 +34,7 @@ public class PharmacyMedicationServiceImplementation implements PharmacyMedicati
     private final MedicationRepository medicationRepository;
     private final PharmacyMedicationMapper pharmacyMedicationMapper;
     private final AuditLogService auditLogService;
+    private final MedicationSearchIndex medicationSearchIndex;
 
     @Override
     public PharmacyMedicationDTO addMedicationToPharmacy(@NonNull UUID pharmacyId, @NonNull UUID medicationId,
@@ -64,6 +66,7 @@ public class PharmacyMedicationServiceImplementation implements PharmacyMedicati
                 .build();
 
         PharmacyMedication savedPharmacyMedication = pharmacyMedicationRepository.save(pharmacyMedication);
+        medicationSearchIndex.upsert(savedPharmacyMedication);
 
         // Log to Audit
         auditLogService.logAction(
@@ -86,6 +89,7 @@ public class PharmacyMedicationServiceImplementation implements PharmacyMedicati
         PharmacyMedication item = getLastPharmacyMedication(pharmacyId, medicationId);
 
         PharmacyMedication saved = pharmacyMedicationRepository.save(item);
+        medicationSearchIndex.upsert(saved);
 
         // Log to Audit
         auditLogService.logAction(
@@ -108,6 +112,7 @@ public class PharmacyMedicationServiceImplementation implements PharmacyMedicati
         PharmacyMedication item = getLastPharmacyMedication(pharmacyId, medicationId);
         item.setPrice(price);
         PharmacyMedication saved = pharmacyMedicationRepository.save(item);
+        medicationSearchIndex.upsert(saved);
 
         // Log to Audit
         auditLogService.logAction(
@@ -130,7 +135,9 @@ public class PharmacyMedicationServiceImplementation implements PharmacyMedicati
 
         PharmacyMedication item = getLastPharmacyMedication(pharmacyId, medicationId);
         item.setExpiryDate(expiryDate);
-        return pharmacyMedicationMapper.toDTO(pharmacyMedicationRepository.save(item));
+        PharmacyMedication saved = pharmacyMedicationRepository.save(item);
+        medicationSearchIndex.upsert(saved);
+        return pharmacyMedicationMapper.toDTO(saved);
     }
 
     @Override
@@ -152,6 +159,7 @@ public class PharmacyMedicationServiceImplementation implements PharmacyMedicati
     public void removeMedicationFromPharmacy(@NonNull UUID pharmacyId, @NonNull UUID medicationId) {
         PharmacyMedication item = getLastPharmacyMedication(pharmacyId, medicationId);
         pharmacyMedicationRepository.delete(item);
+        medicationSearchIndex.remove(item.getId());
     }
 
     @Override
@@ -189,7 +197,7 @@ public class PharmacyMedicationServiceImplementation implements PharmacyMedicati
                         pm.setPrice(price);
                         if (expiryDate != null)
                             pm.setExpiryDate(expiryDate);
-                        pharmacyMedicationRepository.save(pm);
+                        medicationSearchIndex.upsert(pharmacyMedicationRepository.save(pm));
                     } else {
                         PharmacyMedication pm = PharmacyMedication.builder()
                                 .pharmacy(pharmacy)
@@ -199,7 +207,7 @@ public class PharmacyMedicationServiceImplementation implements PharmacyMedicati
                                 .expiryDate(expiryDate)
                                 .isAvailable(stock > 0)
                                 .build();
-                        pharmacyMedicationRepository.save(pm);
+                        medicationSearchIndex.upsert(pharmacyMedicationRepository.save(pm));
                     }
                     count++;
                 }
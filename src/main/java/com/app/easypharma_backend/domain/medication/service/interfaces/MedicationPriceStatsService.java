@@ -0,0 +1,23 @@
+package com.app.easypharma_backend.domain.medication.service.interfaces;
+
+import com.app.easypharma_backend.domain.medication.dto.MedicationPriceStatsDTO;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface MedicationPriceStatsService {
+
+    /**
+     * Signale qu'une offre du médicament a changé (prix, disponibilité,
+     * pharmacie). Les statistiques sont recalculées en tâche de fond après le
+     * commit de la transaction en cours, une fois pour toutes les écritures
+     * reçues entre deux passages ; un échec n'affecte jamais l'appelant.
+     */
+    void markDirty(UUID medicationId);
+
+    /**
+     * Statistiques de prix du médicament : toutes les villes, ou seulement
+     * la ville demandée
+     */
+    List<MedicationPriceStatsDTO> getStats(UUID medicationId, String city);
+}
@@ -0,0 +1,32 @@
+package com.app.easypharma_backend.domain.notification.dto;
+
+import com.app.easypharma_backend.domain.notification.entity.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Notification différée, transportée par l'outbox (NotificationOutboxService)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationMessage {
+
+    public enum Channel {
+        IN_APP,
+        EMAIL,
+        SMS
+    }
+
+    private Channel channel;
+    private UUID userId; // IN_APP
+    private String recipient; // EMAIL : adresse, SMS : numéro
+    private String title;
+    private String message;
+    private NotificationType type;
+}
@@ -0,0 +1,59 @@
+package com.app.easypharma_backend.domain.notification.service.implementation;
+
+import com.app.easypharma_backend.domain.auth.entity.User;
+import com.app.easypharma_backend.domain.auth.repository.UserRepository;
+import com.app.easypharma_backend.domain.notification.dto.NotificationMessage;
+import com.app.easypharma_backend.domain.notification.service.interfaces.NotificationService;
+import com.app.easypharma_backend.infrastructure.messaging.outbox.OutboxEventHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Envoie les notifications déposées dans l'outbox par
+ * NotificationOutboxService
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxHandler implements OutboxEventHandler {
+
+    static final String EVENT_TYPE = "notification";
+
+    private final NotificationService notificationService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String eventType() {
+        return EVENT_TYPE;
+    }
+
+    @Override
+    public void handle(String payload) {
+        NotificationMessage notification;
+        try {
+            notification = objectMapper.readValue(payload, NotificationMessage.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid notification payload", e);
+        }
+        switch (notification.getChannel()) {
+            case IN_APP -> {
+                User user = userRepository.findById(notification.getUserId()).orElse(null);
+                if (user == null) {
+                    // Compte supprimé entre temps : rien à notifier
+                    log.warn("Skipping in-app notification for unknown user {}", notification.getUserId());
+                    return;
+                }
+                notificationService.sendInAppNotification(user, notification.getTitle(), notification.getMessage(),
+                        notification.getType());
+            }
+            // Un échec SMTP remonte au relais, qui retente l'envoi
+            case EMAIL -> notificationService.deliverEmail(notification.getRecipient(), notification.getTitle(),
+                    notification.getMessage());
+            case SMS -> notificationService.sendSms(notification.getRecipient(), notification.getMessage());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.app.easypharma_backend.domain.notification.service.implementation;
+
+import com.app.easypharma_backend.domain.auth.entity.User;
+import com.app.easypharma_backend.domain.notification.dto.NotificationMessage;
+import com.app.easypharma_backend.domain.notification.entity.NotificationType;
+import com.app.easypharma_backend.domain.notification.service.interfaces.NotificationOutboxService;
+import com.app.easypharma_backend.infrastructure.messaging.outbox.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class NotificationOutboxServiceImplementation implements NotificationOutboxService {
+
+    private final OutboxService outboxService;
+
+    @Override
+    public void sendInAppNotification(UUID aggregateId, User user, String title, String message,
+            NotificationType type) {
+        publish(aggregateId, NotificationMessage.builder()
+                .channel(NotificationMessage.Channel.IN_APP)
+                .userId(user.getId())
+                .title(title)
+                .message(message)
+                .type(type)
+                .build());
+    }
+
+    @Override
+    public void sendSms(UUID aggregateId, String phone, String message) {
+        publish(aggregateId, NotificationMessage.builder()
+                .channel(NotificationMessage.Channel.SMS)
+                .recipient(phone)
+                .message(message)
+                .build());
+    }
+
+    @Override
+    public void sendEmail(UUID aggregateId, String email, String subject, String body) {
+        publish(aggregateId, NotificationMessage.builder()
+                .channel(NotificationMessage.Channel.EMAIL)
+                .recipient(email)
+                .title(subject)
+                .message(body)
+                .build());
+    }
+
+    private void publish(UUID aggregateId, NotificationMessage notification) {
+        outboxService.publish(NotificationOutboxHandler.EVENT_TYPE, aggregateId, notification);
+    }
+}
@@ -7,6 +7,7 @@ import com.app.easypharma_backend.domain.notification.repository.NotificationRep
 import com.app.easypharma_backend.domain.notification.service.interfaces.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailPreparationException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
@@ -59,8 +60,17 @@ public class NotificationServiceImplementation implements NotificationService {
     @Override
     public void sendEmail(String email, String subject, String body) {
         try {
-            // Supporter le HTML si le body contient du HTML, sinon envoyer en plain text
-            if (body != null && (body.contains("<html") || body.contains("<a ") || body.contains("<br"))) {
+            deliverEmail(email, subject, body);
+        } catch (Exception e) {
+            log.error("Failed to send email to {}: {}", email, e.getMessage());
+        }
+    }
+
+    @Override
+    public void deliverEmail(String email, String subject, String body) {
+        // Supporter le HTML si le body contient du HTML, sinon envoyer en plain text
+        if (body != null && (body.contains("<html") || body.contains("<a ") || body.contains("<br"))) {
+            try {
                 MimeMessage mimeMessage = mailSender.createMimeMessage();
                 MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
                 helper.setTo(email);
@@ -68,20 +78,18 @@ public class NotificationServiceImplementation implements NotificationService {
                 helper.setFrom("no-reply@easypharma.com");
                 helper.setText(body, true); // true = isHtml
                 mailSender.send(mimeMessage);
-            } else {
-                SimpleMailMessage message = new SimpleMailMessage();
-                message.setTo(email);
-                message.setSubject(subject);
-                message.setText(body);
-                message.setFrom("no-reply@easypharma.com");
-                mailSender.send(message);
+            } catch (MessagingException me) {
+                throw new MailPreparationException("Failed to build MIME email to " + email, me);
             }
-
-            log.info("Email sent successfully to: {}", email);
-        } catch (MessagingException me) {
-            log.error("Failed to build/send MIME email to {}: {}", email, me.getMessage());
-        } catch (Exception e) {
-            log.error("Failed to send email to {}: {}", email, e.getMessage());
+        } else {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(email);
+            message.setSubject(subject);
+            message.setText(body);
+            message.setFrom("no-reply@easypharma.com");
+            mailSender.send(message);
         }
+
+        log.info("Email sent successfully to: {}", email);
     }
 }
@@ -0,0 +1,20 @@
+package com.app.easypharma_backend.domain.notification.service.interfaces;
+
+import com.app.easypharma_backend.domain.auth.entity.User;
+import com.app.easypharma_backend.domain.notification.entity.NotificationType;
+
+import java.util.UUID;
+
+/**
+ * Mêmes envois que NotificationService, mais différés : la notification est
+ * enregistrée dans l'outbox de la transaction en cours et envoyée après son
+ * commit, hors du chemin de la requête. aggregateId identifie la commande
+ * ou le paiement à l'origine de l'envoi.
+ */
+public interface NotificationOutboxService {
+    void sendInAppNotification(UUID aggregateId, User user, String title, String message, NotificationType type);
+
+    void sendSms(UUID aggregateId, String phone, String message);
+
+    void sendEmail(UUID aggregateId, String email, String subject, String body);
+}
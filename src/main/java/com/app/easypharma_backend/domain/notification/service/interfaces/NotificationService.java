@@ -13,4 +13,10 @@ public interface NotificationService {
     void sendPushNotification(User user, String title, String message);
 
     void sendEmail(String email, String subject, String body);
+
+    /**
+     * Comme sendEmail, mais un échec d'envoi est remonté (MailException) :
+     * utilisé par l'outbox, qui retente plus tard
+     */
+    void deliverEmail(String email, String subject, String body);
 }
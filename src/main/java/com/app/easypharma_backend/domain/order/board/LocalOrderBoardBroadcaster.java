@@ -0,0 +1,21 @@
+package com.app.easypharma_backend.domain.order.board;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Instance unique (développement, tests) : les abonnés sont tous locaux
+ */
+@Component
+@ConditionalOnProperty(name = "app.orders.board.transport", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalOrderBoardBroadcaster implements OrderBoardBroadcaster {
+
+    private final OrderBoardEmitters emitters;
+
+    @Override
+    public void broadcast(OrderBoardEvent event) {
+        emitters.deliver(event);
+    }
+}
@@ -0,0 +1,10 @@
+package com.app.easypharma_backend.domain.order.board;
+
+/**
+ * Diffuse les deltas du tableau des commandes aux abonnés SSE de toutes les
+ * instances (mémoire ou Redis pub/sub, selon app.orders.board.transport)
+ */
+public interface OrderBoardBroadcaster {
+
+    void broadcast(OrderBoardEvent event);
+}
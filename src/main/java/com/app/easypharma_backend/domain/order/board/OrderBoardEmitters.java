@@ -0,0 +1,92 @@
+package com.app.easypharma_backend.domain.order.board;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Connexions SSE ouvertes sur cette instance, par pharmacie. Une connexion
+ * dont l'envoi échoue (client parti) est retirée ; un commentaire périodique
+ * garde les connexions ouvertes à travers les proxys et détecte les clients
+ * disparus.
+ */
+@Component
+@Slf4j
+public class OrderBoardEmitters {
+
+    static final String EVENT_NAME = "order";
+
+    private final Map<UUID, Set<SseEmitter>> byPharmacy = new ConcurrentHashMap<>();
+    private final long timeoutMs;
+
+    public OrderBoardEmitters(@Value("${app.orders.board.sse-timeout-ms:1800000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public SseEmitter subscribe(UUID pharmacyId) {
+        return register(pharmacyId, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter register(UUID pharmacyId, SseEmitter emitter) {
+        byPharmacy.computeIfAbsent(pharmacyId, id -> ConcurrentHashMap.newKeySet()).add(emitter);
+        emitter.onCompletion(() -> remove(pharmacyId, emitter));
+        emitter.onTimeout(() -> remove(pharmacyId, emitter));
+        emitter.onError(e -> remove(pharmacyId, emitter));
+        return emitter;
+    }
+
+    /**
+     * Remet le delta aux connexions locales de sa pharmacie
+     */
+    public void deliver(OrderBoardEvent event) {
+        Set<SseEmitter> emitters = byPharmacy.get(event.getPharmacyId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(event.getPharmacyId(), emitter, SseEmitter.event()
+                    .id(String.valueOf(event.getEventId()))
+                    .name(EVENT_NAME)
+                    .data(event));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.board.heartbeat-ms:25000}")
+    public void heartbeat() {
+        byPharmacy.forEach((pharmacyId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                send(pharmacyId, emitter, SseEmitter.event().comment("ping"));
+            }
+        });
+    }
+
+    int connectionCount(UUID pharmacyId) {
+        Set<SseEmitter> emitters = byPharmacy.get(pharmacyId);
+        return emitters == null ? 0 : emitters.size();
+    }
+
+    private void send(UUID pharmacyId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Order board connection for pharmacy {} closed: {}", pharmacyId, e.getMessage());
+            remove(pharmacyId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void remove(UUID pharmacyId, SseEmitter emitter) {
+        byPharmacy.computeIfPresent(pharmacyId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
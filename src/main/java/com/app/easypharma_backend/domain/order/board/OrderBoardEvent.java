@@ -0,0 +1,31 @@
+package com.app.easypharma_backend.domain.order.board;
+
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Delta poussé au tableau des commandes d'une pharmacie : nouvelle commande
+ * (fromStatus null) ou changement de statut. Le client recharge le détail
+ * par GET /api/v1/orders/{id} s'il en a besoin.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBoardEvent {
+    private UUID eventId;
+    private UUID orderId;
+    private String orderNumber;
+    private UUID pharmacyId;
+    private OrderStatus fromStatus;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,34 @@
+package com.app.easypharma_backend.domain.order.board;
+
+import com.app.easypharma_backend.domain.order.entity.OrderStatusEvent;
+import com.app.easypharma_backend.domain.order.statemachine.OrderTransitionedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Transforme les transitions de commande en deltas du tableau, après commit :
+ * une transaction annulée n'apparaît jamais à l'écran.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderBoardPublisher {
+
+    private final OrderBoardBroadcaster broadcaster;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransition(OrderTransitionedEvent transition) {
+        OrderStatusEvent event = transition.getEvent();
+        broadcaster.broadcast(OrderBoardEvent.builder()
+                .eventId(event.getId())
+                .orderId(event.getOrderId())
+                .orderNumber(transition.getOrderNumber())
+                .pharmacyId(event.getPharmacyId())
+                .fromStatus(event.getFromStatus())
+                .status(event.getToStatus())
+                .totalAmount(transition.getTotalAmount())
+                .occurredAt(event.getOccurredAt())
+                .build());
+    }
+}
@@ -0,0 +1,74 @@
+package com.app.easypharma_backend.domain.order.board;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Plusieurs instances : chaque delta est publié sur un canal Redis auquel
+ * toutes les instances (y compris l'émettrice) sont abonnées, chacune le
+ * remettant à ses propres connexions SSE. Pub/sub sans persistance : un
+ * delta publié pendant une coupure Redis est perdu, le client se resynchronise
+ * en rechargeant la liste à la reconnexion.
+ */
+@Component
+@ConditionalOnProperty(name = "app.orders.board.transport", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisOrderBoardBroadcaster implements OrderBoardBroadcaster, MessageListener {
+
+    static final String CHANNEL = "easypharma:order-board";
+
+    private final StringRedisTemplate redisTemplate;
+    private final OrderBoardEmitters emitters;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void broadcast(OrderBoardEvent event) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize order board event", e);
+        } catch (RuntimeException e) {
+            // Temps réel au mieux : la transition est déjà validée
+            log.warn("Order board event {} not published: {}", event.getEventId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            emitters.deliver(objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8),
+                    OrderBoardEvent.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Invalid order board message ignored: {}", e.getMessage());
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "app.orders.board.transport", havingValue = "redis")
+    static class Subscription {
+
+        @Bean
+        RedisMessageListenerContainer orderBoardListenerContainer(RedisConnectionFactory connectionFactory,
+                RedisOrderBoardBroadcaster broadcaster) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(broadcaster, new ChannelTopic(CHANNEL));
+            return container;
+        }
+    }
+}
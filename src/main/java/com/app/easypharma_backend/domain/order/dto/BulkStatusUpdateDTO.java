@@ -0,0 +1,17 @@
+package com.app.easypharma_backend.domain.order.dto;
+
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateDTO {
+    private List<UUID> orderIds;
+    private OrderStatus status;
+}
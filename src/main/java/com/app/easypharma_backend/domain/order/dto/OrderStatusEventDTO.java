@@ -0,0 +1,23 @@
+package com.app.easypharma_backend.domain.order.dto;
+
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEventDTO {
+    private UUID id;
+    private OrderStatus fromStatus;
+    private OrderStatus toStatus;
+    private UUID actorId;
+    private String actorName;
+    private LocalDateTime occurredAt;
+}
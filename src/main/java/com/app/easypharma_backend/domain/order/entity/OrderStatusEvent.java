@@ -0,0 +1,55 @@
+package com.app.easypharma_backend.domain.order.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Changement de statut d'une commande, en ajout seul : l'historique complet
+ * d'une commande, et un flux dont les tableaux de bord peuvent se nourrir
+ * au fil de l'eau. fromStatus est null pour la création.
+ */
+@Entity
+@Immutable
+@Table(name = "order_status_events", indexes = {
+        @Index(name = "idx_order_status_events_order", columnList = "order_id, occurred_at"),
+        @Index(name = "idx_order_status_events_pharmacy", columnList = "pharmacy_id, occurred_at") })
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatusEvent {
+
+    @Id
+    @UuidGenerator
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "order_id", nullable = false, updatable = false)
+    private UUID orderId;
+
+    @Column(name = "pharmacy_id", nullable = false, updatable = false)
+    private UUID pharmacyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", length = 20, updatable = false)
+    private OrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false, length = 20, updatable = false)
+    private OrderStatus toStatus;
+
+    // Auteur du changement (null : système, tâche planifiée)
+    @Column(name = "actor_id", updatable = false)
+    private UUID actorId;
+
+    @Column(name = "actor_name", length = 255, updatable = false)
+    private String actorName;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,49 @@
+package com.app.easypharma_backend.domain.order.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Quantité retenue sur une offre entre la création d'une commande et sa
+ * confirmation. Le total des réservations actives d'une offre est tenu à
+ * jour dans pharmacy_medications.reserved_quantity ; la ligne est supprimée
+ * à la confirmation, à l'annulation ou à l'expiration.
+ */
+@Entity
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "idx_stock_reservations_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_stock_reservations_order_id", columnList = "order_id") })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+
+    @Id
+    @UuidGenerator
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "order_id", nullable = false)
+    private UUID orderId;
+
+    @Column(name = "pharmacy_id", nullable = false)
+    private UUID pharmacyId;
+
+    @Column(name = "medication_id", nullable = false)
+    private UUID medicationId;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -3,8 +3,10 @@ package com.app.easypharma_backend.domain.order.repository;
 import com.app.easypharma_backend.domain.order.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,6 +19,15 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
     // Recherche par médicament
     List<OrderItem> findByMedicationId(UUID medicationId);
 
+    // Quantités à remettre en stock pour un lot de commandes : [pharmacyId, medicationId, quantité]
+    @Query("""
+        SELECT oi.order.pharmacy.id, oi.medication.id, SUM(oi.quantity)
+        FROM OrderItem oi
+        WHERE oi.order.id IN :orderIds
+        GROUP BY oi.order.pharmacy.id, oi.medication.id
+        """)
+    List<Object[]> sumQuantitiesByPharmacyAndMedication(@Param("orderIds") Collection<UUID> orderIds);
+
     // Top médicaments vendus
     @Query("""
         SELECT oi.medication.id, oi.medication.name, SUM(oi.quantity) as totalQuantity
@@ -4,13 +4,18 @@ import com.app.easypharma_backend.domain.order.entity.Order;
 import com.app.easypharma_backend.domain.order.entity.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,26 +26,100 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
         // Recherche par numéro de commande
         Optional<Order> findByOrderNumber(String orderNumber);
 
-        // Recherche par patient (avec JOIN FETCH pour éviter
-        // LazyInitializationException)
-        @Query("SELECT DISTINCT o FROM Order o " +
-                        "LEFT JOIN FETCH o.patient " +
-                        "LEFT JOIN FETCH o.pharmacy " +
-                        "LEFT JOIN FETCH o.items " +
+        // Historique complet d'un patient : patient et pharmacie en jointure (to-one,
+        // sans produit cartésien), lignes chargées ensuite par fetchItems
+        @Query("SELECT o FROM Order o " +
+                        "JOIN FETCH o.patient " +
+                        "JOIN FETCH o.pharmacy " +
                         "WHERE o.patient.id = :patientId " +
-                        "ORDER BY o.createdAt DESC")
+                        "ORDER BY o.createdAt DESC, o.id DESC")
         List<Order> findByPatientIdOrderByCreatedAtDesc(@Param("patientId") UUID patientId);
 
-        // Recherche par pharmacie (avec JOIN FETCH pour éviter
-        // LazyInitializationException)
-        @Query("SELECT DISTINCT o FROM Order o " +
-                        "LEFT JOIN FETCH o.patient " +
-                        "LEFT JOIN FETCH o.pharmacy " +
-                        "LEFT JOIN FETCH o.items " +
+        // Historique complet d'une pharmacie (voir findByPatientIdOrderByCreatedAtDesc)
+        @Query("SELECT o FROM Order o " +
+                        "JOIN FETCH o.patient " +
+                        "JOIN FETCH o.pharmacy " +
                         "WHERE o.pharmacy.id = :pharmacyId " +
-                        "ORDER BY o.createdAt DESC")
+                        "ORDER BY o.createdAt DESC, o.id DESC")
         List<Order> findByPharmacyIdOrderByCreatedAtDesc(@Param("pharmacyId") UUID pharmacyId);
 
+        // Lot de commandes avec patient et pharmacie, en une requête (mises à jour groupées)
+        @Query("SELECT o FROM Order o " +
+                        "JOIN FETCH o.patient " +
+                        "JOIN FETCH o.pharmacy " +
+                        "WHERE o.id IN :ids " +
+                        "ORDER BY o.id")
+        List<Order> findAllWithPatientByIdIn(@Param("ids") Collection<UUID> ids);
+
+        // Verrou de ligne (FOR UPDATE) sur un lot de commandes, pris dans l'ordre des
+        // identifiants : le balayage des commandes expirées (SKIP LOCKED) les laisse de côté
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+        List<Order> lockAllByIdIn(@Param("ids") Collection<UUID> ids);
+
+        // Pagination par clé (created_at, id) de l'historique, index
+        // idx_orders_patient_created / idx_orders_pharmacy_created. Première page
+        // sans curseur, pages suivantes strictement après la dernière ligne lue.
+        @Query("SELECT o FROM Order o " +
+                        "JOIN FETCH o.patient " +
+                        "JOIN FETCH o.pharmacy " +
+                        "WHERE o.patient.id = :patientId AND o.status IN :statuses " +
+                        "ORDER BY o.createdAt DESC, o.id DESC")
+        List<Order> findPatientHistoryPage(@Param("patientId") UUID patientId,
+                        @Param("statuses") Collection<OrderStatus> statuses, Pageable pageable);
+
+        @Query("SELECT o FROM Order o " +
+                        "JOIN FETCH o.patient " +
+                        "JOIN FETCH o.pharmacy " +
+                        "WHERE o.patient.id = :patientId AND o.status IN :statuses " +
+                        "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+                        "ORDER BY o.createdAt DESC, o.id DESC")
+        List<Order> findPatientHistoryPageAfter(@Param("patientId") UUID patientId,
+                        @Param("statuses") Collection<OrderStatus> statuses,
+                        @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable pageable);
+
+        @Query("SELECT o FROM Order o " +
+                        "JOIN FETCH o.patient " +
+                        "JOIN FETCH o.pharmacy " +
+                        "WHERE o.pharmacy.id = :pharmacyId AND o.status IN :statuses " +
+                        "ORDER BY o.createdAt DESC, o.id DESC")
+        List<Order> findPharmacyHistoryPage(@Param("pharmacyId") UUID pharmacyId,
+                        @Param("statuses") Collection<OrderStatus> statuses, Pageable pageable);
+
+        @Query("SELECT o FROM Order o " +
+                        "JOIN FETCH o.patient " +
+                        "JOIN FETCH o.pharmacy " +
+                        "WHERE o.pharmacy.id = :pharmacyId AND o.status IN :statuses " +
+                        "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+                        "ORDER BY o.createdAt DESC, o.id DESC")
+        List<Order> findPharmacyHistoryPageAfter(@Param("pharmacyId") UUID pharmacyId,
+                        @Param("statuses") Collection<OrderStatus> statuses,
+                        @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable pageable);
+
+        // Lignes (et médicaments) d'un lot de commandes déjà chargées : initialise
+        // leurs collections items dans le contexte de persistance
+        @Query("SELECT DISTINCT o FROM Order o " +
+                        "LEFT JOIN FETCH o.items i " +
+                        "LEFT JOIN FETCH i.medication " +
+                        "WHERE o.id IN :orderIds")
+        List<Order> fetchItems(@Param("orderIds") Collection<UUID> orderIds);
+
+        // Commandes abandonnées (PENDING trop ancienne, CONFIRMED jamais préparée), en
+        // FOR UPDATE SKIP LOCKED (timeout -2) : plusieurs instances se partagent le
+        // balayage, une commande verrouillée par un changement de statut (lockAllByIdIn,
+        // updateOrderStatus) est laissée au lot suivant.
+        // Une commande payée n'est jamais abandonnée : elle reste à traiter (ou rembourser)
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+        @Query("SELECT o FROM Order o " +
+                        "WHERE ((o.status = com.app.easypharma_backend.domain.order.entity.OrderStatus.PENDING AND o.createdAt < :pendingBefore) " +
+                        "OR (o.status = com.app.easypharma_backend.domain.order.entity.OrderStatus.CONFIRMED AND o.confirmedAt < :confirmedBefore)) " +
+                        "AND NOT EXISTS (SELECT p FROM Payment p WHERE p.order = o " +
+                        "AND p.status = com.app.easypharma_backend.domain.payment.entity.PaymentStatus.SUCCESS) " +
+                        "ORDER BY o.createdAt")
+        List<Order> claimExpired(@Param("pendingBefore") LocalDateTime pendingBefore,
+                        @Param("confirmedBefore") LocalDateTime confirmedBefore, Pageable pageable);
+
         // Recherche par patient avec pagination
         Page<Order> findByPatientId(UUID patientId, Pageable pageable);
 
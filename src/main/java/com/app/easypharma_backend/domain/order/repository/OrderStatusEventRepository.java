@@ -0,0 +1,14 @@
+package com.app.easypharma_backend.domain.order.repository;
+
+import com.app.easypharma_backend.domain.order.entity.OrderStatusEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OrderStatusEventRepository extends JpaRepository<OrderStatusEvent, UUID> {
+
+    List<OrderStatusEvent> findByOrderIdOrderByOccurredAtAsc(UUID orderId);
+}
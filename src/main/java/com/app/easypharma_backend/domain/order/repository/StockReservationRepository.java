@@ -0,0 +1,25 @@
+package com.app.easypharma_backend.domain.order.repository;
+
+import com.app.easypharma_backend.domain.order.entity.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
+
+    List<StockReservation> findByOrderId(UUID orderId);
+
+    List<StockReservation> findByOrderIdIn(Collection<UUID> orderIds);
+
+    // Plus anciennes d'abord, via l'index sur expires_at
+    @Query("SELECT r FROM StockReservation r WHERE r.expiresAt <= :now ORDER BY r.expiresAt")
+    List<StockReservation> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,194 @@
+package com.app.easypharma_backend.domain.order.service.implementation;
+
+import com.app.easypharma_backend.domain.auth.entity.User;
+import com.app.easypharma_backend.domain.auth.repository.UserRepository;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationStockRepository;
+import com.app.easypharma_backend.domain.notification.entity.NotificationType;
+import com.app.easypharma_backend.domain.notification.service.interfaces.NotificationOutboxService;
+import com.app.easypharma_backend.domain.order.entity.Order;
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import com.app.easypharma_backend.domain.order.repository.OrderItemRepository;
+import com.app.easypharma_backend.domain.order.repository.OrderRepository;
+import com.app.easypharma_backend.domain.order.service.interfaces.OrderExpiryService;
+import com.app.easypharma_backend.domain.order.service.interfaces.StockReservationService;
+import com.app.easypharma_backend.domain.order.statemachine.OrderStateMachine;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
+import com.app.easypharma_backend.domain.search.service.MedicationSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Annulation automatique des commandes abandonnées : PENDING depuis
+ * app.orders.expiry.pending-minutes, ou CONFIRMED (stock déjà sorti) sans
+ * préparation ni paiement depuis app.orders.expiry.confirmed-hours.
+ *
+ * Par lots, une transaction chacun : les commandes sont prises en FOR UPDATE
+ * SKIP LOCKED, le balayage peut donc tourner sur plusieurs instances à la
+ * fois. Par lot, les réservations sont libérées et le stock remis en un seul
+ * batch JDBC chacun, et chaque patient / pharmacie reçoit une seule
+ * notification pour toutes ses commandes annulées.
+ */
+@Service
+@Slf4j
+public class OrderExpiryServiceImplementation implements OrderExpiryService {
+
+    static final int SWEEP_BATCH_SIZE = 200;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final StockReservationService stockReservationService;
+    private final PharmacyMedicationStockRepository pharmacyMedicationStockRepository;
+    private final UserRepository userRepository;
+    private final PharmacyRepository pharmacyRepository;
+    private final OrderStateMachine orderStateMachine;
+    private final NotificationOutboxService notificationOutboxService;
+    private final MedicationSearchIndex medicationSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration pendingTtl;
+    private final Duration confirmedTtl;
+
+    public OrderExpiryServiceImplementation(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+            StockReservationService stockReservationService,
+            PharmacyMedicationStockRepository pharmacyMedicationStockRepository, UserRepository userRepository,
+            PharmacyRepository pharmacyRepository, OrderStateMachine orderStateMachine,
+            NotificationOutboxService notificationOutboxService, MedicationSearchIndex medicationSearchIndex,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.orders.expiry.pending-minutes:120}") long pendingMinutes,
+            @Value("${app.orders.expiry.confirmed-hours:48}") long confirmedHours) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.stockReservationService = stockReservationService;
+        this.pharmacyMedicationStockRepository = pharmacyMedicationStockRepository;
+        this.userRepository = userRepository;
+        this.pharmacyRepository = pharmacyRepository;
+        this.orderStateMachine = orderStateMachine;
+        this.notificationOutboxService = notificationOutboxService;
+        this.medicationSearchIndex = medicationSearchIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.pendingTtl = Duration.ofMinutes(pendingMinutes);
+        this.confirmedTtl = Duration.ofHours(confirmedHours);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.orders.expiry.sweep-ms:300000}", initialDelayString = "${app.orders.expiry.sweep-ms:300000}")
+    public int cancelExpired() {
+        int total = 0;
+        int cancelled;
+        do {
+            // Un lot par transaction : les verrous sont relâchés entre deux lots
+            Integer batch = transactionTemplate.execute(status -> cancelBatch());
+            cancelled = batch != null ? batch : 0;
+            total += cancelled;
+        } while (cancelled == SWEEP_BATCH_SIZE);
+        if (total > 0) {
+            log.info("Cancelled {} expired orders", total);
+        }
+        return total;
+    }
+
+    private int cancelBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Order> orders = orderRepository.claimExpired(now.minus(pendingTtl), now.minus(confirmedTtl),
+                PageRequest.of(0, SWEEP_BATCH_SIZE));
+        if (orders.isEmpty()) {
+            return 0;
+        }
+
+        List<UUID> pendingIds = new ArrayList<>();
+        List<UUID> confirmedIds = new ArrayList<>();
+        for (Order order : orders) {
+            (order.getStatus() == OrderStatus.CONFIRMED ? confirmedIds : pendingIds).add(order.getId());
+        }
+
+        // PENDING : seule la réservation est rendue
+        if (!pendingIds.isEmpty()) {
+            stockReservationService.releaseAll(pendingIds);
+        }
+        // CONFIRMED : le stock avait été décrémenté, il est remis en un lot
+        if (!confirmedIds.isEmpty()) {
+            restock(confirmedIds);
+        }
+
+        for (Order order : orders) {
+            orderStateMachine.transition(order, OrderStatus.CANCELLED);
+        }
+        notifyCancellations(orders);
+        return orders.size();
+    }
+
+    private void restock(List<UUID> orderIds) {
+        SortedMap<UUID, SortedMap<UUID, Integer>> quantities = new TreeMap<>();
+        for (Object[] row : orderItemRepository.sumQuantitiesByPharmacyAndMedication(orderIds)) {
+            quantities.computeIfAbsent((UUID) row[0], id -> new TreeMap<>())
+                    .put((UUID) row[1], ((Number) row[2]).intValue());
+        }
+        pharmacyMedicationStockRepository.incrementAll(quantities);
+        quantities.forEach((pharmacyId, byMedication) -> pharmacyMedicationStockRepository
+                .findStockLevels(pharmacyId, byMedication.keySet())
+                .forEach(level -> medicationSearchIndex.updateStock(level.getOfferId(), level.getStockQuantity(),
+                        level.getReservedQuantity(), level.isAvailable())));
+    }
+
+    // Une notification par destinataire pour l'ensemble de ses commandes du lot
+    private void notifyCancellations(List<Order> orders) {
+        // Identifiants lus sur les proxys (sans chargement), destinataires chargés en deux requêtes
+        Map<UUID, List<Order>> byPatient = orders.stream()
+                .collect(Collectors.groupingBy(order -> order.getPatient().getId(), LinkedHashMap::new,
+                        Collectors.toList()));
+        Map<UUID, List<Order>> byPharmacy = orders.stream()
+                .collect(Collectors.groupingBy(order -> order.getPharmacy().getId(), LinkedHashMap::new,
+                        Collectors.toList()));
+        Map<UUID, User> patients = userRepository.findAllById(byPatient.keySet()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<UUID, Pharmacy> pharmacies = pharmacyRepository.findAllById(byPharmacy.keySet()).stream()
+                .collect(Collectors.toMap(Pharmacy::getId, Function.identity()));
+
+        byPatient.forEach((patientId, patientOrders) -> {
+            User patient = patients.get(patientId);
+            if (patient == null) {
+                return;
+            }
+            String title = "Commande annulée";
+            String message = patientOrders.size() == 1
+                    ? String.format("Faute de suite, votre commande %s a été annulée automatiquement.",
+                            orderNumbers(patientOrders))
+                    : String.format("Faute de suite, vos commandes %s ont été annulées automatiquement.",
+                            orderNumbers(patientOrders));
+            UUID aggregateId = patientOrders.get(0).getId();
+            notificationOutboxService.sendInAppNotification(aggregateId, patient, title, message,
+                    NotificationType.ORDER);
+            notificationOutboxService.sendSms(aggregateId, patient.getPhone(), message);
+        });
+        byPharmacy.forEach((pharmacyId, pharmacyOrders) -> {
+            Pharmacy pharmacy = pharmacies.get(pharmacyId);
+            if (pharmacy == null) {
+                return;
+            }
+            String message = String.format("%d commande(s) expirée(s) annulée(s), stock remis à jour : %s",
+                    pharmacyOrders.size(), orderNumbers(pharmacyOrders));
+            notificationOutboxService.sendInAppNotification(pharmacyOrders.get(0).getId(), pharmacy.getUser(),
+                    "Commandes expirées", message, NotificationType.ORDER);
+        });
+    }
+
+    private static String orderNumbers(List<Order> orders) {
+        return orders.stream().map(Order::getOrderNumber).collect(Collectors.joining(", "));
+    }
+}
@@ -1,36 +1,60 @@
 package com.app.easypharma_backend.domain.order.service.implementation;
 
+import com.app.easypharma_backend.application.common.dto.CursorPageResponse;
 import com.app.easypharma_backend.domain.auth.entity.User;
 import com.app.easypharma_backend.domain.auth.repository.UserRepository;
 import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
 import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationStockRepository;
 import com.app.easypharma_backend.domain.order.dto.CreateOrderDTO;
 import com.app.easypharma_backend.domain.order.dto.OrderDTO;
+import com.app.easypharma_backend.domain.order.dto.OrderStatusEventDTO;
 import com.app.easypharma_backend.domain.order.entity.Order;
 import com.app.easypharma_backend.domain.order.entity.OrderItem;
 import com.app.easypharma_backend.domain.order.entity.OrderStatus;
 import com.app.easypharma_backend.domain.notification.entity.NotificationType;
-import com.app.easypharma_backend.domain.notification.service.interfaces.NotificationService;
+import com.app.easypharma_backend.domain.notification.service.interfaces.NotificationOutboxService;
 import com.app.easypharma_backend.domain.order.mapper.OrderMapper;
+import com.app.easypharma_backend.domain.order.repository.OrderItemRepository;
 import com.app.easypharma_backend.domain.order.repository.OrderRepository;
 import com.app.easypharma_backend.domain.order.service.interfaces.OrderServiceInterface;
+import com.app.easypharma_backend.domain.order.service.interfaces.StockReservationService;
+import com.app.easypharma_backend.domain.order.statemachine.OrderStateMachine;
 import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
 import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
-import com.app.easypharma_backend.infrastructure.validation.StatusTransitionValidator;
-import com.app.easypharma_backend.domain.audit.service.AuditLogService;
-import com.app.easypharma_backend.infrastructure.security.SecurityUtils;
+import com.app.easypharma_backend.domain.search.service.MedicationSearchIndex;
+import com.app.easypharma_backend.infrastructure.exception.ValidationException;
+import com.app.easypharma_backend.infrastructure.id.ReferenceNumberGenerator;
+import com.app.easypharma_backend.infrastructure.util.CursorCodec;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.lang.NonNull;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -38,19 +62,30 @@ import java.util.UUID;
 @Slf4j
 public class OrderServiceImplementation implements OrderServiceInterface {
 
+    // Taille de lot JDBC par défaut (spring.jpa.properties.hibernate.jdbc.batch_size)
+    private static final int MIN_JDBC_BATCH_SIZE = 20;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    // Commandes par requête de chargement des lignes (taille de la clause IN)
+    private static final int ITEMS_FETCH_CHUNK = 500;
+    private static final int MAX_BULK_STATUS_UPDATE = 100;
+
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
 
     private final PharmacyRepository pharmacyRepository;
     private final UserRepository userRepository;
     private final PharmacyMedicationRepository pharmacyMedicationRepository;
+    private final PharmacyMedicationStockRepository pharmacyMedicationStockRepository;
 
     private final OrderMapper orderMapper;
-    private final NotificationService notificationService;
-    private final StatusTransitionValidator statusValidator;
-    private final AuditLogService auditLogService;
+    private final NotificationOutboxService notificationOutboxService;
+    private final OrderStateMachine orderStateMachine;
     private final com.app.easypharma_backend.domain.delivery.service.interfaces.DeliveryFeeService deliveryFeeService;
-    private final com.app.easypharma_backend.domain.delivery.service.interfaces.DeliveryServiceInterface deliveryService;
     private final com.app.easypharma_backend.domain.order.service.interfaces.PdfServiceInterface pdfService;
+    private final MedicationSearchIndex medicationSearchIndex;
+    private final StockReservationService stockReservationService;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
+    private final EntityManager entityManager;
 
     @Override
     public OrderDTO createOrder(@NonNull UUID patientId, @NonNull CreateOrderDTO createOrderDTO) {
@@ -76,7 +111,7 @@ public class OrderServiceImplementation implements OrderServiceInterface {
         Order order = Order.builder()
                 .patient(patient)
                 .pharmacy(pharmacy)
-                .orderNumber(generateOrderNumber())
+                .orderNumber(referenceNumberGenerator.nextOrderNumber())
                 .status(OrderStatus.PENDING)
                 .deliveryAddress(createOrderDTO.getDeliveryAddress())
                 .deliveryCity(createOrderDTO.getDeliveryCity())
@@ -92,26 +127,21 @@ public class OrderServiceImplementation implements OrderServiceInterface {
                 .items(new ArrayList<>())
                 .build();
 
-        // 4. Validate Stock & Create Items
+        // 4. Validate Stock & Create Items (one query for all lines, priced in memory)
+        Map<UUID, Integer> quantities = mergeQuantities(createOrderDTO.getItems());
+        Map<UUID, PharmacyMedication> offers = loadAvailableOffers(pharmacy.getId(), quantities);
         BigDecimal totalAmount = BigDecimal.ZERO;
 
-        for (CreateOrderDTO.CreateOrderItemDTO itemDTO : createOrderDTO.getItems()) {
-            PharmacyMedication pharmacyMedication = pharmacyMedicationRepository.findByPharmacyIdAndMedicationId(
-                    pharmacy.getId(), Objects.requireNonNull(itemDTO.getMedicationId(), "Medication ID cannot be null"))
-                    .orElseThrow(() -> new RuntimeException("Medication not found in this pharmacy"));
-
-            if (!pharmacyMedication.getIsAvailable() || pharmacyMedication.getStockQuantity() < itemDTO.getQuantity()) {
-                throw new RuntimeException(
-                        "Insufficient stock for medication: " + pharmacyMedication.getMedication().getName());
-            }
+        for (Map.Entry<UUID, Integer> line : quantities.entrySet()) {
+            PharmacyMedication pharmacyMedication = offers.get(line.getKey());
 
-            BigDecimal lineTotal = pharmacyMedication.getPrice().multiply(BigDecimal.valueOf(itemDTO.getQuantity()));
+            BigDecimal lineTotal = pharmacyMedication.getPrice().multiply(BigDecimal.valueOf(line.getValue()));
             totalAmount = totalAmount.add(lineTotal);
 
             OrderItem orderItem = OrderItem.builder()
                     .order(order) // linked in helper or save
                     .medication(pharmacyMedication.getMedication())
-                    .quantity(itemDTO.getQuantity())
+                    .quantity(line.getValue())
                     .unitPrice(pharmacyMedication.getPrice())
                     .build();
 
@@ -139,16 +169,27 @@ public class OrderServiceImplementation implements OrderServiceInterface {
         order.setDeliveryFee(deliveryFee);
         order.setTotalAmount(totalAmount.add(deliveryFee));
 
-        // 5. Save Order (Cascade saves items)
+        // 5. Save Order (Cascade saves items). Ids are generated client-side, so the
+        // inserts are deferred to the flush and sent as one JDBC batch per table
+        entityManager.unwrap(Session.class).setJdbcBatchSize(Math.max(MIN_JDBC_BATCH_SIZE, order.getItems().size()));
         Order savedOrder = orderRepository.save(order);
 
+        // 6. Reserve stock until confirmation (guarded: a concurrent order may have taken the last units)
+        entityManager.flush();
+        List<UUID> rejected = stockReservationService.reserve(savedOrder.getId(), pharmacy.getId(), quantities);
+        if (!rejected.isEmpty()) {
+            throw insufficientStock(List.of(savedOrder), rejected);
+        }
+        orderStateMachine.recordCreation(savedOrder);
+
         // Notify Pharmacist
         String pharmacistTitle = "Nouvelle commande reçue";
         String pharmacistMsg = String.format("Vous avez une nouvelle commande (%s) à préparer.",
                 savedOrder.getOrderNumber());
-        notificationService.sendInAppNotification(pharmacy.getUser(), pharmacistTitle, pharmacistMsg,
-                NotificationType.ORDER);
-        notificationService.sendEmail(pharmacy.getUser().getEmail(), pharmacistTitle, pharmacistMsg);
+        notificationOutboxService.sendInAppNotification(savedOrder.getId(), pharmacy.getUser(), pharmacistTitle,
+                pharmacistMsg, NotificationType.ORDER);
+        notificationOutboxService.sendEmail(savedOrder.getId(), pharmacy.getUser().getEmail(), pharmacistTitle,
+                pharmacistMsg);
 
         return orderMapper.toDTO(savedOrder);
     }
@@ -164,13 +205,79 @@ public class OrderServiceImplementation implements OrderServiceInterface {
     @Override
     public List<OrderDTO> getPatientOrders(@NonNull UUID patientId) {
         Objects.requireNonNull(patientId, "Patient ID cannot be null");
-        return orderMapper.toDTOList(orderRepository.findByPatientIdOrderByCreatedAtDesc(patientId));
+        return orderMapper.toDTOList(withItems(orderRepository.findByPatientIdOrderByCreatedAtDesc(patientId)));
     }
 
     @Override
     public List<OrderDTO> getPharmacyOrders(@NonNull UUID pharmacyId) {
         Objects.requireNonNull(pharmacyId, "Pharmacy ID cannot be null");
-        return orderMapper.toDTOList(orderRepository.findByPharmacyIdOrderByCreatedAtDesc(pharmacyId));
+        return orderMapper.toDTOList(withItems(orderRepository.findByPharmacyIdOrderByCreatedAtDesc(pharmacyId)));
+    }
+
+    @Override
+    public CursorPageResponse<OrderDTO> getPatientOrdersPage(@NonNull UUID patientId,
+            Collection<OrderStatus> statuses, String cursor, int size) {
+        Objects.requireNonNull(patientId, "Patient ID cannot be null");
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        Collection<OrderStatus> filter = statusFilter(statuses);
+        // Une ligne de plus que la page pour savoir s'il en existe une suivante
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        CursorCodec.Cursor after = cursor != null && !cursor.isBlank() ? CursorCodec.decode(cursor) : null;
+        List<Order> orders = after == null
+                ? orderRepository.findPatientHistoryPage(patientId, filter, limit)
+                : orderRepository.findPatientHistoryPageAfter(patientId, filter, cursorCreatedAt(after),
+                        after.getId(), limit);
+        return historyPage(orders, pageSize);
+    }
+
+    @Override
+    public CursorPageResponse<OrderDTO> getPharmacyOrdersPage(@NonNull UUID pharmacyId,
+            Collection<OrderStatus> statuses, String cursor, int size) {
+        Objects.requireNonNull(pharmacyId, "Pharmacy ID cannot be null");
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        Collection<OrderStatus> filter = statusFilter(statuses);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        CursorCodec.Cursor after = cursor != null && !cursor.isBlank() ? CursorCodec.decode(cursor) : null;
+        List<Order> orders = after == null
+                ? orderRepository.findPharmacyHistoryPage(pharmacyId, filter, limit)
+                : orderRepository.findPharmacyHistoryPageAfter(pharmacyId, filter, cursorCreatedAt(after),
+                        after.getId(), limit);
+        return historyPage(orders, pageSize);
+    }
+
+    private CursorPageResponse<OrderDTO> historyPage(List<Order> orders, int pageSize) {
+        boolean hasNext = orders.size() > pageSize;
+        List<Order> page = hasNext ? orders.subList(0, pageSize) : orders;
+        // Les lignes ne sont chargées que pour la page renvoyée, pas pour la ligne en trop
+        List<OrderDTO> content = orderMapper.toDTOList(withItems(page));
+        Order last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return CursorPageResponse.<OrderDTO>builder()
+                .content(content)
+                .pageSize(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? CursorCodec.encode(last.getCreatedAt().toString(), last.getId()) : null)
+                .build();
+    }
+
+    // Second aller-retour pour les lignes des commandes données, par lots bornés
+    private List<Order> withItems(List<Order> orders) {
+        List<UUID> ids = orders.stream().map(Order::getId).toList();
+        for (int from = 0; from < ids.size(); from += ITEMS_FETCH_CHUNK) {
+            orderRepository.fetchItems(ids.subList(from, Math.min(from + ITEMS_FETCH_CHUNK, ids.size())));
+        }
+        return orders;
+    }
+
+    private static Collection<OrderStatus> statusFilter(Collection<OrderStatus> statuses) {
+        return statuses == null || statuses.isEmpty() ? EnumSet.allOf(OrderStatus.class) : EnumSet.copyOf(statuses);
+    }
+
+    private static LocalDateTime cursorCreatedAt(CursorCodec.Cursor cursor) {
+        try {
+            return LocalDateTime.parse(cursor.getSortValue());
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid pagination cursor", e);
+        }
     }
 
     @Override
@@ -180,113 +287,214 @@ public class OrderServiceImplementation implements OrderServiceInterface {
 
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
+        // FOR UPDATE et relecture : la commande a pu être chargée plus tôt dans la requête
+        // (OSIV), et le balayage des commandes expirées a pu l'annuler entre-temps
+        entityManager.flush();
+        entityManager.refresh(order, LockModeType.PESSIMISTIC_WRITE);
 
-        // VALIDATION: Vérifier que la transition de statut est autorisée
+        // Valide et journalise la transition ; historique, audit, notifications et
+        // affectation du livreur suivent après commit (voir OrderStateMachine)
         OrderStatus oldStatus = order.getStatus();
-        statusValidator.validateTransition(oldStatus, status);
-        log.info("Status transition validated: {} -> {} for order {}", oldStatus, status, orderId);
-
-        // Handle transitions if needed (e.g., reduce stock on CONFIRMED if not done)
-        // For now, simple state update
-        // APRÈS : Ajouter la gestion de l'annulation
-        // Si on annule une commande qui avait déjà déduit le stock (donc
-        // confirmée/payée)
-        if (status == OrderStatus.CANCELLED
-                && (order.getStatus() == OrderStatus.CONFIRMED || order.getStatus() == OrderStatus.PAID)) {
-            restockItems(order);
+        orderStateMachine.transition(order, status);
+        log.info("Status transition {} -> {} for order {}", oldStatus, status, orderId);
+
+        applyStatusEffects(order, oldStatus, status);
+
+        return orderMapper.toDTO(orderRepository.save(order));
+    }
+
+    @Override
+    public List<OrderDTO> updateOrderStatuses(@NonNull UUID pharmacyId, @NonNull Collection<UUID> orderIds,
+            @NonNull OrderStatus status) {
+        Objects.requireNonNull(pharmacyId, "Pharmacy ID cannot be null");
+        Objects.requireNonNull(orderIds, "Order IDs cannot be null");
+        Objects.requireNonNull(status, "Order status cannot be null");
+        Set<UUID> ids = new LinkedHashSet<>(orderIds);
+        if (ids.isEmpty()) {
+            throw new ValidationException("Aucune commande à mettre à jour");
+        }
+        if (ids.size() > MAX_BULK_STATUS_UPDATE) {
+            throw new ValidationException(
+                    "Au plus " + MAX_BULK_STATUS_UPDATE + " commandes par mise à jour groupée");
         }
 
-        order.setStatus(status);
+        // Verrouille le lot (ordre des identifiants) avant de lire les statuts, puis charge
+        // patient et pharmacie en une requête ; une commande d'une autre pharmacie est
+        // traitée comme absente
+        orderRepository.lockAllByIdIn(ids);
+        List<Order> orders = orderRepository.findAllWithPatientByIdIn(ids).stream()
+                .filter(order -> order.getPharmacy().getId().equals(pharmacyId))
+                .toList();
+        if (orders.size() != ids.size()) {
+            Set<UUID> missing = new LinkedHashSet<>(ids);
+            orders.forEach(order -> missing.remove(order.getId()));
+            throw new RuntimeException("Orders not found for this pharmacy: " + missing);
+        }
 
-        // AUDIT: Logger le changement de statut
-        try {
-            java.util.Map<String, Object> auditDetails = java.util.Map.of(
-                    "orderId", orderId.toString(),
-                    "orderNumber", order.getOrderNumber(),
-                    "oldStatus", oldStatus.toString(),
-                    "newStatus", status.toString(),
-                    "pharmacyId", order.getPharmacy().getId().toString());
-            auditLogService.logAction(
-                    SecurityUtils.getCurrentUserId(),
-                    SecurityUtils.getCurrentUsername(),
-                    "UPDATE_ORDER_STATUS",
-                    "ORDER",
-                    orderId,
-                    auditDetails,
-                    "INTERNAL",
-                    "OrderService",
-                    order.getPharmacy().getId());
-        } catch (Exception e) {
-            log.error("Failed to log audit for order status update", e);
+        // Toutes les transitions sont validées avant la première écriture
+        Map<UUID, OrderStatus> previous = new HashMap<>();
+        orders.forEach(order -> previous.put(order.getId(), order.getStatus()));
+        orderStateMachine.transitionAll(orders, status);
+        log.info("Bulk status transition to {} for {} orders of pharmacy {}", status, orders.size(), pharmacyId);
+
+        List<Order> changed = orders.stream()
+                .filter(order -> previous.get(order.getId()) != status)
+                .toList();
+        if (!changed.isEmpty()) {
+            applyBulkStatusEffects(pharmacyId, changed, previous, status);
+        }
+        // Entités gérées : les UPDATE partent en lots JDBC au flush (order_updates)
+        return withItems(new ArrayList<>(orders)).stream().map(orderMapper::toDTO).toList();
+    }
+
+    // Le stock reste synchrone : un stock insuffisant annule la transition
+    private void applyStatusEffects(Order order, OrderStatus oldStatus, OrderStatus status) {
+        if (status == OrderStatus.CANCELLED
+                && (oldStatus == OrderStatus.CONFIRMED || oldStatus == OrderStatus.PAID)) {
+            restockItems(order);
+        } else if (status == OrderStatus.CANCELLED) {
+            // Pas encore confirmée : on libère seulement la réservation
+            stockReservationService.release(order.getId());
         }
 
         if (status == OrderStatus.DELIVERED) {
             order.setDeliveredAt(LocalDateTime.now());
         } else if (status == OrderStatus.CONFIRMED || status == OrderStatus.PAID) {
-            // Check if this is the first confirmation BEFORE setting confirmedAt
-            boolean isFirstConfirmation = (order.getConfirmedAt() == null);
-
-            order.setConfirmedAt(LocalDateTime.now());
-            // Reduce stock here if strategy is "Reserve on Confirm"
-            // But simpler to assume stock is checked on Create and reduced on Pay/Confirm.
-            // Im implementing simple update here.
-            // Ideally we should have a separate method "confirmOrder" which handles stock
-            // deduction.
-            // I'll add stock deduction on PAID/CONFIRMED transition
-            if (isFirstConfirmation) { // First confirmation
+            // Première confirmation : la réservation devient une sortie de stock
+            if (order.getConfirmedAt() == null) {
                 deductStock(order);
-
-                // Notify Patient
-                String patientTitle = "Commande confirmée";
-                String patientMsg = String.format(
-                        "Votre commande %s a été confirmée par la pharmacie et est en cours de préparation.",
-                        order.getOrderNumber());
-                notificationService.sendInAppNotification(order.getPatient(), patientTitle, patientMsg,
-                        NotificationType.ORDER);
-                notificationService.sendSms(order.getPatient().getPhone(), patientMsg);
-                notificationService.sendEmail(order.getPatient().getEmail(), patientTitle, patientMsg);
             }
+            order.setConfirmedAt(LocalDateTime.now());
         }
+    }
 
-        if (status == OrderStatus.READY) {
-            log.info("Order {} is READY. Triggering auto-assignment for courier...", orderId);
-            try {
-                deliveryService.autoAssignCourier(orderId);
-            } catch (Exception e) {
-                log.error("Failed to auto-assign courier for order {}", orderId, e);
+    // Comme applyStatusEffects pour un lot d'une même pharmacie : quantités cumulées
+    // par médicament, un seul décrément ou réassort trié (même ordre de verrouillage
+    // que le balayage des commandes expirées)
+    private void applyBulkStatusEffects(UUID pharmacyId, List<Order> orders, Map<UUID, OrderStatus> previous,
+            OrderStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        if (status == OrderStatus.CANCELLED) {
+            List<UUID> restockIds = new ArrayList<>();
+            List<UUID> releaseIds = new ArrayList<>();
+            for (Order order : orders) {
+                OrderStatus oldStatus = previous.get(order.getId());
+                (oldStatus == OrderStatus.CONFIRMED || oldStatus == OrderStatus.PAID ? restockIds : releaseIds)
+                        .add(order.getId());
+            }
+            if (!releaseIds.isEmpty()) {
+                stockReservationService.releaseAll(releaseIds);
+            }
+            if (!restockIds.isEmpty()) {
+                SortedMap<UUID, Integer> quantities = quantitiesByMedication(pharmacyId, restockIds);
+                entityManager.flush();
+                pharmacyMedicationStockRepository.increment(pharmacyId, quantities);
+                syncStockLevels(pharmacyId, quantities.keySet());
             }
+        } else if (status == OrderStatus.DELIVERED) {
+            orders.forEach(order -> order.setDeliveredAt(now));
+        } else if (status == OrderStatus.CONFIRMED || status == OrderStatus.PAID) {
+            // Premières confirmations : les réservations deviennent une sortie de stock
+            List<UUID> deductIds = orders.stream()
+                    .filter(order -> order.getConfirmedAt() == null)
+                    .map(Order::getId)
+                    .toList();
+            if (!deductIds.isEmpty()) {
+                SortedMap<UUID, Integer> quantities = quantitiesByMedication(pharmacyId, deductIds);
+                stockReservationService.releaseAll(deductIds);
+                entityManager.flush();
+                List<UUID> rejected = pharmacyMedicationStockRepository.decrement(pharmacyId, quantities);
+                if (!rejected.isEmpty()) {
+                    throw insufficientStock(orders, rejected);
+                }
+                syncStockLevels(pharmacyId, quantities.keySet());
+            }
+            orders.forEach(order -> order.setConfirmedAt(now));
         }
+    }
 
-        return orderMapper.toDTO(orderRepository.save(order));
+    @Override
+    public List<OrderStatusEventDTO> getOrderHistory(@NonNull UUID orderId) {
+        Objects.requireNonNull(orderId, "Order ID cannot be null");
+        return orderStateMachine.history(orderId).stream()
+                .map(event -> OrderStatusEventDTO.builder()
+                        .id(event.getId())
+                        .fromStatus(event.getFromStatus())
+                        .toStatus(event.getToStatus())
+                        .actorId(event.getActorId())
+                        .actorName(event.getActorName())
+                        .occurredAt(event.getOccurredAt())
+                        .build())
+                .toList();
     }
 
+    // Décrément gardé ("stock >= quantité") de toutes les lignes en un lot, sans SELECT ... FOR UPDATE
     private void deductStock(Order order) {
-        for (OrderItem item : order.getItems()) {
-            PharmacyMedication pm = pharmacyMedicationRepository.findByPharmacyIdAndMedicationIdForUpdate(
-                    order.getPharmacy().getId(), item.getMedication().getId())
-                    .orElseThrow(() -> new RuntimeException("Produit introuvable au moment de la validation"));
-
-            int newStock = pm.getStockQuantity() - item.getQuantity();
-            if (newStock < 0) {
-                throw new RuntimeException("Stock insuffisant pour : " + pm.getMedication().getName());
-            }
-            pm.setStockQuantity(newStock);
-            pm.setIsAvailable(newStock > 0);
-            pharmacyMedicationRepository.save(pm);
+        UUID pharmacyId = order.getPharmacy().getId();
+        SortedMap<UUID, Integer> quantities = quantitiesByMedication(order);
+        // La réservation de la commande devient une sortie de stock (si elle a expiré,
+        // le décrément gardé vérifie à nouveau la quantité disponible)
+        stockReservationService.release(order.getId());
+        entityManager.flush();
+        List<UUID> rejected = pharmacyMedicationStockRepository.decrement(pharmacyId, quantities);
+        if (!rejected.isEmpty()) {
+            // La transaction est annulée : les lignes déjà décrémentées sont restaurées
+            throw insufficientStock(List.of(order), rejected);
         }
+        syncStockLevels(pharmacyId, quantities.keySet());
+    }
+
+    private RuntimeException insufficientStock(List<Order> orders, List<UUID> medicationIds) {
+        String names = orders.stream()
+                .flatMap(order -> order.getItems().stream())
+                .filter(item -> medicationIds.contains(item.getMedication().getId()))
+                .map(item -> item.getMedication().getName())
+                .distinct()
+                .collect(Collectors.joining(", "));
+        return new RuntimeException("Stock insuffisant pour : " + names);
     }
 
     // AJOUTER cette méthode pour gérer les annulations
     private void restockItems(Order order) {
+        UUID pharmacyId = order.getPharmacy().getId();
+        SortedMap<UUID, Integer> quantities = quantitiesByMedication(order);
+        entityManager.flush();
+        pharmacyMedicationStockRepository.increment(pharmacyId, quantities);
+        syncStockLevels(pharmacyId, quantities.keySet());
+    }
+
+    // Trié par médicament : les verrous de ligne sont toujours pris dans le même ordre
+    private SortedMap<UUID, Integer> quantitiesByMedication(Order order) {
+        SortedMap<UUID, Integer> quantities = new TreeMap<>();
         for (OrderItem item : order.getItems()) {
-            PharmacyMedication pm = pharmacyMedicationRepository.findByPharmacyIdAndMedicationIdForUpdate(
-                    order.getPharmacy().getId(), item.getMedication().getId())
-                    .orElse(null);
-            if (pm != null) {
-                pm.setStockQuantity(pm.getStockQuantity() + item.getQuantity());
-                pm.setIsAvailable(true);
-                pharmacyMedicationRepository.save(pm);
+            quantities.merge(item.getMedication().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    // Quantités d'un lot de commandes de la pharmacie, sommées en SQL par médicament
+    private SortedMap<UUID, Integer> quantitiesByMedication(UUID pharmacyId, Collection<UUID> orderIds) {
+        SortedMap<UUID, Integer> quantities = new TreeMap<>();
+        for (Object[] row : orderItemRepository.sumQuantitiesByPharmacyAndMedication(orderIds)) {
+            if (pharmacyId.equals(row[0])) {
+                quantities.merge((UUID) row[1], ((Number) row[2]).intValue(), Integer::sum);
+            }
+        }
+        return quantities;
+    }
+
+    // Reporte les stocks écrits en SQL dans la session JPA et dans l'index de recherche
+    private void syncStockLevels(UUID pharmacyId, Collection<UUID> medicationIds) {
+        Session session = entityManager.unwrap(Session.class);
+        for (PharmacyMedicationStockRepository.StockLevel level : pharmacyMedicationStockRepository
+                .findStockLevels(pharmacyId, medicationIds)) {
+            // Une offre déjà chargée dans la session porterait encore l'ancien stock
+            PharmacyMedication loaded = session.getReference(PharmacyMedication.class, level.getOfferId());
+            if (Hibernate.isInitialized(loaded)) {
+                session.refresh(loaded);
             }
+            medicationSearchIndex.updateStock(level.getOfferId(), level.getStockQuantity(),
+                    level.getReservedQuantity(), level.isAvailable());
         }
     }
 
@@ -296,21 +504,49 @@ public class OrderServiceImplementation implements OrderServiceInterface {
         Objects.requireNonNull(pharmacyId, "Pharmacy ID cannot be null");
         Objects.requireNonNull(items, "Items list cannot be null");
 
-        for (CreateOrderDTO.CreateOrderItemDTO itemDTO : items) {
-            PharmacyMedication pharmacyMedication = pharmacyMedicationRepository.findByPharmacyIdAndMedicationId(
-                    pharmacyId, itemDTO.getMedicationId())
-                    .orElseThrow(() -> new RuntimeException("Medication not available"));
+        loadAvailableOffers(pharmacyId, mergeQuantities(items));
+    }
 
-            if (pharmacyMedication.getStockQuantity() < itemDTO.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for " + pharmacyMedication.getMedication().getName());
+    // Quantités par médicament : une ligne répétée est cumulée (une seule ligne par médicament en base)
+    private Map<UUID, Integer> mergeQuantities(List<CreateOrderDTO.CreateOrderItemDTO> items) {
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        for (CreateOrderDTO.CreateOrderItemDTO itemDTO : items) {
+            UUID medicationId = Objects.requireNonNull(itemDTO.getMedicationId(), "Medication ID cannot be null");
+            if (itemDTO.getQuantity() == null || itemDTO.getQuantity() <= 0) {
+                throw new RuntimeException("Invalid quantity for medication: " + medicationId);
             }
+            quantities.merge(medicationId, itemDTO.getQuantity(), Integer::sum);
         }
+        return quantities;
     }
 
-    private String generateOrderNumber() {
-        return "ORD-" + System.currentTimeMillis();
+    /**
+     * Charge en une requête les offres de la pharmacie pour tous les
+     * médicaments demandés et vérifie le stock de chacun
+     */
+    private Map<UUID, PharmacyMedication> loadAvailableOffers(UUID pharmacyId, Map<UUID, Integer> quantities) {
+        Map<UUID, PharmacyMedication> offers = new HashMap<>();
+        if (quantities.isEmpty()) {
+            return offers;
+        }
+        for (PharmacyMedication pm : pharmacyMedicationRepository.findByPharmacyIdAndMedicationIds(pharmacyId,
+                quantities.keySet())) {
+            offers.put(pm.getMedication().getId(), pm);
+        }
+        quantities.forEach((medicationId, quantity) -> {
+            PharmacyMedication pharmacyMedication = offers.get(medicationId);
+            if (pharmacyMedication == null) {
+                throw new RuntimeException("Medication not found in this pharmacy");
+            }
+            if (!pharmacyMedication.getIsAvailable() || pharmacyMedication.getAvailableQuantity() < quantity) {
+                throw new RuntimeException(
+                        "Insufficient stock for medication: " + pharmacyMedication.getMedication().getName());
+            }
+        });
+        return offers;
     }
 
+
     @Override
     public java.math.BigDecimal getPharmacyRevenue(@NonNull UUID pharmacyId) {
         Objects.requireNonNull(pharmacyId, "Pharmacy ID cannot be null");
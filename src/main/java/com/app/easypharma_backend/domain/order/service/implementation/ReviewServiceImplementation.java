@@ -12,6 +12,8 @@ import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
 import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
 import com.app.easypharma_backend.domain.delivery.repository.DeliveryRepository;
 import com.app.easypharma_backend.domain.delivery.entity.Delivery;
+import com.app.easypharma_backend.domain.search.service.MedicationSearchIndex;
+import com.app.easypharma_backend.domain.search.service.PharmacyGeoIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,6 +31,8 @@ public class ReviewServiceImplementation {
     private final OrderRepository orderRepository;
     private final PharmacyRepository pharmacyRepository;
     private final DeliveryRepository deliveryRepository;
+    private final MedicationSearchIndex medicationSearchIndex;
+    private final PharmacyGeoIndex pharmacyGeoIndex;
 
     public ReviewDTO createReview(UUID patientId, CreateReviewDTO dto) {
         Order order = orderRepository.findById(dto.getOrderId())
@@ -102,7 +106,10 @@ public class ReviewServiceImplementation {
 
         pharmacy.setAverageRating(avg != null ? avg : 0.0);
         pharmacy.setRatingCount(count);
-        pharmacyRepository.save(pharmacy);
+        Pharmacy saved = pharmacyRepository.save(pharmacy);
+        // Les deux index publient la nouvelle note après le commit
+        medicationSearchIndex.refreshPharmacy(saved);
+        pharmacyGeoIndex.refresh(saved);
     }
 
     public List<ReviewDTO> getPharmacyReviews(UUID pharmacyId) {
@@ -0,0 +1,121 @@
+package com.app.easypharma_backend.domain.order.service.implementation;
+
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationStockRepository;
+import com.app.easypharma_backend.domain.order.entity.StockReservation;
+import com.app.easypharma_backend.domain.order.repository.StockReservationRepository;
+import com.app.easypharma_backend.domain.order.service.interfaces.StockReservationService;
+import com.app.easypharma_backend.domain.search.service.MedicationSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Réservations de stock entre la création d'une commande et sa
+ * confirmation : deux patients ne peuvent plus commander la même dernière
+ * unité. La quantité disponible d'une offre (stock_quantity -
+ * reserved_quantity) se lit sur sa seule ligne, sans agréger les
+ * réservations.
+ *
+ * Chaque réservation ou libération est reportée dans l'index de recherche :
+ * une offre dont tout le stock est réservé n'y apparaît plus en stock.
+ *
+ * Une réservation non confirmée expire au bout de
+ * app.orders.reservation.ttl-minutes ; le balayage parcourt l'index sur
+ * expires_at par lots, sans lire les réservations encore actives.
+ */
+@Service
+@Slf4j
+public class StockReservationServiceImplementation implements StockReservationService {
+
+    static final int SWEEP_BATCH_SIZE = 500;
+
+    private final StockReservationRepository stockReservationRepository;
+    private final PharmacyMedicationStockRepository pharmacyMedicationStockRepository;
+    private final MedicationSearchIndex medicationSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+
+    public StockReservationServiceImplementation(StockReservationRepository stockReservationRepository,
+            PharmacyMedicationStockRepository pharmacyMedicationStockRepository,
+            MedicationSearchIndex medicationSearchIndex, TransactionTemplate transactionTemplate,
+            @Value("${app.orders.reservation.ttl-minutes:15}") long ttlMinutes) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.pharmacyMedicationStockRepository = pharmacyMedicationStockRepository;
+        this.medicationSearchIndex = medicationSearchIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+    }
+
+    @Override
+    public List<UUID> reserve(UUID orderId, UUID pharmacyId, Map<UUID, Integer> quantities) {
+        List<UUID> rejected = pharmacyMedicationStockRepository.reserve(orderId, pharmacyId,
+                new TreeMap<>(quantities), LocalDateTime.now().plus(ttl));
+        if (rejected.isEmpty()) {
+            syncSearchIndex(Map.of(pharmacyId, quantities.keySet()));
+        }
+        return rejected;
+    }
+
+    @Override
+    public void release(UUID orderId) {
+        releaseAndSync(stockReservationRepository.findByOrderId(orderId));
+    }
+
+    @Override
+    public void releaseAll(Collection<UUID> orderIds) {
+        releaseAndSync(stockReservationRepository.findByOrderIdIn(orderIds));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.orders.reservation.sweep-ms:60000}", initialDelayString = "${app.orders.reservation.sweep-ms:60000}")
+    public int releaseExpired() {
+        int total = 0;
+        List<StockReservation> expired;
+        do {
+            // Un lot par transaction : les verrous sont relâchés entre deux lots
+            expired = stockReservationRepository.findExpired(LocalDateTime.now(), PageRequest.of(0, SWEEP_BATCH_SIZE));
+            List<StockReservation> batch = expired;
+            Integer released = transactionTemplate.execute(status -> releaseAndSync(batch));
+            total += released != null ? released : 0;
+        } while (expired.size() == SWEEP_BATCH_SIZE);
+        if (total > 0) {
+            log.info("Released {} expired stock reservations", total);
+        }
+        return total;
+    }
+
+    private int releaseAndSync(List<StockReservation> reservations) {
+        int released = pharmacyMedicationStockRepository.release(reservations);
+        if (released > 0) {
+            Map<UUID, Set<UUID>> medicationsByPharmacy = new HashMap<>();
+            for (StockReservation reservation : reservations) {
+                medicationsByPharmacy.computeIfAbsent(reservation.getPharmacyId(), id -> new HashSet<>())
+                        .add(reservation.getMedicationId());
+            }
+            syncSearchIndex(medicationsByPharmacy);
+        }
+        return released;
+    }
+
+    // Quantités relues en une requête par pharmacie, publiées dans l'index après le commit
+    private void syncSearchIndex(Map<UUID, ? extends Collection<UUID>> medicationsByPharmacy) {
+        medicationsByPharmacy.forEach((pharmacyId, medicationIds) -> pharmacyMedicationStockRepository
+                .findStockLevels(pharmacyId, medicationIds)
+                .forEach(level -> medicationSearchIndex.updateStock(level.getOfferId(), level.getStockQuantity(),
+                        level.getReservedQuantity(), level.isAvailable())));
+    }
+}
@@ -0,0 +1,11 @@
+package com.app.easypharma_backend.domain.order.service.interfaces;
+
+public interface OrderExpiryService {
+
+    /**
+     * Annule les commandes abandonnées (PENDING ou CONFIRMED sans suite
+     * au-delà de leur délai), remet leur stock et prévient patients et
+     * pharmacies. Retourne le nombre de commandes annulées.
+     */
+    int cancelExpired();
+}
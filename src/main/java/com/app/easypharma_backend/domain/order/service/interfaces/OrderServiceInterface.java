@@ -1,9 +1,12 @@
 package com.app.easypharma_backend.domain.order.service.interfaces;
 
+import com.app.easypharma_backend.application.common.dto.CursorPageResponse;
 import com.app.easypharma_backend.domain.order.dto.CreateOrderDTO;
 import com.app.easypharma_backend.domain.order.dto.OrderDTO;
+import com.app.easypharma_backend.domain.order.dto.OrderStatusEventDTO;
 import com.app.easypharma_backend.domain.order.entity.OrderStatus;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.lang.NonNull;
@@ -31,11 +34,38 @@ public interface OrderServiceInterface {
      */
     List<OrderDTO> getPharmacyOrders(@NonNull UUID pharmacyId);
 
+    /**
+     * Historique d'un patient, du plus récent au plus ancien, paginé par
+     * curseur. statuses vide : tous les statuts.
+     */
+    CursorPageResponse<OrderDTO> getPatientOrdersPage(@NonNull UUID patientId, Collection<OrderStatus> statuses,
+            String cursor, int size);
+
+    /**
+     * Commandes d'une pharmacie, paginées comme getPatientOrdersPage.
+     */
+    CursorPageResponse<OrderDTO> getPharmacyOrdersPage(@NonNull UUID pharmacyId, Collection<OrderStatus> statuses,
+            String cursor, int size);
+
     /**
      * Update order status (e.g., CONFIRMED, DELIVERED).
      */
     OrderDTO updateOrderStatus(@NonNull UUID orderId, @NonNull OrderStatus status);
 
+    /**
+     * Passe plusieurs commandes d'une pharmacie au même statut, toutes ou
+     * aucune, en une transaction. Notifications et affectation des livreurs
+     * sont traitées en un seul lot après commit.
+     */
+    List<OrderDTO> updateOrderStatuses(@NonNull UUID pharmacyId, @NonNull Collection<UUID> orderIds,
+            @NonNull OrderStatus status);
+
+    /**
+     * Historique des changements de statut d'une commande, du plus ancien au
+     * plus récent.
+     */
+    List<OrderStatusEventDTO> getOrderHistory(@NonNull UUID orderId);
+
     /**
      * Verify stock availability for a list of items.
      */
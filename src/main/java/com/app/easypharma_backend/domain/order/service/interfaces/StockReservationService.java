@@ -0,0 +1,32 @@
+package com.app.easypharma_backend.domain.order.service.interfaces;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface StockReservationService {
+
+    /**
+     * Retient les quantités de la commande pour une durée limitée. Retourne
+     * les médicaments dont la quantité disponible (stock moins réservations
+     * actives) est insuffisante ; rien n'est alors réservé.
+     */
+    List<UUID> reserve(UUID orderId, UUID pharmacyId, Map<UUID, Integer> quantities);
+
+    /**
+     * Libère les réservations encore actives de la commande (confirmation ou
+     * annulation). Sans effet si elles ont déjà expiré.
+     */
+    void release(UUID orderId);
+
+    /**
+     * Comme release, pour un lot de commandes
+     */
+    void releaseAll(Collection<UUID> orderIds);
+
+    /**
+     * Libère les réservations arrivées à expiration. Retourne leur nombre.
+     */
+    int releaseExpired();
+}
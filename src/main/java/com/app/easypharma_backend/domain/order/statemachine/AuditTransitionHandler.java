@@ -0,0 +1,74 @@
+package com.app.easypharma_backend.domain.order.statemachine;
+
+import com.app.easypharma_backend.domain.audit.service.AuditLogService;
+import com.app.easypharma_backend.domain.order.entity.Order;
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import com.app.easypharma_backend.domain.order.entity.OrderStatusEvent;
+import com.app.easypharma_backend.domain.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Journal d'audit des changements de statut
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditTransitionHandler implements OrderTransitionHandler {
+
+    private final AuditLogService auditLogService;
+    private final OrderRepository orderRepository;
+
+    @Override
+    public String name() {
+        return "audit";
+    }
+
+    @Override
+    public boolean appliesTo(OrderStatus from, OrderStatus to) {
+        return from != null;
+    }
+
+    @Override
+    public void handle(OrderStatusEvent event) {
+        String orderNumber = orderRepository.findById(event.getOrderId())
+                .map(Order::getOrderNumber)
+                .orElse("");
+        record(event, orderNumber);
+    }
+
+    @Override
+    public void handleAll(List<OrderStatusEvent> events) {
+        // Numéros de commande du lot en une requête
+        Map<UUID, String> orderNumbers = orderRepository
+                .findAllById(events.stream().map(OrderStatusEvent::getOrderId).toList()).stream()
+                .collect(Collectors.toMap(Order::getId, Order::getOrderNumber));
+        for (OrderStatusEvent event : events) {
+            record(event, orderNumbers.getOrDefault(event.getOrderId(), ""));
+        }
+    }
+
+    private void record(OrderStatusEvent event, String orderNumber) {
+        Map<String, Object> auditDetails = Map.of(
+                "orderId", event.getOrderId().toString(),
+                "orderNumber", orderNumber,
+                "oldStatus", event.getFromStatus().toString(),
+                "newStatus", event.getToStatus().toString(),
+                "pharmacyId", event.getPharmacyId().toString());
+        // L'auteur est celui de la transition, pas le thread du relais
+        auditLogService.logAction(
+                event.getActorId(),
+                event.getActorName(),
+                "UPDATE_ORDER_STATUS",
+                "ORDER",
+                event.getOrderId(),
+                auditDetails,
+                "INTERNAL",
+                "OrderService",
+                event.getPharmacyId());
+    }
+}
@@ -0,0 +1,66 @@
+package com.app.easypharma_backend.domain.order.statemachine;
+
+import com.app.easypharma_backend.domain.notification.entity.NotificationType;
+import com.app.easypharma_backend.domain.notification.service.interfaces.NotificationOutboxService;
+import com.app.easypharma_backend.domain.order.entity.Order;
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import com.app.easypharma_backend.domain.order.entity.OrderStatusEvent;
+import com.app.easypharma_backend.domain.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Prévient le patient de la première confirmation de sa commande (en
+ * application, SMS et email). Chaque canal passe par sa propre entrée
+ * d'outbox : un SMS en échec ne renvoie pas l'email.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConfirmationNotificationHandler implements OrderTransitionHandler {
+
+    private final OrderRepository orderRepository;
+    private final NotificationOutboxService notificationOutboxService;
+
+    @Override
+    public String name() {
+        return "confirmation-notification";
+    }
+
+    @Override
+    public boolean appliesTo(OrderStatus from, OrderStatus to) {
+        return from == OrderStatus.PENDING && (to == OrderStatus.CONFIRMED || to == OrderStatus.PAID);
+    }
+
+    @Override
+    public void handle(OrderStatusEvent event) {
+        Order order = orderRepository.findById(event.getOrderId()).orElse(null);
+        if (order == null) {
+            log.warn("Order {} not found, confirmation notification skipped", event.getOrderId());
+            return;
+        }
+        notifyPatient(order);
+    }
+
+    @Override
+    public void handleAll(List<OrderStatusEvent> events) {
+        List<UUID> orderIds = events.stream().map(OrderStatusEvent::getOrderId).toList();
+        // Commandes et patients du lot en une requête
+        orderRepository.findAllWithPatientByIdIn(orderIds).forEach(this::notifyPatient);
+    }
+
+    private void notifyPatient(Order order) {
+        String patientTitle = "Commande confirmée";
+        String patientMsg = String.format(
+                "Votre commande %s a été confirmée par la pharmacie et est en cours de préparation.",
+                order.getOrderNumber());
+        notificationOutboxService.sendInAppNotification(order.getId(), order.getPatient(), patientTitle, patientMsg,
+                NotificationType.ORDER);
+        notificationOutboxService.sendSms(order.getId(), order.getPatient().getPhone(), patientMsg);
+        notificationOutboxService.sendEmail(order.getId(), order.getPatient().getEmail(), patientTitle, patientMsg);
+    }
+}
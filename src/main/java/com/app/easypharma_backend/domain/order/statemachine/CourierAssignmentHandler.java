@@ -0,0 +1,44 @@
+package com.app.easypharma_backend.domain.order.statemachine;
+
+import com.app.easypharma_backend.domain.delivery.service.interfaces.DeliveryServiceInterface;
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import com.app.easypharma_backend.domain.order.entity.OrderStatusEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Affecte automatiquement un livreur quand la commande est prête. Rejouable :
+ * une commande déjà affectée est ignorée par autoAssignCourier(s).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourierAssignmentHandler implements OrderTransitionHandler {
+
+    private final DeliveryServiceInterface deliveryService;
+
+    @Override
+    public String name() {
+        return "courier-assignment";
+    }
+
+    @Override
+    public boolean appliesTo(OrderStatus from, OrderStatus to) {
+        return to == OrderStatus.READY;
+    }
+
+    @Override
+    public void handle(OrderStatusEvent event) {
+        log.info("Order {} is READY. Triggering auto-assignment for courier...", event.getOrderId());
+        deliveryService.autoAssignCourier(event.getOrderId());
+    }
+
+    @Override
+    public void handleAll(List<OrderStatusEvent> events) {
+        log.info("{} orders are READY. Triggering batched courier assignment...", events.size());
+        deliveryService.autoAssignCouriers(events.stream().map(OrderStatusEvent::getOrderId).toList());
+    }
+}
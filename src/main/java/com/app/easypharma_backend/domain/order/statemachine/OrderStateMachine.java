@@ -0,0 +1,243 @@
+package com.app.easypharma_backend.domain.order.statemachine;
+
+import com.app.easypharma_backend.domain.order.entity.Order;
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import com.app.easypharma_backend.domain.order.entity.OrderStatusEvent;
+import com.app.easypharma_backend.domain.order.repository.OrderStatusEventRepository;
+import com.app.easypharma_backend.infrastructure.messaging.outbox.OutboxService;
+import com.app.easypharma_backend.infrastructure.security.SecurityUtils;
+import com.app.easypharma_backend.infrastructure.validation.StatusTransitionValidator;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Machine à états des commandes. Les transitions de
+ * StatusTransitionValidator et les handlers concernés par chaque couple
+ * (from, to) sont compilés au démarrage en tables indexées par ordinal :
+ * une transition coûte deux accès tableau.
+ *
+ * Chaque transition est ajoutée à order_status_events dans la transaction
+ * de l'appelant ; ses handlers sont déposés dans l'outbox et s'exécutent
+ * après le commit. Un OrderTransitionedEvent est aussi publié en mémoire
+ * (tableau des commandes en temps réel).
+ *
+ * Une transition groupée (transitionAll) dépose une seule entrée d'outbox
+ * par handler pour tout le lot : ses effets sont traités ensemble
+ * (OrderTransitionHandler.handleAll).
+ */
+@Component
+@Slf4j
+public class OrderStateMachine {
+
+    static final String EVENT_TYPE = "order.transition";
+
+    // Ligne des tables réservée à la création (from = null)
+    private static final int CREATED = OrderStatus.values().length;
+
+    private final StatusTransitionValidator statusValidator;
+    private final OrderStatusEventRepository orderStatusEventRepository;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean[][] allowed;
+    private final OrderTransitionHandler[][][] handlers;
+    private final Map<String, OrderTransitionHandler> handlersByName = new HashMap<>();
+
+    public OrderStateMachine(StatusTransitionValidator statusValidator,
+            OrderStatusEventRepository orderStatusEventRepository, OutboxService outboxService,
+            ApplicationEventPublisher eventPublisher, List<OrderTransitionHandler> registered) {
+        this.statusValidator = statusValidator;
+        this.orderStatusEventRepository = orderStatusEventRepository;
+        this.outboxService = outboxService;
+        this.eventPublisher = eventPublisher;
+
+        OrderStatus[] statuses = OrderStatus.values();
+        this.allowed = new boolean[CREATED + 1][statuses.length];
+        this.handlers = new OrderTransitionHandler[CREATED + 1][statuses.length][];
+        for (OrderTransitionHandler handler : registered) {
+            if (handlersByName.put(handler.name(), handler) != null) {
+                throw new IllegalStateException("Duplicate order transition handler " + handler.name());
+            }
+        }
+        for (int row = 0; row <= CREATED; row++) {
+            OrderStatus from = row == CREATED ? null : statuses[row];
+            for (OrderStatus to : statuses) {
+                allowed[row][to.ordinal()] = from == null
+                        ? to == OrderStatus.PENDING
+                        : from != to && statusValidator.isTransitionAllowed(from, to);
+                List<OrderTransitionHandler> applicable = new ArrayList<>();
+                if (allowed[row][to.ordinal()]) {
+                    for (OrderTransitionHandler handler : registered) {
+                        if (handler.appliesTo(from, to)) {
+                            applicable.add(handler);
+                        }
+                    }
+                }
+                handlers[row][to.ordinal()] = applicable.toArray(new OrderTransitionHandler[0]);
+            }
+        }
+        log.info("Order state machine compiled with {} transition handlers", registered.size());
+    }
+
+    /**
+     * Passe la commande au statut demandé et journalise la transition. Sans
+     * effet (null) si la commande a déjà ce statut ; IllegalStateException si
+     * la transition n'est pas autorisée.
+     */
+    public OrderStatusEvent transition(Order order, OrderStatus target) {
+        OrderStatus from = order.getStatus();
+        if (from == target) {
+            return null;
+        }
+        if (!allowed[from.ordinal()][target.ordinal()]) {
+            // Message d'erreur habituel, avec les statuts autorisés
+            statusValidator.validateTransition(from, target);
+        }
+        order.setStatus(target);
+        return append(order, from, target);
+    }
+
+    /**
+     * Passe toutes les commandes au statut demandé, ou aucune :
+     * IllegalStateException listant les commandes dont la transition n'est
+     * pas autorisée. Les commandes ayant déjà ce statut sont ignorées.
+     * Retourne les transitions journalisées.
+     */
+    public List<OrderStatusEvent> transitionAll(List<Order> orders, OrderStatus target) {
+        List<String> rejected = new ArrayList<>();
+        for (Order order : orders) {
+            OrderStatus from = order.getStatus();
+            if (from != target && !allowed[from.ordinal()][target.ordinal()]) {
+                rejected.add(order.getOrderNumber() + " (" + from + ")");
+            }
+        }
+        if (!rejected.isEmpty()) {
+            throw new IllegalStateException(String.format(
+                    "Invalid status transition to %s for orders: %s", target, String.join(", ", rejected)));
+        }
+
+        List<OrderStatusEvent> events = new ArrayList<>(orders.size());
+        List<Order> transitioned = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            OrderStatus from = order.getStatus();
+            if (from == target) {
+                continue;
+            }
+            order.setStatus(target);
+            events.add(newEvent(order, from, target));
+            transitioned.add(order);
+        }
+        if (events.isEmpty()) {
+            return events;
+        }
+        // Insertions groupées par lots JDBC
+        events = orderStatusEventRepository.saveAll(events);
+
+        // Une entrée d'outbox par handler pour tout le lot, les handlers dépendant du couple (from, to)
+        Map<String, List<UUID>> eventIdsByHandler = new LinkedHashMap<>();
+        for (OrderStatusEvent event : events) {
+            for (OrderTransitionHandler handler : handlers[event.getFromStatus().ordinal()][target.ordinal()]) {
+                eventIdsByHandler.computeIfAbsent(handler.name(), name -> new ArrayList<>()).add(event.getId());
+            }
+        }
+        UUID aggregateId = transitioned.get(0).getPharmacy().getId();
+        eventIdsByHandler.forEach((handler, eventIds) -> outboxService.publish(EVENT_TYPE, aggregateId,
+                new HandlerTask(null, eventIds, handler)));
+
+        for (int i = 0; i < events.size(); i++) {
+            Order order = transitioned.get(i);
+            eventPublisher.publishEvent(
+                    new OrderTransitionedEvent(events.get(i), order.getOrderNumber(), order.getTotalAmount()));
+        }
+        return events;
+    }
+
+    /**
+     * Journalise la création d'une commande (déjà enregistrée, statut PENDING)
+     */
+    public OrderStatusEvent recordCreation(Order order) {
+        return append(order, null, order.getStatus());
+    }
+
+    public boolean isAllowed(OrderStatus from, OrderStatus to) {
+        return allowed[from == null ? CREATED : from.ordinal()][to.ordinal()];
+    }
+
+    public List<OrderStatusEvent> history(UUID orderId) {
+        return orderStatusEventRepository.findByOrderIdOrderByOccurredAtAsc(orderId);
+    }
+
+    /**
+     * Exécute un handler déposé dans l'outbox (OrderTransitionOutboxHandler)
+     */
+    @Transactional
+    public void runHandler(UUID eventId, String handlerName) {
+        OrderTransitionHandler handler = handlersByName.get(handlerName);
+        if (handler == null) {
+            throw new IllegalStateException("Unknown order transition handler " + handlerName);
+        }
+        OrderStatusEvent event = orderStatusEventRepository.findById(eventId)
+                .orElseThrow(() -> new IllegalStateException("Order status event not found: " + eventId));
+        handler.handle(event);
+    }
+
+    /**
+     * Exécute un handler déposé pour une transition groupée
+     */
+    @Transactional
+    public void runHandler(List<UUID> eventIds, String handlerName) {
+        OrderTransitionHandler handler = handlersByName.get(handlerName);
+        if (handler == null) {
+            throw new IllegalStateException("Unknown order transition handler " + handlerName);
+        }
+        List<OrderStatusEvent> events = orderStatusEventRepository.findAllById(eventIds);
+        if (events.size() != eventIds.size()) {
+            throw new IllegalStateException("Order status events not found among " + eventIds);
+        }
+        handler.handleAll(events);
+    }
+
+    private OrderStatusEvent append(Order order, OrderStatus from, OrderStatus to) {
+        OrderStatusEvent event = orderStatusEventRepository.save(newEvent(order, from, to));
+        for (OrderTransitionHandler handler : handlers[from == null ? CREATED : from.ordinal()][to.ordinal()]) {
+            outboxService.publish(EVENT_TYPE, order.getId(), new HandlerTask(event.getId(), null, handler.name()));
+        }
+        eventPublisher.publishEvent(new OrderTransitionedEvent(event, order.getOrderNumber(), order.getTotalAmount()));
+        return event;
+    }
+
+    private static OrderStatusEvent newEvent(Order order, OrderStatus from, OrderStatus to) {
+        return OrderStatusEvent.builder()
+                .orderId(order.getId())
+                .pharmacyId(order.getPharmacy().getId())
+                .fromStatus(from)
+                .toStatus(to)
+                .actorId(SecurityUtils.getCurrentUserId())
+                .actorName(SecurityUtils.getCurrentUsername())
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+
+    // eventId pour une transition, eventIds pour une transition groupée
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class HandlerTask {
+        private UUID eventId;
+        private List<UUID> eventIds;
+        private String handler;
+    }
+}
@@ -0,0 +1,36 @@
+package com.app.easypharma_backend.domain.order.statemachine;
+
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import com.app.easypharma_backend.domain.order.entity.OrderStatusEvent;
+
+import java.util.List;
+
+/**
+ * Effet de bord d'un changement de statut (notification, audit,
+ * affectation d'un livreur...). Exécuté de façon asynchrone, après le commit
+ * de la transition, via l'outbox : un échec est retenté sans rejouer les
+ * autres handlers, le traitement doit donc supporter d'être rejoué.
+ */
+public interface OrderTransitionHandler {
+
+    /**
+     * Nom stable, enregistré dans l'outbox pour retrouver le handler
+     */
+    String name();
+
+    /**
+     * Évalué une seule fois par couple de statuts, au démarrage. from est
+     * null pour la création de la commande.
+     */
+    boolean appliesTo(OrderStatus from, OrderStatus to);
+
+    void handle(OrderStatusEvent event);
+
+    /**
+     * Transitions d'une mise à jour groupée, traitées ensemble. Par défaut une
+     * à une ; à redéfinir quand le lot permet d'économiser des requêtes.
+     */
+    default void handleAll(List<OrderStatusEvent> events) {
+        events.forEach(this::handle);
+    }
+}
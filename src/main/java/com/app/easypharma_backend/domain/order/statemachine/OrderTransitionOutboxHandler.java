@@ -0,0 +1,39 @@
+package com.app.easypharma_backend.domain.order.statemachine;
+
+import com.app.easypharma_backend.infrastructure.messaging.outbox.OutboxEventHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Relaie les handlers de transition déposés dans l'outbox vers la machine à
+ * états
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderTransitionOutboxHandler implements OutboxEventHandler {
+
+    private final OrderStateMachine orderStateMachine;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String eventType() {
+        return OrderStateMachine.EVENT_TYPE;
+    }
+
+    @Override
+    public void handle(String payload) {
+        OrderStateMachine.HandlerTask task;
+        try {
+            task = objectMapper.readValue(payload, OrderStateMachine.HandlerTask.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid order transition payload", e);
+        }
+        if (task.getEventIds() != null && !task.getEventIds().isEmpty()) {
+            orderStateMachine.runHandler(task.getEventIds(), task.getHandler());
+        } else {
+            orderStateMachine.runHandler(task.getEventId(), task.getHandler());
+        }
+    }
+}
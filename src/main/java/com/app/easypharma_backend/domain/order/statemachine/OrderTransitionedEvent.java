@@ -0,0 +1,18 @@
+package com.app.easypharma_backend.domain.order.statemachine;
+
+import com.app.easypharma_backend.domain.order.entity.OrderStatusEvent;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Événement applicatif (en mémoire) publié à chaque transition, création
+ * comprise. Les écouteurs qui poussent vers l'extérieur doivent attendre le
+ * commit (@TransactionalEventListener).
+ */
+@Value
+public class OrderTransitionedEvent {
+    OrderStatusEvent event;
+    String orderNumber;
+    BigDecimal totalAmount;
+}
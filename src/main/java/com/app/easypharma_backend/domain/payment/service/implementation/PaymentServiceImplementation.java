@@ -10,7 +10,8 @@ import com.app.easypharma_backend.domain.payment.entity.PaymentStatus;
 import com.app.easypharma_backend.domain.payment.repository.PaymentRepository;
 import com.app.easypharma_backend.domain.payment.service.interfaces.PaymentServiceInterface;
 import com.app.easypharma_backend.domain.notification.entity.NotificationType;
-import com.app.easypharma_backend.domain.notification.service.interfaces.NotificationService;
+import com.app.easypharma_backend.domain.notification.service.interfaces.NotificationOutboxService;
+import com.app.easypharma_backend.infrastructure.id.ReferenceNumberGenerator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,8 +30,9 @@ public class PaymentServiceImplementation implements PaymentServiceInterface {
     private final OrderRepository orderRepository;
     private final com.app.easypharma_backend.domain.auth.repository.UserRepository userRepository;
     private final OrderServiceInterface orderService; // To update status
-    private final NotificationService notificationService;
+    private final NotificationOutboxService notificationOutboxService;
     private final com.app.easypharma_backend.domain.order.service.interfaces.PdfServiceInterface pdfService;
+    private final ReferenceNumberGenerator referenceNumberGenerator;
 
     @Override
     @Transactional
@@ -78,9 +80,8 @@ public class PaymentServiceImplementation implements PaymentServiceInterface {
         // Mock Payment Logic (One atomic payment for the total)
         boolean isSuccess = true;
 
-        // Structured Transaction ID: TXN-TIME-RANDOM
-        String sharedTransactionId = "TXN-" + System.currentTimeMillis() + "-"
-                + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        // Structured Transaction ID: TXN-XXXX-XXXX-XXXXX (unique across nodes, sortable by time)
+        String sharedTransactionId = referenceNumberGenerator.nextTransactionId();
 
         Payment lastPayment = null;
 
@@ -107,9 +108,10 @@ public class PaymentServiceImplementation implements PaymentServiceInterface {
                         "Votre paiement pour la commande %s d'un montant de %s FCFA a été traité avec succès.",
                         order.getOrderNumber(), order.getTotalAmount());
 
-                notificationService.sendInAppNotification(order.getPatient(), title, message, NotificationType.PAYMENT);
-                notificationService.sendSms(order.getPatient().getPhone(), message);
-                notificationService.sendEmail(order.getPatient().getEmail(), title, message);
+                notificationOutboxService.sendInAppNotification(order.getId(), order.getPatient(), title, message,
+                        NotificationType.PAYMENT);
+                notificationOutboxService.sendSms(order.getId(), order.getPatient().getPhone(), message);
+                notificationOutboxService.sendEmail(order.getId(), order.getPatient().getEmail(), title, message);
             }
         }
 
@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -15,7 +16,7 @@ import org.springframework.lang.NonNull;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-public class PharmacyDTO {
+public class PharmacyDTO implements Serializable {
 
     private UUID id;
 
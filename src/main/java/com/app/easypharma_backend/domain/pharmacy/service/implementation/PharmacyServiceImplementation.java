@@ -9,6 +9,8 @@ import com.app.easypharma_backend.domain.pharmacy.entity.PharmacyStatus;
 import com.app.easypharma_backend.domain.pharmacy.mapper.PharmacyMapper;
 import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
 import com.app.easypharma_backend.domain.pharmacy.service.interfaces.PharmacyServiceInterface;
+import com.app.easypharma_backend.domain.search.service.MedicationSearchIndex;
+import com.app.easypharma_backend.domain.search.service.PharmacyGeoIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,6 +28,8 @@ public class PharmacyServiceImplementation implements PharmacyServiceInterface {
     private final PharmacyRepository pharmacyRepository;
     private final PharmacyMapper pharmacyMapper;
     private final UserRepository userRepository;
+    private final MedicationSearchIndex medicationSearchIndex;
+    private final PharmacyGeoIndex pharmacyGeoIndex;
 
     @Override
     public List<PharmacyDTO> getAllPharmacies() {
@@ -96,6 +100,8 @@ public class PharmacyServiceImplementation implements PharmacyServiceInterface {
 
         // 3. Sauvegarder
         Pharmacy saved = pharmacyRepository.save(existing);
+        medicationSearchIndex.refreshPharmacy(saved);
+        pharmacyGeoIndex.refresh(saved);
 
         // 4. Retourner le DTO
         return pharmacyMapper.toDTO(saved);
@@ -110,6 +116,8 @@ public class PharmacyServiceImplementation implements PharmacyServiceInterface {
             pharmacy.setValidatedAt(LocalDateTime.now());
         }
         Pharmacy saved = pharmacyRepository.save(pharmacy);
+        medicationSearchIndex.refreshPharmacy(saved);
+        pharmacyGeoIndex.refresh(saved);
         return pharmacyMapper.toDTO(saved);
     }
 
@@ -131,8 +139,13 @@ public class PharmacyServiceImplementation implements PharmacyServiceInterface {
     @Override
     public List<PharmacyDTO> findNearbyPharmacies(@NonNull Double latitude, @NonNull Double longitude,
             @NonNull Double radiusKm) {
-        return pharmacyMapper.toDTOList(
-                pharmacyRepository.findNearbyPharmacies(latitude, longitude, radiusKm));
+        // Grille en mémoire : pas d'aller-retour vers Postgres
+        return pharmacyGeoIndex.findWithinRadius(latitude, longitude, radiusKm);
+    }
+
+    @Override
+    public List<PharmacyDTO> findNearestPharmacies(@NonNull Double latitude, @NonNull Double longitude, int limit) {
+        return pharmacyGeoIndex.findNearest(latitude, longitude, limit);
     }
 
     @Override
@@ -147,6 +160,8 @@ public class PharmacyServiceImplementation implements PharmacyServiceInterface {
             throw new RuntimeException("Pharmacy not found");
         }
         pharmacyRepository.deleteById(id);
+        pharmacyGeoIndex.remove(id);
+        medicationSearchIndex.removePharmacy(id);
     }
 
     @Override
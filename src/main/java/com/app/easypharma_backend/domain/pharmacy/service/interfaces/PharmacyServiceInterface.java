@@ -65,6 +65,11 @@ public interface PharmacyServiceInterface {
     List<PharmacyDTO> findNearbyPharmacies(@NonNull Double latitude, @NonNull Double longitude,
             @NonNull Double radiusKm);
 
+    /**
+     * Les pharmacies approuvées les plus proches (k plus proches voisins)
+     */
+    List<PharmacyDTO> findNearestPharmacies(@NonNull Double latitude, @NonNull Double longitude, int limit);
+
     /**
      * Recherche par nom (LIKE)
      */
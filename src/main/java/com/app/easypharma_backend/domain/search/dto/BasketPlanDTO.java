@@ -0,0 +1,55 @@
+package com.app.easypharma_backend.domain.search.dto;
+
+import com.app.easypharma_backend.domain.pharmacy.dto.PharmacyDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Répartition d'un panier entre une ou plusieurs pharmacies, avec le coût
+ * total (médicaments + frais de livraison de chaque pharmacie)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BasketPlanDTO {
+
+    private List<PharmacyShare> pharmacies;
+    private BigDecimal medicationsTotal;
+    private BigDecimal deliveryFeeTotal;
+    private BigDecimal total;
+    private double totalDistanceKm;
+    // Médicaments introuvables en stock suffisant dans le rayon
+    private List<UUID> unavailableMedicationIds;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PharmacyShare {
+        private PharmacyDTO pharmacy;
+        private double distanceKm;
+        private BigDecimal deliveryFee;
+        private BigDecimal subtotal;
+        private List<Line> lines;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private UUID offerId;
+        private UUID medicationId;
+        private String medicationName;
+        private int quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal lineTotal;
+    }
+}
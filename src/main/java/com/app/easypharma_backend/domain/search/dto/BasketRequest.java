@@ -0,0 +1,51 @@
+package com.app.easypharma_backend.domain.search.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BasketRequest {
+
+    @NotEmpty(message = "Le panier est vide")
+    @Valid
+    private List<BasketItem> items;
+
+    @NotNull(message = "La latitude est requise")
+    private Double latitude;
+
+    @NotNull(message = "La longitude est requise")
+    private Double longitude;
+
+    // Nombre max de pharmacies entre lesquelles répartir le panier (défaut 3)
+    @Min(value = 1, message = "Au moins une pharmacie")
+    private Integer maxPharmacies;
+
+    // Rayon de recherche des pharmacies en km (défaut 20)
+    private Double radiusKm;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BasketItem {
+
+        @NotNull(message = "L'ID du médicament est requis")
+        private UUID medicationId;
+
+        @NotNull(message = "La quantité est requise")
+        @Min(value = 1, message = "La quantité minimale est 1")
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,15 @@
+package com.app.easypharma_backend.domain.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchSuggestionDTO {
+    private String label;
+    private long popularity;
+}
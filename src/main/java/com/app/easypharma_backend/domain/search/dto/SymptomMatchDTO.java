@@ -0,0 +1,16 @@
+package com.app.easypharma_backend.domain.search.dto;
+
+import com.app.easypharma_backend.domain.medication.dto.MedicationDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SymptomMatchDTO {
+    private MedicationDTO medication;
+    private double score;
+}
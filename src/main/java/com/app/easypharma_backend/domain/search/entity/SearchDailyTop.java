@@ -0,0 +1,49 @@
+package com.app.easypharma_backend.domain.search.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Requêtes les plus fréquentes d'une journée (fenêtre quotidienne du
+ * sketch de SearchAnalyticsService). Seul le top de chaque jour est conservé,
+ * une série de lignes par instance de l'application (nodeId).
+ */
+@Entity
+@Table(name = "search_daily_top", uniqueConstraints = @UniqueConstraint(columnNames = { "search_day", "kind", "node_id", "query" }))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchDailyTop {
+
+    @Id
+    @UuidGenerator
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "search_day", nullable = false)
+    private LocalDate day;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 20)
+    private SearchReportKind kind;
+
+    // Instance qui a compté ces recherches
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+
+    @Column(name = "query", nullable = false)
+    private String query;
+
+    @Column(name = "search_count", nullable = false)
+    private long count;
+
+    // Surestimation maximale du compteur (Space-Saving)
+    @Column(name = "max_error", nullable = false)
+    private long error;
+}
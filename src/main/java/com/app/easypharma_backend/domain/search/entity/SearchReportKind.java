@@ -0,0 +1,6 @@
+package com.app.easypharma_backend.domain.search.entity;
+
+public enum SearchReportKind {
+    SEARCHED,
+    ZERO_RESULT
+}
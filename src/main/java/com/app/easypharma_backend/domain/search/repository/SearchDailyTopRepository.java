@@ -0,0 +1,24 @@
+package com.app.easypharma_backend.domain.search.repository;
+
+import com.app.easypharma_backend.domain.search.entity.SearchDailyTop;
+import com.app.easypharma_backend.domain.search.entity.SearchReportKind;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SearchDailyTopRepository extends JpaRepository<SearchDailyTop, UUID> {
+
+    List<SearchDailyTop> findByKindAndDayBetween(SearchReportKind kind, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM SearchDailyTop s WHERE s.day = :day AND s.kind = :kind AND s.nodeId = :nodeId")
+    void deleteByDayAndKindAndNodeId(@Param("day") LocalDate day, @Param("kind") SearchReportKind kind,
+            @Param("nodeId") String nodeId);
+}
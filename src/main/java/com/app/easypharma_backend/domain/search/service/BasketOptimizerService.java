@@ -0,0 +1,279 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.delivery.service.interfaces.DeliveryFeeService;
+import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.domain.pharmacy.mapper.PharmacyMapper;
+import com.app.easypharma_backend.domain.search.dto.BasketPlanDTO;
+import com.app.easypharma_backend.domain.search.dto.BasketRequest;
+import com.app.easypharma_backend.infrastructure.exception.ValidationException;
+import com.app.easypharma_backend.infrastructure.util.GeoUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Répartit un panier (ordonnance de plusieurs médicaments) entre les
+ * pharmacies proches au moindre coût : prix des médicaments plus frais de
+ * livraison de chaque pharmacie sollicitée, la distance départageant les
+ * égalités.
+ *
+ * Toutes les offres candidates sont lues en une requête, puis le problème de
+ * couverture est résolu exactement en mémoire par programmation dynamique sur
+ * les sous-ensembles d'articles (au plus MAX_ITEMS articles distincts).
+ */
+@Service
+@RequiredArgsConstructor
+public class BasketOptimizerService {
+
+    static final int MAX_ITEMS = 12;
+    private static final int DEFAULT_MAX_PHARMACIES = 3;
+    private static final double DEFAULT_RADIUS_KM = 20.0;
+    private static final double MAX_RADIUS_KM = 100.0;
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private final PharmacyMedicationRepository pharmacyMedicationRepository;
+    private final DeliveryFeeService deliveryFeeService;
+    private final PharmacyMapper pharmacyMapper;
+
+    /**
+     * Meilleur plan pour chaque nombre de pharmacies (1 à maxPharmacies) qui
+     * réduit le coût total, du moins cher au plus cher
+     */
+    @Transactional(readOnly = true)
+    public List<BasketPlanDTO> optimize(BasketRequest request) {
+        // Un même médicament saisi deux fois : quantités cumulées
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        for (BasketRequest.BasketItem item : request.getItems()) {
+            quantities.merge(item.getMedicationId(), item.getQuantity(), Integer::sum);
+        }
+        if (quantities.size() > MAX_ITEMS) {
+            throw new ValidationException("Le panier ne peut pas dépasser " + MAX_ITEMS + " médicaments distincts");
+        }
+        double latitude = request.getLatitude();
+        double longitude = request.getLongitude();
+        double radiusKm = request.getRadiusKm() != null
+                ? Math.max(0.1, Math.min(request.getRadiusKm(), MAX_RADIUS_KM))
+                : DEFAULT_RADIUS_KM;
+        int maxPharmacies = request.getMaxPharmacies() != null ? request.getMaxPharmacies() : DEFAULT_MAX_PHARMACIES;
+
+        List<UUID> medicationIds = new ArrayList<>(quantities.keySet());
+        int[] itemQuantities = quantities.values().stream().mapToInt(Integer::intValue).toArray();
+        List<Candidate> candidates = loadCandidates(medicationIds, itemQuantities, latitude, longitude, radiusKm);
+
+        int n = medicationIds.size();
+        int coverable = 0;
+        for (Candidate candidate : candidates) {
+            coverable |= candidate.mask;
+        }
+        List<UUID> unavailable = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if ((coverable & (1 << i)) == 0) {
+                unavailable.add(medicationIds.get(i));
+            }
+        }
+        if (coverable == 0) {
+            return List.of();
+        }
+
+        // bestCost[s] : pharmacie la moins chère servant exactement les articles s (frais inclus)
+        long[] bestCost = new long[1 << n];
+        int[] bestCandidate = new int[1 << n];
+        Arrays.fill(bestCost, UNREACHABLE);
+        long[] itemsCost = new long[1 << n];
+        for (int c = 0; c < candidates.size(); c++) {
+            Candidate candidate = candidates.get(c);
+            int mask = candidate.mask;
+            // Sous-ensembles de mask par ordre croissant : s ^ lowest a déjà été calculé
+            for (int s = (-mask) & mask; s != 0; s = (s - mask) & mask) {
+                int lowest = s & -s;
+                itemsCost[s] = itemsCost[s ^ lowest] + candidate.lineCents[Integer.numberOfTrailingZeros(lowest)];
+                long total = candidate.feeCents + itemsCost[s];
+                if (total < bestCost[s] || (total == bestCost[s]
+                        && candidate.distanceKm < candidates.get(bestCandidate[s]).distanceKm)) {
+                    bestCost[s] = total;
+                    bestCandidate[s] = c;
+                }
+            }
+        }
+
+        // cost[k][mask] : couverture de mask par au plus k pharmacies
+        int rounds = Math.max(1, Math.min(maxPharmacies, Math.min(Integer.bitCount(coverable), candidates.size())));
+        long[][] cost = new long[rounds + 1][1 << n];
+        int[][] choice = new int[rounds + 1][1 << n];
+        Arrays.fill(cost[0], UNREACHABLE);
+        cost[0][0] = 0;
+        for (int k = 1; k <= rounds; k++) {
+            for (int mask = coverable; ; mask = (mask - 1) & coverable) {
+                cost[k][mask] = cost[k - 1][mask];
+                if (mask != 0) {
+                    // La pharmacie ajoutée sert toujours l'article de plus faible rang : pas de permutations
+                    int lowest = mask & -mask;
+                    int rest = mask ^ lowest;
+                    for (int extra = rest; ; extra = (extra - 1) & rest) {
+                        int s = extra | lowest;
+                        long previous = cost[k - 1][mask ^ s];
+                        if (bestCost[s] != UNREACHABLE && previous != UNREACHABLE
+                                && previous + bestCost[s] < cost[k][mask]) {
+                            cost[k][mask] = previous + bestCost[s];
+                            choice[k][mask] = s;
+                        }
+                        if (extra == 0) {
+                            break;
+                        }
+                    }
+                }
+                if (mask == 0) {
+                    break;
+                }
+            }
+        }
+
+        List<BasketPlanDTO> plans = new ArrayList<>();
+        for (int k = 1; k <= rounds; k++) {
+            if (cost[k][coverable] < cost[k - 1][coverable]) {
+                plans.add(toPlan(k, coverable, choice, bestCandidate, candidates, medicationIds, itemQuantities,
+                        unavailable));
+            }
+        }
+        plans.sort(Comparator.comparing(BasketPlanDTO::getTotal)
+                .thenComparingDouble(BasketPlanDTO::getTotalDistanceKm));
+        return plans;
+    }
+
+    // Pharmacies du rayon, avec leurs offres en stock suffisant pour chaque article
+    private List<Candidate> loadCandidates(List<UUID> medicationIds, int[] itemQuantities, double latitude,
+            double longitude, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double lonDelta = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        List<PharmacyMedication> offers = pharmacyMedicationRepository.findBasketCandidates(medicationIds,
+                BigDecimal.valueOf(latitude - latDelta), BigDecimal.valueOf(latitude + latDelta),
+                BigDecimal.valueOf(longitude - lonDelta), BigDecimal.valueOf(longitude + lonDelta));
+
+        Map<UUID, Integer> itemIndex = new LinkedHashMap<>();
+        for (int i = 0; i < medicationIds.size(); i++) {
+            itemIndex.put(medicationIds.get(i), i);
+        }
+        Map<UUID, Candidate> byPharmacy = new LinkedHashMap<>();
+        for (PharmacyMedication offer : offers) {
+            Pharmacy pharmacy = offer.getPharmacy();
+            Integer index = itemIndex.get(offer.getMedication().getId());
+            // Les unités réservées par des commandes en attente ne sont pas commandables
+            if (index == null || offer.getAvailableQuantity() < itemQuantities[index]
+                    || pharmacy.getLatitude() == null || pharmacy.getLongitude() == null) {
+                continue;
+            }
+            Candidate candidate = byPharmacy.get(pharmacy.getId());
+            if (candidate == null) {
+                double distanceKm = GeoUtils.calculateDistance(latitude, longitude,
+                        pharmacy.getLatitude().doubleValue(), pharmacy.getLongitude().doubleValue());
+                if (distanceKm > radiusKm) {
+                    continue;
+                }
+                candidate = new Candidate(pharmacy, distanceKm, deliveryFeeService.calculateFee(distanceKm),
+                        medicationIds.size());
+                byPharmacy.put(pharmacy.getId(), candidate);
+            }
+            long lineCents = toCents(offer.getPrice()) * itemQuantities[index];
+            if ((candidate.mask & (1 << index)) == 0 || lineCents < candidate.lineCents[index]) {
+                candidate.offers[index] = offer;
+                candidate.lineCents[index] = lineCents;
+                candidate.mask |= 1 << index;
+            }
+        }
+        return new ArrayList<>(byPharmacy.values());
+    }
+
+    private BasketPlanDTO toPlan(int k, int coverable, int[][] choice, int[] bestCandidate,
+            List<Candidate> candidates, List<UUID> medicationIds, int[] itemQuantities, List<UUID> unavailable) {
+        List<BasketPlanDTO.PharmacyShare> shares = new ArrayList<>();
+        BigDecimal medicationsTotal = BigDecimal.ZERO;
+        BigDecimal deliveryFeeTotal = BigDecimal.ZERO;
+        double totalDistanceKm = 0;
+
+        int mask = coverable;
+        for (int round = k; round > 0 && mask != 0; round--) {
+            int s = choice[round][mask];
+            if (s == 0) {
+                // Même couverture atteinte avec moins de pharmacies
+                continue;
+            }
+            Candidate candidate = candidates.get(bestCandidate[s]);
+            List<BasketPlanDTO.Line> lines = new ArrayList<>();
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (int i = 0; i < medicationIds.size(); i++) {
+                if ((s & (1 << i)) == 0) {
+                    continue;
+                }
+                PharmacyMedication offer = candidate.offers[i];
+                BigDecimal lineTotal = offer.getPrice().multiply(BigDecimal.valueOf(itemQuantities[i]));
+                subtotal = subtotal.add(lineTotal);
+                lines.add(BasketPlanDTO.Line.builder()
+                        .offerId(offer.getId())
+                        .medicationId(medicationIds.get(i))
+                        .medicationName(offer.getMedication().getName())
+                        .quantity(itemQuantities[i])
+                        .unitPrice(offer.getPrice())
+                        .lineTotal(lineTotal)
+                        .build());
+            }
+            shares.add(BasketPlanDTO.PharmacyShare.builder()
+                    .pharmacy(pharmacyMapper.toDTO(candidate.pharmacy))
+                    .distanceKm(candidate.distanceKm)
+                    .deliveryFee(candidate.fee)
+                    .subtotal(subtotal)
+                    .lines(lines)
+                    .build());
+            medicationsTotal = medicationsTotal.add(subtotal);
+            deliveryFeeTotal = deliveryFeeTotal.add(candidate.fee);
+            totalDistanceKm += candidate.distanceKm;
+            mask ^= s;
+        }
+        shares.sort(Comparator.comparingDouble(BasketPlanDTO.PharmacyShare::getDistanceKm));
+
+        return BasketPlanDTO.builder()
+                .pharmacies(shares)
+                .medicationsTotal(medicationsTotal)
+                .deliveryFeeTotal(deliveryFeeTotal)
+                .total(medicationsTotal.add(deliveryFeeTotal))
+                .totalDistanceKm(totalDistanceKm)
+                .unavailableMedicationIds(unavailable)
+                .build();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static class Candidate {
+        final Pharmacy pharmacy;
+        final double distanceKm;
+        final BigDecimal fee;
+        final long feeCents;
+        final PharmacyMedication[] offers;
+        final long[] lineCents;
+        // Articles que la pharmacie peut servir
+        int mask;
+
+        Candidate(Pharmacy pharmacy, double distanceKm, BigDecimal fee, int items) {
+            this.pharmacy = pharmacy;
+            this.distanceKm = distanceKm;
+            this.fee = fee;
+            this.feeCents = toCents(fee);
+            this.offers = new PharmacyMedication[items];
+            this.lineCents = new long[items];
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BK-tree de mots pour la recherche approximative (fautes de frappe).
+ * La distance utilisée est Damerau-Levenshtein (insertion, suppression,
+ * substitution, inversion de deux lettres voisines), dans sa forme non
+ * restreinte : c'est une vraie distance (inégalité triangulaire), condition
+ * de l'élagage du BK-tree.
+ *
+ * Non thread-safe : les écritures doivent être protégées par l'appelant.
+ */
+public class BkTree {
+
+    private Node root;
+    private int size;
+
+    public void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(word, node.word, Integer.MAX_VALUE);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(word));
+                node.maxChildDistance = Math.max(node.maxChildDistance, distance);
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Mots à une distance au plus {@code maxDistance} du mot recherché.
+     * {@code maxVisits} borne le nombre de nœuds comparés, et donc le temps
+     * de réponse, même sur un très grand vocabulaire.
+     */
+    public List<String> search(String word, int maxDistance, int maxVisits) {
+        List<String> matches = new ArrayList<>();
+        if (root == null) {
+            return matches;
+        }
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        int visits = 0;
+        while (!pending.isEmpty() && visits < maxVisits) {
+            Node node = pending.pop();
+            visits++;
+            // Au-delà, ni le nœud ni aucun enfant ne peut correspondre : calcul interrompu
+            int distance = distance(word, node.word, node.maxChildDistance + maxDistance);
+            if (distance <= maxDistance) {
+                matches.add(node.word);
+            }
+            // Inégalité triangulaire : seuls les enfants dans [d - max, d + max] peuvent correspondre
+            for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= maxDistance) {
+                    pending.push(child.getValue());
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Distance de Damerau-Levenshtein (algorithme de Lowrance-Wagner). Le
+     * minimum d'une ligne ne décroît jamais : le calcul s'arrête dès qu'il
+     * dépasse {@code limit} et renvoie alors ce minimum, supérieur à
+     * {@code limit} mais pas forcément égal à la distance.
+     */
+    static int distance(String a, String b, int limit) {
+        int n = a.length();
+        int m = b.length();
+        if (n == 0 || m == 0) {
+            return Math.max(n, m);
+        }
+        if (Math.abs(n - m) > limit) {
+            return Math.abs(n - m);
+        }
+        int infinity = n + m;
+        // Matrice décalée d'une ligne et d'une colonne : d[i + 1][j + 1] = distance des préfixes a[0, i) et b[0, j)
+        int[][] d = new int[n + 2][m + 2];
+        d[0][0] = infinity;
+        for (int i = 0; i <= n; i++) {
+            d[i + 1][0] = infinity;
+            d[i + 1][1] = i;
+        }
+        for (int j = 0; j <= m; j++) {
+            d[0][j + 1] = infinity;
+            d[1][j + 1] = j;
+        }
+        // Dernière ligne où chaque lettre de a a été vue
+        Map<Character, Integer> lastRow = new HashMap<>();
+        for (int i = 1; i <= n; i++) {
+            int lastMatchColumn = 0;
+            int rowMin = i;
+            for (int j = 1; j <= m; j++) {
+                int k = lastRow.getOrDefault(b.charAt(j - 1), 0);
+                int l = lastMatchColumn;
+                int cost = 1;
+                if (a.charAt(i - 1) == b.charAt(j - 1)) {
+                    cost = 0;
+                    lastMatchColumn = j;
+                }
+                int value = Math.min(Math.min(d[i][j] + cost, d[i + 1][j] + 1), d[i][j + 1] + 1);
+                value = Math.min(value, d[k][l] + (i - k - 1) + 1 + (j - l - 1));
+                d[i + 1][j + 1] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            lastRow.put(a.charAt(i - 1), i);
+            if (rowMin > limit) {
+                return rowMin;
+            }
+        }
+        return d[n + 1][m + 1];
+    }
+
+    private static final class Node {
+        private final String word;
+        private final Map<Integer, Node> children = new HashMap<>();
+        private int maxChildDistance;
+
+        private Node(String word) {
+            this.word = word;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.repository.MedicationRepository;
+import com.app.easypharma_backend.infrastructure.persistence.AfterCommit;
+import com.app.easypharma_backend.infrastructure.util.TextNormalizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Classes d'équivalence des médicaments substituables : même nom générique
+ * (DCI), même dosage et même classe thérapeutique. "Doliprane 500 mg" et
+ * "Efferalgan 500mg" (paracétamol, ANTALGIQUE) appartiennent au même groupe.
+ *
+ * Construit au démarrage, puis mis à jour à chaque création de médicament.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GenericEquivalenceIndex {
+
+    private final MedicationRepository medicationRepository;
+    private final SearchIndexBroadcaster searchIndexBroadcaster;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // clé d'équivalence -> médicaments du groupe
+    private final Map<String, Set<UUID>> groups = new HashMap<>();
+    private final Map<UUID, String> keyByMedication = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Medication> all = medicationRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            groups.clear();
+            keyByMedication.clear();
+            for (Medication medication : all) {
+                add(medication.getId(), equivalenceKey(medication));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Generic equivalence index built: {} medications in {} groups", keyByMedication.size(),
+                groups.size());
+    }
+
+    /**
+     * Indexe (ou ré-indexe) un médicament, après le commit de la transaction
+     * appelante.
+     */
+    public void index(Medication medication) {
+        applyIndex(medication);
+        UUID medicationId = medication.getId();
+        AfterCommit.run(() -> searchIndexBroadcaster.publish(
+                SearchIndexDelta.of(SearchIndexDelta.Kind.MEDICATION_GENERIC, medicationId)));
+    }
+
+    // Rejoue aussi les deltas des autres instances (SearchIndexDeltaListener), sans les republier
+    void applyIndex(Medication medication) {
+        UUID medicationId = medication.getId();
+        // Clé calculée tout de suite : l'entité peut encore changer avant le commit
+        String key = equivalenceKey(medication);
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(medicationId);
+                add(medicationId, key);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Les équivalents du médicament, lui-même exclu (vide s'il n'a pas de
+     * nom générique ou de dosage renseigné)
+     */
+    public Set<UUID> equivalentsOf(UUID medicationId) {
+        lock.readLock().lock();
+        try {
+            String key = keyByMedication.get(medicationId);
+            if (key == null) {
+                return Set.of();
+            }
+            Set<UUID> equivalents = new LinkedHashSet<>(groups.get(key));
+            equivalents.remove(medicationId);
+            return equivalents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * DCI, dosage et classe normalisés ("500 mg" et "500mg" sont identiques) ;
+     * null si le médicament ne peut pas être comparé
+     */
+    static String equivalenceKey(Medication medication) {
+        String genericName = TextNormalizer.normalize(medication.getGenericName());
+        String dosage = TextNormalizer.normalize(medication.getDosage()).replace(" ", "");
+        if (genericName.isEmpty() || dosage.isEmpty() || medication.getTherapeuticClass() == null) {
+            return null;
+        }
+        return genericName + "|" + dosage + "|" + medication.getTherapeuticClass().name();
+    }
+
+    private void add(UUID medicationId, String key) {
+        if (key == null) {
+            return;
+        }
+        keyByMedication.put(medicationId, key);
+        groups.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(medicationId);
+    }
+
+    private void remove(UUID medicationId) {
+        String key = keyByMedication.remove(medicationId);
+        if (key != null) {
+            Set<UUID> group = groups.get(key);
+            group.remove(medicationId);
+            if (group.isEmpty()) {
+                groups.remove(key);
+            }
+        }
+    }
+}
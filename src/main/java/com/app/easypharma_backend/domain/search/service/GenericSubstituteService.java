@@ -0,0 +1,108 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.medication.dto.PatientMedicationSearchResultDTO;
+import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.domain.pharmacy.mapper.PharmacyMapper;
+import com.app.easypharma_backend.infrastructure.util.GeoUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Substituts d'un médicament indisponible : offres en stock du médicament
+ * lui-même et de ses équivalents (GenericEquivalenceIndex), dans la pharmacie
+ * indiquée ou autour de l'utilisateur.
+ *
+ * Les offres sont lues en une requête bornée par un rectangle autour de
+ * l'utilisateur, puis filtrées sur la distance réelle.
+ */
+@Service
+@RequiredArgsConstructor
+public class GenericSubstituteService {
+
+    private static final double MAX_RADIUS_KM = 50.0;
+    private static final int MAX_LIMIT = 100;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final PharmacyMedicationRepository pharmacyMedicationRepository;
+    private final GenericEquivalenceIndex genericEquivalenceIndex;
+    private final PharmacyMapper pharmacyMapper;
+
+    /**
+     * La pharmacie indiquée d'abord, puis les plus proches, puis les moins
+     * chères. Sans position, seule la pharmacie indiquée est interrogée.
+     */
+    @Transactional(readOnly = true)
+    public List<PatientMedicationSearchResultDTO> findSubstitutes(UUID medicationId, UUID pharmacyId,
+            Double userLat, Double userLon, double radiusKm, int limit) {
+        boolean located = userLat != null && userLon != null;
+
+        // Le médicament lui-même (ailleurs) et ses équivalents, en une requête
+        Set<UUID> medicationIds = new LinkedHashSet<>();
+        medicationIds.add(medicationId);
+        medicationIds.addAll(genericEquivalenceIndex.equivalentsOf(medicationId));
+
+        BigDecimal minLat = null, maxLat = null, minLon = null, maxLon = null;
+        double radius = Math.max(0.1, Math.min(radiusKm, MAX_RADIUS_KM));
+        if (located) {
+            double latDelta = radius / KM_PER_DEGREE;
+            double lonDelta = radius / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(userLat)), 0.01));
+            minLat = BigDecimal.valueOf(userLat - latDelta);
+            maxLat = BigDecimal.valueOf(userLat + latDelta);
+            minLon = BigDecimal.valueOf(userLon - lonDelta);
+            maxLon = BigDecimal.valueOf(userLon + lonDelta);
+        }
+
+        List<PatientMedicationSearchResultDTO> results = new ArrayList<>();
+        for (PharmacyMedication offer : pharmacyMedicationRepository.findSubstituteOffers(medicationIds, pharmacyId,
+                minLat, maxLat, minLon, maxLon)) {
+            Pharmacy pharmacy = offer.getPharmacy();
+            Double distanceKm = null;
+            if (located && pharmacy.getLatitude() != null && pharmacy.getLongitude() != null) {
+                distanceKm = GeoUtils.calculateDistance(userLat, userLon, pharmacy.getLatitude().doubleValue(),
+                        pharmacy.getLongitude().doubleValue());
+                // Les coins du rectangle sont hors du rayon
+                if (!pharmacy.getId().equals(pharmacyId) && distanceKm > radius) {
+                    continue;
+                }
+            }
+            results.add(toResult(offer, distanceKm));
+        }
+
+        // Tri stable : à distance égale, l'ordre de prix de la requête est conservé
+        results.sort(Comparator
+                .comparing((PatientMedicationSearchResultDTO result) -> !result.getPharmacy().getId()
+                        .equals(pharmacyId))
+                .thenComparing(result -> result.getDistanceKm() != null ? result.getDistanceKm() : Double.MAX_VALUE));
+        return results.subList(0, Math.min(results.size(), Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+
+    private PatientMedicationSearchResultDTO toResult(PharmacyMedication offer, Double distanceKm) {
+        return PatientMedicationSearchResultDTO.builder()
+                .offerId(offer.getId())
+                .medicationId(offer.getMedication().getId())
+                .medicationName(offer.getMedication().getName())
+                .medicationGenericName(offer.getMedication().getGenericName())
+                .medicationDescription(offer.getMedication().getDescription())
+                .medicationPhotoUrl(offer.getMedication().getPhotoUrl())
+                .price(offer.getPrice())
+                .isAvailable(offer.getIsAvailable())
+                .stockQuantity(offer.getAvailableQuantity())
+                .expiryDate(offer.getExpiryDate())
+                .pharmacy(pharmacyMapper.toDTO(offer.getPharmacy()))
+                .averageRating(offer.getPharmacy().getAverageRating())
+                .ratingCount(offer.getPharmacy().getRatingCount())
+                .distanceKm(distanceKm)
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Instance unique (développement, tests) : rien à propager
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.index-sync.transport", havingValue = "memory", matchIfMissing = true)
+public class LocalSearchIndexBroadcaster implements SearchIndexBroadcaster {
+
+    @Override
+    public void publish(SearchIndexDelta delta) {
+    }
+}
@@ -0,0 +1,515 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.medication.dto.PatientMedicationSearchResultDTO;
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
+import com.app.easypharma_backend.domain.medication.entity.TherapeuticClass;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.domain.medication.service.interfaces.MedicationPriceStatsService;
+import com.app.easypharma_backend.domain.pharmacy.dto.PharmacyDTO;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.domain.pharmacy.entity.PharmacyStatus;
+import com.app.easypharma_backend.domain.pharmacy.mapper.PharmacyMapper;
+import com.app.easypharma_backend.infrastructure.persistence.AfterCommit;
+import com.app.easypharma_backend.infrastructure.util.TextNormalizer;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index inversé en mémoire des offres (PharmacyMedication) pour la recherche
+ * patient. Les mots du nom, du nom générique et des symptômes pointent vers
+ * les médicaments ; chaque médicament pointe vers ses offres.
+ *
+ * L'index est construit au démarrage puis mis à jour à chaque écriture de
+ * stock/prix. Les modifications ne sont publiées qu'après le commit de la
+ * transaction qui les porte : une recherche ne voit jamais un stock ou un
+ * prix non validé, et un rollback n'a rien à défaire. Chaque modification
+ * est ensuite propagée aux autres instances (SearchIndexBroadcaster).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MedicationSearchIndex {
+
+    // Nombre max de mots comparés par recherche approximative (borne la latence)
+    private static final int MAX_FUZZY_VISITS = 20_000;
+
+    private final PharmacyMedicationRepository pharmacyMedicationRepository;
+    private final PharmacyMapper pharmacyMapper;
+    private final SearchResultCache searchResultCache;
+    private final MedicationPriceStatsService medicationPriceStatsService;
+    private final SearchIndexBroadcaster searchIndexBroadcaster;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // mot normalisé -> médicaments contenant ce mot
+    private final NavigableMap<String, Set<UUID>> postings = new TreeMap<>();
+    private final Map<UUID, IndexedMedication> medications = new HashMap<>();
+    private final Map<UUID, IndexedOffer> offers = new HashMap<>();
+    private final Map<UUID, Set<UUID>> offersByMedication = new HashMap<>();
+    private final Map<UUID, PharmacyDTO> pharmacies = new HashMap<>();
+    // vocabulaire indexé, pour la recherche tolérante aux fautes
+    private final BkTree vocabulary = new BkTree();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<PharmacyMedication> all = pharmacyMedicationRepository.findAllForSearchIndex();
+
+        Map<UUID, PharmacyDTO> loadedPharmacies = new HashMap<>();
+        for (PharmacyMedication pm : all) {
+            loadedPharmacies.computeIfAbsent(pm.getPharmacy().getId(), id -> pharmacyMapper.toDTO(pm.getPharmacy()));
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            vocabulary.clear();
+            medications.clear();
+            offers.clear();
+            offersByMedication.clear();
+            pharmacies.clear();
+            pharmacies.putAll(loadedPharmacies);
+            for (PharmacyMedication pm : all) {
+                indexMedication(IndexedMedication.of(pm.getMedication()));
+                putOffer(IndexedOffer.of(pm));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Medication search index built: {} offers, {} medications, {} terms",
+                offers.size(), medications.size(), postings.size());
+    }
+
+    /**
+     * Recherche les offres disponibles dans les pharmacies approuvées.
+     * Chaque mot de la requête doit être le préfixe d'un mot indexé du
+     * médicament. Une requête vide retourne toutes les offres disponibles.
+     */
+    public List<PatientMedicationSearchResultDTO> search(String query, TherapeuticClass therapeuticClass) {
+        List<String> terms = TextNormalizer.tokenize(query);
+
+        lock.readLock().lock();
+        try {
+            Collection<UUID> candidates = terms.isEmpty() ? medications.keySet() : matchAllTerms(terms);
+            return collectOffers(candidates, therapeuticClass);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche tolérante aux fautes ("amoxiciline", "doliprane 500") : un mot
+     * sans correspondance exacte est rapproché des mots indexés à 1 ou 2
+     * fautes près. Sont retenus les médicaments qui correspondent au plus
+     * grand nombre de mots de la requête.
+     */
+    public List<PatientMedicationSearchResultDTO> fuzzySearch(String query, TherapeuticClass therapeuticClass) {
+        List<String> terms = TextNormalizer.tokenize(query);
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<UUID, Integer> matchedTerms = new HashMap<>();
+            for (String term : terms) {
+                Set<UUID> termMatches = prefixMatches(term);
+                int maxDistance = maxTypos(term);
+                if (termMatches.isEmpty() && maxDistance > 0) {
+                    for (String word : vocabulary.search(term, maxDistance, MAX_FUZZY_VISITS)) {
+                        termMatches.addAll(postings.getOrDefault(word, Set.of()));
+                    }
+                }
+                for (UUID medicationId : termMatches) {
+                    matchedTerms.merge(medicationId, 1, Integer::sum);
+                }
+            }
+
+            int best = matchedTerms.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+            List<UUID> candidates = new ArrayList<>();
+            matchedTerms.forEach((medicationId, count) -> {
+                if (count == best) {
+                    candidates.add(medicationId);
+                }
+            });
+            return collectOffers(candidates, therapeuticClass);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<PatientMedicationSearchResultDTO> collectOffers(Collection<UUID> candidates,
+            TherapeuticClass therapeuticClass) {
+        List<PatientMedicationSearchResultDTO> results = new ArrayList<>();
+        for (UUID medicationId : candidates) {
+            IndexedMedication medication = medications.get(medicationId);
+            if (medication == null
+                    || (therapeuticClass != null && medication.getTherapeuticClass() != therapeuticClass)) {
+                continue;
+            }
+            for (UUID offerId : offersByMedication.getOrDefault(medicationId, Set.of())) {
+                IndexedOffer offer = offers.get(offerId);
+                PharmacyDTO pharmacy = pharmacies.get(offer.getPharmacyId());
+                if (!offer.isInStock() || pharmacy == null
+                        || pharmacy.getStatus() != PharmacyStatus.APPROVED) {
+                    continue;
+                }
+                results.add(toResult(medication, offer, pharmacy));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Ajoute ou met à jour une offre (ajout au stock, prix, quantité...)
+     */
+    public void upsert(PharmacyMedication pharmacyMedication) {
+        applyUpsert(pharmacyMedication);
+        publish(SearchIndexDelta.of(SearchIndexDelta.Kind.OFFER_UPSERTED, pharmacyMedication.getId()));
+    }
+
+    // Les apply* rejouent aussi les deltas des autres instances (SearchIndexDeltaListener), sans les republier
+    void applyUpsert(PharmacyMedication pharmacyMedication) {
+        // Instantané pris dans la transaction, publié dans l'index après son commit
+        Pharmacy pharmacy = pharmacyMedication.getPharmacy();
+        PharmacyDTO pharmacyDTO = isPharmacyIndexed(pharmacy.getId()) ? null : pharmacyMapper.toDTO(pharmacy);
+        IndexedMedication medication = IndexedMedication.of(pharmacyMedication.getMedication());
+        IndexedOffer offer = IndexedOffer.of(pharmacyMedication);
+
+        AfterCommit.run(() -> {
+            IndexedOffer previous;
+            lock.writeLock().lock();
+            try {
+                indexMedication(medication);
+                if (pharmacyDTO != null) {
+                    pharmacies.putIfAbsent(pharmacy.getId(), pharmacyDTO);
+                }
+                previous = putOffer(offer);
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            boolean becameVisible = offer.isInStock() && (previous == null || !previous.isInStock());
+            searchResultCache.evictMedication(medication.getId(), becameVisible);
+            // Une variation de stock qui ne change pas la disponibilité n'affecte pas les prix
+            if (previous == null || !Objects.equals(previous.getIsAvailable(), offer.getIsAvailable())
+                    || previous.getPrice().compareTo(offer.getPrice()) != 0) {
+                medicationPriceStatsService.markDirty(medication.getId());
+            }
+        });
+    }
+
+    /**
+     * Met à jour le stock d'une offre déjà indexée, après une écriture
+     * directe en base (décrément, réassort, réservation d'une commande)
+     */
+    public void updateStock(UUID offerId, int stockQuantity, int reservedQuantity, boolean isAvailable) {
+        applyStock(offerId, stockQuantity, reservedQuantity, isAvailable);
+        publish(SearchIndexDelta.builder()
+                .kind(SearchIndexDelta.Kind.OFFER_STOCK)
+                .id(offerId)
+                .stockQuantity(stockQuantity)
+                .reservedQuantity(reservedQuantity)
+                .available(isAvailable)
+                .build());
+    }
+
+    void applyStock(UUID offerId, int stockQuantity, int reservedQuantity, boolean isAvailable) {
+        AfterCommit.run(() -> {
+            IndexedOffer previous;
+            IndexedOffer offer;
+            lock.writeLock().lock();
+            try {
+                previous = offers.get(offerId);
+                if (previous == null) {
+                    return;
+                }
+                offer = new IndexedOffer(offerId, previous.getMedicationId(), previous.getPharmacyId(),
+                        previous.getPrice(), stockQuantity, reservedQuantity, isAvailable, previous.getExpiryDate());
+                putOffer(offer);
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            boolean becameVisible = offer.isInStock() && !previous.isInStock();
+            searchResultCache.evictMedication(offer.getMedicationId(), becameVisible);
+            if (!Objects.equals(previous.getIsAvailable(), offer.getIsAvailable())) {
+                medicationPriceStatsService.markDirty(offer.getMedicationId());
+            }
+        });
+    }
+
+    /**
+     * Retire une offre de l'index (médicament retiré de l'inventaire)
+     */
+    public void remove(UUID pharmacyMedicationId) {
+        applyRemove(pharmacyMedicationId);
+        publish(SearchIndexDelta.of(SearchIndexDelta.Kind.OFFER_REMOVED, pharmacyMedicationId));
+    }
+
+    void applyRemove(UUID pharmacyMedicationId) {
+        AfterCommit.run(() -> {
+            IndexedOffer previous;
+            lock.writeLock().lock();
+            try {
+                previous = removeOffer(pharmacyMedicationId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (previous != null) {
+                searchResultCache.evictMedication(previous.getMedicationId(), false);
+                medicationPriceStatsService.markDirty(previous.getMedicationId());
+            }
+        });
+    }
+
+    /**
+     * Retire une pharmacie supprimée et toutes ses offres de l'index
+     */
+    public void removePharmacy(UUID pharmacyId) {
+        applyRemovePharmacy(pharmacyId);
+        publish(SearchIndexDelta.of(SearchIndexDelta.Kind.PHARMACY_REMOVED, pharmacyId));
+    }
+
+    void applyRemovePharmacy(UUID pharmacyId) {
+        AfterCommit.run(() -> {
+            Set<UUID> affectedMedications = new HashSet<>();
+            lock.writeLock().lock();
+            try {
+                pharmacies.remove(pharmacyId);
+                List<UUID> offerIds = new ArrayList<>();
+                for (IndexedOffer offer : offers.values()) {
+                    if (offer.getPharmacyId().equals(pharmacyId)) {
+                        offerIds.add(offer.getId());
+                        affectedMedications.add(offer.getMedicationId());
+                    }
+                }
+                offerIds.forEach(this::removeOffer);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            affectedMedications.forEach(id -> {
+                searchResultCache.evictMedication(id, false);
+                medicationPriceStatsService.markDirty(id);
+            });
+        });
+    }
+
+    /**
+     * Rafraîchit les informations d'une pharmacie (statut, coordonnées, note)
+     * partagées par toutes ses offres
+     */
+    public void refreshPharmacy(Pharmacy pharmacy) {
+        applyRefreshPharmacy(pharmacy);
+        publish(SearchIndexDelta.of(SearchIndexDelta.Kind.PHARMACY_REFRESHED, pharmacy.getId()));
+    }
+
+    void applyRefreshPharmacy(Pharmacy pharmacy) {
+        PharmacyDTO pharmacyDTO = pharmacyMapper.toDTO(pharmacy);
+        AfterCommit.run(() -> {
+            PharmacyDTO previous;
+            Set<UUID> affectedMedications = new HashSet<>();
+            lock.writeLock().lock();
+            try {
+                previous = pharmacies.put(pharmacy.getId(), pharmacyDTO);
+                for (IndexedOffer offer : offers.values()) {
+                    if (offer.getPharmacyId().equals(pharmacy.getId())) {
+                        affectedMedications.add(offer.getMedicationId());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (previous != null && previous.getStatus() != pharmacyDTO.getStatus()) {
+                // Toutes les offres de la pharmacie apparaissent ou disparaissent
+                searchResultCache.clear();
+                affectedMedications.forEach(medicationPriceStatsService::markDirty);
+            } else {
+                if (previous != null && !Objects.equals(previous.getCity(), pharmacyDTO.getCity())) {
+                    // Les offres changent de ville
+                    affectedMedications.forEach(medicationPriceStatsService::markDirty);
+                }
+                // Note, coordonnées... : seuls les résultats contenant ses offres changent
+                affectedMedications.forEach(id -> searchResultCache.evictMedication(id, false));
+            }
+        });
+    }
+
+    // Après le commit, une fois l'index local à jour
+    private void publish(SearchIndexDelta delta) {
+        AfterCommit.run(() -> searchIndexBroadcaster.publish(delta));
+    }
+
+    private boolean isPharmacyIndexed(UUID pharmacyId) {
+        lock.readLock().lock();
+        try {
+            return pharmacies.containsKey(pharmacyId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<UUID> matchAllTerms(List<String> terms) {
+        Set<UUID> matches = null;
+        for (String term : terms) {
+            Set<UUID> termMatches = prefixMatches(term);
+            if (matches == null) {
+                matches = termMatches;
+            } else {
+                matches.retainAll(termMatches);
+            }
+            if (matches.isEmpty()) {
+                break;
+            }
+        }
+        return matches != null ? matches : Set.of();
+    }
+
+    private Set<UUID> prefixMatches(String term) {
+        Set<UUID> matches = new HashSet<>();
+        for (Set<UUID> ids : postings.subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+            matches.addAll(ids);
+        }
+        return matches;
+    }
+
+    // Fautes tolérées selon la longueur du mot ; les nombres (dosages) doivent être exacts
+    private static int maxTypos(String term) {
+        if (term.length() < 4 || term.chars().allMatch(Character::isDigit)) {
+            return 0;
+        }
+        return term.length() < 8 ? 1 : 2;
+    }
+
+    // Remplace les mots indexés du médicament (nom, symptômes... ont pu changer)
+    private void indexMedication(IndexedMedication medication) {
+        IndexedMedication previous = medications.put(medication.getId(), medication);
+        if (previous != null) {
+            for (String word : previous.getWords()) {
+                if (medication.getWords().contains(word)) {
+                    continue;
+                }
+                Set<UUID> ids = postings.get(word);
+                if (ids != null) {
+                    ids.remove(medication.getId());
+                    if (ids.isEmpty()) {
+                        // Le mot reste dans le BK-tree (pas de suppression) : la recherche l'ignore
+                        postings.remove(word);
+                    }
+                }
+            }
+        }
+        for (String word : medication.getWords()) {
+            if (!postings.containsKey(word)) {
+                vocabulary.add(word);
+            }
+            postings.computeIfAbsent(word, w -> new HashSet<>()).add(medication.getId());
+        }
+    }
+
+    private IndexedOffer putOffer(IndexedOffer offer) {
+        offersByMedication.computeIfAbsent(offer.getMedicationId(), id -> new HashSet<>()).add(offer.getId());
+        return offers.put(offer.getId(), offer);
+    }
+
+    private IndexedOffer removeOffer(UUID offerId) {
+        IndexedOffer removed = offers.remove(offerId);
+        if (removed != null) {
+            Set<UUID> siblings = offersByMedication.get(removed.getMedicationId());
+            if (siblings != null) {
+                siblings.remove(offerId);
+            }
+        }
+        return removed;
+    }
+
+    private PatientMedicationSearchResultDTO toResult(IndexedMedication medication, IndexedOffer offer,
+            PharmacyDTO pharmacy) {
+        return PatientMedicationSearchResultDTO.builder()
+                .offerId(offer.getId())
+                .medicationId(medication.getId())
+                .medicationName(medication.getName())
+                .medicationGenericName(medication.getGenericName())
+                .medicationDescription(medication.getDescription())
+                .medicationPhotoUrl(medication.getPhotoUrl())
+                .price(offer.getPrice())
+                .isAvailable(offer.getIsAvailable())
+                // Quantité commandable : les unités réservées par d'autres commandes sont exclues
+                .stockQuantity(offer.getAvailableQuantity())
+                .expiryDate(offer.getExpiryDate())
+                .pharmacy(pharmacy)
+                .averageRating(pharmacy.getAverageRating())
+                .ratingCount(pharmacy.getRatingCount())
+                .build();
+    }
+
+    @Value
+    private static class IndexedMedication {
+        UUID id;
+        String name;
+        String genericName;
+        String description;
+        String photoUrl;
+        TherapeuticClass therapeuticClass;
+        // mots indexés : nom, nom générique et symptômes
+        Set<String> words;
+
+        static IndexedMedication of(Medication medication) {
+            Set<String> words = new HashSet<>();
+            words.addAll(TextNormalizer.tokenize(medication.getName()));
+            words.addAll(TextNormalizer.tokenize(medication.getGenericName()));
+            words.addAll(TextNormalizer.tokenize(medication.getSymptoms()));
+            return new IndexedMedication(medication.getId(), medication.getName(), medication.getGenericName(),
+                    medication.getDescription(), medication.getPhotoUrl(), medication.getTherapeuticClass(),
+                    words);
+        }
+    }
+
+    @Value
+    private static class IndexedOffer {
+        UUID id;
+        UUID medicationId;
+        UUID pharmacyId;
+        BigDecimal price;
+        Integer stockQuantity;
+        Integer reservedQuantity;
+        Boolean isAvailable;
+        LocalDate expiryDate;
+
+        static IndexedOffer of(PharmacyMedication pm) {
+            return new IndexedOffer(pm.getId(), pm.getMedication().getId(), pm.getPharmacy().getId(),
+                    pm.getPrice(), pm.getStockQuantity(), pm.getReservedQuantity(), pm.getIsAvailable(),
+                    pm.getExpiryDate());
+        }
+
+        int getAvailableQuantity() {
+            return stockQuantity - (reservedQuantity != null ? reservedQuantity : 0);
+        }
+
+        // Visible des patients : disponible et au moins une unité non réservée
+        boolean isInStock() {
+            return Boolean.TRUE.equals(isAvailable) && getAvailableQuantity() > 0;
+        }
+    }
+}
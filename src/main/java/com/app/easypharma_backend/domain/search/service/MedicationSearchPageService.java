@@ -0,0 +1,144 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.application.common.dto.CursorPageResponse;
+import com.app.easypharma_backend.domain.medication.dto.MedicationSearchRow;
+import com.app.easypharma_backend.domain.medication.dto.PatientMedicationSearchResultDTO;
+import com.app.easypharma_backend.domain.medication.entity.TherapeuticClass;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.domain.pharmacy.dto.PharmacyDTO;
+import com.app.easypharma_backend.domain.pharmacy.entity.PharmacyStatus;
+import com.app.easypharma_backend.infrastructure.exception.ValidationException;
+import com.app.easypharma_backend.infrastructure.util.CursorCodec;
+import com.app.easypharma_backend.infrastructure.util.GeoUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Recherche patient paginée par clé (keyset) : chaque page est lue par une
+ * seule requête de projection bornée par LIMIT, quel que soit le nombre total
+ * de résultats.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MedicationSearchPageService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final PharmacyMedicationRepository pharmacyMedicationRepository;
+
+    public CursorPageResponse<PatientMedicationSearchResultDTO> search(String query, TherapeuticClass therapeuticClass,
+            String sortBy, Double userLat, Double userLon, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String normalizedQuery = query != null ? query.trim() : "";
+        String therapeuticClassStr = therapeuticClass != null ? therapeuticClass.name() : null;
+
+        String sortMode = sortMode(sortBy);
+        if (sortMode.equals("NEAREST") && (userLat == null || userLon == null)) {
+            throw new ValidationException("Latitude et longitude requises pour le tri NEAREST");
+        }
+        String cursorKey = cursorKey(sortMode, userLat, userLon);
+
+        // Un curseur d'un autre tri (ou d'une autre origine) désignerait une position sans
+        // rapport dans ce classement
+        CursorCodec.Cursor decoded = cursor != null && !cursor.isBlank() ? CursorCodec.decode(cursor, cursorKey)
+                : null;
+        String cursorValue = decoded != null ? decoded.getSortValue() : null;
+        String cursorId = decoded != null ? decoded.getId().toString() : null;
+
+        // On lit une ligne de plus que la page pour savoir s'il en existe une suivante
+        int limit = pageSize + 1;
+        List<MedicationSearchRow> rows;
+        switch (sortMode) {
+            case "RATING":
+                rows = pharmacyMedicationRepository.searchPageByRating(normalizedQuery, therapeuticClassStr,
+                        cursorValue, cursorId, limit);
+                break;
+            case "NEAREST":
+                rows = pharmacyMedicationRepository.searchPageByDistance(normalizedQuery, therapeuticClassStr,
+                        userLat, userLon, cursorValue, cursorId, limit);
+                break;
+            default:
+                rows = pharmacyMedicationRepository.searchPageByPrice(normalizedQuery, therapeuticClassStr,
+                        cursorValue, cursorId, limit);
+                break;
+        }
+
+        List<PatientMedicationSearchResultDTO> results = rows.stream()
+                .map(row -> toResult(row, userLat, userLon))
+                .collect(Collectors.toList());
+        return CursorPageResponse.of(results, pageSize, last -> nextCursor(sortMode, cursorKey, last));
+    }
+
+    // Tri inconnu : prix, comme l'endpoint non paginé
+    private static String sortMode(String sortBy) {
+        String sortMode = sortBy.toUpperCase(Locale.ROOT);
+        return sortMode.equals("RATING") || sortMode.equals("NEAREST") ? sortMode : "PRICE";
+    }
+
+    // Les distances dépendent du point d'origine : un curseur NEAREST lui est lié
+    private static String cursorKey(String sortMode, Double userLat, Double userLon) {
+        return sortMode.equals("NEAREST") ? sortMode + "@" + userLat + "," + userLon : sortMode;
+    }
+
+    private String nextCursor(String sortMode, String cursorKey, PatientMedicationSearchResultDTO last) {
+        String sortValue;
+        switch (sortMode) {
+            case "RATING":
+                sortValue = String.valueOf(last.getAverageRating());
+                break;
+            case "NEAREST":
+                sortValue = String.valueOf(last.getDistanceKm());
+                break;
+            default:
+                sortValue = last.getPrice().toPlainString();
+                break;
+        }
+        return CursorCodec.encode(cursorKey, sortValue, last.getOfferId());
+    }
+
+    private PatientMedicationSearchResultDTO toResult(MedicationSearchRow row, Double userLat, Double userLon) {
+        PharmacyDTO pharmacy = new PharmacyDTO();
+        pharmacy.setId(row.getPharmacyId());
+        pharmacy.setName(row.getPharmacyName());
+        pharmacy.setAddress(row.getPharmacyAddress());
+        pharmacy.setCity(row.getPharmacyCity());
+        pharmacy.setPhone(row.getPharmacyPhone());
+        pharmacy.setLatitude(row.getPharmacyLatitude());
+        pharmacy.setLongitude(row.getPharmacyLongitude());
+        pharmacy.setOpeningHours(row.getPharmacyOpeningHours());
+        pharmacy.setAverageRating(row.getAverageRating());
+        pharmacy.setRatingCount(row.getRatingCount());
+        pharmacy.setStatus(PharmacyStatus.APPROVED);
+
+        Double distance = row.getDistanceKm();
+        if (distance == null && userLat != null && userLon != null && row.getPharmacyLatitude() != null
+                && row.getPharmacyLongitude() != null) {
+            distance = GeoUtils.calculateDistance(userLat, userLon,
+                    row.getPharmacyLatitude().doubleValue(), row.getPharmacyLongitude().doubleValue());
+        }
+
+        return PatientMedicationSearchResultDTO.builder()
+                .offerId(row.getOfferId())
+                .medicationId(row.getMedicationId())
+                .medicationName(row.getMedicationName())
+                .medicationGenericName(row.getMedicationGenericName())
+                .medicationDescription(row.getMedicationDescription())
+                .medicationPhotoUrl(row.getMedicationPhotoUrl())
+                .price(row.getPrice())
+                .isAvailable(row.getIsAvailable())
+                .stockQuantity(row.getStockQuantity())
+                .expiryDate(row.getExpiryDate())
+                .pharmacy(pharmacy)
+                .averageRating(row.getAverageRating())
+                .ratingCount(row.getRatingCount())
+                .distanceKm(distance)
+                .build();
+    }
+}
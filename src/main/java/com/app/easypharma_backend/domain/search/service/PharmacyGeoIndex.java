@@ -0,0 +1,283 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.pharmacy.dto.PharmacyDTO;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.domain.pharmacy.entity.PharmacyStatus;
+import com.app.easypharma_backend.domain.pharmacy.mapper.PharmacyMapper;
+import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
+import com.app.easypharma_backend.infrastructure.exception.ValidationException;
+import com.app.easypharma_backend.infrastructure.persistence.AfterCommit;
+import com.app.easypharma_backend.infrastructure.util.GeoUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Grille spatiale en mémoire des pharmacies approuvées. La grille découpe
+ * le globe en cellules de CELL_DEGREES ; une recherche ne calcule la distance
+ * exacte (Haversine) que pour les pharmacies des cellules proches, sans
+ * interroger la base.
+ *
+ * Construite au démarrage, puis mise à jour après le commit de chaque
+ * changement de statut ou de coordonnées d'une pharmacie.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PharmacyGeoIndex {
+
+    // ~5,5 km en latitude : une recherche "à proximité" parcourt peu de cellules
+    static final double CELL_DEGREES = 0.05;
+    private static final double KM_PER_DEGREE = 111.32;
+    // Au-delà, une recherche "à proximité" n'a plus de sens
+    static final double MAX_RADIUS_KM = 1000.0;
+
+    private final PharmacyRepository pharmacyRepository;
+    private final PharmacyMapper pharmacyMapper;
+    private final SearchIndexBroadcaster searchIndexBroadcaster;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // cellule -> pharmacies de la cellule
+    private final Map<Long, Map<UUID, IndexedPharmacy>> cells = new HashMap<>();
+    private final Map<UUID, IndexedPharmacy> pharmacies = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<IndexedPharmacy> approved = new ArrayList<>();
+        for (Pharmacy pharmacy : pharmacyRepository.findByStatus(PharmacyStatus.APPROVED)) {
+            IndexedPharmacy indexed = IndexedPharmacy.of(pharmacyMapper.toDTO(pharmacy));
+            if (indexed != null) {
+                approved.add(indexed);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            pharmacies.clear();
+            approved.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Pharmacy geo index built: {} pharmacies in {} cells", pharmacies.size(), cells.size());
+    }
+
+    /**
+     * Met à jour une pharmacie (statut, coordonnées...). Seules les pharmacies
+     * approuvées avec coordonnées restent dans la grille.
+     */
+    public void refresh(Pharmacy pharmacy) {
+        applyRefresh(pharmacy);
+        publish(SearchIndexDelta.of(SearchIndexDelta.Kind.PHARMACY_LOCATION, pharmacy.getId()));
+    }
+
+    // Rejoue aussi les deltas des autres instances (SearchIndexDeltaListener), sans les republier
+    void applyRefresh(Pharmacy pharmacy) {
+        IndexedPharmacy indexed = pharmacy.getStatus() == PharmacyStatus.APPROVED
+                ? IndexedPharmacy.of(pharmacyMapper.toDTO(pharmacy))
+                : null;
+        replace(pharmacy.getId(), indexed);
+    }
+
+    public void remove(UUID pharmacyId) {
+        applyRemove(pharmacyId);
+        publish(SearchIndexDelta.of(SearchIndexDelta.Kind.PHARMACY_LOCATION_REMOVED, pharmacyId));
+    }
+
+    void applyRemove(UUID pharmacyId) {
+        replace(pharmacyId, null);
+    }
+
+    private void publish(SearchIndexDelta delta) {
+        AfterCommit.run(() -> searchIndexBroadcaster.publish(delta));
+    }
+
+    /**
+     * Pharmacies approuvées dans le rayon donné, de la plus proche à la plus
+     * lointaine. Rayon limité à MAX_RADIUS_KM, coordonnées dans les bornes GPS.
+     */
+    public List<PharmacyDTO> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        if (!(radiusKm >= 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new ValidationException("Le rayon doit être compris entre 0 et " + (int) MAX_RADIUS_KM + " km");
+        }
+        if (!(Math.abs(latitude) <= 90 && Math.abs(longitude) <= 180)) {
+            throw new ValidationException("Coordonnées GPS invalides");
+        }
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lonSpan = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        int minLat = cellIndex(latitude - latSpan);
+        int maxLat = cellIndex(latitude + latSpan);
+        int minLon = cellIndex(longitude - lonSpan);
+        int maxLon = cellIndex(longitude + lonSpan);
+
+        List<Neighbour> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // Calculé en long : jamais de débordement, même pour une boîte immense
+            long boxCells = ((long) maxLat - minLat + 1) * ((long) maxLon - minLon + 1);
+            if (boxCells > cells.size()) {
+                // Rayon très grand : parcourir les cellules occupées coûte moins cher
+                for (Map<UUID, IndexedPharmacy> cell : cells.values()) {
+                    collect(cell, latitude, longitude, radiusKm, matches);
+                }
+            } else {
+                for (long lat = minLat; lat <= maxLat; lat++) {
+                    for (long lon = minLon; lon <= maxLon; lon++) {
+                        Map<UUID, IndexedPharmacy> cell = cells.get(cellKey((int) lat, (int) lon));
+                        if (cell != null) {
+                            collect(cell, latitude, longitude, radiusKm, matches);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingDouble(Neighbour::getDistanceKm));
+        return matches.stream().map(Neighbour::getPharmacy).toList();
+    }
+
+    /**
+     * Les k pharmacies approuvées les plus proches. Les anneaux de cellules
+     * autour du point sont parcourus jusqu'à ce qu'aucune cellule plus
+     * lointaine ne puisse contenir une pharmacie plus proche.
+     */
+    public List<PharmacyDTO> findNearest(double latitude, double longitude, int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+        int centerLat = cellIndex(latitude);
+        int centerLon = cellIndex(longitude);
+        List<Neighbour> candidates = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            int total = pharmacies.size();
+            int seen = 0;
+            for (int ring = 0; seen < total; ring++) {
+                for (int lat = centerLat - ring; lat <= centerLat + ring; lat++) {
+                    for (int lon = centerLon - ring; lon <= centerLon + ring; lon++) {
+                        // Seul le contour de l'anneau est nouveau
+                        if (Math.abs(lat - centerLat) != ring && Math.abs(lon - centerLon) != ring) {
+                            continue;
+                        }
+                        Map<UUID, IndexedPharmacy> cell = cells.get(cellKey(lat, lon));
+                        if (cell != null) {
+                            seen += cell.size();
+                            collect(cell, latitude, longitude, Double.MAX_VALUE, candidates);
+                        }
+                    }
+                }
+                if (candidates.size() >= k) {
+                    candidates.sort(Comparator.comparingDouble(Neighbour::getDistanceKm));
+                    if (candidates.get(k - 1).getDistanceKm() <= minDistanceOutside(latitude, ring)) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        candidates.sort(Comparator.comparingDouble(Neighbour::getDistanceKm));
+        return candidates.stream().limit(k).map(Neighbour::getPharmacy).toList();
+    }
+
+    /**
+     * Distance minimale (km) entre le point et une cellule hors des anneaux
+     * déjà parcourus (borne prudente, la largeur des cellules diminuant avec la latitude)
+     */
+    private static double minDistanceOutside(double latitude, int ring) {
+        double farthestLat = Math.min(Math.abs(latitude) + (ring + 1) * CELL_DEGREES, 89.0);
+        return ring * CELL_DEGREES * KM_PER_DEGREE * Math.cos(Math.toRadians(farthestLat));
+    }
+
+    private void collect(Map<UUID, IndexedPharmacy> cell, double latitude, double longitude, double radiusKm,
+            List<Neighbour> matches) {
+        for (IndexedPharmacy pharmacy : cell.values()) {
+            double distance = GeoUtils.calculateDistance(latitude, longitude, pharmacy.getLatitude(),
+                    pharmacy.getLongitude());
+            if (distance <= radiusKm) {
+                matches.add(new Neighbour(pharmacy.getPharmacy(), distance));
+            }
+        }
+    }
+
+    // Publié après le commit de la transaction appelante : rien à défaire en cas de rollback
+    private void replace(UUID pharmacyId, IndexedPharmacy indexed) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                delete(pharmacyId);
+                if (indexed != null) {
+                    put(indexed);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void put(IndexedPharmacy pharmacy) {
+        pharmacies.put(pharmacy.getId(), pharmacy);
+        cells.computeIfAbsent(pharmacy.getCell(), c -> new HashMap<>()).put(pharmacy.getId(), pharmacy);
+    }
+
+    private IndexedPharmacy delete(UUID pharmacyId) {
+        IndexedPharmacy removed = pharmacies.remove(pharmacyId);
+        if (removed != null) {
+            Map<UUID, IndexedPharmacy> cell = cells.get(removed.getCell());
+            cell.remove(pharmacyId);
+            if (cell.isEmpty()) {
+                cells.remove(removed.getCell());
+            }
+        }
+        return removed;
+    }
+
+    private static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long cellKey(int latIndex, int lonIndex) {
+        return ((long) latIndex << 32) | (lonIndex & 0xffffffffL);
+    }
+
+    @Value
+    private static class IndexedPharmacy {
+        UUID id;
+        double latitude;
+        double longitude;
+        long cell;
+        PharmacyDTO pharmacy;
+
+        static IndexedPharmacy of(PharmacyDTO pharmacy) {
+            if (pharmacy.getLatitude() == null || pharmacy.getLongitude() == null) {
+                return null;
+            }
+            double latitude = pharmacy.getLatitude().doubleValue();
+            double longitude = pharmacy.getLongitude().doubleValue();
+            return new IndexedPharmacy(pharmacy.getId(), latitude, longitude,
+                    cellKey(cellIndex(latitude), cellIndex(longitude)), pharmacy);
+        }
+    }
+
+    @Value
+    private static class Neighbour {
+        PharmacyDTO pharmacy;
+        double distanceKm;
+    }
+}
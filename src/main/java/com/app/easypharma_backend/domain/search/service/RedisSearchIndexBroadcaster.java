@@ -0,0 +1,44 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Plusieurs instances : chaque modification d'index est publiée sur un canal
+ * Redis, les autres instances la rejouent (SearchIndexDeltaListener).
+ * Pub/sub sans persistance : un delta publié pendant une coupure Redis est
+ * perdu, l'index de l'instance concernée se recale à son redémarrage.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.index-sync.transport", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisSearchIndexBroadcaster implements SearchIndexBroadcaster {
+
+    static final String CHANNEL = "easypharma:search-index";
+    // Identifie cette instance : ses propres deltas ne sont pas rejoués
+    static final String NODE = UUID.randomUUID().toString();
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void publish(SearchIndexDelta delta) {
+        delta.setOrigin(NODE);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(delta));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize search index delta", e);
+        } catch (RuntimeException e) {
+            // L'écriture est validée et l'index local à jour : les autres instances rattraperont au redémarrage
+            log.warn("Search index delta {} {} not published: {}", delta.getKind(), delta.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.search.dto.SearchCountDTO;
+import com.app.easypharma_backend.domain.search.entity.SearchDailyTop;
+import com.app.easypharma_backend.domain.search.entity.SearchReportKind;
+import com.app.easypharma_backend.domain.search.repository.SearchDailyTopRepository;
+import com.app.easypharma_backend.infrastructure.util.TextNormalizer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Statistiques de recherche en flux : requêtes les plus fréquentes et
+ * requêtes sans résultat, comptées par un sketch Space-Saving par jour.
+ *
+ * Le top de la journée en cours est persisté périodiquement dans
+ * search_daily_top ; un rapport lit au plus PERSISTED_TOP lignes par jour et
+ * par instance au lieu d'agréger toute la table search_logs.
+ *
+ * Chaque instance (identifiant tiré au démarrage) ne remplace que ses propres
+ * lignes ; un rapport additionne celles de toutes les instances. Après un
+ * redémarrage, les lignes de l'instance précédente restent comptées comme
+ * celles d'une autre instance : rien n'est rechargé, rien n'est compté deux fois.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchAnalyticsService {
+
+    static final int SKETCH_CAPACITY = 1000;
+    static final int PERSISTED_TOP = 200;
+
+    private final SearchDailyTopRepository searchDailyTopRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private LocalDate currentDay = LocalDate.now();
+    private Map<SearchReportKind, SpaceSaving> today = newWindow();
+    // Journées terminées pas encore persistées
+    private final Map<LocalDate, Map<SearchReportKind, SpaceSaving>> closedDays = new LinkedHashMap<>();
+
+    /**
+     * Compte une recherche ; une recherche sans résultat alimente aussi le
+     * rapport ZERO_RESULT
+     */
+    public void record(String query, int resultCount) {
+        String key = TextNormalizer.canonicalQuery(query);
+        if (key.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            rollOver();
+            today.get(SearchReportKind.SEARCHED).add(key, 1);
+            if (resultCount == 0) {
+                today.get(SearchReportKind.ZERO_RESULT).add(key, 1);
+            }
+        }
+    }
+
+    /**
+     * Les {@code limit} requêtes les plus fréquentes des {@code days} derniers jours (aujourd'hui inclus)
+     */
+    public List<SearchCountDTO> top(SearchReportKind kind, int days, int limit) {
+        LocalDate from = LocalDate.now().minusDays(Math.max(days, 1) - 1L);
+        Map<String, Long> counts = new HashMap<>();
+        Set<LocalDate> inMemoryDays = new HashSet<>();
+        synchronized (this) {
+            rollOver();
+            inMemoryDays.add(currentDay);
+            closedDays.forEach((day, window) -> {
+                if (!day.isBefore(from)) {
+                    inMemoryDays.add(day);
+                    window.get(kind).top(PERSISTED_TOP)
+                            .forEach(entry -> counts.merge(entry.getKey(), entry.getCount(), Long::sum));
+                }
+            });
+            for (SpaceSaving.Entry entry : today.get(kind).top(SKETCH_CAPACITY)) {
+                counts.merge(entry.getKey(), entry.getCount(), Long::sum);
+            }
+        }
+        // Nos journées encore en mémoire ont pu être persistées partiellement : comptées une seule fois
+        for (SearchDailyTop row : searchDailyTopRepository.findByKindAndDayBetween(kind, from, LocalDate.now())) {
+            if (!nodeId.equals(row.getNodeId()) || !inMemoryDays.contains(row.getDay())) {
+                counts.merge(row.getQuery(), row.getCount(), Long::sum);
+            }
+        }
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> new SearchCountDTO(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.analytics.flush-ms:300000}", initialDelayString = "${app.search.analytics.flush-ms:300000}")
+    public void persist() {
+        Map<LocalDate, Map<SearchReportKind, List<SpaceSaving.Entry>>> snapshot = new LinkedHashMap<>();
+        Set<LocalDate> closed;
+        synchronized (this) {
+            rollOver();
+            closedDays.forEach((day, window) -> snapshot.put(day, topOf(window)));
+            closed = new HashSet<>(closedDays.keySet());
+            snapshot.put(currentDay, topOf(today));
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> snapshot.forEach((day, windows) -> windows
+                    .forEach((kind, entries) -> {
+                        searchDailyTopRepository.deleteByDayAndKindAndNodeId(day, kind, nodeId);
+                        List<SearchDailyTop> rows = new ArrayList<>(entries.size());
+                        for (SpaceSaving.Entry entry : entries) {
+                            rows.add(SearchDailyTop.builder().day(day).kind(kind).nodeId(nodeId).query(entry.getKey())
+                                    .count(entry.getCount()).error(entry.getError()).build());
+                        }
+                        searchDailyTopRepository.saveAll(rows);
+                    })));
+            synchronized (this) {
+                closed.forEach(closedDays::remove);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to persist search analytics: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        persist();
+    }
+
+    // Appelé sous verrou : ferme la journée écoulée
+    private void rollOver() {
+        LocalDate now = LocalDate.now();
+        if (!now.equals(currentDay)) {
+            closedDays.put(currentDay, today);
+            currentDay = now;
+            today = newWindow();
+        }
+    }
+
+    private static Map<SearchReportKind, List<SpaceSaving.Entry>> topOf(Map<SearchReportKind, SpaceSaving> window) {
+        Map<SearchReportKind, List<SpaceSaving.Entry>> top = new EnumMap<>(SearchReportKind.class);
+        window.forEach((kind, sketch) -> top.put(kind, sketch.top(PERSISTED_TOP)));
+        return top;
+    }
+
+    private static Map<SearchReportKind, SpaceSaving> newWindow() {
+        Map<SearchReportKind, SpaceSaving> window = new EnumMap<>(SearchReportKind.class);
+        for (SearchReportKind kind : SearchReportKind.values()) {
+            window.put(kind, new SpaceSaving(SKETCH_CAPACITY));
+        }
+        return window;
+    }
+}
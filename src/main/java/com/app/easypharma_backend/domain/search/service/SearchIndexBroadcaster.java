@@ -0,0 +1,11 @@
+package com.app.easypharma_backend.domain.search.service;
+
+/**
+ * Propage aux autres instances les modifications des index de recherche en
+ * mémoire, après le commit qui les porte (aucune propagation, ou Redis
+ * pub/sub, selon app.search.index-sync.transport)
+ */
+public interface SearchIndexBroadcaster {
+
+    void publish(SearchIndexDelta delta);
+}
@@ -0,0 +1,47 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Modification d'un index de recherche en mémoire, rejouée par les autres
+ * instances. Seuls les identifiants (et les quantités d'un changement de
+ * stock) circulent : l'instance qui la reçoit relit l'entité en base.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchIndexDelta {
+
+    public enum Kind {
+        // MedicationSearchIndex
+        OFFER_UPSERTED,
+        OFFER_STOCK,
+        OFFER_REMOVED,
+        PHARMACY_REFRESHED,
+        PHARMACY_REMOVED,
+        // PharmacyGeoIndex
+        PHARMACY_LOCATION,
+        PHARMACY_LOCATION_REMOVED,
+        // SymptomSearchIndex, GenericEquivalenceIndex
+        MEDICATION_SYMPTOMS,
+        MEDICATION_GENERIC
+    }
+
+    // Instance émettrice : elle a déjà appliqué la modification
+    private String origin;
+    private Kind kind;
+    private UUID id;
+    private Integer stockQuantity;
+    private Integer reservedQuantity;
+    private Boolean available;
+
+    static SearchIndexDelta of(Kind kind, UUID id) {
+        return SearchIndexDelta.builder().kind(kind).id(id).build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
+import com.app.easypharma_backend.domain.medication.repository.MedicationRepository;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Rejoue dans les index locaux les modifications publiées par les autres
+ * instances (RedisSearchIndexBroadcaster). L'entité est relue en base, dans
+ * une transaction en lecture seule : le delta n'est publié qu'après le commit
+ * de l'écriture, la lecture voit donc l'état validé. Une entité supprimée
+ * entre-temps est retirée de l'index.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.index-sync.transport", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexDeltaListener implements MessageListener {
+
+    private final MedicationSearchIndex medicationSearchIndex;
+    private final PharmacyGeoIndex pharmacyGeoIndex;
+    private final SymptomSearchIndex symptomSearchIndex;
+    private final GenericEquivalenceIndex genericEquivalenceIndex;
+    private final PharmacyMedicationRepository pharmacyMedicationRepository;
+    private final PharmacyRepository pharmacyRepository;
+    private final MedicationRepository medicationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        SearchIndexDelta delta;
+        try {
+            delta = objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8),
+                    SearchIndexDelta.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Invalid search index delta ignored: {}", e.getMessage());
+            return;
+        }
+        // Déjà appliqué par l'instance émettrice
+        if (RedisSearchIndexBroadcaster.NODE.equals(delta.getOrigin()) || delta.getKind() == null
+                || delta.getId() == null) {
+            return;
+        }
+        try {
+            // Les index appliquent la modification au commit de cette transaction (AfterCommit)
+            transactionTemplate.executeWithoutResult(status -> apply(delta));
+        } catch (RuntimeException e) {
+            log.warn("Search index delta {} {} not applied: {}", delta.getKind(), delta.getId(), e.getMessage());
+        }
+    }
+
+    void apply(SearchIndexDelta delta) {
+        switch (delta.getKind()) {
+            case OFFER_UPSERTED -> {
+                Optional<PharmacyMedication> offer = pharmacyMedicationRepository.findById(delta.getId());
+                if (offer.isPresent()) {
+                    medicationSearchIndex.applyUpsert(offer.get());
+                } else {
+                    medicationSearchIndex.applyRemove(delta.getId());
+                }
+            }
+            case OFFER_STOCK -> medicationSearchIndex.applyStock(delta.getId(), delta.getStockQuantity(),
+                    delta.getReservedQuantity(), Boolean.TRUE.equals(delta.getAvailable()));
+            case OFFER_REMOVED -> medicationSearchIndex.applyRemove(delta.getId());
+            case PHARMACY_REFRESHED -> {
+                Optional<Pharmacy> pharmacy = pharmacyRepository.findById(delta.getId());
+                if (pharmacy.isPresent()) {
+                    medicationSearchIndex.applyRefreshPharmacy(pharmacy.get());
+                } else {
+                    medicationSearchIndex.applyRemovePharmacy(delta.getId());
+                }
+            }
+            case PHARMACY_REMOVED -> medicationSearchIndex.applyRemovePharmacy(delta.getId());
+            case PHARMACY_LOCATION -> {
+                Optional<Pharmacy> pharmacy = pharmacyRepository.findById(delta.getId());
+                if (pharmacy.isPresent()) {
+                    pharmacyGeoIndex.applyRefresh(pharmacy.get());
+                } else {
+                    pharmacyGeoIndex.applyRemove(delta.getId());
+                }
+            }
+            case PHARMACY_LOCATION_REMOVED -> pharmacyGeoIndex.applyRemove(delta.getId());
+            case MEDICATION_SYMPTOMS -> medicationRepository.findById(delta.getId())
+                    .ifPresent(symptomSearchIndex::applyIndex);
+            case MEDICATION_GENERIC -> medicationRepository.findById(delta.getId())
+                    .ifPresent(genericEquivalenceIndex::applyIndex);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "app.search.index-sync.transport", havingValue = "redis")
+    static class Subscription {
+
+        @Bean
+        RedisMessageListenerContainer searchIndexListenerContainer(RedisConnectionFactory connectionFactory,
+                SearchIndexDeltaListener listener) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(listener, new ChannelTopic(RedisSearchIndexBroadcaster.CHANNEL));
+            return container;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.infrastructure.security.JwtService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * File bornée des recherches patient à journaliser (search_logs). La requête
+ * HTTP ne fait qu'ajouter un événement ; une tâche planifiée vide la file
+ * et écrit les lignes par lots JDBC.
+ *
+ * Sous charge, au-delà de la moitié de la capacité, seule une recherche sur
+ * SAMPLE_RATE est conservée ; file pleine, les événements sont abandonnés.
+ * Profondeur de file et abandons sont exposés par Actuator (search.log.*).
+ */
+@Service
+@Slf4j
+public class SearchLogBuffer {
+
+    static final int CAPACITY = 10_000;
+    private static final int SAMPLE_RATE = 4;
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_QUERY_LENGTH = 255;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO search_logs (id, user_id, query, searched_at) VALUES (?, ?, ?, ?)";
+
+    private final JwtService jwtService;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private final BlockingQueue<SearchEvent> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final Counter droppedFull;
+    private final Counter droppedSampled;
+    private final Counter droppedFailed;
+    private final Counter written;
+
+    public SearchLogBuffer(JwtService jwtService, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        Gauge.builder("search.log.queue.size", queue, BlockingQueue::size)
+                .description("Recherches en attente d'écriture").register(meterRegistry);
+        this.droppedFull = dropCounter(meterRegistry, "full");
+        this.droppedSampled = dropCounter(meterRegistry, "sampled");
+        this.droppedFailed = dropCounter(meterRegistry, "error");
+        this.written = Counter.builder("search.log.written")
+                .description("Recherches écrites dans search_logs").register(meterRegistry);
+    }
+
+    /**
+     * Enregistre une recherche sans bloquer l'appelant. Le jeton n'est
+     * décodé qu'à l'écriture du lot.
+     */
+    public void record(String query, String authHeader) {
+        if (query == null || query.isBlank()) {
+            return;
+        }
+        if (queue.size() >= CAPACITY / 2 && ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0) {
+            droppedSampled.increment();
+            return;
+        }
+        String token = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        String trimmed = query.trim();
+        SearchEvent event = new SearchEvent(
+                trimmed.length() > MAX_QUERY_LENGTH ? trimmed.substring(0, MAX_QUERY_LENGTH) : trimmed,
+                token, LocalDateTime.now());
+        if (!queue.offer(event)) {
+            droppedFull.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.log.flush-ms:2000}", initialDelayString = "${app.search.log.flush-ms:2000}")
+    public void flush() {
+        List<SearchEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+            try {
+                write(batch);
+                written.increment(batch.size());
+            } catch (Exception e) {
+                droppedFailed.increment(batch.size());
+                log.warn("Failed to write {} search logs: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    int pending() {
+        return queue.size();
+    }
+
+    private void write(List<SearchEvent> batch) {
+        Map<String, UUID> userIds = resolveUsers(batch);
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (SearchEvent event : batch) {
+            rows.add(new Object[] { UUID.randomUUID(), event.getToken() != null ? userIds.get(event.getToken()) : null,
+                    event.getQuery(), Timestamp.valueOf(event.getSearchedAt()) });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    // jeton -> utilisateur, en une requête pour tout le lot
+    private Map<String, UUID> resolveUsers(List<SearchEvent> batch) {
+        Map<String, String> emailByToken = new HashMap<>();
+        for (SearchEvent event : batch) {
+            if (event.getToken() != null && !emailByToken.containsKey(event.getToken())) {
+                String email = null;
+                try {
+                    email = jwtService.extractEmail(event.getToken());
+                } catch (Exception e) {
+                    // Jeton invalide ou expiré : recherche anonyme
+                }
+                emailByToken.put(event.getToken(), email);
+            }
+        }
+        Set<String> emails = new HashSet<>(emailByToken.values());
+        emails.remove(null);
+        if (emails.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, UUID> idByEmail = new HashMap<>();
+        namedJdbcTemplate.query("SELECT id, email FROM users WHERE email IN (:emails)",
+                new MapSqlParameterSource("emails", emails),
+                rs -> {
+                    idByEmail.put(rs.getString("email"), rs.getObject("id", UUID.class));
+                });
+        Map<String, UUID> userIdByToken = new HashMap<>();
+        emailByToken.forEach((token, email) -> {
+            if (email != null && idByEmail.containsKey(email)) {
+                userIdByToken.put(token, idByEmail.get(email));
+            }
+        });
+        return userIdByToken;
+    }
+
+    private static Counter dropCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("search.log.dropped").tag("reason", reason)
+                .description("Recherches non journalisées").register(meterRegistry);
+    }
+
+    @Value
+    private static class SearchEvent {
+        String query;
+        String token;
+        LocalDateTime searchedAt;
+    }
+}
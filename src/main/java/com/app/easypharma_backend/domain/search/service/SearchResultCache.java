@@ -0,0 +1,241 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.medication.dto.PatientMedicationSearchResultDTO;
+import com.app.easypharma_backend.domain.medication.entity.TherapeuticClass;
+import com.app.easypharma_backend.infrastructure.config.CacheConfig;
+import com.app.easypharma_backend.infrastructure.persistence.AfterCommit;
+import com.app.easypharma_backend.infrastructure.util.TextNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache des recherches patient servies par la base (tri POSTGIS_NEAREST,
+ * RELEVANCE). La clé combine la requête normalisée, la classe thérapeutique,
+ * le tri, une cellule géographique grossière, le rayon et le nombre de
+ * résultats.
+ *
+ * L'invalidation repose sur des marques de version rangées dans le même
+ * cache (Redis en production), donc partagées par toutes les instances :
+ * une par médicament, et une globale changée quand une offre devient
+ * visible ou qu'une pharmacie change de statut. Chaque entrée mémorise les
+ * marques lues à son calcul ; elle n'est servie que si elles n'ont pas
+ * changé depuis (un seul MGET pour toutes ses marques). Les marques sont
+ * changées après le commit, pour qu'une lecture concurrente ne remette
+ * pas en cache l'état d'avant.
+ */
+@Service
+@Slf4j
+public class SearchResultCache {
+
+    // ~5,5 km : des utilisateurs voisins partagent les mêmes entrées
+    private static final double GEO_CELL_DEGREES = 0.05;
+
+    private static final String GLOBAL_STAMP_KEY = "stamp|*";
+
+    private final Cache cache;
+    // Lecture groupée (MGET) des marques quand le cache est Redis ; null sinon
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    @Autowired
+    public SearchResultCache(CacheManager cacheManager, MeterRegistry meterRegistry,
+            ObjectProvider<RedisConnectionFactory> redisConnectionFactory) {
+        this(cacheManager, meterRegistry, redisConnectionFactory.getIfAvailable());
+    }
+
+    SearchResultCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this(cacheManager, meterRegistry, (RedisConnectionFactory) null);
+    }
+
+    private SearchResultCache(CacheManager cacheManager, MeterRegistry meterRegistry,
+            RedisConnectionFactory redisConnectionFactory) {
+        this.cache = cacheManager.getCache(CacheConfig.PATIENT_SEARCH_CACHE);
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.hits = Counter.builder("search.cache.requests").tag("result", "hit")
+                .description("Recherches patient servies par le cache").register(meterRegistry);
+        this.misses = Counter.builder("search.cache.requests").tag("result", "miss")
+                .description("Recherches patient calculées en base").register(meterRegistry);
+        this.evictions = Counter.builder("search.cache.evictions")
+                .description("Marques de version du cache de recherche changées").register(meterRegistry);
+    }
+
+    public List<PatientMedicationSearchResultDTO> get(String query, TherapeuticClass therapeuticClass, String sortBy,
+            Double userLat, Double userLon, Double radiusKm, int limit,
+            Supplier<List<PatientMedicationSearchResultDTO>> loader) {
+        // ILIKE ignore la casse mais pas les accents : la requête n'est que mise en minuscules
+        String normalizedQuery = TextNormalizer.canonicalQuery(query);
+        String key = key(normalizedQuery, therapeuticClass, sortBy, userLat, userLon, radiusKm, limit);
+
+        String globalStamp = null;
+        try {
+            globalStamp = stamp(GLOBAL_STAMP_KEY);
+            Cache.ValueWrapper cached = cache.get(key);
+            if (cached != null && cached.get() instanceof CachedSearch entry && isFresh(entry, globalStamp)) {
+                hits.increment();
+                return copy(entry.getResults());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Search cache read failed, querying database: {}", e.getMessage());
+        }
+
+        misses.increment();
+        List<PatientMedicationSearchResultDTO> results = loader.get();
+        try {
+            // Marque globale lue avant le calcul : une offre apparue entre-temps invalide l'entrée
+            List<UUID> medicationIds = results.stream()
+                    .map(PatientMedicationSearchResultDTO::getMedicationId)
+                    .distinct()
+                    .toList();
+            List<String> stamps = stamps(medicationIds);
+            Map<UUID, String> medicationStamps = new HashMap<>();
+            for (int i = 0; i < medicationIds.size(); i++) {
+                medicationStamps.put(medicationIds.get(i), stamps.get(i));
+            }
+            cache.put(key, new CachedSearch(globalStamp, medicationStamps, copy(results)));
+        } catch (RuntimeException e) {
+            log.warn("Search cache write failed: {}", e.getMessage());
+        }
+        // Les appelants complètent les résultats (distance...) : jamais les objets en cache
+        return copy(results);
+    }
+
+    /**
+     * Stock, prix ou disponibilité d'une offre modifiés : les entrées qui
+     * contiennent le médicament ne sont plus servies. {@code becameVisible}
+     * indique une offre nouvelle ou de nouveau disponible : elle peut alors
+     * apparaître dans n'importe quelle requête (préfixe, trigrammes...),
+     * toutes les entrées sont invalidées.
+     */
+    public void evictMedication(UUID medicationId, boolean becameVisible) {
+        AfterCommit.run(() -> {
+            renew(medicationStampKey(medicationId));
+            if (becameVisible) {
+                renew(GLOBAL_STAMP_KEY);
+            }
+        });
+    }
+
+    /**
+     * Invalide tout le cache (ex: une pharmacie change de statut)
+     */
+    public void clear() {
+        AfterCommit.run(() -> renew(GLOBAL_STAMP_KEY));
+    }
+
+    private boolean isFresh(CachedSearch entry, String globalStamp) {
+        if (!Objects.equals(entry.getGlobalStamp(), globalStamp)) {
+            return false;
+        }
+        List<UUID> medicationIds = new ArrayList<>(entry.getMedicationStamps().keySet());
+        List<String> current = stamps(medicationIds);
+        for (int i = 0; i < medicationIds.size(); i++) {
+            if (!Objects.equals(entry.getMedicationStamps().get(medicationIds.get(i)), current.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Marques des médicaments, dans l'ordre : un seul MGET sur Redis, une lecture par clé sinon
+    private List<String> stamps(List<UUID> medicationIds) {
+        if (medicationIds.isEmpty()) {
+            return List.of();
+        }
+        if (redisConnectionFactory == null || !(cache instanceof RedisCache redisCache)) {
+            return medicationIds.stream().map(id -> stamp(medicationStampKey(id))).toList();
+        }
+        // Clés et valeurs sérialisées comme le fait RedisCache
+        RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+        String prefix = configuration.usePrefix() ? configuration.getKeyPrefixFor(redisCache.getName()) : "";
+        byte[][] keys = new byte[medicationIds.size()][];
+        for (int i = 0; i < keys.length; i++) {
+            String key = prefix + medicationStampKey(medicationIds.get(i));
+            keys[i] = bytes(configuration.getKeySerializationPair().write(key));
+        }
+        List<byte[]> values;
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            values = connection.stringCommands().mGet(keys);
+        }
+        List<String> stamps = new ArrayList<>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            byte[] value = values != null ? values.get(i) : null;
+            stamps.add(value != null
+                    ? (String) configuration.getValueSerializationPair().read(ByteBuffer.wrap(value))
+                    : null);
+        }
+        return stamps;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    // Marque absente (jamais posée ou expirée) : null, comparée comme une valeur
+    private String stamp(String stampKey) {
+        Cache.ValueWrapper value = cache.get(stampKey);
+        return value != null ? (String) value.get() : null;
+    }
+
+    private void renew(String stampKey) {
+        try {
+            cache.put(stampKey, UUID.randomUUID().toString());
+            evictions.increment();
+        } catch (RuntimeException e) {
+            log.warn("Search cache invalidation failed for {}: {}", stampKey, e.getMessage());
+        }
+    }
+
+    private static List<PatientMedicationSearchResultDTO> copy(List<PatientMedicationSearchResultDTO> results) {
+        return results.stream().map(result -> result.toBuilder().build()).collect(Collectors.toList());
+    }
+
+    private static String medicationStampKey(UUID medicationId) {
+        return "stamp|" + medicationId;
+    }
+
+    private static String key(String normalizedQuery, TherapeuticClass therapeuticClass, String sortBy,
+            Double userLat, Double userLon, Double radiusKm, int limit) {
+        String cell = userLat != null && userLon != null
+                ? (int) Math.floor(userLat / GEO_CELL_DEGREES) + ":" + (int) Math.floor(userLon / GEO_CELL_DEGREES)
+                : "-";
+        return sortBy.toUpperCase(Locale.ROOT) + "|" + (therapeuticClass != null ? therapeuticClass.name() : "-")
+                + "|" + cell + "|" + (radiusKm != null ? radiusKm : "-") + "|" + limit + "|" + normalizedQuery;
+    }
+
+    /**
+     * Résultats d'une recherche et marques de version lues à leur calcul
+     */
+    @Value
+    static class CachedSearch implements Serializable {
+        String globalStamp;
+        Map<UUID, String> medicationStamps;
+        List<PatientMedicationSearchResultDTO> results;
+    }
+}
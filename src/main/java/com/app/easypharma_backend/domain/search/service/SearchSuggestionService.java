@@ -0,0 +1,66 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.repository.MedicationRepository;
+import com.app.easypharma_backend.domain.search.dto.SearchSuggestionDTO;
+import com.app.easypharma_backend.domain.search.dto.SearchCountDTO;
+import com.app.easypharma_backend.domain.search.entity.SearchReportKind;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Autocomplétion de la recherche patient à partir du catalogue (nom et nom
+ * générique) et des requêtes les plus fréquentes. L'arbre est reconstruit
+ * périodiquement ; une suggestion ne touche jamais la base.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchSuggestionService {
+
+    static final int TOP_K = 10;
+    private static final int TOP_QUERIES = 2000;
+    private static final int QUERY_WINDOW_DAYS = 30;
+    private static final long MIN_QUERY_COUNT = 2;
+    // Un nom du catalogue compte comme quelques recherches pour rester visible
+    private static final long CATALOG_WEIGHT = 3;
+
+    private final MedicationRepository medicationRepository;
+    private final SearchAnalyticsService searchAnalyticsService;
+
+    private volatile SuggestionTrie trie = SuggestionTrie.empty();
+
+    public List<SearchSuggestionDTO> suggest(String prefix, int limit) {
+        return trie.complete(prefix, Math.min(limit, TOP_K));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.search.suggest.refresh-ms:600000}", initialDelayString = "${app.search.suggest.refresh-ms:600000}")
+    public void rebuild() {
+        try {
+            SuggestionTrie.Builder builder = SuggestionTrie.builder(TOP_K);
+            for (Medication medication : medicationRepository.findAll()) {
+                builder.add(medication.getName(), CATALOG_WEIGHT);
+                if (medication.getGenericName() != null) {
+                    builder.add(medication.getGenericName(), CATALOG_WEIGHT);
+                }
+            }
+            for (SearchCountDTO count : searchAnalyticsService.top(SearchReportKind.SEARCHED, QUERY_WINDOW_DAYS,
+                    TOP_QUERIES)) {
+                if (count.getCount() >= MIN_QUERY_COUNT) {
+                    builder.add(count.getQuery(), count.getCount());
+                }
+            }
+            trie = builder.build();
+            log.debug("Search suggestion trie rebuilt with {} entries", trie.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild search suggestions, keeping previous trie", e);
+        }
+    }
+}
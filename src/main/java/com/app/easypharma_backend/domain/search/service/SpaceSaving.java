@@ -0,0 +1,89 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Algorithme Space-Saving (Metwally et al.) : compte les éléments les plus
+ * fréquents d'un flux avec au plus {@code capacity} compteurs. Quand tous
+ * les compteurs sont pris, le moins élevé est réattribué au nouvel élément ;
+ * l'erreur d'un compteur borne sa surestimation.
+ *
+ * Non thread-safe : les accès doivent être synchronisés par l'appelant.
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> byCount = new TreeSet<>(
+            Comparator.comparingLong(Entry::getCount).thenComparing(Entry::getKey));
+
+    public SpaceSaving(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    public void add(String key, long weight) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            byCount.remove(entry);
+            entry.count += weight;
+            byCount.add(entry);
+            return;
+        }
+        long error = 0;
+        if (entries.size() >= capacity) {
+            Entry evicted = byCount.pollFirst();
+            entries.remove(evicted.key);
+            error = evicted.count;
+        }
+        entry = new Entry(key, error + weight, error);
+        entries.put(key, entry);
+        byCount.add(entry);
+    }
+
+    /**
+     * Les {@code k} éléments les plus fréquents, par compteur décroissant
+     */
+    public List<Entry> top(int k) {
+        List<Entry> top = new ArrayList<>(Math.min(k, entries.size()));
+        Iterator<Entry> iterator = byCount.descendingIterator();
+        while (iterator.hasNext() && top.size() < k) {
+            Entry entry = iterator.next();
+            top.add(new Entry(entry.key, entry.count, entry.error));
+        }
+        return top;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public static final class Entry {
+        private final String key;
+        private long count;
+        private final long error;
+
+        private Entry(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+}
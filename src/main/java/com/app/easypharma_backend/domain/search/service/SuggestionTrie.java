@@ -0,0 +1,181 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.search.dto.SearchSuggestionDTO;
+import com.app.easypharma_backend.infrastructure.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Arbre préfixe immuable pour l'autocomplétion. Chaque nœud conserve les
+ * K meilleures complétions de son sous-arbre (pré-calculées à la
+ * construction), une recherche coûte donc O(longueur du préfixe + K).
+ */
+public final class SuggestionTrie {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_TOP = new int[0];
+
+    private final Node root;
+    private final String[] labels;
+    private final long[] weights;
+
+    private SuggestionTrie(Node root, String[] labels, long[] weights) {
+        this.root = root;
+        this.labels = labels;
+        this.weights = weights;
+    }
+
+    public static SuggestionTrie empty() {
+        return new Builder(1).build();
+    }
+
+    public static Builder builder(int topK) {
+        return new Builder(topK);
+    }
+
+    public int size() {
+        return labels.length;
+    }
+
+    /**
+     * Meilleures complétions (par popularité décroissante) du préfixe donné,
+     * insensible à la casse et aux accents
+     */
+    public List<SearchSuggestionDTO> complete(String prefix, int limit) {
+        String key = TextNormalizer.normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        int count = Math.min(limit, node.top.length);
+        List<SearchSuggestionDTO> suggestions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int entry = node.top[i];
+            suggestions.add(new SearchSuggestionDTO(labels[entry], weights[entry]));
+        }
+        return suggestions;
+    }
+
+    private static final class Node {
+        private final char[] keys;
+        private final Node[] children;
+        private final int[] top;
+
+        private Node(char[] keys, Node[] children, int[] top) {
+            this.keys = keys;
+            this.children = children;
+            this.top = top;
+        }
+
+        private Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+    }
+
+    public static final class Builder {
+
+        private final int topK;
+        // clé normalisée -> libellé affiché et poids cumulé
+        private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+        private Builder(int topK) {
+            this.topK = Math.max(1, topK);
+        }
+
+        /**
+         * Ajoute un libellé avec son poids. Les libellés de même forme normalisée
+         * cumulent leur poids ; le premier libellé ajouté est celui affiché.
+         */
+        public Builder add(String label, long weight) {
+            String key = TextNormalizer.normalize(label);
+            if (key.isEmpty() || weight <= 0) {
+                return this;
+            }
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entries.put(key, new Entry(label.trim(), weight));
+            } else {
+                entry.weight += weight;
+            }
+            return this;
+        }
+
+        public SuggestionTrie build() {
+            int size = entries.size();
+            String[] labels = new String[size];
+            long[] weights = new long[size];
+            BuildNode root = new BuildNode();
+
+            int index = 0;
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                labels[index] = entry.getValue().label;
+                weights[index] = entry.getValue().weight;
+                BuildNode node = root;
+                for (char c : entry.getKey().toCharArray()) {
+                    node = node.children.computeIfAbsent(c, k -> new BuildNode());
+                }
+                node.terminal = index;
+                index++;
+            }
+
+            Comparator<Integer> byPopularity = Comparator.<Integer>comparingLong(i -> weights[i]).reversed()
+                    .thenComparing(i -> labels[i]);
+            return new SuggestionTrie(freeze(root, byPopularity), labels, weights);
+        }
+
+        private Node freeze(BuildNode node, Comparator<Integer> byPopularity) {
+            int childCount = node.children.size();
+            char[] keys = childCount == 0 ? NO_KEYS : new char[childCount];
+            Node[] children = childCount == 0 ? NO_CHILDREN : new Node[childCount];
+
+            List<Integer> candidates = new ArrayList<>();
+            if (node.terminal >= 0) {
+                candidates.add(node.terminal);
+            }
+            int i = 0;
+            for (Map.Entry<Character, BuildNode> child : node.children.entrySet()) {
+                keys[i] = child.getKey();
+                children[i] = freeze(child.getValue(), byPopularity);
+                for (int entry : children[i].top) {
+                    candidates.add(entry);
+                }
+                i++;
+            }
+
+            candidates.sort(byPopularity);
+            int[] top = candidates.isEmpty() ? NO_TOP
+                    : candidates.stream().limit(topK).mapToInt(Integer::intValue).toArray();
+            return new Node(keys, children, top);
+        }
+
+        private static final class Entry {
+            private final String label;
+            private long weight;
+
+            private Entry(String label, long weight) {
+                this.label = label;
+                this.weight = weight;
+            }
+        }
+
+        private static final class BuildNode {
+            // TreeMap : les clés sont déjà triées pour la recherche binaire
+            private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+            private int terminal = -1;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.medication.dto.MedicationDTO;
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.mapper.MedicationMapper;
+import com.app.easypharma_backend.domain.medication.repository.MedicationRepository;
+import com.app.easypharma_backend.domain.search.dto.SymptomMatchDTO;
+import com.app.easypharma_backend.infrastructure.persistence.AfterCommit;
+import com.app.easypharma_backend.infrastructure.util.FrenchAnalyzer;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index BM25 en mémoire des symptômes et descriptions des médicaments.
+ * "mal de tête fièvre" retourne les médicaments classés par pertinence ;
+ * le texte est analysé en français (mots vides, racinisation légère).
+ *
+ * Construit au démarrage, puis mis à jour après le commit de chaque
+ * création ou modification de médicament.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SymptomSearchIndex {
+
+    // Paramètres BM25 usuels
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Un mot des symptômes pèse plus qu'un mot de la description
+    private static final int SYMPTOMS_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final MedicationRepository medicationRepository;
+    private final SearchIndexBroadcaster searchIndexBroadcaster;
+    private final MedicationMapper medicationMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // racine -> (médicament -> fréquence pondérée)
+    private final Map<String, Map<UUID, Integer>> postings = new HashMap<>();
+    private final Map<UUID, IndexedDocument> documents = new HashMap<>();
+    private long totalLength;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Medication> all = medicationRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            for (Medication medication : all) {
+                addDocument(medication.getId(), document(medication));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Symptom search index built: {} medications, {} terms", documents.size(), postings.size());
+    }
+
+    /**
+     * Indexe (ou ré-indexe) un médicament, après le commit de la transaction
+     * appelante
+     */
+    public void index(Medication medication) {
+        applyIndex(medication);
+        UUID medicationId = medication.getId();
+        AfterCommit.run(() -> searchIndexBroadcaster.publish(
+                SearchIndexDelta.of(SearchIndexDelta.Kind.MEDICATION_SYMPTOMS, medicationId)));
+    }
+
+    // Rejoue aussi les deltas des autres instances (SearchIndexDeltaListener), sans les republier
+    void applyIndex(Medication medication) {
+        UUID medicationId = medication.getId();
+        IndexedDocument document = document(medication);
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                removeDocument(medicationId);
+                addDocument(medicationId, document);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Médicaments les plus pertinents pour la requête, par score BM25 décroissant
+     */
+    public List<SymptomMatchDTO> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(FrenchAnalyzer.analyze(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            double averageLength = documentCount == 0 ? 0 : (double) totalLength / documentCount;
+            Map<UUID, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<UUID, Integer> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+                termPostings.forEach((medicationId, frequency) -> {
+                    double norm = K1 * (1 - B + B * documents.get(medicationId).getLength() / averageLength);
+                    scores.merge(medicationId, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+
+            // Tas borné à 'limit' : on ne trie pas tous les candidats
+            PriorityQueue<Map.Entry<UUID, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<UUID, Double> entry : scores.entrySet()) {
+                top.offer(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<SymptomMatchDTO> results = new ArrayList<>(top.size());
+            for (Map.Entry<UUID, Double> entry : top) {
+                results.add(new SymptomMatchDTO(documents.get(entry.getKey()).getMedication(), entry.getValue()));
+            }
+            results.sort(Comparator.comparingDouble(SymptomMatchDTO::getScore).reversed());
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Analyse du médicament ; null s'il n'a ni symptômes ni description
+    private IndexedDocument document(Medication medication) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String stem : FrenchAnalyzer.analyze(medication.getSymptoms())) {
+            frequencies.merge(stem, SYMPTOMS_WEIGHT, Integer::sum);
+        }
+        for (String stem : FrenchAnalyzer.analyze(medication.getDescription())) {
+            frequencies.merge(stem, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        if (frequencies.isEmpty()) {
+            return null;
+        }
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        return new IndexedDocument(medicationMapper.toDTO(medication), frequencies, length);
+    }
+
+    private void addDocument(UUID medicationId, IndexedDocument document) {
+        if (document == null) {
+            return;
+        }
+        documents.put(medicationId, document);
+        totalLength += document.getLength();
+        document.getFrequencies().forEach((stem, frequency) -> postings.computeIfAbsent(stem, s -> new HashMap<>())
+                .put(medicationId, frequency));
+    }
+
+    private IndexedDocument removeDocument(UUID medicationId) {
+        IndexedDocument removed = documents.remove(medicationId);
+        if (removed != null) {
+            totalLength -= removed.getLength();
+            for (String stem : removed.getFrequencies().keySet()) {
+                Map<UUID, Integer> termPostings = postings.get(stem);
+                termPostings.remove(medicationId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(stem);
+                }
+            }
+        }
+        return removed;
+    }
+
+    @Value
+    private static class IndexedDocument {
+        MedicationDTO medication;
+        Map<String, Integer> frequencies;
+        int length;
+    }
+}
@@ -0,0 +1,31 @@
+package com.app.easypharma_backend.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+
+import java.time.Duration;
+
+/**
+ * Active le cache Spring (Redis en production, voir spring.cache.type).
+ * Les résultats de recherche patient ont une durée de vie courte : ils
+ * sont invalidés à chaque changement de stock/prix, le TTL n'est qu'un filet.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PATIENT_SEARCH_CACHE = "patientSearch";
+
+    @Bean
+    public RedisCacheManagerBuilderCustomizer patientSearchCacheCustomizer(
+            @Value("${app.search.cache.ttl-minutes:10}") long ttlMinutes) {
+        return builder -> builder.withCacheConfiguration(PATIENT_SEARCH_CACHE,
+                RedisCacheConfiguration.defaultCacheConfig()
+                        .entryTtl(Duration.ofMinutes(ttlMinutes))
+                        .disableCachingNullValues());
+    }
+}
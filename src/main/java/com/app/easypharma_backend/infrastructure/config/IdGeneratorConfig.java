@@ -0,0 +1,23 @@
+package com.app.easypharma_backend.infrastructure.config;
+
+import com.app.easypharma_backend.infrastructure.id.IdGenerator;
+import com.app.easypharma_backend.infrastructure.id.NodeIdLease;
+import com.app.easypharma_backend.infrastructure.id.SnowflakeIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Générateur d'identifiants des numéros de commande et de transaction :
+ * Snowflake sur le numéro de nœud loué, sauf si un autre IdGenerator est
+ * déclaré.
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(IdGenerator.class)
+    public IdGenerator idGenerator(NodeIdLease nodeIdLease) {
+        return new SnowflakeIdGenerator(nodeIdLease::nodeId);
+    }
+}
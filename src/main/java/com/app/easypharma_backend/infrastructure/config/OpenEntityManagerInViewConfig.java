@@ -0,0 +1,32 @@
+package com.app.easypharma_backend.infrastructure.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open-in-view (EntityManager ouvert pendant toute la requête) conservé pour
+ * les contrôleurs, sauf pour les flux Server-Sent Events : une requête
+ * asynchrone garderait son EntityManager, et donc une connexion du pool,
+ * jusqu'à la fermeture du flux.
+ *
+ * Déclarer l'intercepteur remplace celui configuré par Spring Boot.
+ */
+@Configuration
+public class OpenEntityManagerInViewConfig implements WebMvcConfigurer {
+
+    private static final String[] STREAM_PATHS = { "/api/v1/orders/pharmacy-orders/*/stream" };
+
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns(STREAM_PATHS);
+    }
+}
@@ -0,0 +1,13 @@
+package com.app.easypharma_backend.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les tâches planifiées (@Scheduled) : rafraîchissement des index de
+ * recherche en mémoire, tâches de maintenance...
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,15 @@
+package com.app.easypharma_backend.infrastructure.id;
+
+/**
+ * Source d'identifiants numériques uniques entre tous les nœuds de
+ * l'application, croissants dans le temps. Implémentation par défaut :
+ * SnowflakeIdGenerator (voir IdGeneratorConfig) ; déclarer un autre bean
+ * IdGenerator pour la remplacer.
+ */
+public interface IdGenerator {
+
+    /**
+     * Identifiant positif, jamais émis deux fois, sans accès à la base
+     */
+    long nextId();
+}
@@ -0,0 +1,139 @@
+package com.app.easypharma_backend.infrastructure.id;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Numéro de nœud (0-1023) de l'instance pour SnowflakeIdGenerator.
+ *
+ * Fixé par app.ids.node-id, ou à défaut loué dans id_node_leases au
+ * démarrage puis renouvelé périodiquement : deux instances actives n'ont
+ * jamais le même numéro. Localement, la location est considérée expirée
+ * une marge avant son échéance en base ; passé ce délai sans
+ * renouvellement, le nœud refuse d'émettre des identifiants plutôt que de
+ * risquer un numéro repris par une autre instance.
+ */
+@Component
+@Slf4j
+public class NodeIdLease {
+
+    private static final Duration LEASE_DURATION = Duration.ofMinutes(10);
+    // Tolérance au décalage d'horloge entre instances
+    private static final Duration SAFETY_MARGIN = Duration.ofMinutes(2);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int configuredNodeId;
+    private final String owner = UUID.randomUUID().toString();
+
+    private volatile int nodeId = -1;
+    private volatile long validUntilMillis;
+
+    public NodeIdLease(JdbcTemplate jdbcTemplate, @Value("${app.ids.node-id:-1}") int configuredNodeId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.configuredNodeId = configuredNodeId;
+    }
+
+    @PostConstruct
+    public void acquire() {
+        if (configuredNodeId >= 0) {
+            log.info("Using configured id generator node {}", configuredNodeId);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Set<Integer> taken = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT node_id FROM id_node_leases WHERE leased_until > ?", Integer.class, new Timestamp(now)));
+        int nodes = SnowflakeIdGenerator.MAX_NODE_ID + 1;
+        int start = ThreadLocalRandom.current().nextInt(nodes);
+        for (int i = 0; i < nodes; i++) {
+            int candidate = (start + i) % nodes;
+            if (!taken.contains(candidate) && claim(candidate, now)) {
+                nodeId = candidate;
+                validUntilMillis = now + LEASE_DURATION.minus(SAFETY_MARGIN).toMillis();
+                log.info("Leased id generator node {}", candidate);
+                return;
+            }
+        }
+        throw new IllegalStateException("No free id generator node among " + nodes);
+    }
+
+    /**
+     * Numéro de nœud courant ; IllegalStateException si la location n'a pas
+     * pu être renouvelée à temps
+     */
+    public int nodeId() {
+        if (configuredNodeId >= 0) {
+            return configuredNodeId;
+        }
+        if (nodeId < 0 || System.currentTimeMillis() > validUntilMillis) {
+            throw new IllegalStateException("Id generator node lease expired");
+        }
+        return nodeId;
+    }
+
+    @Scheduled(fixedDelayString = "${app.ids.lease-renew-ms:60000}", initialDelayString = "${app.ids.lease-renew-ms:60000}")
+    public synchronized void renew() {
+        if (configuredNodeId >= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            int renewed = nodeId < 0 ? 0 : jdbcTemplate.update(
+                    "UPDATE id_node_leases SET leased_until = ? WHERE node_id = ? AND owner = ?",
+                    new Timestamp(now + LEASE_DURATION.toMillis()), nodeId, owner);
+            if (renewed == 1) {
+                validUntilMillis = now + LEASE_DURATION.minus(SAFETY_MARGIN).toMillis();
+                return;
+            }
+            log.warn("Id generator node {} lease lost, leasing a new node", nodeId);
+            nodeId = -1;
+            acquire();
+        } catch (DataAccessException e) {
+            // La location locale reste valide jusqu'à validUntilMillis : on réessaiera
+            log.warn("Id generator node lease renewal failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        if (configuredNodeId >= 0 || nodeId < 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("DELETE FROM id_node_leases WHERE node_id = ? AND owner = ?", nodeId, owner);
+        } catch (DataAccessException e) {
+            log.warn("Id generator node {} release failed: {}", nodeId, e.getMessage());
+        }
+    }
+
+    // Reprend une location expirée, sinon crée la ligne ; false si une autre instance l'a prise entre temps
+    private boolean claim(int candidate, long now) {
+        Timestamp until = new Timestamp(now + LEASE_DURATION.toMillis());
+        int updated = jdbcTemplate.update(
+                "UPDATE id_node_leases SET owner = ?, leased_until = ? WHERE node_id = ? AND leased_until <= ?",
+                owner, until, candidate, new Timestamp(now));
+        if (updated == 1) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO id_node_leases (node_id, owner, leased_until) VALUES (?, ?, ?)",
+                    candidate, owner, until);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
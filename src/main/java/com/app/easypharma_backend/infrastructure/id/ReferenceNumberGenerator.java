@@ -0,0 +1,42 @@
+package com.app.easypharma_backend.infrastructure.id;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Numéros lisibles dérivés de IdGenerator : "ORD-01JD-8K2M-Q0004" pour une
+ * commande, "TXN-..." pour une transaction de paiement.
+ *
+ * L'identifiant est écrit en base 32 de Crockford (sans I, L, O ni U) sur
+ * une largeur fixe de 13 caractères : l'ordre alphabétique des numéros suit
+ * leur ordre de création.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReferenceNumberGenerator {
+
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int WIDTH = 13;
+
+    private final IdGenerator idGenerator;
+
+    public String nextOrderNumber() {
+        return "ORD-" + format(idGenerator.nextId());
+    }
+
+    public String nextTransactionId() {
+        return "TXN-" + format(idGenerator.nextId());
+    }
+
+    // XXXX-XXXX-XXXXX : 15 caractères, "ORD-" compris 19 (colonne order_number de 20)
+    static String format(long id) {
+        char[] digits = new char[WIDTH];
+        long value = id;
+        for (int i = WIDTH - 1; i >= 0; i--) {
+            digits[i] = CROCKFORD[(int) (value & 31)];
+            value >>>= 5;
+        }
+        String encoded = new String(digits);
+        return encoded.substring(0, 4) + "-" + encoded.substring(4, 8) + "-" + encoded.substring(8);
+    }
+}
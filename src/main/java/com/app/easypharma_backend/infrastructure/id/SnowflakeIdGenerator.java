@@ -0,0 +1,78 @@
+package com.app.easypharma_backend.infrastructure.id;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Identifiants 63 bits de type Snowflake :
+ * [41 bits millisecondes depuis EPOCH][10 bits nœud][12 bits séquence].
+ *
+ * Jusqu'à 4096 identifiants par milliseconde et par nœud, triés par date
+ * d'émission. L'unicité entre nœuds repose sur le numéro de nœud
+ * (voir NodeIdLease) ; un recul d'horloge de quelques millisecondes est
+ * absorbé en restant sur la dernière milliseconde émise.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    // 2025-01-01T00:00:00Z : ~69 ans de marge sur 41 bits
+    static final long EPOCH = 1735689600000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    // Au-delà, on refuse d'émettre plutôt que d'attendre le rattrapage de l'horloge
+    private static final long MAX_CLOCK_DRIFT_MS = 5_000;
+
+    private final IntSupplier nodeId;
+    private final LongSupplier clock;
+
+    private long lastTimestamp = -1;
+    private long sequence;
+
+    public SnowflakeIdGenerator(IntSupplier nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(IntSupplier nodeId, LongSupplier clock) {
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized long nextId() {
+        int node = nodeId.getAsInt();
+        if (node < 0 || node > MAX_NODE_ID) {
+            throw new IllegalStateException("Invalid node id: " + node);
+        }
+
+        long timestamp = clock.getAsLong() - EPOCH;
+        if (timestamp < lastTimestamp) {
+            if (lastTimestamp - timestamp > MAX_CLOCK_DRIFT_MS) {
+                throw new IllegalStateException(
+                        "Clock moved backwards by " + (lastTimestamp - timestamp) + " ms, refusing to generate ids");
+            }
+            timestamp = lastTimestamp;
+        }
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // Séquence épuisée pour cette milliseconde
+                timestamp = waitNextMillis(lastTimestamp);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | ((long) node << SEQUENCE_BITS) | sequence;
+    }
+
+    private long waitNextMillis(long after) {
+        long timestamp = clock.getAsLong() - EPOCH;
+        while (timestamp <= after) {
+            Thread.onSpinWait();
+            timestamp = clock.getAsLong() - EPOCH;
+        }
+        return timestamp;
+    }
+}
@@ -0,0 +1,18 @@
+package com.app.easypharma_backend.infrastructure.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * État d'une clé d'idempotence : en cours (response null) ou terminée, avec
+ * la réponse JSON à rejouer
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyEntry {
+    private String fingerprint;
+    private boolean completed;
+    private String response;
+}
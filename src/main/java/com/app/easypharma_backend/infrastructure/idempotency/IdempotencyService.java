@@ -0,0 +1,203 @@
+package com.app.easypharma_backend.infrastructure.idempotency;
+
+import com.app.easypharma_backend.infrastructure.exception.ValidationException;
+import com.app.easypharma_backend.presentation.exception.DuplicateResourceException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Rejoue la première réponse d'une requête répétée avec le même en-tête
+ * Idempotency-Key (mêmes utilisateur et opération), au lieu de la traiter
+ * une seconde fois.
+ *
+ * Les doublons simultanés sur une même instance attendent la première
+ * exécution et reçoivent sa réponse (ou son erreur) ; sur une autre
+ * instance, ils reçoivent un 409 tant qu'elle est en cours. Une requête en
+ * échec libère la clé : le client peut réessayer. Réutiliser une clé avec un
+ * autre contenu est refusé.
+ *
+ * À appeler hors transaction : la réponse n'est enregistrée qu'une fois le
+ * traitement validé.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration inFlightTtl;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyStore store, ObjectMapper objectMapper,
+            @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+            @Value("${app.idempotency.in-flight-seconds:60}") long inFlightSeconds) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.inFlightTtl = Duration.ofSeconds(inFlightSeconds);
+    }
+
+    /**
+     * Exécute action une seule fois par clé ; sans clé, l'exécute simplement
+     *
+     * @param operation   nom de l'opération ("orders", "payments"...)
+     * @param key         valeur de l'en-tête Idempotency-Key (peut être null)
+     * @param request     corps de la requête, comparé entre les tentatives
+     * @param responseType type de la réponse rejouée
+     */
+    public <T> T execute(String operation, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException("Idempotency-Key trop longue (max " + MAX_KEY_LENGTH + " caractères)");
+        }
+        // Longueur bornée quels que soient l'email et la clé
+        String storeKey = operation + ":" + sha256(principal() + "\n" + key);
+        String fingerprint = sha256(write(request));
+
+        InFlight mine = new InFlight(fingerprint);
+        InFlight running = inFlight.putIfAbsent(storeKey, mine);
+        if (running != null) {
+            checkFingerprint(running.fingerprint, fingerprint);
+            return read(await(running), responseType);
+        }
+        try {
+            return executeOnce(storeKey, fingerprint, responseType, action, mine.response);
+        } finally {
+            inFlight.remove(storeKey, mine);
+        }
+    }
+
+    private <T> T executeOnce(String storeKey, String fingerprint, Class<T> responseType, Supplier<T> action,
+            CompletableFuture<String> response) {
+        IdempotencyEntry existing = store.find(storeKey);
+        if (existing == null && store.claim(storeKey, fingerprint, inFlightTtl)) {
+            T result;
+            try {
+                result = action.get();
+            } catch (RuntimeException e) {
+                store.release(storeKey);
+                response.completeExceptionally(e);
+                throw e;
+            }
+            try {
+                String json = write(result);
+                store.complete(storeKey, fingerprint, json, ttl);
+                response.complete(json);
+            } catch (RuntimeException e) {
+                // Traitement validé : la clé expirera (in-flight-seconds) sans réponse enregistrée
+                log.warn("Idempotent response for {} not stored: {}", storeKey, e.getMessage());
+                response.completeExceptionally(inProgress());
+            }
+            return result;
+        }
+
+        if (existing == null) {
+            existing = store.find(storeKey);
+        }
+        if (existing == null || !existing.isCompleted()) {
+            RuntimeException inProgress = inProgress();
+            response.completeExceptionally(inProgress);
+            throw inProgress;
+        }
+        try {
+            checkFingerprint(existing.getFingerprint(), fingerprint);
+        } catch (ValidationException e) {
+            response.completeExceptionally(e);
+            throw e;
+        }
+        log.debug("Replaying idempotent response for {}", storeKey);
+        response.complete(existing.getResponse());
+        return read(existing.getResponse(), responseType);
+    }
+
+    private String await(InFlight running) {
+        try {
+            return running.response.get(inFlightTtl.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for duplicate request", e);
+        }
+    }
+
+    private static RuntimeException inProgress() {
+        return new DuplicateResourceException("Requête déjà en cours de traitement, réessayez dans quelques secondes");
+    }
+
+    private static void checkFingerprint(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new ValidationException("Idempotency-Key déjà utilisée pour une autre requête");
+        }
+    }
+
+    private static String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent response", e);
+        }
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored idempotent response", e);
+        }
+    }
+
+    // Première exécution en cours sur cette instance
+    private static class InFlight {
+        private final String fingerprint;
+        private final CompletableFuture<String> response = new CompletableFuture<>();
+
+        InFlight(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
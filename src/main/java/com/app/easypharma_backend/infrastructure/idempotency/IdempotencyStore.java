@@ -0,0 +1,26 @@
+package com.app.easypharma_backend.infrastructure.idempotency;
+
+import java.time.Duration;
+
+/**
+ * Stockage des clés d'idempotence partagé entre instances
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Entrée non expirée, ou null
+     */
+    IdempotencyEntry find(String key);
+
+    /**
+     * Réserve la clé (en cours) pour ttl ; false si elle existe déjà
+     */
+    boolean claim(String key, String fingerprint, Duration ttl);
+
+    void complete(String key, String fingerprint, String response, Duration ttl);
+
+    /**
+     * Libère une clé en cours (échec du traitement) : le client peut réessayer
+     */
+    void release(String key);
+}
@@ -0,0 +1,84 @@
+package com.app.easypharma_backend.infrastructure.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Clés d'idempotence en base (idempotency_keys) : stockage principal sans
+ * Redis, et repli de RedisIdempotencyStore. Hors transaction : chaque
+ * écriture est validée immédiatement, la clé unique départage les
+ * instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public IdempotencyEntry find(String key) {
+        List<IdempotencyEntry> entries = jdbcTemplate.query(
+                "SELECT fingerprint, completed, response FROM idempotency_keys WHERE id = ? AND expires_at > ?",
+                (rs, rowNum) -> new IdempotencyEntry(rs.getString("fingerprint"), rs.getBoolean("completed"),
+                        rs.getString("response")),
+                key, now());
+        return entries.isEmpty() ? null : entries.get(0);
+    }
+
+    @Override
+    public boolean claim(String key, String fingerprint, Duration ttl) {
+        Timestamp now = now();
+        // Une clé expirée peut être reprise
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ? AND expires_at <= ?", key, now);
+        try {
+            jdbcTemplate.update("""
+                    INSERT INTO idempotency_keys (id, fingerprint, completed, expires_at, created_at)
+                    VALUES (?, ?, false, ?, ?)
+                    """, key, fingerprint, Timestamp.valueOf(LocalDateTime.now().plus(ttl)), now);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void complete(String key, String fingerprint, String response, Duration ttl) {
+        int updated = jdbcTemplate.update(
+                "UPDATE idempotency_keys SET completed = true, response = ?, expires_at = ? WHERE id = ?",
+                response, Timestamp.valueOf(LocalDateTime.now().plus(ttl)), key);
+        if (updated == 0) {
+            // Réservée ailleurs (Redis avant une panne) : on enregistre tout de même la réponse
+            claim(key, fingerprint, ttl);
+            jdbcTemplate.update(
+                    "UPDATE idempotency_keys SET completed = true, response = ?, expires_at = ? WHERE id = ?",
+                    response, Timestamp.valueOf(LocalDateTime.now().plus(ttl)), key);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ? AND completed = false", key);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-ms:3600000}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= ?", now());
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,90 @@
+package com.app.easypharma_backend.infrastructure.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Clés d'idempotence dans Redis (SET NX avec TTL), la base en repli quand
+ * Redis ne répond pas. Pendant une panne Redis, une clé réservée dans l'un
+ * des deux stockages n'est pas vue dans l'autre : la protection contre les
+ * doublons est alors au mieux, jusqu'au retour de Redis.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "redis")
+@Slf4j
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private static final String PREFIX = "idempotency:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcIdempotencyStore fallback;
+    private final ObjectMapper objectMapper;
+
+    public RedisIdempotencyStore(StringRedisTemplate redisTemplate, JdbcIdempotencyStore fallback,
+            ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = fallback;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public IdempotencyEntry find(String key) {
+        try {
+            String value = redisTemplate.opsForValue().get(PREFIX + key);
+            return value == null ? null : objectMapper.readValue(value, IdempotencyEntry.class);
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for idempotency lookup, using database: {}", e.getMessage());
+            return fallback.find(key);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupted idempotency entry " + key, e);
+        }
+    }
+
+    @Override
+    public boolean claim(String key, String fingerprint, Duration ttl) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(PREFIX + key, write(new IdempotencyEntry(fingerprint, false, null)), ttl));
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for idempotency claim, using database: {}", e.getMessage());
+            return fallback.claim(key, fingerprint, ttl);
+        }
+    }
+
+    @Override
+    public void complete(String key, String fingerprint, String response, Duration ttl) {
+        try {
+            redisTemplate.opsForValue().set(PREFIX + key, write(new IdempotencyEntry(fingerprint, true, response)),
+                    ttl);
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for idempotency completion, using database: {}", e.getMessage());
+            fallback.complete(key, fingerprint, response, ttl);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        try {
+            redisTemplate.delete(PREFIX + key);
+        } catch (DataAccessException e) {
+            fallback.release(key);
+        }
+    }
+
+    private String write(IdempotencyEntry entry) {
+        try {
+            return objectMapper.writeValueAsString(entry);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotency entry", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.app.easypharma_backend.infrastructure.messaging.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Transport sans broker (développement, tests, instance unique) : le relais
+ * exécute lui-même les handlers, hors du chemin de la requête. Chaque
+ * événement a sa propre transaction : l'échec d'un envoi n'annule pas les
+ * autres.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.transport", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOutboxTransport implements OutboxTransport {
+
+    private final OutboxDispatcher dispatcher;
+    private final TransactionTemplate requiresNew;
+
+    public InMemoryOutboxTransport(OutboxDispatcher dispatcher, PlatformTransactionManager transactionManager) {
+        this.dispatcher = dispatcher;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void send(OutboxEvent event) {
+        requiresNew.executeWithoutResult(status -> dispatcher.dispatch(event.getEventType(), event.getPayload()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.app.easypharma_backend.infrastructure.messaging.outbox;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handler de chaque type d'événement, commun aux deux transports
+ */
+@Component
+public class OutboxDispatcher {
+
+    private final Map<String, OutboxEventHandler> handlers = new HashMap<>();
+
+    public OutboxDispatcher(List<OutboxEventHandler> handlers) {
+        for (OutboxEventHandler handler : handlers) {
+            if (this.handlers.put(handler.eventType(), handler) != null) {
+                throw new IllegalStateException("Duplicate outbox handler for " + handler.eventType());
+            }
+        }
+    }
+
+    public void dispatch(String eventType, String payload) {
+        OutboxEventHandler handler = handlers.get(eventType);
+        if (handler == null) {
+            throw new IllegalStateException("No outbox handler for " + eventType);
+        }
+        handler.handle(payload);
+    }
+}
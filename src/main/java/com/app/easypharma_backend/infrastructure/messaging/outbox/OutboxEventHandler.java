@@ -0,0 +1,13 @@
+package com.app.easypharma_backend.infrastructure.messaging.outbox;
+
+/**
+ * Traite les événements d'un type donné (envoi d'email, de SMS...). Une
+ * exception provoque une nouvelle tentative plus tard : le traitement doit
+ * supporter d'être rejoué.
+ */
+public interface OutboxEventHandler {
+
+    String eventType();
+
+    void handle(String payload);
+}
@@ -0,0 +1,94 @@
+package com.app.easypharma_backend.infrastructure.messaging.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Relaie les événements de l'outbox vers le transport. Les lots sont
+ * réservés par SELECT ... FOR UPDATE SKIP LOCKED : plusieurs instances
+ * relaient en parallèle sans traiter deux fois le même événement.
+ *
+ * La réservation est une transaction courte qui repousse availableAt
+ * (bail de CLAIM_LEASE_SECONDS) ; l'envoi (SMTP, broker...) a lieu après
+ * son commit, sans verrou ni connexion retenue, puis le résultat est écrit
+ * dans une seconde transaction. Une instance arrêtée en cours d'envoi
+ * laisse ses événements repris à l'expiration du bail.
+ *
+ * Un envoi en échec est retenté avec un recul exponentiel (2^n secondes,
+ * une heure au plus), puis abandonné (FAILED) après MAX_ATTEMPTS essais.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    static final int BATCH_SIZE = 100;
+    static final int MAX_ATTEMPTS = 10;
+    // Durée max d'envoi d'un lot avant qu'une autre instance ne le reprenne
+    static final long CLAIM_LEASE_SECONDS = 600;
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxTransport outboxTransport;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-ms:1000}", initialDelayString = "${app.outbox.poll-ms:1000}")
+    public void relay() {
+        int claimed;
+        do {
+            claimed = relayBatch();
+        } while (claimed == BATCH_SIZE);
+    }
+
+    int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claim());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        for (OutboxEvent event : batch) {
+            try {
+                outboxTransport.send(event);
+                event.setStatus(OutboxStatus.SENT);
+                event.setSentAt(LocalDateTime.now());
+            } catch (RuntimeException e) {
+                markFailedAttempt(event, e);
+            }
+        }
+        // Les résultats sont écrits en un lot
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.saveAll(batch));
+        return batch.size();
+    }
+
+    private List<OutboxEvent> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.claimBatch(OutboxStatus.PENDING, now,
+                PageRequest.of(0, BATCH_SIZE));
+        for (OutboxEvent event : batch) {
+            event.setAvailableAt(now.plusSeconds(CLAIM_LEASE_SECONDS));
+        }
+        return batch;
+    }
+
+    private void markFailedAttempt(OutboxEvent event, RuntimeException e) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        String error = String.valueOf(e.getMessage());
+        event.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+        if (attempts >= MAX_ATTEMPTS) {
+            event.setStatus(OutboxStatus.FAILED);
+            log.error("Outbox event {} ({}) abandoned after {} attempts: {}", event.getId(), event.getEventType(),
+                    attempts, error);
+            return;
+        }
+        long backoff = Math.min(1L << attempts, MAX_BACKOFF_SECONDS);
+        event.setAvailableAt(LocalDateTime.now().plusSeconds(backoff));
+        log.warn("Outbox event {} ({}) failed, retry in {}s: {}", event.getId(), event.getEventType(), backoff, error);
+    }
+}
@@ -0,0 +1,7 @@
+package com.app.easypharma_backend.infrastructure.messaging.outbox;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,14 @@
+package com.app.easypharma_backend.infrastructure.messaging.outbox;
+
+/**
+ * Achemine un événement validé vers ses handlers : directement
+ * (InMemoryOutboxTransport) ou via RabbitMQ (RabbitOutboxTransport), selon
+ * app.outbox.transport.
+ */
+public interface OutboxTransport {
+
+    /**
+     * Une exception laisse l'événement en attente pour une nouvelle tentative
+     */
+    void send(OutboxEvent event);
+}
@@ -0,0 +1,136 @@
+package com.app.easypharma_backend.infrastructure.messaging.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transport RabbitMQ (plusieurs instances) : le relais publie, les
+ * consommateurs de la file exécutent les handlers. Un échec de publication
+ * laisse l'événement en attente : livraison au moins une fois.
+ *
+ * L'événement est marqué SENT dès la publication : les échecs des handlers
+ * sont retentés par le broker. Un message rejeté part dans la file de
+ * retard (RETRY_QUEUE), qui le renvoie sur l'exchange principal après
+ * RETRY_DELAY_MS ; au bout de MAX_DELIVERIES échecs il est rangé dans
+ * DEAD_QUEUE pour analyse au lieu d'être perdu.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.transport", havingValue = "rabbitmq")
+@RequiredArgsConstructor
+@Slf4j
+public class RabbitOutboxTransport implements OutboxTransport {
+
+    static final String EXCHANGE = "easypharma.outbox";
+    static final String QUEUE = "easypharma.outbox.events";
+    static final String RETRY_EXCHANGE = "easypharma.outbox.retry";
+    static final String RETRY_QUEUE = "easypharma.outbox.events.retry";
+    static final String DEAD_QUEUE = "easypharma.outbox.events.dead";
+    static final int MAX_DELIVERIES = 5;
+    static final int RETRY_DELAY_MS = 30_000;
+    private static final String EVENT_TYPE_HEADER = "eventType";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final OutboxDispatcher dispatcher;
+
+    @Override
+    public void send(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId(event.getId().toString());
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setHeader(EVENT_TYPE_HEADER, event.getEventType());
+        rabbitTemplate.send(EXCHANGE, event.getEventType(),
+                new Message(event.getPayload().getBytes(StandardCharsets.UTF_8), properties));
+    }
+
+    @RabbitListener(queues = QUEUE)
+    public void onMessage(Message message) {
+        String eventType = message.getMessageProperties().getHeader(EVENT_TYPE_HEADER);
+        try {
+            dispatcher.dispatch(eventType, new String(message.getBody(), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            String messageId = message.getMessageProperties().getMessageId();
+            long failures = previousFailures(message.getMessageProperties()) + 1;
+            if (failures >= MAX_DELIVERIES) {
+                log.error("Outbox event {} ({}) abandoned after {} attempts, moved to {}: {}", messageId, eventType,
+                        failures, DEAD_QUEUE, e.getMessage());
+                rabbitTemplate.send("", DEAD_QUEUE, message);
+                return;
+            }
+            // Rejeté sans remise immédiate : la file de retard le renverra plus tard
+            log.warn("Outbox event {} ({}) failed, retry in {}s: {}", messageId, eventType, RETRY_DELAY_MS / 1000,
+                    e.getMessage());
+            throw new AmqpRejectAndDontRequeueException(e);
+        }
+    }
+
+    // Rejets précédents de ce message par la file principale (en-tête x-death du broker)
+    static long previousFailures(MessageProperties properties) {
+        List<Map<String, ?>> deaths = properties.getXDeathHeader();
+        if (deaths == null) {
+            return 0;
+        }
+        return deaths.stream()
+                .filter(death -> QUEUE.equals(death.get("queue")) && "rejected".equals(death.get("reason")))
+                .mapToLong(death -> death.get("count") instanceof Number count ? count.longValue() : 0)
+                .sum();
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "app.outbox.transport", havingValue = "rabbitmq")
+    static class Topology {
+
+        @Bean
+        TopicExchange outboxExchange() {
+            return new TopicExchange(EXCHANGE, true, false);
+        }
+
+        @Bean
+        Queue outboxQueue() {
+            return QueueBuilder.durable(QUEUE).deadLetterExchange(RETRY_EXCHANGE).build();
+        }
+
+        @Bean
+        Binding outboxBinding(Queue outboxQueue, TopicExchange outboxExchange) {
+            return BindingBuilder.bind(outboxQueue).to(outboxExchange).with("#");
+        }
+
+        @Bean
+        TopicExchange outboxRetryExchange() {
+            return new TopicExchange(RETRY_EXCHANGE, true, false);
+        }
+
+        // Sans consommateur : le message expire puis revient sur l'exchange principal (même clé de routage)
+        @Bean
+        Queue outboxRetryQueue() {
+            return QueueBuilder.durable(RETRY_QUEUE).ttl(RETRY_DELAY_MS).deadLetterExchange(EXCHANGE).build();
+        }
+
+        @Bean
+        Binding outboxRetryBinding(Queue outboxRetryQueue, TopicExchange outboxRetryExchange) {
+            return BindingBuilder.bind(outboxRetryQueue).to(outboxRetryExchange).with("#");
+        }
+
+        @Bean
+        Queue outboxDeadQueue() {
+            return QueueBuilder.durable(DEAD_QUEUE).build();
+        }
+    }
+}
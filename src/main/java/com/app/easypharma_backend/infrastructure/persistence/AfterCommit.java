@@ -0,0 +1,51 @@
+package com.app.easypharma_backend.infrastructure.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Exécute une action après le commit de la transaction en cours, ou tout de
+ * suite hors transaction. Sert à publier dans les structures partagées en
+ * mémoire (index, caches) uniquement ce que la base a validé : rien n'est
+ * visible avant le commit, rien n'est à compenser en cas de rollback.
+ *
+ * Le commit a déjà eu lieu quand l'action s'exécute : une exception est
+ * journalisée, jamais remontée à l'appelant.
+ */
+@Slf4j
+public final class AfterCommit {
+
+    // Vrai pendant les actions après commit : une synchronisation enregistrée
+    // à ce moment ne serait plus appelée par Spring, on exécute directement
+    private static final ThreadLocal<Boolean> RUNNING = new ThreadLocal<>();
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || Boolean.TRUE.equals(RUNNING.get())) {
+            invoke(action);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                RUNNING.set(Boolean.TRUE);
+                try {
+                    invoke(action);
+                } finally {
+                    RUNNING.remove();
+                }
+            }
+        });
+    }
+
+    private static void invoke(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            log.error("After-commit action failed", e);
+        }
+    }
+}
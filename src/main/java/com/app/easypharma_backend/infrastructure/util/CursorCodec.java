@@ -0,0 +1,67 @@
+package com.app.easypharma_backend.infrastructure.util;
+
+import com.app.easypharma_backend.infrastructure.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Encode/décode les curseurs de pagination par clé (keyset) : la valeur de tri
+ * de la dernière ligne lue et son identifiant, pour départager les ex aequo.
+ * Un curseur peut aussi porter le mode de tri qui l'a produit.
+ */
+public class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    public static String encode(String sortValue, UUID id) {
+        String raw = (sortValue != null ? sortValue : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Curseur lié à un mode de tri : il sera refusé s'il est présenté avec
+     * un autre tri
+     */
+    public static String encode(String sortKey, String sortValue, UUID id) {
+        return encode(sortKey + SEPARATOR + (sortValue != null ? sortValue : ""), id);
+    }
+
+    public static Cursor decode(String cursor, String expectedSortKey) {
+        Cursor decoded = decode(cursor);
+        String prefix = expectedSortKey + SEPARATOR;
+        if (!decoded.getSortValue().startsWith(prefix)) {
+            throw new ValidationException("Pagination cursor was not issued for sort " + expectedSortKey);
+        }
+        return new Cursor(decoded.getSortValue().substring(prefix.length()), decoded.getId());
+    }
+
+    public static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new Cursor(raw.substring(0, separator), UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ValidationException("Invalid pagination cursor", e);
+        }
+    }
+
+    public static class Cursor {
+        private final String sortValue;
+        private final UUID id;
+
+        public Cursor(String sortValue, UUID id) {
+            this.sortValue = sortValue;
+            this.id = id;
+        }
+
+        public String getSortValue() {
+            return sortValue;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.app.easypharma_backend.infrastructure.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Analyse de texte en français pour la recherche plein texte : normalisation
+ * (TextNormalizer), suppression des mots vides et racinisation légère
+ * ("maux de têtes" et "mal de tête" donnent les mêmes racines).
+ */
+public class FrenchAnalyzer {
+
+    // Mots vides, déjà sans accents (normalisés)
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "au", "aux", "avec", "ce", "ces", "d", "dans", "de", "des", "du", "elle", "en", "et", "il",
+            "j", "je", "l", "la", "le", "les", "leur", "lui", "m", "ma", "mais", "me", "mes", "mon", "n", "ne",
+            "nos", "notre", "nous", "on", "ou", "par", "pas", "pour", "qu", "que", "qui", "s", "sa", "se", "ses",
+            "son", "sur", "t", "ta", "te", "tes", "ton", "tu", "un", "une", "vos", "votre", "vous", "y");
+
+    /**
+     * Découpe le texte en racines, mots vides exclus
+     */
+    public static List<String> analyze(String text) {
+        List<String> stems = new ArrayList<>();
+        for (String word : TextNormalizer.tokenize(text)) {
+            if (!STOP_WORDS.contains(word)) {
+                stems.add(stem(word));
+            }
+        }
+        return stems;
+    }
+
+    /**
+     * Racinisation légère d'un mot normalisé : pluriel, féminin, "e" final et
+     * consonne finale doublée. Les mots courts et les nombres sont conservés.
+     */
+    public static String stem(String word) {
+        if (word.length() < 4 || Character.isDigit(word.charAt(0))) {
+            return word;
+        }
+        String stem = word;
+        // Pluriel : maux -> mal, fievres -> fievre
+        if (stem.endsWith("aux")) {
+            stem = stem.substring(0, stem.length() - 3) + "al";
+        } else if (stem.endsWith("s") || stem.endsWith("x")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        // Féminin : douloureuse -> douloureux, digestive -> digestif
+        if (stem.endsWith("euse")) {
+            stem = stem.substring(0, stem.length() - 4) + "eu";
+        } else if (stem.endsWith("ive")) {
+            stem = stem.substring(0, stem.length() - 3) + "if";
+        } else if (stem.endsWith("e") && stem.length() > 3) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        // Consonne doublée : gripp -> grip, inflamm -> inflam
+        int length = stem.length();
+        if (length > 3 && stem.charAt(length - 1) == stem.charAt(length - 2)
+                && "aeiouy".indexOf(stem.charAt(length - 1)) < 0) {
+            stem = stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+}
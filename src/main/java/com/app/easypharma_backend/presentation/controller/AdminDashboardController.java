@@ -38,10 +38,18 @@ public class AdminDashboardController {
         return ResponseEntity.ok(adminDashboardService.getTopSellingMedications());
     }
 
-    @Operation(summary = "Top Recherches", description = "Liste des termes les plus recherchés")
+    @Operation(summary = "Top Recherches", description = "Liste des termes les plus recherchés sur les derniers jours")
     @GetMapping("/top-medications/searched")
-    public ResponseEntity<List<TopMedicationDTO>> getTopSearched() {
-        return ResponseEntity.ok(adminDashboardService.getTopSearchedMedications());
+    public ResponseEntity<List<TopMedicationDTO>> getTopSearched(
+            @org.springframework.web.bind.annotation.RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(adminDashboardService.getTopSearchedMedications(days));
+    }
+
+    @Operation(summary = "Recherches sans résultat", description = "Termes les plus recherchés sans aucun résultat (médicaments manquants au catalogue ou en stock)")
+    @GetMapping("/top-medications/zero-results")
+    public ResponseEntity<List<TopMedicationDTO>> getTopZeroResultSearches(
+            @org.springframework.web.bind.annotation.RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(adminDashboardService.getTopZeroResultSearches(days));
     }
 
     @Operation(summary = "Exporter Rapport Global", description = "Générer un fichier CSV des statistiques globales")
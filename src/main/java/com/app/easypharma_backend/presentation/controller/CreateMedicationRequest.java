@@ -16,5 +16,6 @@ public class CreateMedicationRequest {
     private TherapeuticClass therapeuticClass;
     private String description;
     private String dosage;
+    private String symptoms;
     private Boolean requiresPrescription;
 }
@@ -1,8 +1,13 @@
 package com.app.easypharma_backend.presentation.controller;
 
+import com.app.easypharma_backend.domain.medication.dto.MedicationPriceStatsDTO;
 import com.app.easypharma_backend.domain.medication.entity.Medication;
 import com.app.easypharma_backend.domain.medication.entity.TherapeuticClass;
 import com.app.easypharma_backend.domain.medication.repository.MedicationRepository;
+import com.app.easypharma_backend.domain.medication.service.interfaces.MedicationPriceStatsService;
+import com.app.easypharma_backend.domain.search.dto.SymptomMatchDTO;
+import com.app.easypharma_backend.domain.search.service.GenericEquivalenceIndex;
+import com.app.easypharma_backend.domain.search.service.SymptomSearchIndex;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,6 +27,9 @@ import java.util.UUID;
 public class MedicationController {
 
     private final MedicationRepository medicationRepository;
+    private final SymptomSearchIndex symptomSearchIndex;
+    private final GenericEquivalenceIndex genericEquivalenceIndex;
+    private final MedicationPriceStatsService medicationPriceStatsService;
 
     @Operation(summary = "Lister tous les médicaments", description = "Retourne la liste complète des médicaments du catalogue (pour PHARMACY_ADMIN qui veut ajouter à son inventaire)")
     @GetMapping
@@ -47,22 +55,37 @@ public class MedicationController {
                 .genericName(request.getGenericName())
                 .therapeuticClass(request.getTherapeuticClass())
                 .description(request.getDescription())
+                .symptoms(request.getSymptoms())
                 .dosage(request.getDosage())
                 .requiresPrescription(
                         request.getRequiresPrescription() != null ? request.getRequiresPrescription() : false)
                 .build();
 
         Medication saved = medicationRepository.save(medication);
+        symptomSearchIndex.index(saved);
+        genericEquivalenceIndex.index(saved);
         return ResponseEntity.status(201).body(saved);
     }
 
-    @Operation(summary = "Rechercher des médicaments", description = "Recherche par nom ou nom générique (insensible à la casse)")
+    @Operation(summary = "Rechercher des médicaments", description = "Recherche par nom ou nom générique (insensible à la casse). Si 'limit' est fourni, les résultats sont classés par pertinence (similarité trigramme).")
     @GetMapping("/search")
     public ResponseEntity<List<Medication>> searchMedications(
-            @Parameter(description = "Terme de recherche") @RequestParam @NonNull String query) {
+            @Parameter(description = "Terme de recherche") @RequestParam @NonNull String query,
+            @Parameter(description = "Nombre max de résultats classés par pertinence (optionnel)") @RequestParam(required = false) Integer limit) {
+        if (limit != null) {
+            return ResponseEntity.ok(medicationRepository.searchByRelevance(query, Math.max(1, Math.min(limit, 200))));
+        }
         return ResponseEntity.ok(medicationRepository.searchByNameOrGenericName(query));
     }
 
+    @Operation(summary = "Rechercher par symptômes", description = "Recherche plein texte dans les symptômes et descriptions (ex: 'mal de tête fièvre'), résultats classés par pertinence (BM25)")
+    @GetMapping("/search/symptoms")
+    public ResponseEntity<List<SymptomMatchDTO>> searchBySymptoms(
+            @Parameter(description = "Symptômes recherchés") @RequestParam @NonNull String query,
+            @Parameter(description = "Nombre max de résultats") @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(symptomSearchIndex.search(query, Math.max(1, Math.min(limit, 200))));
+    }
+
     @Operation(summary = "Filtrer les médicaments", description = "Recherche avancée avec filtres multiples")
     @GetMapping("/filter")
     public ResponseEntity<List<Medication>> filterMedications(
@@ -83,6 +106,14 @@ public class MedicationController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @Operation(summary = "Comparaison de prix d'un médicament", description = "Prix minimum, maximum, médian et nombre d'offres disponibles, toutes villes confondues (city = '*') et par ville. Statistiques maintenues à chaque changement d'offre.")
+    @GetMapping("/{id}/price-stats")
+    public ResponseEntity<List<MedicationPriceStatsDTO>> getPriceStats(
+            @Parameter(description = "ID du médicament") @PathVariable @NonNull UUID id,
+            @Parameter(description = "Ville (optionnel)") @RequestParam(required = false) String city) {
+        return ResponseEntity.ok(medicationPriceStatsService.getStats(id, city));
+    }
+
     @Operation(summary = "Médicaments par classe thérapeutique", description = "Liste les médicaments d'une classe thérapeutique donnée")
     @GetMapping("/by-class/{therapeuticClass}")
     public ResponseEntity<List<Medication>> getMedicationsByClass(
@@ -1,18 +1,25 @@
 package com.app.easypharma_backend.presentation.controller;
 
+import com.app.easypharma_backend.application.common.dto.CursorPageResponse;
+import com.app.easypharma_backend.domain.order.dto.BulkStatusUpdateDTO;
 import com.app.easypharma_backend.domain.order.dto.CreateOrderDTO;
 import com.app.easypharma_backend.domain.order.dto.OrderDTO;
+import com.app.easypharma_backend.domain.order.dto.OrderStatusEventDTO;
 import com.app.easypharma_backend.domain.order.entity.OrderStatus;
 import com.app.easypharma_backend.domain.order.service.interfaces.OrderServiceInterface;
 import com.app.easypharma_backend.domain.auth.repository.UserRepository;
+import com.app.easypharma_backend.infrastructure.idempotency.IdempotencyService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.lang.NonNull;
 
 import java.util.List;
@@ -28,13 +35,18 @@ public class OrderController {
     private final OrderServiceInterface orderService;
     private final UserRepository userRepository;
     private final com.app.easypharma_backend.domain.employee.service.EmployeePermissionService permissionService;
+    private final com.app.easypharma_backend.domain.order.board.OrderBoardEmitters orderBoardEmitters;
+    private final IdempotencyService idempotencyService;
 
-    @Operation(summary = "Créer une commande", description = "Le patient crée une commande")
+    @Operation(summary = "Créer une commande", description = "Le patient crée une commande. Avec l'en-tête Idempotency-Key, une nouvelle tentative renvoie la commande déjà créée au lieu d'en créer une seconde.")
     @PostMapping
     @PreAuthorize("hasRole('PATIENT')")
-    public ResponseEntity<OrderDTO> createOrder(@RequestBody @NonNull CreateOrderDTO createOrderDTO) {
-        UUID patientId = getCurrentUserId();
-        return ResponseEntity.ok(orderService.createOrder(patientId, createOrderDTO));
+    public ResponseEntity<OrderDTO> createOrder(
+            @RequestBody @NonNull CreateOrderDTO createOrderDTO,
+            @Parameter(description = "Clé unique générée par le client pour cette commande, réutilisée à chaque nouvelle tentative") @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        // Une tentative rejouée ne touche pas à la base
+        return ResponseEntity.ok(idempotencyService.execute("orders", idempotencyKey, createOrderDTO, OrderDTO.class,
+                () -> orderService.createOrder(getCurrentUserId(), createOrderDTO)));
     }
 
     @Operation(summary = "Mes commandes (Patient)", description = "Récupère les commandes du patient connecté")
@@ -45,6 +57,17 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getPatientOrders(patientId));
     }
 
+    @Operation(summary = "Mes commandes paginées (Patient)", description = "Historique du patient connecté, du plus récent au plus ancien, paginé par curseur. Renvoyer 'nextCursor' pour obtenir la page suivante.")
+    @GetMapping("/my-orders/page")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<CursorPageResponse<OrderDTO>> getMyOrdersPage(
+            @RequestParam(required = false) List<OrderStatus> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        UUID patientId = getCurrentUserId();
+        return ResponseEntity.ok(orderService.getPatientOrdersPage(patientId, status, cursor, size));
+    }
+
     @Operation(summary = "Commandes de ma pharmacie (Pharmacien)", description = "Récupère les commandes reçues par la pharmacie du pharmacien connecté")
     @GetMapping("/pharmacy-orders/{pharmacyId}")
     @PreAuthorize("hasRole('PHARMACY_ADMIN') or hasRole('PHARMACY_EMPLOYEE')")
@@ -63,6 +86,45 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getPharmacyOrders(pharmacyId));
     }
 
+    @Operation(summary = "Commandes de ma pharmacie paginées (Pharmacien)", description = "Commandes reçues, filtrables par statut, paginées par curseur (max 100 par page)")
+    @GetMapping("/pharmacy-orders/{pharmacyId}/page")
+    @PreAuthorize("hasRole('PHARMACY_ADMIN') or hasRole('PHARMACY_EMPLOYEE')")
+    public ResponseEntity<CursorPageResponse<OrderDTO>> getPharmacyOrdersPage(
+            @PathVariable @NonNull UUID pharmacyId,
+            @RequestParam(required = false) List<OrderStatus> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        UUID userId = getCurrentUserId();
+        com.app.easypharma_backend.domain.auth.entity.User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Sécurité : Vérifier que le pharmacien appartient bien à cette pharmacie
+        if (user.getPharmacy() == null || !user.getPharmacy().getId().equals(pharmacyId)) {
+            throw new com.app.easypharma_backend.infrastructure.exception.ValidationException(
+                    "Accès refusé : Vous n'appartenez pas à cette pharmacie");
+        }
+
+        return ResponseEntity.ok(orderService.getPharmacyOrdersPage(pharmacyId, status, cursor, size));
+    }
+
+    @Operation(summary = "Tableau des commandes en temps réel (Pharmacien)", description = "Flux Server-Sent Events (événements 'order') des nouvelles commandes et changements de statut de la pharmacie. Charger la liste une fois, puis appliquer les deltas ; la recharger à chaque reconnexion.")
+    @GetMapping(value = "/pharmacy-orders/{pharmacyId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('PHARMACY_ADMIN') or hasRole('PHARMACY_EMPLOYEE')")
+    public SseEmitter streamPharmacyOrders(@PathVariable @NonNull UUID pharmacyId) {
+        // Hors open-in-view (voir OpenEntityManagerInViewConfig) : une seule requête courte,
+        // aucune connexion retenue pendant la durée du flux
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        UUID userPharmacyId = userRepository.findPharmacyIdByEmail(email).orElse(null);
+
+        // Sécurité : Vérifier que le pharmacien appartient bien à cette pharmacie
+        if (!pharmacyId.equals(userPharmacyId)) {
+            throw new com.app.easypharma_backend.infrastructure.exception.ValidationException(
+                    "Accès refusé : Vous n'appartenez pas à cette pharmacie");
+        }
+
+        return orderBoardEmitters.subscribe(pharmacyId);
+    }
+
     @Operation(summary = "Revenus de la pharmacie", description = "Calcule le chiffre d'affaires total (livré)")
     @GetMapping("/pharmacy-stats/{pharmacyId}")
     @PreAuthorize("hasRole('PHARMACY_ADMIN') or hasRole('SUPER_ADMIN')")
@@ -112,6 +174,33 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
 
+    @Operation(summary = "Historique commande", description = "Changements de statut d'une commande")
+    @GetMapping("/{id}/history")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<OrderStatusEventDTO>> getOrderHistory(@PathVariable @NonNull UUID id) {
+        Objects.requireNonNull(id, "Order ID cannot be null");
+        OrderDTO order = orderService.getOrderById(id);
+
+        UUID userId = getCurrentUserId();
+        com.app.easypharma_backend.domain.auth.entity.User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if ("PATIENT".equals(user.getRole().name())) {
+            if (!order.getPatientId().equals(userId)) {
+                throw new com.app.easypharma_backend.infrastructure.exception.ValidationException(
+                        "Accès refusé : Cette commande ne vous appartient pas");
+            }
+        } else if ("PHARMACY_ADMIN".equals(user.getRole().name())
+                || "PHARMACY_EMPLOYEE".equals(user.getRole().name())) {
+            if (user.getPharmacy() == null || !order.getPharmacyId().equals(user.getPharmacy().getId())) {
+                throw new com.app.easypharma_backend.infrastructure.exception.ValidationException(
+                        "Accès refusé : Cette commande appartient à une autre pharmacie");
+            }
+        }
+
+        return ResponseEntity.ok(orderService.getOrderHistory(id));
+    }
+
     @Operation(summary = "Mettre à jour statut", description = "Pharmacien valide ou marque livré")
     @PatchMapping("/{id}/status")
     @PreAuthorize("hasRole('PHARMACY_ADMIN') or hasRole('PHARMACY_EMPLOYEE') or hasRole('SUPER_ADMIN')")
@@ -150,6 +239,45 @@ public class OrderController {
         return ResponseEntity.ok(orderService.updateOrderStatus(id, status));
     }
 
+    @Operation(summary = "Mettre à jour le statut de plusieurs commandes", description = "Pharmacien : passe un lot de commandes de sa pharmacie au même statut (ex. PREPARING -> READY), toutes ou aucune. Au plus 100 commandes.")
+    @PatchMapping("/pharmacy-orders/{pharmacyId}/status")
+    @PreAuthorize("hasRole('PHARMACY_ADMIN') or hasRole('PHARMACY_EMPLOYEE') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<List<OrderDTO>> updateStatuses(
+            @PathVariable @NonNull UUID pharmacyId,
+            @RequestBody @NonNull BulkStatusUpdateDTO request) {
+        Objects.requireNonNull(pharmacyId, "Pharmacy ID cannot be null");
+        if (request.getOrderIds() == null || request.getStatus() == null) {
+            throw new com.app.easypharma_backend.infrastructure.exception.ValidationException(
+                    "orderIds et status sont obligatoires");
+        }
+
+        UUID userId = getCurrentUserId();
+        com.app.easypharma_backend.domain.auth.entity.User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Sécurité : Vérifier que l'utilisateur appartient à la pharmacie (le service
+        // refuse les commandes d'une autre pharmacie)
+        if (!"SUPER_ADMIN".equals(user.getRole().name())) {
+            if (user.getPharmacy() == null || !user.getPharmacy().getId().equals(pharmacyId)) {
+                throw new com.app.easypharma_backend.infrastructure.exception.ValidationException(
+                        "Accès refusé : Vous n'appartenez pas à cette pharmacie");
+            }
+        }
+
+        // Vérifier permission PREPARE_ORDERS pour employés
+        if ("PHARMACY_EMPLOYEE".equals(user.getRole().name())) {
+            if (request.getStatus() == OrderStatus.PREPARING || request.getStatus() == OrderStatus.READY) {
+                if (!permissionService.hasPermission(userId, "PREPARE_ORDERS")) {
+                    throw new com.app.easypharma_backend.infrastructure.exception.ValidationException(
+                            "Permission denied: canPrepareOrders required");
+                }
+            }
+        }
+
+        return ResponseEntity.ok(orderService.updateOrderStatuses(pharmacyId, request.getOrderIds(),
+                request.getStatus()));
+    }
+
     @Operation(summary = "Télécharger la facture PDF", description = "Génère une facture pour une commande")
     @GetMapping("/{id}/invoice")
     @PreAuthorize("isAuthenticated()")
@@ -1,19 +1,37 @@
 package com.app.easypharma_backend.presentation.controller;
 
+import com.app.easypharma_backend.application.common.dto.CursorPageResponse;
 import com.app.easypharma_backend.domain.medication.dto.PatientMedicationSearchResultDTO;
 import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
 import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
 import com.app.easypharma_backend.domain.pharmacy.dto.PharmacyDTO;
 import com.app.easypharma_backend.domain.pharmacy.mapper.PharmacyMapper;
+import com.app.easypharma_backend.domain.search.dto.BasketPlanDTO;
+import com.app.easypharma_backend.domain.search.dto.BasketRequest;
+import com.app.easypharma_backend.domain.search.dto.SearchSuggestionDTO;
+import com.app.easypharma_backend.domain.search.service.BasketOptimizerService;
+import com.app.easypharma_backend.domain.search.service.GenericSubstituteService;
+import com.app.easypharma_backend.domain.search.service.MedicationSearchIndex;
+import com.app.easypharma_backend.domain.search.service.MedicationSearchPageService;
+import com.app.easypharma_backend.domain.search.service.PharmacyGeoIndex;
+import com.app.easypharma_backend.domain.search.service.SearchAnalyticsService;
+import com.app.easypharma_backend.domain.search.service.SearchLogBuffer;
+import com.app.easypharma_backend.domain.search.service.SearchResultCache;
+import com.app.easypharma_backend.domain.search.service.SearchSuggestionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,14 +40,27 @@ import java.util.stream.Collectors;
 @Tag(name = "Patient Search", description = "Recherche intelligente pour les patients (Médicaments, Symptômes, Tri)")
 public class PatientSearchController {
 
+    // Résultats max des recherches servies par la base (RELEVANCE, POSTGIS_NEAREST)
+    private static final int MAX_QUERY_LIMIT = 200;
+    // Rayon de la recherche POSTGIS_NEAREST sans rayon demandé, et son plafond
+    private static final double DEFAULT_NEAREST_RADIUS_KM = 20.0;
+    private static final double MAX_NEAREST_RADIUS_KM = 100.0;
+
     private final PharmacyMedicationRepository pharmacyMedicationRepository;
     private final PharmacyMapper pharmacyMapper;
     private final com.app.easypharma_backend.infrastructure.security.JwtService jwtService;
     private final com.app.easypharma_backend.application.auth.usecase.GetUserProfileUseCase getUserProfileUseCase;
-    private final com.app.easypharma_backend.domain.search.repository.SearchLogRepository searchLogRepository;
-    private final com.app.easypharma_backend.domain.auth.repository.UserRepository userRepository;
+    private final MedicationSearchIndex medicationSearchIndex;
+    private final MedicationSearchPageService medicationSearchPageService;
+    private final SearchSuggestionService searchSuggestionService;
+    private final PharmacyGeoIndex pharmacyGeoIndex;
+    private final SearchResultCache searchResultCache;
+    private final SearchLogBuffer searchLogBuffer;
+    private final SearchAnalyticsService searchAnalyticsService;
+    private final BasketOptimizerService basketOptimizerService;
+    private final GenericSubstituteService genericSubstituteService;
 
-    @Operation(summary = "Recherche globale de médicaments", description = "Recherche par nom, générique ou symptômes. Tri par prix, note ou proximité. Si 'query' est vide, retourne tous les médicaments disponibles.")
+    @Operation(summary = "Recherche globale de médicaments", description = "Recherche par nom, générique ou symptômes. Tri par prix, note ou proximité. Si 'query' est vide, retourne tous les médicaments disponibles. Sans résultat exact, une recherche tolérante aux fautes de frappe est appliquée.")
     @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Paramètres invalides (ex: tri NEAREST sans coordonnées)", content = @io.swagger.v3.oas.annotations.media.Content)
     })
@@ -37,98 +68,83 @@ public class PatientSearchController {
     public ResponseEntity<List<PatientMedicationSearchResultDTO>> searchMedications(
             @Parameter(description = "Terme de recherche (optionnel)") @RequestParam(defaultValue = "") String query,
             @Parameter(description = "Classe thérapeutique") @RequestParam(required = false) com.app.easypharma_backend.domain.medication.entity.TherapeuticClass therapeuticClass,
-            @Parameter(description = "Critère de tri: PRICE, RATING, NEAREST") @RequestParam(defaultValue = "PRICE") String sortBy,
+            @Parameter(description = "Critère de tri: PRICE, RATING, NEAREST, POSTGIS_NEAREST, RELEVANCE, FUZZY") @RequestParam(defaultValue = "PRICE") String sortBy,
             @Parameter(description = "Latitude utilisateur (requis pour tri NEAREST)") @RequestParam(required = false) Double userLat,
             @Parameter(description = "Longitude utilisateur (requis pour tri NEAREST)") @RequestParam(required = false) Double userLon,
+            @Parameter(description = "Nombre max de résultats (tris RELEVANCE et POSTGIS_NEAREST, max 200)") @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "Rayon max en km autour de l'utilisateur (optionnel ; POSTGIS_NEAREST : 20 par défaut, max 100)") @RequestParam(required = false) Double radiusKm,
             @Parameter(hidden = true) @RequestHeader(value = "Authorization", required = false) String authHeader) {
 
-        // Log Search (Async ideal, but keep simple for now)
-        if (query != null && !query.trim().isEmpty()) {
-            final String finalToken = (authHeader != null && authHeader.startsWith("Bearer "))
-                    ? authHeader.replace("Bearer ", "")
-                    : null;
-            new Thread(() -> {
-                try {
-                    com.app.easypharma_backend.domain.auth.entity.User user = null;
-                    if (finalToken != null) {
-                        String email = jwtService.extractEmail(finalToken);
-                        user = userRepository.findByEmail(email).orElse(null);
-                    }
-                    searchLogRepository.save(com.app.easypharma_backend.domain.search.entity.SearchLog.builder()
-                            .query(query)
-                            .user(user)
-                            .build());
-                } catch (Exception e) {
-                    // Silent fail for logs
-                }
-            }).start();
-        }
-
         // Auto-detect location for authenticated users if not provided
-        if ((userLat == null || userLon == null) && authHeader != null && authHeader.startsWith("Bearer ")) {
-            try {
-                String token = authHeader.replace("Bearer ", "");
-                String email = jwtService.extractEmail(token);
-                var userProfile = getUserProfileUseCase.execute(email);
-
-                if (userLat == null && userProfile.getLatitude() != null) {
-                    userLat = userProfile.getLatitude().doubleValue();
-                }
-                if (userLon == null && userProfile.getLongitude() != null) {
-                    userLon = userProfile.getLongitude().doubleValue();
-                }
-            } catch (Exception e) {
-                // Ignore invalid token or missing user profile
-            }
+        if (userLat == null || userLon == null) {
+            Double[] location = locateUser(authHeader);
+            userLat = userLat != null ? userLat : location[0];
+            userLon = userLon != null ? userLon : location[1];
         }
 
-        List<PharmacyMedication> results;
-        String therapeuticClassStr = therapeuticClass != null ? therapeuticClass.name() : null;
+        List<PatientMedicationSearchResultDTO> dtos;
         if ("POSTGIS_NEAREST".equalsIgnoreCase(sortBy)) {
             if (userLat == null || userLon == null) {
                 return ResponseEntity.badRequest().build();
             }
-            // Use PostGIS native query for efficient spatial sorting
-            results = pharmacyMedicationRepository.searchGlobalPostGIS(query, therapeuticClassStr, userLat, userLon);
+            // Use PostGIS native query for efficient spatial sorting (cached per geo cell),
+            // bounded by ST_DWithin and a server-side limit
+            String therapeuticClassStr = therapeuticClass != null ? therapeuticClass.name() : null;
+            double lat = userLat;
+            double lon = userLon;
+            double searchRadius = radiusKm != null
+                    ? Math.max(0.1, Math.min(radiusKm, MAX_NEAREST_RADIUS_KM))
+                    : DEFAULT_NEAREST_RADIUS_KM;
+            int cappedLimit = Math.max(1, Math.min(limit, MAX_QUERY_LIMIT));
+            dtos = searchResultCache.get(query, therapeuticClass, sortBy, userLat, userLon, searchRadius, cappedLimit,
+                    () -> pharmacyMedicationRepository.searchGlobalPostGIS(query, therapeuticClassStr, lat, lon,
+                            searchRadius, cappedLimit)
+                            .stream().map(this::toSearchResult).collect(Collectors.toList()));
+        } else if ("RELEVANCE".equalsIgnoreCase(sortBy) && !query.isBlank()) {
+            // Trigram similarity ranking, index-backed (pg_trgm) and limited server-side
+            String therapeuticClassStr = therapeuticClass != null ? therapeuticClass.name() : null;
+            int cappedLimit = Math.max(1, Math.min(limit, MAX_QUERY_LIMIT));
+            dtos = searchResultCache.get(query, therapeuticClass, sortBy, null, null, null, cappedLimit,
+                    () -> pharmacyMedicationRepository.searchGlobalByRelevance(query.trim(), therapeuticClassStr,
+                            cappedLimit).stream().map(this::toSearchResult).collect(Collectors.toList()));
+        } else if ("FUZZY".equalsIgnoreCase(sortBy)) {
+            // Typo-tolerant matching only, results keep the default price order
+            dtos = medicationSearchIndex.fuzzySearch(query, therapeuticClass);
         } else {
-            // Default JPQL search
-            results = pharmacyMedicationRepository.searchGlobal(query, therapeuticClassStr);
+            // Default: in-memory inverted index (no database round trip)
+            dtos = medicationSearchIndex.search(query, therapeuticClass);
+            if (dtos.isEmpty() && !query.isBlank()) {
+                // Nothing matched exactly: fall back to typo-tolerant matching ("amoxiciline")
+                dtos = medicationSearchIndex.fuzzySearch(query, therapeuticClass);
+            }
         }
 
-        Double finalUserLat = userLat;
-        Double finalUserLon = userLon;
-        List<PatientMedicationSearchResultDTO> dtos = results.stream()
-                .map(pm -> {
-                    PharmacyDTO pharmacyDTO = pharmacyMapper.toDTO(pm.getPharmacy());
-
-                    Double distance = null;
-                    if (finalUserLat != null && finalUserLon != null && pm.getPharmacy().getLatitude() != null
-                            && pm.getPharmacy().getLongitude() != null) {
-                        distance = calculateDistance(finalUserLat, finalUserLon,
-                                pm.getPharmacy().getLatitude().doubleValue(),
-                                pm.getPharmacy().getLongitude().doubleValue());
-                    }
+        if (userLat != null && userLon != null) {
+            if (radiusKm != null) {
+                // Pré-filtre par la grille spatiale : seules les pharmacies du rayon sont conservées
+                Set<UUID> inRange = pharmacyGeoIndex.findWithinRadius(userLat, userLon, radiusKm).stream()
+                        .map(PharmacyDTO::getId)
+                        .collect(Collectors.toSet());
+                dtos = dtos.stream()
+                        .filter(dto -> inRange.contains(dto.getPharmacy().getId()))
+                        .collect(Collectors.toList());
+            }
+            // Une seule distance par pharmacie, partagée par toutes ses offres
+            Map<UUID, Double> distances = new HashMap<>();
+            for (PatientMedicationSearchResultDTO dto : dtos) {
+                PharmacyDTO pharmacy = dto.getPharmacy();
+                if (pharmacy.getLatitude() != null && pharmacy.getLongitude() != null) {
+                    double lat = userLat;
+                    double lon = userLon;
+                    dto.setDistanceKm(distances.computeIfAbsent(pharmacy.getId(),
+                            id -> calculateDistance(lat, lon, pharmacy.getLatitude().doubleValue(),
+                                    pharmacy.getLongitude().doubleValue())));
+                }
+            }
+        }
 
-                    return PatientMedicationSearchResultDTO.builder()
-                            .medicationId(pm.getMedication().getId())
-                            .medicationName(pm.getMedication().getName())
-                            .medicationGenericName(pm.getMedication().getGenericName())
-                            .medicationDescription(pm.getMedication().getDescription())
-                            .medicationPhotoUrl(pm.getMedication().getPhotoUrl())
-                            .price(pm.getPrice())
-                            .isAvailable(pm.getIsAvailable())
-                            .stockQuantity(pm.getStockQuantity())
-                            .expiryDate(pm.getExpiryDate())
-                            .pharmacy(pharmacyDTO)
-                            .averageRating(pm.getPharmacy().getAverageRating())
-                            .ratingCount(pm.getPharmacy().getRatingCount())
-                            .distanceKm(distance)
-                            .build();
-                })
-                .collect(Collectors.toList());
-
-        // Sorting logic (java-side) only if NOT using PostGIS
-        if (!"POSTGIS_NEAREST".equalsIgnoreCase(sortBy)) {
+        // Sorting logic (java-side) only if NOT already ordered by the database
+        if (!"RELEVANCE".equalsIgnoreCase(sortBy)) {
             switch (sortBy.toUpperCase()) {
                 case "RATING":
                     dtos.sort(Comparator.comparing(
@@ -137,6 +153,8 @@ public class PatientSearchController {
                             Comparator.reverseOrder()));
                     break;
                 case "NEAREST":
+                case "POSTGIS_NEAREST":
+                    // POSTGIS_NEAREST too: a cached result was ordered for a neighbour in the same geo cell
                     if (userLat != null && userLon != null) {
                         dtos.sort(Comparator
                                 .comparing(
@@ -150,9 +168,131 @@ public class PatientSearchController {
             }
         }
 
+        logSearch(query, authHeader, dtos.size());
         return ResponseEntity.ok(dtos);
     }
 
+    @Operation(summary = "Recherche paginée de médicaments", description = "Même recherche que l'endpoint principal, paginée par curseur (keyset) pour les tris PRICE, RATING et NEAREST. Renvoyer 'nextCursor' pour obtenir la page suivante.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Paramètres invalides (ex: tri NEAREST sans coordonnées)", content = @io.swagger.v3.oas.annotations.media.Content)
+    })
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageResponse<PatientMedicationSearchResultDTO>> searchMedicationsPage(
+            @Parameter(description = "Terme de recherche (optionnel)") @RequestParam(defaultValue = "") String query,
+            @Parameter(description = "Classe thérapeutique") @RequestParam(required = false) com.app.easypharma_backend.domain.medication.entity.TherapeuticClass therapeuticClass,
+            @Parameter(description = "Critère de tri: PRICE, RATING, NEAREST") @RequestParam(defaultValue = "PRICE") String sortBy,
+            @Parameter(description = "Latitude utilisateur (requis pour tri NEAREST)") @RequestParam(required = false) Double userLat,
+            @Parameter(description = "Longitude utilisateur (requis pour tri NEAREST)") @RequestParam(required = false) Double userLon,
+            @Parameter(description = "Curseur de la page suivante (absent pour la première page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Taille de page (max 100)") @RequestParam(defaultValue = "20") int size,
+            @Parameter(hidden = true) @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        if (userLat == null || userLon == null) {
+            Double[] location = locateUser(authHeader);
+            userLat = userLat != null ? userLat : location[0];
+            userLon = userLon != null ? userLon : location[1];
+        }
+        if ("NEAREST".equalsIgnoreCase(sortBy) && (userLat == null || userLon == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        CursorPageResponse<PatientMedicationSearchResultDTO> page = medicationSearchPageService.search(query,
+                therapeuticClass, sortBy, userLat, userLon, cursor, size);
+        if (cursor == null) {
+            logSearch(query, authHeader, page.getContent().size());
+        }
+        return ResponseEntity.ok(page);
+    }
+
+    @Operation(summary = "Suggestions de recherche (autocomplétion)", description = "Complétions les plus populaires pour un préfixe saisi (noms, génériques, recherches fréquentes). Servi depuis la mémoire.")
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SearchSuggestionDTO>> suggest(
+            @Parameter(description = "Début du terme saisi") @RequestParam String prefix,
+            @Parameter(description = "Nombre max de suggestions (max 10)") @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(searchSuggestionService.suggest(prefix, limit));
+    }
+
+    @Operation(summary = "Optimisation d'un panier multi-pharmacies", description = "Pour une ordonnance de plusieurs médicaments, propose la pharmacie ou la combinaison de pharmacies la moins chère (prix + frais de livraison), un plan par nombre de pharmacies sollicitées. Le premier plan est le moins cher.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Panier vide, quantité invalide ou trop de médicaments distincts", content = @io.swagger.v3.oas.annotations.media.Content)
+    })
+    @PostMapping("/basket")
+    public ResponseEntity<List<BasketPlanDTO>> optimizeBasket(@Valid @RequestBody BasketRequest request) {
+        return ResponseEntity.ok(basketOptimizerService.optimize(request));
+    }
+
+    @Operation(summary = "Substituts d'un médicament indisponible", description = "Offres en stock du médicament et de ses équivalents (même DCI, même dosage, même classe thérapeutique) dans la pharmacie indiquée ou autour de l'utilisateur. La pharmacie indiquée vient en premier, puis les plus proches.")
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Ni pharmacie ni position fournie", content = @io.swagger.v3.oas.annotations.media.Content)
+    })
+    @GetMapping("/substitutes")
+    public ResponseEntity<List<PatientMedicationSearchResultDTO>> findSubstitutes(
+            @Parameter(description = "Médicament indisponible") @RequestParam UUID medicationId,
+            @Parameter(description = "Pharmacie où le médicament manque (optionnel)") @RequestParam(required = false) UUID pharmacyId,
+            @Parameter(description = "Latitude utilisateur (optionnel)") @RequestParam(required = false) Double userLat,
+            @Parameter(description = "Longitude utilisateur (optionnel)") @RequestParam(required = false) Double userLon,
+            @Parameter(description = "Rayon en km autour de l'utilisateur (max 50)") @RequestParam(defaultValue = "10") double radiusKm,
+            @Parameter(description = "Nombre max de résultats") @RequestParam(defaultValue = "20") int limit,
+            @Parameter(hidden = true) @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        if (userLat == null || userLon == null) {
+            Double[] location = locateUser(authHeader);
+            userLat = userLat != null ? userLat : location[0];
+            userLon = userLon != null ? userLon : location[1];
+        }
+        if (pharmacyId == null && (userLat == null || userLon == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(genericSubstituteService.findSubstitutes(medicationId, pharmacyId, userLat, userLon,
+                radiusKm, limit));
+    }
+
+    // Queued and written in batches by SearchLogBuffer, never blocks the search
+    private void logSearch(String query, String authHeader, int resultCount) {
+        searchLogBuffer.record(query, authHeader);
+        searchAnalyticsService.record(query, resultCount);
+    }
+
+    // Saved location of the authenticated user: { latitude, longitude }, entries may be null
+    private Double[] locateUser(String authHeader) {
+        Double[] location = new Double[2];
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                String token = authHeader.replace("Bearer ", "");
+                String email = jwtService.extractEmail(token);
+                var userProfile = getUserProfileUseCase.execute(email);
+
+                if (userProfile.getLatitude() != null) {
+                    location[0] = userProfile.getLatitude().doubleValue();
+                }
+                if (userProfile.getLongitude() != null) {
+                    location[1] = userProfile.getLongitude().doubleValue();
+                }
+            } catch (Exception e) {
+                // Ignore invalid token or missing user profile
+            }
+        }
+        return location;
+    }
+
+    private PatientMedicationSearchResultDTO toSearchResult(PharmacyMedication pm) {
+        return PatientMedicationSearchResultDTO.builder()
+                .offerId(pm.getId())
+                .medicationId(pm.getMedication().getId())
+                .medicationName(pm.getMedication().getName())
+                .medicationGenericName(pm.getMedication().getGenericName())
+                .medicationDescription(pm.getMedication().getDescription())
+                .medicationPhotoUrl(pm.getMedication().getPhotoUrl())
+                .price(pm.getPrice())
+                .isAvailable(pm.getIsAvailable())
+                .stockQuantity(pm.getAvailableQuantity())
+                .expiryDate(pm.getExpiryDate())
+                .pharmacy(pharmacyMapper.toDTO(pm.getPharmacy()))
+                .averageRating(pm.getPharmacy().getAverageRating())
+                .ratingCount(pm.getPharmacy().getRatingCount())
+                .build();
+    }
+
     // Haversine formula for distance in km
     private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
         final int R = 6371; // Radius of the earth
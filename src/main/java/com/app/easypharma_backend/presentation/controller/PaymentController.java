@@ -3,6 +3,8 @@ package com.app.easypharma_backend.presentation.controller;
 import com.app.easypharma_backend.domain.payment.dto.PaymentRequestDTO;
 import com.app.easypharma_backend.domain.payment.entity.Payment;
 import com.app.easypharma_backend.domain.payment.service.interfaces.PaymentServiceInterface;
+import com.app.easypharma_backend.infrastructure.idempotency.IdempotencyService;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -22,12 +24,16 @@ import java.util.UUID;
 public class PaymentController {
 
     private final PaymentServiceInterface paymentService;
+    private final IdempotencyService idempotencyService;
 
-    @Operation(summary = "Effectuer un paiement", description = "Simule un paiement Mobile Money (MTN/Orange)")
+    @Operation(summary = "Effectuer un paiement", description = "Simule un paiement Mobile Money (MTN/Orange). Avec l'en-tête Idempotency-Key, une nouvelle tentative renvoie le paiement déjà effectué au lieu d'en créer un second.")
     @PostMapping("/process")
     @org.springframework.security.access.prepost.PreAuthorize("hasRole('PATIENT')")
-    public ResponseEntity<Payment> processPayment(@RequestBody @NonNull PaymentRequestDTO request) {
-        return ResponseEntity.ok(paymentService.processPayment(request));
+    public ResponseEntity<Payment> processPayment(
+            @RequestBody @NonNull PaymentRequestDTO request,
+            @Parameter(description = "Clé unique générée par le client pour ce paiement, réutilisée à chaque nouvelle tentative") @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return ResponseEntity.ok(idempotencyService.execute("payments", idempotencyKey, request, Payment.class,
+                () -> paymentService.processPayment(request)));
     }
 
     @Operation(summary = "Télécharger le reçu", description = "Génère un PDF pour un paiement réussi")
@@ -123,7 +123,7 @@ public class PharmacyController {
                 return ResponseEntity.ok(pharmacyService.findApprovedByCity(city));
         }
 
-        @Operation(summary = "Pharmacies à proximité", description = "Recherche les pharmacies approuvées dans un rayon donné (km) à partir d’une latitude/longitude.")
+        @Operation(summary = "Pharmacies à proximité", description = "Recherche les pharmacies approuvées dans un rayon donné (km, max 1000) à partir d’une latitude/longitude. Un rayon hors limites est refusé (400).")
         @GetMapping("/nearby")
         public ResponseEntity<List<PharmacyDTO>> findNearby(
                         @RequestParam @NonNull Double latitude,
@@ -133,6 +133,16 @@ public class PharmacyController {
                                 pharmacyService.findNearbyPharmacies(latitude, longitude, radiusKm));
         }
 
+        @Operation(summary = "Pharmacies les plus proches", description = "Retourne les 'limit' pharmacies approuvées les plus proches d’une latitude/longitude, sans limite de rayon.")
+        @GetMapping("/nearest")
+        public ResponseEntity<List<PharmacyDTO>> findNearest(
+                        @RequestParam @NonNull Double latitude,
+                        @RequestParam @NonNull Double longitude,
+                        @RequestParam(defaultValue = "5") int limit) {
+                return ResponseEntity.ok(
+                                pharmacyService.findNearestPharmacies(latitude, longitude, Math.max(1, Math.min(limit, 50))));
+        }
+
         @Operation(summary = "Recherche par nom", description = "Recherche des pharmacies par nom (recherche partielle, insensible à la casse).")
         @GetMapping("/search/by-name")
         public ResponseEntity<List<PharmacyDTO>> searchByName(
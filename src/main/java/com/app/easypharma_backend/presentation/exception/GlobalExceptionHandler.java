@@ -1,6 +1,7 @@
 package com.app.easypharma_backend.presentation.exception;
 
 import com.app.easypharma_backend.application.common.dto.ApiResponse;
+import com.app.easypharma_backend.infrastructure.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.env.Environment;
@@ -139,6 +140,20 @@ public class GlobalExceptionHandler {
                                 .body(ApiResponse.error(errorMessage));
         }
 
+        /**
+         * Gère les paramètres refusés par les services (curseur, rayon...)
+         */
+        @ExceptionHandler(ValidationException.class)
+        public ResponseEntity<ApiResponse<Void>> handleValidationException(
+                        ValidationException ex) {
+
+                log.warn("Paramètre invalide: {}", ex.getMessage());
+
+                return ResponseEntity
+                                .status(HttpStatus.BAD_REQUEST)
+                                .body(ApiResponse.error(ex.getMessage()));
+        }
+
         /**
          * Gère les ressources non trouvées
          */
@@ -0,0 +1,14 @@
+-- Migration V18: Index trigrammes pour la recherche de médicaments
+-- Description: Active pg_trgm et ajoute des index GIN sur name, generic_name et symptoms.
+-- Les ILIKE '%q%' (searchGlobal, searchByNameOrGenericName) et le tri par similarity()
+-- deviennent indexables au lieu de parcourir toute la table medications.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_medications_name_trgm ON medications USING GIN (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_medications_generic_name_trgm ON medications USING GIN (generic_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_medications_symptoms_trgm ON medications USING GIN (symptoms gin_trgm_ops);
+
+-- Filtre commun à toutes les recherches patient
+CREATE INDEX IF NOT EXISTS idx_pharmacy_medications_available ON pharmacy_medications(medication_id)
+    WHERE is_available = true;
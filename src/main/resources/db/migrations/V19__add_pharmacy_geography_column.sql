@@ -0,0 +1,15 @@
+-- Migration V19: Colonne geography et index GiST pour les recherches de proximité
+-- Description: location est calculée par PostgreSQL à partir de latitude/longitude
+-- (colonne générée, toujours à jour). Les requêtes "à proximité" filtrent avec
+-- ST_DWithin et trient avec l'opérateur KNN <->, tous deux servis par l'index GiST
+-- au lieu de recalculer ST_MakePoint pour chaque ligne.
+
+CREATE EXTENSION IF NOT EXISTS postgis;
+
+ALTER TABLE pharmacies
+    ADD COLUMN IF NOT EXISTS location geography(Point, 4326)
+    GENERATED ALWAYS AS (
+        CAST(ST_SetSRID(ST_MakePoint(CAST(longitude AS DOUBLE PRECISION), CAST(latitude AS DOUBLE PRECISION)), 4326) AS geography)
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_pharmacies_location_gist ON pharmacies USING GIST (location);
@@ -0,0 +1,29 @@
+-- Migration V20: Top quotidien des recherches
+-- Description: search_daily_top conserve, pour chaque jour, les requêtes les plus
+-- fréquentes (SEARCHED) et les plus fréquentes sans résultat (ZERO_RESULT), calculées
+-- en flux par SearchAnalyticsService. Les rapports lisent ce top au lieu d'agréger
+-- toute la table search_logs.
+
+CREATE TABLE IF NOT EXISTS search_daily_top (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    search_day DATE NOT NULL,
+    kind VARCHAR(20) NOT NULL,
+    query VARCHAR(255) NOT NULL,
+    search_count BIGINT NOT NULL,
+    max_error BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_search_daily_top UNIQUE (search_day, kind, query)
+);
+
+-- Reprise de l'historique : top 200 par jour des recherches déjà journalisées
+INSERT INTO search_daily_top (search_day, kind, query, search_count, max_error)
+SELECT search_day, 'SEARCHED', query, search_count, 0
+FROM (
+    SELECT CAST(searched_at AS DATE) AS search_day,
+           LOWER(TRIM(query)) AS query,
+           COUNT(*) AS search_count,
+           ROW_NUMBER() OVER (PARTITION BY CAST(searched_at AS DATE) ORDER BY COUNT(*) DESC) AS rank
+    FROM search_logs
+    GROUP BY CAST(searched_at AS DATE), LOWER(TRIM(query))
+) ranked
+WHERE rank <= 200
+ON CONFLICT DO NOTHING;
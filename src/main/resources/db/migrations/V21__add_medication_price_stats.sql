@@ -0,0 +1,35 @@
+-- Migration V21: Statistiques de prix par médicament
+-- Description: medication_price_stats résume les prix des offres disponibles
+-- (pharmacies approuvées) de chaque médicament, par ville et toutes villes
+-- confondues (city = '*'). Maintenue à chaque écriture d'offre par
+-- MedicationPriceStatsService ; la comparaison de prix lit ces lignes au lieu
+-- de parcourir pharmacy_medications.
+
+CREATE TABLE IF NOT EXISTS medication_price_stats (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    medication_id UUID NOT NULL REFERENCES medications(id) ON DELETE CASCADE,
+    city VARCHAR(100) NOT NULL,
+    min_price DECIMAL(10, 2) NOT NULL,
+    max_price DECIMAL(10, 2) NOT NULL,
+    median_price DECIMAL(10, 2) NOT NULL,
+    offer_count INTEGER NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_medication_price_stats UNIQUE (medication_id, city)
+);
+
+-- Calcul initial à partir des offres existantes
+INSERT INTO medication_price_stats (medication_id, city, min_price, max_price, median_price, offer_count)
+SELECT pm.medication_id, '*', MIN(pm.price), MAX(pm.price),
+       ROUND(CAST(percentile_cont(0.5) WITHIN GROUP (ORDER BY pm.price) AS NUMERIC), 2), COUNT(*)
+FROM pharmacy_medications pm
+JOIN pharmacies p ON pm.pharmacy_id = p.id
+WHERE pm.is_available = true AND p.status = 'APPROVED'
+GROUP BY pm.medication_id
+UNION ALL
+SELECT pm.medication_id, TRIM(p.city), MIN(pm.price), MAX(pm.price),
+       ROUND(CAST(percentile_cont(0.5) WITHIN GROUP (ORDER BY pm.price) AS NUMERIC), 2), COUNT(*)
+FROM pharmacy_medications pm
+JOIN pharmacies p ON pm.pharmacy_id = p.id
+WHERE pm.is_available = true AND p.status = 'APPROVED'
+GROUP BY pm.medication_id, TRIM(p.city)
+ON CONFLICT DO NOTHING;
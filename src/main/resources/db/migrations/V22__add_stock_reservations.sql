@@ -0,0 +1,24 @@
+-- Migration V22: Réservations de stock
+-- Description: une commande créée retient ses quantités jusqu'à sa
+-- confirmation (ou son expiration). reserved_quantity porte le total des
+-- réservations actives de l'offre : la quantité commandable
+-- (stock_quantity - reserved_quantity) se lit sur la ligne de l'offre, sans
+-- agréger stock_reservations.
+
+ALTER TABLE pharmacy_medications
+    ADD COLUMN IF NOT EXISTS reserved_quantity INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    order_id UUID NOT NULL REFERENCES orders(id) ON DELETE CASCADE,
+    pharmacy_id UUID NOT NULL,
+    medication_id UUID NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Balayage des réservations expirées, les plus anciennes d'abord
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_expires_at ON stock_reservations(expires_at);
+-- Libération à la confirmation / annulation
+CREATE INDEX IF NOT EXISTS idx_stock_reservations_order_id ON stock_reservations(order_id);
@@ -0,0 +1,10 @@
+-- Migration V23: Numéros de nœud du générateur d'identifiants
+-- Description: chaque instance loue un numéro de nœud (0-1023) pour
+-- SnowflakeIdGenerator et le renouvelle périodiquement ; une location
+-- échue peut être reprise par une autre instance.
+
+CREATE TABLE IF NOT EXISTS id_node_leases (
+    node_id INTEGER PRIMARY KEY CHECK (node_id BETWEEN 0 AND 1023),
+    owner VARCHAR(36) NOT NULL,
+    leased_until TIMESTAMP NOT NULL
+);
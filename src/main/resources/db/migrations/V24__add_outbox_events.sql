@@ -0,0 +1,22 @@
+-- Migration V24: Outbox transactionnelle
+-- Description: les notifications (email, SMS, in-app/push) des commandes et
+-- paiements sont écrites dans outbox_events dans la même transaction que la
+-- commande, puis relayées par OutboxRelay (FOR UPDATE SKIP LOCKED) après le
+-- commit : un SMTP lent ne retient plus de connexion ni de verrou.
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    event_type VARCHAR(100) NOT NULL,
+    aggregate_id UUID,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+-- Le relais ne lit que les événements en attente
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events(status, available_at)
+    WHERE status = 'PENDING';
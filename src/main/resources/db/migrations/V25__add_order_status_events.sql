@@ -0,0 +1,29 @@
+-- Migration V25: Historique des statuts de commande
+-- Description: chaque transition (validée par OrderStateMachine) est ajoutée
+-- à order_status_events dans la transaction de la commande ; audit,
+-- notifications et affectation du livreur en découlent via l'outbox.
+
+CREATE TABLE IF NOT EXISTS order_status_events (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    order_id UUID NOT NULL REFERENCES orders(id) ON DELETE CASCADE,
+    pharmacy_id UUID NOT NULL,
+    from_status VARCHAR(20),
+    to_status VARCHAR(20) NOT NULL,
+    actor_id UUID,
+    actor_name VARCHAR(255),
+    occurred_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_status_events_order ON order_status_events(order_id, occurred_at);
+CREATE INDEX IF NOT EXISTS idx_order_status_events_pharmacy ON order_status_events(pharmacy_id, occurred_at);
+
+-- Reprise de l'existant : la création, puis le statut courant (les étapes
+-- intermédiaires des commandes existantes ne sont pas connues)
+INSERT INTO order_status_events (order_id, pharmacy_id, from_status, to_status, actor_name, occurred_at)
+SELECT id, pharmacy_id, NULL, 'PENDING', 'System', created_at
+FROM orders;
+
+INSERT INTO order_status_events (order_id, pharmacy_id, from_status, to_status, actor_name, occurred_at)
+SELECT id, pharmacy_id, 'PENDING', status, 'System', COALESCE(updated_at, created_at)
+FROM orders
+WHERE status <> 'PENDING';
@@ -0,0 +1,11 @@
+-- Migration V26: Pagination par clé de l'historique des commandes
+-- Description: les pages patient et pharmacie sont lues par
+-- "WHERE x_id = ? AND (created_at, id) < (curseur) ORDER BY created_at DESC, id DESC LIMIT n" ;
+-- ces index servent le filtre, le tri et la reprise au curseur sans tri en mémoire.
+
+CREATE INDEX IF NOT EXISTS idx_orders_patient_created ON orders(patient_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_pharmacy_created ON orders(pharmacy_id, created_at DESC, id DESC);
+
+-- Préfixes des index ci-dessus
+DROP INDEX IF EXISTS idx_orders_patient_id;
+DROP INDEX IF EXISTS idx_orders_pharmacy_id;
@@ -0,0 +1,15 @@
+-- Migration V27: Clés d'idempotence
+-- Description: première réponse d'une création de commande ou d'un paiement,
+-- rejouée aux nouvelles tentatives portant le même en-tête Idempotency-Key.
+-- Stockage principal sans Redis, et repli quand Redis est indisponible.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id VARCHAR(100) PRIMARY KEY,  -- opération:SHA-256(utilisateur, clé)
+    fingerprint VARCHAR(64) NOT NULL,  -- SHA-256 du corps de la requête
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    response TEXT,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires ON idempotency_keys(expires_at);
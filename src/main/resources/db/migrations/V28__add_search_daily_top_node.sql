@@ -0,0 +1,9 @@
+-- Migration V28: Top quotidien des recherches par instance
+-- Description: chaque instance de l'application persiste le top de son propre
+-- sketch (node_id). Les rapports additionnent les lignes de toutes les instances ;
+-- une instance ne remplace plus les compteurs des autres.
+
+ALTER TABLE search_daily_top ADD COLUMN IF NOT EXISTS node_id VARCHAR(36) NOT NULL DEFAULT 'legacy';
+
+ALTER TABLE search_daily_top DROP CONSTRAINT IF EXISTS uk_search_daily_top;
+ALTER TABLE search_daily_top ADD CONSTRAINT uk_search_daily_top UNIQUE (search_day, kind, node_id, query);
@@ -0,0 +1,111 @@
+package com.app.easypharma_backend.domain.medication.service.implementation;
+
+import com.app.easypharma_backend.domain.medication.dto.MedicationPricePoint;
+import com.app.easypharma_backend.domain.medication.entity.MedicationPriceStats;
+import com.app.easypharma_backend.domain.medication.repository.MedicationPriceStatsRepository;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MedicationPriceStatsServiceImplementationTest {
+
+    @Mock
+    private MedicationPriceStatsRepository medicationPriceStatsRepository;
+
+    @Mock
+    private PharmacyMedicationRepository pharmacyMedicationRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private MedicationPriceStatsServiceImplementation service;
+
+    private final UUID medicationId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void shouldSummarizePricesPerCityAndOverall() {
+        when(pharmacyMedicationRepository.findAvailablePricePoints(medicationId)).thenReturn(List.of(
+                point("Yaoundé", "1000"),
+                point("Yaoundé", "1200"),
+                point("Douala", "900"),
+                point("Yaoundé ", "1500")));
+
+        service.recompute(medicationId);
+
+        verify(medicationPriceStatsRepository).upsert(any(), eq(medicationId), eq(MedicationPriceStats.ALL_CITIES),
+                argThat(price -> price.compareTo(new BigDecimal("900")) == 0),
+                argThat(price -> price.compareTo(new BigDecimal("1500")) == 0),
+                argThat(price -> price.compareTo(new BigDecimal("1100")) == 0), eq(4));
+        verify(medicationPriceStatsRepository).upsert(any(), eq(medicationId), eq("Yaoundé"), any(), any(),
+                argThat(price -> price.compareTo(new BigDecimal("1200")) == 0), eq(3));
+        verify(medicationPriceStatsRepository).upsert(any(), eq(medicationId), eq("Douala"), any(), any(), any(),
+                eq(1));
+        // Les villes sans offre disponible disparaissent, sans supprimer les autres lignes
+        verify(medicationPriceStatsRepository).deleteByMedicationIdAndCityNotIn(medicationId,
+                List.of(MedicationPriceStats.ALL_CITIES, "Douala", "Yaoundé"));
+        verify(medicationPriceStatsRepository, never()).deleteByMedicationId(medicationId);
+    }
+
+    @Test
+    void shouldDropStatsWhenNoOfferIsAvailable() {
+        when(pharmacyMedicationRepository.findAvailablePricePoints(medicationId)).thenReturn(List.of());
+
+        service.recompute(medicationId);
+
+        verify(medicationPriceStatsRepository).deleteByMedicationId(medicationId);
+        verify(medicationPriceStatsRepository, never()).upsert(any(), any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void failedRefreshIsRetriedWithoutReachingTheCaller() {
+        doThrow(new IllegalStateException("connection reset")).when(transactionTemplate)
+                .executeWithoutResult(any());
+
+        service.markDirty(medicationId);
+
+        assertThat(service.refreshPending()).isZero();
+        // Toujours en attente pour le passage suivant
+        doNothing().when(transactionTemplate).executeWithoutResult(any());
+        assertThat(service.refreshPending()).isEqualTo(1);
+        assertThat(service.refreshPending()).isZero();
+    }
+
+    private static MedicationPricePoint point(String city, String price) {
+        return new MedicationPricePoint() {
+            @Override
+            public String getCity() {
+                return city;
+            }
+
+            @Override
+            public BigDecimal getPrice() {
+                return new BigDecimal(price);
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package com.app.easypharma_backend.domain.order.board;
+
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderBoardEmittersTest {
+
+    private final OrderBoardEmitters emitters = new OrderBoardEmitters(60_000);
+
+    @Test
+    void deltaReachesOnlyItsPharmacy() {
+        UUID pharmacyId = UUID.randomUUID();
+        RecordingEmitter mine = new RecordingEmitter(false);
+        RecordingEmitter other = new RecordingEmitter(false);
+        emitters.register(pharmacyId, mine);
+        emitters.register(UUID.randomUUID(), other);
+
+        emitters.deliver(event(pharmacyId));
+
+        assertThat(mine.sent).hasSize(1);
+        assertThat(other.sent).isEmpty();
+    }
+
+    @Test
+    void brokenConnectionIsDropped() {
+        UUID pharmacyId = UUID.randomUUID();
+        RecordingEmitter alive = new RecordingEmitter(false);
+        emitters.register(pharmacyId, alive);
+        emitters.register(pharmacyId, new RecordingEmitter(true));
+
+        emitters.deliver(event(pharmacyId));
+        emitters.heartbeat();
+
+        assertThat(emitters.connectionCount(pharmacyId)).isEqualTo(1);
+        assertThat(alive.sent).hasSize(2);
+    }
+
+    private static OrderBoardEvent event(UUID pharmacyId) {
+        return OrderBoardEvent.builder()
+                .eventId(UUID.randomUUID())
+                .orderId(UUID.randomUUID())
+                .pharmacyId(pharmacyId)
+                .status(OrderStatus.PENDING)
+                .build();
+    }
+
+    // Client SSE simulé : enregistre les envois, ou échoue comme un client parti
+    private static class RecordingEmitter extends SseEmitter {
+        private final boolean broken;
+        private final List<SseEventBuilder> sent = new ArrayList<>();
+
+        RecordingEmitter(boolean broken) {
+            this.broken = broken;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            sent.add(builder);
+        }
+    }
+}
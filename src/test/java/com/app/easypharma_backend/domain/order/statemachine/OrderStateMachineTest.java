@@ -0,0 +1,222 @@
+package com.app.easypharma_backend.domain.order.statemachine;
+
+import com.app.easypharma_backend.domain.order.entity.Order;
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import com.app.easypharma_backend.domain.order.entity.OrderStatusEvent;
+import com.app.easypharma_backend.domain.order.repository.OrderStatusEventRepository;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.infrastructure.messaging.outbox.OutboxService;
+import com.app.easypharma_backend.infrastructure.validation.StatusTransitionValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderStateMachineTest {
+
+    @Mock
+    private OrderStatusEventRepository orderStatusEventRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final List<OrderStatusEvent> handled = new ArrayList<>();
+    private OrderStateMachine stateMachine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(orderStatusEventRepository.save(any(OrderStatusEvent.class)))
+                .thenAnswer(invocation -> saved(invocation.getArgument(0)));
+        when(orderStatusEventRepository.saveAll(ArgumentMatchers.<OrderStatusEvent>anyIterable()))
+                .thenAnswer(invocation -> {
+                    List<OrderStatusEvent> events = new ArrayList<>();
+                    for (OrderStatusEvent event : invocation.<Iterable<OrderStatusEvent>>getArgument(0)) {
+                        events.add(saved(event));
+                    }
+                    return events;
+                });
+        stateMachine = new OrderStateMachine(new StatusTransitionValidator(), orderStatusEventRepository,
+                outboxService, eventPublisher, List.of(
+                        handler("ready", (from, to) -> to == OrderStatus.READY),
+                        handler("any", (from, to) -> from != null)));
+    }
+
+    @Test
+    void compiledTableFollowsValidator() {
+        StatusTransitionValidator validator = new StatusTransitionValidator();
+        for (OrderStatus from : OrderStatus.values()) {
+            for (OrderStatus to : OrderStatus.values()) {
+                assertThat(stateMachine.isAllowed(from, to))
+                        .isEqualTo(from != to && validator.isTransitionAllowed(from, to));
+            }
+        }
+        assertThat(stateMachine.isAllowed(null, OrderStatus.PENDING)).isTrue();
+        assertThat(stateMachine.isAllowed(null, OrderStatus.DELIVERED)).isFalse();
+    }
+
+    @Test
+    void transitionAppendsEventAndQueuesMatchingHandlers() {
+        Order order = order(OrderStatus.PREPARING);
+
+        OrderStatusEvent event = stateMachine.transition(order, OrderStatus.READY);
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.READY);
+        assertThat(event.getFromStatus()).isEqualTo(OrderStatus.PREPARING);
+        ArgumentCaptor<Object> tasks = ArgumentCaptor.forClass(Object.class);
+        verify(outboxService, times(2)).publish(eq(OrderStateMachine.EVENT_TYPE), eq(order.getId()), tasks.capture());
+        assertThat(tasks.getAllValues()).extracting(task -> ((OrderStateMachine.HandlerTask) task).getHandler())
+                .containsExactly("ready", "any");
+        verify(eventPublisher).publishEvent(any(OrderTransitionedEvent.class));
+    }
+
+    @Test
+    void creationOnlyQueuesHandlersForCreation() {
+        Order order = order(OrderStatus.PENDING);
+
+        OrderStatusEvent event = stateMachine.recordCreation(order);
+
+        assertThat(event.getFromStatus()).isNull();
+        assertThat(event.getToStatus()).isEqualTo(OrderStatus.PENDING);
+        verify(outboxService, never()).publish(any(), any(), any());
+    }
+
+    @Test
+    void sameStatusIsANoOp() {
+        Order order = order(OrderStatus.CONFIRMED);
+
+        assertThat(stateMachine.transition(order, OrderStatus.CONFIRMED)).isNull();
+
+        verify(orderStatusEventRepository, never()).save(any());
+    }
+
+    @Test
+    void forbiddenTransitionIsRefused() {
+        Order order = order(OrderStatus.DELIVERED);
+
+        assertThatThrownBy(() -> stateMachine.transition(order, OrderStatus.PENDING))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        verify(orderStatusEventRepository, never()).save(any());
+    }
+
+    @Test
+    void runHandlerDispatchesByName() {
+        OrderStatusEvent event = OrderStatusEvent.builder().id(UUID.randomUUID()).build();
+        when(orderStatusEventRepository.findById(event.getId())).thenReturn(Optional.of(event));
+
+        stateMachine.runHandler(event.getId(), "ready");
+
+        assertThat(handled).containsExactly(event);
+        assertThatThrownBy(() -> stateMachine.runHandler(event.getId(), "unknown"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void bulkTransitionQueuesOneTaskPerHandlerForTheWholeBatch() {
+        List<Order> orders = List.of(order(OrderStatus.PREPARING), order(OrderStatus.PREPARING),
+                order(OrderStatus.READY));
+
+        List<OrderStatusEvent> events = stateMachine.transitionAll(orders, OrderStatus.READY);
+
+        // La commande déjà prête est ignorée
+        assertThat(events).hasSize(2);
+        assertThat(orders).extracting(Order::getStatus).containsOnly(OrderStatus.READY);
+        ArgumentCaptor<Object> tasks = ArgumentCaptor.forClass(Object.class);
+        verify(outboxService, times(2)).publish(eq(OrderStateMachine.EVENT_TYPE), any(), tasks.capture());
+        for (Object task : tasks.getAllValues()) {
+            assertThat(((OrderStateMachine.HandlerTask) task).getEventIds())
+                    .containsExactlyElementsOf(events.stream().map(OrderStatusEvent::getId).toList());
+        }
+        verify(eventPublisher, times(2)).publishEvent(any(OrderTransitionedEvent.class));
+    }
+
+    @Test
+    void bulkTransitionIsRefusedAsAWholeWhenOneOrderCannotMove() {
+        Order preparing = order(OrderStatus.PREPARING);
+        Order pending = order(OrderStatus.PENDING);
+        pending.setOrderNumber("ORD-PENDING");
+
+        assertThatThrownBy(() -> stateMachine.transitionAll(List.of(preparing, pending), OrderStatus.READY))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("ORD-PENDING");
+
+        assertThat(preparing.getStatus()).isEqualTo(OrderStatus.PREPARING);
+        verify(orderStatusEventRepository, never()).saveAll(any());
+        verify(outboxService, never()).publish(any(), any(), any());
+    }
+
+    @Test
+    void batchedTaskIsHandedToHandleAll() {
+        OrderStatusEvent first = OrderStatusEvent.builder().id(UUID.randomUUID()).build();
+        OrderStatusEvent second = OrderStatusEvent.builder().id(UUID.randomUUID()).build();
+        List<UUID> ids = List.of(first.getId(), second.getId());
+        when(orderStatusEventRepository.findAllById(ids)).thenReturn(List.of(first, second));
+
+        stateMachine.runHandler(ids, "ready");
+
+        assertThat(handled).containsExactly(first, second);
+    }
+
+    private static OrderStatusEvent saved(OrderStatusEvent event) {
+        return OrderStatusEvent.builder()
+                .id(UUID.randomUUID())
+                .orderId(event.getOrderId())
+                .pharmacyId(event.getPharmacyId())
+                .fromStatus(event.getFromStatus())
+                .toStatus(event.getToStatus())
+                .occurredAt(event.getOccurredAt())
+                .build();
+    }
+
+    private OrderTransitionHandler handler(String name, BiPredicate<OrderStatus, OrderStatus> applies) {
+        return new OrderTransitionHandler() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public boolean appliesTo(OrderStatus from, OrderStatus to) {
+                return applies.test(from, to);
+            }
+
+            @Override
+            public void handle(OrderStatusEvent event) {
+                handled.add(event);
+            }
+        };
+    }
+
+    private static Order order(OrderStatus status) {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setStatus(status);
+        Pharmacy pharmacy = new Pharmacy();
+        pharmacy.setId(UUID.randomUUID());
+        order.setPharmacy(pharmacy);
+        return order;
+    }
+}
@@ -0,0 +1,186 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.delivery.service.implementation.DeliveryFeeServiceImplementation;
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.domain.pharmacy.dto.PharmacyDTO;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.domain.pharmacy.entity.PharmacyStatus;
+import com.app.easypharma_backend.domain.pharmacy.mapper.PharmacyMapper;
+import com.app.easypharma_backend.domain.search.dto.BasketPlanDTO;
+import com.app.easypharma_backend.domain.search.dto.BasketRequest;
+import com.app.easypharma_backend.infrastructure.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+class BasketOptimizerServiceTest {
+
+    // Patient à Yaoundé : Centre à ~2,6 km, Mvog-Mbi à ~3,1 km
+    private static final double LATITUDE = 3.8480;
+    private static final double LONGITUDE = 11.5020;
+
+    @Mock
+    private PharmacyMedicationRepository pharmacyMedicationRepository;
+
+    @Mock
+    private PharmacyMapper pharmacyMapper;
+
+    private BasketOptimizerService optimizer;
+
+    private final Medication paracetamol = medication("Paracétamol");
+    private final Medication amoxicilline = medication("Amoxicilline");
+    private final Medication ibuprofene = medication("Ibuprofène");
+    private final Pharmacy centre = pharmacy("Centre", 3.8667, 11.5167);
+    private final Pharmacy mvogMbi = pharmacy("Mvog-Mbi", 3.8500, 11.5300);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        optimizer = new BasketOptimizerService(pharmacyMedicationRepository, new DeliveryFeeServiceImplementation(),
+                pharmacyMapper);
+        when(pharmacyMapper.toDTO(any(Pharmacy.class))).thenAnswer(invocation -> {
+            Pharmacy source = invocation.getArgument(0);
+            PharmacyDTO dto = new PharmacyDTO();
+            dto.setId(source.getId());
+            dto.setName(source.getName());
+            return dto;
+        });
+    }
+
+    @Test
+    void shouldSplitBasketWhenCheaperThanASinglePharmacy() {
+        candidates(
+                offer(centre, paracetamol, "1000", 10),
+                offer(centre, amoxicilline, "2000", 10),
+                offer(mvogMbi, paracetamol, "900", 10),
+                offer(mvogMbi, amoxicilline, "5000", 10),
+                offer(mvogMbi, ibuprofene, "1500", 10));
+
+        List<BasketPlanDTO> plans = optimizer.optimize(request(paracetamol, amoxicilline, ibuprofene));
+
+        // Deux pharmacies : amoxicilline au Centre, le reste à Mvog-Mbi
+        assertThat(plans).hasSize(2);
+        BasketPlanDTO best = plans.get(0);
+        assertThat(best.getPharmacies()).hasSize(2);
+        assertThat(best.getPharmacies().get(0).getLines()).extracting(BasketPlanDTO.Line::getMedicationName)
+                .containsExactly("Amoxicilline");
+        assertThat(best.getPharmacies().get(1).getLines()).extracting(BasketPlanDTO.Line::getMedicationName)
+                .containsExactly("Paracétamol", "Ibuprofène");
+        assertThat(best.getMedicationsTotal()).isEqualByComparingTo("4400");
+        assertThat(best.getTotal()).isEqualByComparingTo(best.getMedicationsTotal().add(best.getDeliveryFeeTotal()));
+
+        // Une seule pharmacie couvre tout le panier, plus cher
+        BasketPlanDTO single = plans.get(1);
+        assertThat(single.getPharmacies()).extracting(share -> share.getPharmacy().getName())
+                .containsExactly("Mvog-Mbi");
+        assertThat(single.getTotal()).isGreaterThan(best.getTotal());
+        assertThat(best.getUnavailableMedicationIds()).isEmpty();
+    }
+
+    @Test
+    void shouldPreferOnePharmacyWhenDeliveryFeesOutweighSavings() {
+        candidates(
+                offer(centre, paracetamol, "1000", 10),
+                offer(centre, amoxicilline, "2000", 10),
+                offer(mvogMbi, paracetamol, "950", 10));
+
+        List<BasketPlanDTO> plans = optimizer.optimize(request(paracetamol, amoxicilline));
+
+        assertThat(plans).hasSize(1);
+        assertThat(plans.get(0).getPharmacies()).extracting(share -> share.getPharmacy().getName())
+                .containsExactly("Centre");
+        assertThat(plans.get(0).getMedicationsTotal()).isEqualByComparingTo("3000");
+    }
+
+    @Test
+    void shouldReportMedicationsWithoutEnoughStock() {
+        candidates(
+                offer(centre, paracetamol, "1000", 10),
+                offer(mvogMbi, amoxicilline, "2000", 1));
+
+        BasketRequest request = request(paracetamol, amoxicilline);
+        request.getItems().get(1).setQuantity(3);
+        List<BasketPlanDTO> plans = optimizer.optimize(request);
+
+        assertThat(plans).hasSize(1);
+        assertThat(plans.get(0).getUnavailableMedicationIds()).containsExactly(amoxicilline.getId());
+        assertThat(plans.get(0).getPharmacies()).extracting(share -> share.getPharmacy().getName())
+                .containsExactly("Centre");
+    }
+
+    @Test
+    void shouldIgnoreReservedUnits() {
+        PharmacyMedication reserved = offer(mvogMbi, amoxicilline, "2000", 5);
+        reserved.setReservedQuantity(4);
+        candidates(offer(centre, paracetamol, "1000", 10), reserved);
+
+        BasketRequest request = request(paracetamol, amoxicilline);
+        request.getItems().get(1).setQuantity(2);
+        List<BasketPlanDTO> plans = optimizer.optimize(request);
+
+        assertThat(plans.get(0).getUnavailableMedicationIds()).containsExactly(amoxicilline.getId());
+    }
+
+    @Test
+    void shouldRejectOversizedBaskets() {
+        Medication[] medications = IntStream.range(0, BasketOptimizerService.MAX_ITEMS + 1)
+                .mapToObj(i -> medication("M" + i))
+                .toArray(Medication[]::new);
+
+        assertThatThrownBy(() -> optimizer.optimize(request(medications)))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private void candidates(PharmacyMedication... offers) {
+        when(pharmacyMedicationRepository.findBasketCandidates(anyCollection(), any(), any(), any(), any()))
+                .thenReturn(List.of(offers));
+    }
+
+    private BasketRequest request(Medication... medications) {
+        List<BasketRequest.BasketItem> items = new ArrayList<>();
+        for (Medication medication : medications) {
+            items.add(new BasketRequest.BasketItem(medication.getId(), 1));
+        }
+        return BasketRequest.builder().items(items).latitude(LATITUDE).longitude(LONGITUDE).build();
+    }
+
+    private static PharmacyMedication offer(Pharmacy pharmacy, Medication medication, String price, int stock) {
+        return PharmacyMedication.builder()
+                .id(UUID.randomUUID())
+                .pharmacy(pharmacy)
+                .medication(medication)
+                .price(new BigDecimal(price))
+                .stockQuantity(stock)
+                .isAvailable(true)
+                .build();
+    }
+
+    private static Medication medication(String name) {
+        return Medication.builder().id(UUID.randomUUID()).name(name).build();
+    }
+
+    private static Pharmacy pharmacy(String name, double latitude, double longitude) {
+        return Pharmacy.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .latitude(BigDecimal.valueOf(latitude))
+                .longitude(BigDecimal.valueOf(longitude))
+                .status(PharmacyStatus.APPROVED)
+                .build();
+    }
+}
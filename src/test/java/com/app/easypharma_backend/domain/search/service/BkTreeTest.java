@@ -0,0 +1,39 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BkTreeTest {
+
+    @Test
+    void shouldComputeDistanceWithTranspositions() {
+        assertThat(BkTree.distance("amoxiciline", "amoxicilline", Integer.MAX_VALUE)).isEqualTo(1);
+        assertThat(BkTree.distance("dolpirane", "doliprane", Integer.MAX_VALUE)).isEqualTo(1);
+        assertThat(BkTree.distance("ibuprofene", "ibuprofene", Integer.MAX_VALUE)).isZero();
+        // Inversion puis insertion : 3 en forme restreinte, qui viole l'inégalité triangulaire
+        assertThat(BkTree.distance("ca", "abc", Integer.MAX_VALUE)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldStopOnceTheLimitIsExceeded() {
+        int exact = BkTree.distance("paracetamol", "ibuprofene", Integer.MAX_VALUE);
+
+        assertThat(BkTree.distance("paracetamol", "ibuprofene", 2)).isGreaterThan(2).isLessThanOrEqualTo(exact);
+        assertThat(BkTree.distance("amoxiciline", "amoxicilline", 1)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFindWordsWithinDistance() {
+        BkTree tree = new BkTree();
+        for (String word : new String[] { "amoxicilline", "ampicilline", "doliprane", "paracetamol", "ibuprofene" }) {
+            tree.add(word);
+        }
+        tree.add("doliprane");
+
+        assertThat(tree.size()).isEqualTo(5);
+        assertThat(tree.search("amoxiciline", 1, 1000)).containsExactly("amoxicilline");
+        assertThat(tree.search("paracetamole", 2, 1000)).containsExactly("paracetamol");
+        assertThat(tree.search("aspirine", 2, 1000)).isEmpty();
+    }
+}
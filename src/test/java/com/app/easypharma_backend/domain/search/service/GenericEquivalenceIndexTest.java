@@ -0,0 +1,98 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.entity.TherapeuticClass;
+import com.app.easypharma_backend.domain.medication.repository.MedicationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class GenericEquivalenceIndexTest {
+
+    @Mock
+    private MedicationRepository medicationRepository;
+
+    @Mock
+    private SearchIndexBroadcaster searchIndexBroadcaster;
+
+    @InjectMocks
+    private GenericEquivalenceIndex index;
+
+    private final Medication doliprane = medication("Doliprane", "Paracétamol", "500 mg", TherapeuticClass.ANTALGIQUE);
+    private final Medication efferalgan = medication("Efferalgan", "paracetamol", "500mg", TherapeuticClass.ANTALGIQUE);
+    private final Medication dolipraneForte = medication("Doliprane", "Paracétamol", "1000 mg",
+            TherapeuticClass.ANTALGIQUE);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(medicationRepository.findAll()).thenReturn(List.of(doliprane, efferalgan, dolipraneForte));
+        index.rebuild();
+    }
+
+    @Test
+    void shouldGroupSameGenericNameDosageAndClass() {
+        assertThat(index.equivalentsOf(doliprane.getId())).containsExactly(efferalgan.getId());
+        assertThat(index.equivalentsOf(dolipraneForte.getId())).isEmpty();
+    }
+
+    @Test
+    void shouldMoveMedicationBetweenGroupsOnReindex() {
+        Medication generic = medication("Paracétamol Biogaran", "Paracetamol", "1000 MG", TherapeuticClass.ANTALGIQUE);
+        index.index(generic);
+        assertThat(index.equivalentsOf(dolipraneForte.getId())).containsExactly(generic.getId());
+
+        generic.setDosage("500 mg");
+        index.index(generic);
+        assertThat(index.equivalentsOf(dolipraneForte.getId())).isEmpty();
+        assertThat(index.equivalentsOf(doliprane.getId())).containsExactlyInAnyOrder(efferalgan.getId(),
+                generic.getId());
+    }
+
+    @Test
+    void shouldIgnoreMedicationsWithoutGenericName() {
+        Medication unknown = medication("Tisane", null, "500 mg", TherapeuticClass.ANTALGIQUE);
+        index.index(unknown);
+
+        assertThat(index.equivalentsOf(unknown.getId())).isEmpty();
+        assertThat(index.equivalentsOf(doliprane.getId())).containsExactly(efferalgan.getId());
+    }
+
+    @Test
+    void shouldIgnoreRolledBackMedications() {
+        Medication generic = medication("Paracétamol Biogaran", "Paracetamol", "500 mg", TherapeuticClass.ANTALGIQUE);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.index(generic);
+            // Non validé : pas encore proposé comme substitut
+            assertThat(index.equivalentsOf(doliprane.getId())).containsExactly(efferalgan.getId());
+            TransactionSynchronizationManager.getSynchronizations().forEach(
+                    sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(index.equivalentsOf(doliprane.getId())).containsExactly(efferalgan.getId());
+    }
+
+    private static Medication medication(String name, String genericName, String dosage,
+            TherapeuticClass therapeuticClass) {
+        return Medication.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .genericName(genericName)
+                .dosage(dosage)
+                .therapeuticClass(therapeuticClass)
+                .build();
+    }
+}
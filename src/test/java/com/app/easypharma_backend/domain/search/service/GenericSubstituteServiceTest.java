@@ -0,0 +1,136 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.medication.dto.PatientMedicationSearchResultDTO;
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.domain.pharmacy.dto.PharmacyDTO;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.domain.pharmacy.entity.PharmacyStatus;
+import com.app.easypharma_backend.domain.pharmacy.mapper.PharmacyMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GenericSubstituteServiceTest {
+
+    // Patient à Yaoundé : Centre à ~2,6 km, Mvog-Mbi à ~3,1 km, Mfou à ~20 km
+    private static final double LATITUDE = 3.8480;
+    private static final double LONGITUDE = 11.5020;
+
+    @Mock
+    private PharmacyMedicationRepository pharmacyMedicationRepository;
+
+    @Mock
+    private GenericEquivalenceIndex genericEquivalenceIndex;
+
+    @Mock
+    private PharmacyMapper pharmacyMapper;
+
+    @InjectMocks
+    private GenericSubstituteService substitutes;
+
+    private final Medication doliprane = medication("Doliprane");
+    private final Medication efferalgan = medication("Efferalgan");
+    private final Pharmacy centre = pharmacy("Centre", 3.8667, 11.5167);
+    private final Pharmacy mvogMbi = pharmacy("Mvog-Mbi", 3.8500, 11.5300);
+    private final Pharmacy mfou = pharmacy("Mfou", 3.7200, 11.6400);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(genericEquivalenceIndex.equivalentsOf(doliprane.getId())).thenReturn(Set.of(efferalgan.getId()));
+        when(pharmacyMapper.toDTO(any(Pharmacy.class))).thenAnswer(invocation -> {
+            Pharmacy source = invocation.getArgument(0);
+            PharmacyDTO dto = new PharmacyDTO();
+            dto.setId(source.getId());
+            dto.setName(source.getName());
+            return dto;
+        });
+    }
+
+    @Test
+    void shouldListRequestedPharmacyFirstThenNearest() {
+        // La requête renvoie les offres par prix croissant
+        when(pharmacyMedicationRepository.findSubstituteOffers(anyCollection(), eq(mvogMbi.getId()), any(), any(),
+                any(), any())).thenReturn(List.of(
+                        offer(centre, efferalgan, "800"),
+                        offer(mvogMbi, efferalgan, "900"),
+                        offer(centre, doliprane, "1000")));
+
+        List<PatientMedicationSearchResultDTO> results = substitutes.findSubstitutes(doliprane.getId(),
+                mvogMbi.getId(), LATITUDE, LONGITUDE, 10, 20);
+
+        assertThat(results).extracting(result -> result.getPharmacy().getName())
+                .containsExactly("Mvog-Mbi", "Centre", "Centre");
+        // À distance égale, l'ordre de prix est conservé
+        assertThat(results).extracting(PatientMedicationSearchResultDTO::getPrice)
+                .containsExactly(new BigDecimal("900"), new BigDecimal("800"), new BigDecimal("1000"));
+        assertThat(results.get(1).getDistanceKm()).isBetween(2.0, 3.0);
+    }
+
+    @Test
+    void shouldDropOffersInTheBoxCornersOutsideTheRadius() {
+        when(pharmacyMedicationRepository.findSubstituteOffers(anyCollection(), isNull(), any(), any(), any(),
+                any())).thenReturn(List.of(offer(centre, efferalgan, "800"), offer(mfou, efferalgan, "700")));
+
+        List<PatientMedicationSearchResultDTO> results = substitutes.findSubstitutes(doliprane.getId(), null,
+                LATITUDE, LONGITUDE, 15, 20);
+
+        assertThat(results).extracting(result -> result.getPharmacy().getName()).containsExactly("Centre");
+    }
+
+    @Test
+    void shouldQueryOnlyTheRequestedPharmacyWithoutLocation() {
+        when(pharmacyMedicationRepository.findSubstituteOffers(anyCollection(), eq(centre.getId()), isNull(),
+                isNull(), isNull(), isNull())).thenReturn(List.of(offer(centre, efferalgan, "800")));
+
+        List<PatientMedicationSearchResultDTO> results = substitutes.findSubstitutes(doliprane.getId(),
+                centre.getId(), null, null, 10, 20);
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getDistanceKm()).isNull();
+        verify(pharmacyMedicationRepository).findSubstituteOffers(eq(Set.of(doliprane.getId(), efferalgan.getId())),
+                eq(centre.getId()), isNull(), isNull(), isNull(), isNull());
+    }
+
+    private static PharmacyMedication offer(Pharmacy pharmacy, Medication medication, String price) {
+        return PharmacyMedication.builder()
+                .id(UUID.randomUUID())
+                .pharmacy(pharmacy)
+                .medication(medication)
+                .price(new BigDecimal(price))
+                .stockQuantity(10)
+                .isAvailable(true)
+                .build();
+    }
+
+    private static Medication medication(String name) {
+        return Medication.builder().id(UUID.randomUUID()).name(name).build();
+    }
+
+    private static Pharmacy pharmacy(String name, double latitude, double longitude) {
+        return Pharmacy.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .latitude(BigDecimal.valueOf(latitude))
+                .longitude(BigDecimal.valueOf(longitude))
+                .status(PharmacyStatus.APPROVED)
+                .build();
+    }
+}
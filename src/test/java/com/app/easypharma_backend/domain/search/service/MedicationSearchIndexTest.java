@@ -0,0 +1,199 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.medication.dto.PatientMedicationSearchResultDTO;
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
+import com.app.easypharma_backend.domain.medication.entity.TherapeuticClass;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.domain.medication.service.interfaces.MedicationPriceStatsService;
+import com.app.easypharma_backend.domain.pharmacy.dto.PharmacyDTO;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.domain.pharmacy.entity.PharmacyStatus;
+import com.app.easypharma_backend.domain.pharmacy.mapper.PharmacyMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class MedicationSearchIndexTest {
+
+    @Mock
+    private PharmacyMedicationRepository pharmacyMedicationRepository;
+
+    @Mock
+    private PharmacyMapper pharmacyMapper;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    @Mock
+    private MedicationPriceStatsService medicationPriceStatsService;
+
+    @Mock
+    private SearchIndexBroadcaster searchIndexBroadcaster;
+
+    @InjectMocks
+    private MedicationSearchIndex index;
+
+    private Pharmacy pharmacy;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        pharmacy = Pharmacy.builder()
+                .id(UUID.randomUUID())
+                .name("Pharmacie Centrale")
+                .status(PharmacyStatus.APPROVED)
+                .build();
+
+        when(pharmacyMapper.toDTO(any(Pharmacy.class))).thenAnswer(invocation -> {
+            Pharmacy source = invocation.getArgument(0);
+            PharmacyDTO dto = new PharmacyDTO();
+            dto.setId(source.getId());
+            dto.setName(source.getName());
+            dto.setStatus(source.getStatus());
+            return dto;
+        });
+    }
+
+    @Test
+    void shouldMatchAccentInsensitivePrefixes() {
+        index.upsert(offer(medication("Paracétamol 500", "Paracetamol", "fièvre, maux de tête"), 10));
+
+        assertThat(index.search("parac", null)).hasSize(1);
+        assertThat(index.search("FIEVRE", null)).hasSize(1);
+        assertThat(index.search("paracetamol tete", null)).hasSize(1);
+        assertThat(index.search("paracetamol toux", null)).isEmpty();
+    }
+
+    @Test
+    void shouldReflectStockAndPriceUpdates() {
+        PharmacyMedication pm = offer(medication("Doliprane 1000", "Paracetamol", null), 5);
+        index.upsert(pm);
+
+        pm.setPrice(BigDecimal.valueOf(750));
+        index.upsert(pm);
+        List<PatientMedicationSearchResultDTO> results = index.search("doliprane", null);
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getPrice()).isEqualByComparingTo("750");
+
+        pm.setStockQuantity(0);
+        pm.setIsAvailable(false);
+        index.upsert(pm);
+        assertThat(index.search("doliprane", null)).isEmpty();
+    }
+
+    @Test
+    void shouldHideOffersOfSuspendedPharmacies() {
+        index.upsert(offer(medication("Amoxicilline", "Amoxicilline", null), 20));
+        assertThat(index.search("", TherapeuticClass.ANTIBIOTIQUE)).hasSize(1);
+
+        pharmacy.setStatus(PharmacyStatus.SUSPENDED);
+        index.refreshPharmacy(pharmacy);
+        assertThat(index.search("", TherapeuticClass.ANTIBIOTIQUE)).isEmpty();
+    }
+
+    @Test
+    void shouldRemoveOffers() {
+        PharmacyMedication pm = offer(medication("Efferalgan", "Paracetamol", null), 3);
+        index.upsert(pm);
+
+        index.remove(pm.getId());
+        assertThat(index.search("efferalgan", null)).isEmpty();
+    }
+
+    @Test
+    void shouldHideOffersWhoseStockIsFullyReserved() {
+        PharmacyMedication pm = offer(medication("Ventoline", "Salbutamol", null), 2);
+        index.upsert(pm);
+
+        index.updateStock(pm.getId(), 2, 2, true);
+        assertThat(index.search("ventoline", null)).isEmpty();
+
+        index.updateStock(pm.getId(), 2, 1, true);
+        List<PatientMedicationSearchResultDTO> results = index.search("ventoline", null);
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getStockQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReindexRenamedMedications() {
+        PharmacyMedication pm = offer(medication("Doliprane 1000", "Paracetamol", null), 5);
+        index.upsert(pm);
+
+        pm.getMedication().setName("Dafalgan 1000");
+        index.upsert(pm);
+        assertThat(index.search("dafalgan", null)).hasSize(1);
+        assertThat(index.search("doliprane", null)).isEmpty();
+        assertThat(index.fuzzySearch("dolipran", null)).isEmpty();
+    }
+
+    @Test
+    void shouldRemoveOffersOfDeletedPharmacies() {
+        index.upsert(offer(medication("Efferalgan", "Paracetamol", null), 3));
+        index.upsert(offer(medication("Dafalgan", "Paracetamol", null), 3));
+
+        index.removePharmacy(pharmacy.getId());
+        assertThat(index.search("paracetamol", null)).isEmpty();
+    }
+
+    @Test
+    void shouldPublishChangesOnlyAfterCommit() {
+        PharmacyMedication committed = offer(medication("Spasfon", "Phloroglucinol", null), 4);
+        PharmacyMedication rolledBack = offer(medication("Smecta", "Diosmectite", null), 4);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.upsert(committed);
+            // Non validé : invisible pour les autres requêtes
+            assertThat(index.search("spasfon", null)).isEmpty();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(index.search("spasfon", null)).hasSize(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.upsert(rolledBack);
+            TransactionSynchronizationManager.getSynchronizations().forEach(
+                    sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(index.search("smecta", null)).isEmpty();
+    }
+
+    private Medication medication(String name, String genericName, String symptoms) {
+        return Medication.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .genericName(genericName)
+                .symptoms(symptoms)
+                .therapeuticClass(name.startsWith("Amox") ? TherapeuticClass.ANTIBIOTIQUE : TherapeuticClass.ANTALGIQUE)
+                .build();
+    }
+
+    private PharmacyMedication offer(Medication medication, int stock) {
+        return PharmacyMedication.builder()
+                .id(UUID.randomUUID())
+                .pharmacy(pharmacy)
+                .medication(medication)
+                .price(BigDecimal.valueOf(500))
+                .stockQuantity(stock)
+                .isAvailable(stock > 0)
+                .build();
+    }
+}
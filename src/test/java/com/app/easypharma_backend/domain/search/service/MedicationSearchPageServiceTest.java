@@ -0,0 +1,128 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.application.common.dto.CursorPageResponse;
+import com.app.easypharma_backend.domain.medication.dto.MedicationSearchRow;
+import com.app.easypharma_backend.domain.medication.dto.PatientMedicationSearchResultDTO;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.infrastructure.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MedicationSearchPageServiceTest {
+
+    private static final Comparator<MedicationSearchRow> PRICE_ORDER = Comparator
+            .comparing(MedicationSearchRow::getPrice)
+            .thenComparing(MedicationSearchRow::getOfferId);
+
+    @Mock
+    private PharmacyMedicationRepository pharmacyMedicationRepository;
+
+    @InjectMocks
+    private MedicationSearchPageService pageService;
+
+    private final List<MedicationSearchRow> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Prix ex aequo : l'identifiant départage
+        for (String price : List.of("1500", "1000", "2500", "1500", "1000", "2000", "1500")) {
+            rows.add(row(new BigDecimal(price)));
+        }
+        // Même règle que la requête keyset : (prix, id) strictement après le curseur
+        when(pharmacyMedicationRepository.searchPageByPrice(any(), any(), any(), any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    String cursorValue = invocation.getArgument(2);
+                    String cursorId = invocation.getArgument(3);
+                    int limit = invocation.getArgument(4);
+                    return rows.stream()
+                            .filter(row -> cursorId == null || isAfter(row, new BigDecimal(cursorValue),
+                                    UUID.fromString(cursorId)))
+                            .sorted(PRICE_ORDER)
+                            .limit(limit)
+                            .toList();
+                });
+    }
+
+    @Test
+    void pagesWalkAllOffersOnceInPriceOrder() {
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResponse<PatientMedicationSearchResultDTO> page = pageService.search("para", null, "PRICE",
+                    null, null, cursor, 3);
+            page.getContent().forEach(result -> seen.add(result.getOfferId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).containsExactlyElementsOf(
+                rows.stream().sorted(PRICE_ORDER).map(MedicationSearchRow::getOfferId).toList());
+    }
+
+    @Test
+    void cursorOfAnotherSortIsRejected() {
+        String cursor = pageService.search("para", null, "PRICE", null, null, null, 3).getNextCursor();
+
+        assertThatThrownBy(() -> pageService.search("para", null, "RATING", null, null, cursor, 3))
+                .isInstanceOf(ValidationException.class);
+        verify(pharmacyMedicationRepository, never()).searchPageByRating(any(), any(), anyString(), anyString(),
+                anyInt());
+    }
+
+    @Test
+    void nearestCursorOfAnotherOriginIsRejected() {
+        when(pharmacyMedicationRepository.searchPageByDistance(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenAnswer(invocation -> rows.stream().limit(invocation.<Integer>getArgument(6)).toList());
+        String cursor = pageService.search("para", null, "NEAREST", 3.848, 11.502, null, 3).getNextCursor();
+
+        assertThat(pageService.search("para", null, "NEAREST", 3.848, 11.502, cursor, 3).getContent()).isNotEmpty();
+        assertThatThrownBy(() -> pageService.search("para", null, "NEAREST", 4.050, 9.700, cursor, 3))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void unknownSortPagesLikePrice() {
+        String cursor = pageService.search("para", null, "PRICE", null, null, null, 3).getNextCursor();
+
+        CursorPageResponse<PatientMedicationSearchResultDTO> page = pageService.search("para", null, "cheapest",
+                null, null, cursor, 3);
+
+        assertThat(page.getContent()).hasSize(3);
+    }
+
+    private static boolean isAfter(MedicationSearchRow row, BigDecimal price, UUID offerId) {
+        int byPrice = row.getPrice().compareTo(price);
+        return byPrice > 0 || (byPrice == 0 && row.getOfferId().compareTo(offerId) > 0);
+    }
+
+    private static MedicationSearchRow row(BigDecimal price) {
+        MedicationSearchRow row = mock(MedicationSearchRow.class);
+        when(row.getOfferId()).thenReturn(UUID.randomUUID());
+        when(row.getPrice()).thenReturn(price);
+        when(row.getPharmacyId()).thenReturn(UUID.randomUUID());
+        when(row.getAverageRating()).thenReturn(0.0);
+        return row;
+    }
+}
@@ -0,0 +1,108 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.pharmacy.dto.PharmacyDTO;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.domain.pharmacy.entity.PharmacyStatus;
+import com.app.easypharma_backend.domain.pharmacy.mapper.PharmacyMapper;
+import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
+import com.app.easypharma_backend.infrastructure.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class PharmacyGeoIndexTest {
+
+    @Mock
+    private PharmacyRepository pharmacyRepository;
+
+    @Mock
+    private PharmacyMapper pharmacyMapper;
+
+    @Mock
+    private SearchIndexBroadcaster searchIndexBroadcaster;
+
+    @InjectMocks
+    private PharmacyGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(pharmacyMapper.toDTO(any(Pharmacy.class))).thenAnswer(invocation -> {
+            Pharmacy source = invocation.getArgument(0);
+            PharmacyDTO dto = new PharmacyDTO();
+            dto.setId(source.getId());
+            dto.setName(source.getName());
+            dto.setLatitude(source.getLatitude());
+            dto.setLongitude(source.getLongitude());
+            dto.setStatus(source.getStatus());
+            return dto;
+        });
+    }
+
+    @Test
+    void shouldFindPharmaciesWithinRadiusByDistance() {
+        // Yaoundé : Centre (~2,6 km), Mvog-Mbi (~3,1 km) ; Douala (~200 km)
+        index.refresh(pharmacy("Centre", 3.8667, 11.5167));
+        index.refresh(pharmacy("Mvog-Mbi", 3.8500, 11.5300));
+        index.refresh(pharmacy("Douala", 4.0511, 9.7679));
+
+        assertThat(index.findWithinRadius(3.8480, 11.5020, 5.0))
+                .extracting(PharmacyDTO::getName)
+                .containsExactly("Centre", "Mvog-Mbi");
+        assertThat(index.findWithinRadius(3.8480, 11.5020, 500.0)).hasSize(3);
+    }
+
+    @Test
+    void shouldRejectUnboundedRadii() {
+        index.refresh(pharmacy("Centre", 3.8667, 11.5167));
+
+        for (double radiusKm : new double[] { Double.POSITIVE_INFINITY, Double.NaN, -1.0, 1e12 }) {
+            assertThatThrownBy(() -> index.findWithinRadius(3.8480, 11.5020, radiusKm))
+                    .isInstanceOf(ValidationException.class);
+        }
+        assertThat(index.findWithinRadius(3.8480, 11.5020, PharmacyGeoIndex.MAX_RADIUS_KM)).hasSize(1);
+    }
+
+    @Test
+    void shouldFindNearestAcrossDistantCells() {
+        index.refresh(pharmacy("Centre", 3.8667, 11.5167));
+        index.refresh(pharmacy("Douala", 4.0511, 9.7679));
+        index.refresh(pharmacy("Bafoussam", 5.4781, 10.4176));
+
+        assertThat(index.findNearest(4.0400, 9.7000, 2))
+                .extracting(PharmacyDTO::getName)
+                .containsExactly("Douala", "Bafoussam");
+        assertThat(index.findNearest(4.0400, 9.7000, 10)).hasSize(3);
+    }
+
+    @Test
+    void shouldDropPharmaciesThatAreNoLongerApproved() {
+        Pharmacy pharmacy = pharmacy("Centre", 3.8667, 11.5167);
+        index.refresh(pharmacy);
+
+        pharmacy.setStatus(PharmacyStatus.SUSPENDED);
+        index.refresh(pharmacy);
+
+        assertThat(index.findNearest(3.8667, 11.5167, 1)).isEmpty();
+    }
+
+    private Pharmacy pharmacy(String name, double latitude, double longitude) {
+        return Pharmacy.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .latitude(BigDecimal.valueOf(latitude))
+                .longitude(BigDecimal.valueOf(longitude))
+                .status(PharmacyStatus.APPROVED)
+                .build();
+    }
+}
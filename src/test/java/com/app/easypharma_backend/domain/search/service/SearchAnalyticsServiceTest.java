@@ -0,0 +1,98 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.search.dto.SearchCountDTO;
+import com.app.easypharma_backend.domain.search.entity.SearchDailyTop;
+import com.app.easypharma_backend.domain.search.entity.SearchReportKind;
+import com.app.easypharma_backend.domain.search.repository.SearchDailyTopRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SearchAnalyticsServiceTest {
+
+    @Mock
+    private SearchDailyTopRepository searchDailyTopRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private SearchAnalyticsService analytics;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doCallRealMethod().when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void persistReplacesOnlyThisNodeRows() {
+        analytics.record("Doliprane", 3);
+
+        String nodeId = persistedNodeId();
+
+        verify(searchDailyTopRepository).deleteByDayAndKindAndNodeId(LocalDate.now(), SearchReportKind.SEARCHED,
+                nodeId);
+        verify(searchDailyTopRepository, never()).deleteByDayAndKindAndNodeId(any(), any(), eq("other-node"));
+    }
+
+    @Test
+    void topAddsOtherNodesAndCountsOwnPersistedRowsOnce() {
+        analytics.record("doliprane", 3);
+        analytics.record("doliprane", 3);
+        analytics.record("doliprane", 3);
+        String nodeId = persistedNodeId();
+        LocalDate today = LocalDate.now();
+        when(searchDailyTopRepository.findByKindAndDayBetween(eq(SearchReportKind.SEARCHED), any(), any()))
+                .thenReturn(List.of(
+                        row(nodeId, today, "doliprane", 3),
+                        row("other-node", today, "doliprane", 2),
+                        row("other-node", today.minusDays(1), "amoxicilline", 4)));
+
+        List<SearchCountDTO> top = analytics.top(SearchReportKind.SEARCHED, 2, 10);
+
+        assertThat(top).extracting(SearchCountDTO::getQuery).containsExactly("doliprane", "amoxicilline");
+        assertThat(top).extracting(SearchCountDTO::getCount).containsExactly(5L, 4L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String persistedNodeId() {
+        analytics.persist();
+        ArgumentCaptor<List<SearchDailyTop>> rows = ArgumentCaptor.forClass(List.class);
+        verify(searchDailyTopRepository, atLeastOnce()).saveAll(rows.capture());
+        return rows.getAllValues().stream()
+                .flatMap(List::stream)
+                .map(SearchDailyTop::getNodeId)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static SearchDailyTop row(String nodeId, LocalDate day, String query, long count) {
+        return SearchDailyTop.builder()
+                .nodeId(nodeId)
+                .day(day)
+                .kind(SearchReportKind.SEARCHED)
+                .query(query)
+                .count(count)
+                .build();
+    }
+}
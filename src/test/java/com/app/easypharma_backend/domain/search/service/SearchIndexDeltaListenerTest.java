@@ -0,0 +1,123 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.medication.repository.MedicationRepository;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SearchIndexDeltaListenerTest {
+
+    @Mock
+    private MedicationSearchIndex medicationSearchIndex;
+
+    @Mock
+    private PharmacyGeoIndex pharmacyGeoIndex;
+
+    @Mock
+    private SymptomSearchIndex symptomSearchIndex;
+
+    @Mock
+    private GenericEquivalenceIndex genericEquivalenceIndex;
+
+    @Mock
+    private PharmacyMedicationRepository pharmacyMedicationRepository;
+
+    @Mock
+    private PharmacyRepository pharmacyRepository;
+
+    @Mock
+    private MedicationRepository medicationRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SearchIndexDeltaListener listener;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        listener = new SearchIndexDeltaListener(medicationSearchIndex, pharmacyGeoIndex, symptomSearchIndex,
+                genericEquivalenceIndex, pharmacyMedicationRepository, pharmacyRepository, medicationRepository,
+                transactionTemplate, objectMapper);
+    }
+
+    @Test
+    void stockChangesOfOtherInstancesAreApplied() throws Exception {
+        UUID offerId = UUID.randomUUID();
+        SearchIndexDelta delta = SearchIndexDelta.builder()
+                .origin("another-node")
+                .kind(SearchIndexDelta.Kind.OFFER_STOCK)
+                .id(offerId)
+                .stockQuantity(8)
+                .reservedQuantity(3)
+                .available(true)
+                .build();
+
+        listener.onMessage(message(delta), null);
+
+        verify(medicationSearchIndex).applyStock(offerId, 8, 3, true);
+    }
+
+    @Test
+    void ownDeltasAreIgnored() throws Exception {
+        SearchIndexDelta delta = SearchIndexDelta.builder()
+                .origin(RedisSearchIndexBroadcaster.NODE)
+                .kind(SearchIndexDelta.Kind.OFFER_STOCK)
+                .id(UUID.randomUUID())
+                .stockQuantity(8)
+                .reservedQuantity(0)
+                .available(true)
+                .build();
+
+        listener.onMessage(message(delta), null);
+
+        verify(medicationSearchIndex, never()).applyStock(any(), anyInt(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void offersDeletedInTheMeantimeAreRemoved() throws Exception {
+        UUID offerId = UUID.randomUUID();
+        when(pharmacyMedicationRepository.findById(offerId)).thenReturn(Optional.empty());
+
+        listener.onMessage(message(SearchIndexDelta.builder()
+                .origin("another-node")
+                .kind(SearchIndexDelta.Kind.OFFER_UPSERTED)
+                .id(offerId)
+                .build()), null);
+
+        verify(medicationSearchIndex).applyRemove(offerId);
+        verify(medicationSearchIndex, never()).applyUpsert(any());
+    }
+
+    private Message message(SearchIndexDelta delta) throws Exception {
+        return new DefaultMessage(RedisSearchIndexBroadcaster.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                objectMapper.writeValueAsBytes(delta));
+    }
+}
@@ -0,0 +1,75 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.infrastructure.security.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class SearchLogBufferTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SearchLogBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        buffer = new SearchLogBuffer(jwtService, jdbcTemplate, meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWriteQueuedSearchesInOneBatch() {
+        buffer.record("doliprane", null);
+        buffer.record("  amoxicilline ", null);
+        buffer.record("   ", null);
+
+        assertThat(buffer.pending()).isEqualTo(2);
+        buffer.flush();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertThat(rows.getValue()).extracting(row -> row[2]).containsExactly("doliprane", "amoxicilline");
+        assertThat(buffer.pending()).isZero();
+        assertThat(meterRegistry.counter("search.log.written").count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotWriteWhenQueueIsEmpty() {
+        buffer.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void shouldStayBoundedAndCountDropsUnderLoad() {
+        for (int i = 0; i < SearchLogBuffer.CAPACITY * 3; i++) {
+            buffer.record("paracetamol", null);
+        }
+
+        assertThat(buffer.pending()).isLessThanOrEqualTo(SearchLogBuffer.CAPACITY);
+        double dropped = meterRegistry.counter("search.log.dropped", "reason", "sampled").count()
+                + meterRegistry.counter("search.log.dropped", "reason", "full").count();
+        assertThat(dropped + buffer.pending()).isEqualTo(SearchLogBuffer.CAPACITY * 3);
+        assertThat(meterRegistry.get("search.log.queue.size").gauge().value()).isEqualTo(buffer.pending());
+    }
+}
@@ -0,0 +1,101 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.medication.dto.PatientMedicationSearchResultDTO;
+import com.app.easypharma_backend.infrastructure.config.CacheConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private final UUID doliprane = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new SearchResultCache(new ConcurrentMapCacheManager(CacheConfig.PATIENT_SEARCH_CACHE), meterRegistry);
+    }
+
+    @Test
+    void shouldServeIdenticalSearchesFromCache() {
+        search("Doliprane ");
+        search("doliprane");
+        search("  DOLIPRANE");
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.counter("search.cache.requests", "result", "hit").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("search.cache.requests", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvictOnlySearchesContainingTheMedication() {
+        search("doliprane");
+        cache.get("ibuprofene", null, "RELEVANCE", null, null, null, 50, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        cache.evictMedication(doliprane, false);
+        search("doliprane");
+        cache.get("ibuprofene", null, "RELEVANCE", null, null, null, 50, List::of);
+
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldEvictAllQueriesWhenAnOfferBecomesVisible() {
+        UUID ibuprofen = UUID.randomUUID();
+        // Une requête par trigrammes peut correspondre sans partager de sous-chaîne ("ibuprophene")
+        cache.get("ibuprophene", null, "RELEVANCE", null, null, null, 50, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        cache.evictMedication(ibuprofen, true);
+
+        cache.get("ibuprophene", null, "RELEVANCE", null, null, null, 50, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldShareInvalidationsBetweenInstances() {
+        // Deux instances de l'application derrière le même cache (Redis en production)
+        ConcurrentMapCacheManager shared = new ConcurrentMapCacheManager(CacheConfig.PATIENT_SEARCH_CACHE);
+        cache = new SearchResultCache(shared, meterRegistry);
+        SearchResultCache otherNode = new SearchResultCache(shared, new SimpleMeterRegistry());
+        search("doliprane");
+
+        otherNode.evictMedication(doliprane, false);
+        search("doliprane");
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotExposeCachedResultsToCallers() {
+        search("doliprane").get(0).setDistanceKm(1.5);
+
+        assertThat(search("doliprane").get(0).getDistanceKm()).isNull();
+    }
+
+    private List<PatientMedicationSearchResultDTO> search(String query) {
+        return cache.get(query, null, "RELEVANCE", null, null, null, 50, () -> {
+            loads.incrementAndGet();
+            return List.of(PatientMedicationSearchResultDTO.builder().medicationId(doliprane).build());
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+
+    @Test
+    void shouldCountExactlyWhileUnderCapacity() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        for (int i = 0; i < 5; i++) {
+            sketch.add("doliprane", 1);
+        }
+        sketch.add("amoxicilline", 3);
+        sketch.add("ibuprofene", 1);
+
+        List<SpaceSaving.Entry> top = sketch.top(2);
+        assertThat(top).extracting(SpaceSaving.Entry::getKey).containsExactly("doliprane", "amoxicilline");
+        assertThat(top).extracting(SpaceSaving.Entry::getCount).containsExactly(5L, 3L);
+        assertThat(top).extracting(SpaceSaving.Entry::getError).containsOnly(0L);
+    }
+
+    @Test
+    void shouldKeepHeavyHittersWhenCountersAreRecycled() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add("paracetamol", 1);
+            if (i % 2 == 0) {
+                sketch.add("amoxicilline", 1);
+            }
+            // Longue traîne : chaque requête rare n'apparaît qu'une fois
+            sketch.add("rare-" + i, 1);
+        }
+
+        assertThat(sketch.size()).isEqualTo(10);
+        List<SpaceSaving.Entry> top = sketch.top(2);
+        assertThat(top).extracting(SpaceSaving.Entry::getKey).containsExactly("paracetamol", "amoxicilline");
+        // Le compteur surestime au plus de son erreur
+        assertThat(top.get(0).getCount() - top.get(0).getError()).isLessThanOrEqualTo(1000L);
+        assertThat(top.get(0).getCount()).isGreaterThanOrEqualTo(1000L);
+    }
+}
@@ -0,0 +1,51 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.search.dto.SearchSuggestionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+
+    @Test
+    void shouldRankCompletionsByPopularity() {
+        SuggestionTrie trie = SuggestionTrie.builder(10)
+                .add("Doliprane 500", 3)
+                .add("Doliprane 1000", 3)
+                .add("doliprane 1000", 40)
+                .add("Dafalgan", 12)
+                .build();
+
+        List<SearchSuggestionDTO> suggestions = trie.complete("dol", 5);
+
+        assertThat(suggestions).extracting(SearchSuggestionDTO::getLabel)
+                .containsExactly("Doliprane 1000", "Doliprane 500");
+        assertThat(suggestions.get(0).getPopularity()).isEqualTo(43);
+    }
+
+    @Test
+    void shouldIgnoreCaseAndAccents() {
+        SuggestionTrie trie = SuggestionTrie.builder(10)
+                .add("Paracétamol", 5)
+                .build();
+
+        assertThat(trie.complete("PARACE", 5)).extracting(SearchSuggestionDTO::getLabel)
+                .containsExactly("Paracétamol");
+    }
+
+    @Test
+    void shouldLimitToTopK() {
+        SuggestionTrie.Builder builder = SuggestionTrie.builder(3);
+        for (int i = 1; i <= 20; i++) {
+            builder.add("Amox " + i, i);
+        }
+        SuggestionTrie trie = builder.build();
+
+        assertThat(trie.complete("am", 10)).extracting(SearchSuggestionDTO::getLabel)
+                .containsExactly("Amox 20", "Amox 19", "Amox 18");
+        assertThat(trie.complete("zz", 10)).isEmpty();
+        assertThat(trie.complete("", 10)).isEmpty();
+    }
+}
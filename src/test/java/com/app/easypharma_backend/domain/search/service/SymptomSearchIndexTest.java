@@ -0,0 +1,85 @@
+package com.app.easypharma_backend.domain.search.service;
+
+import com.app.easypharma_backend.domain.medication.dto.MedicationDTO;
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.entity.TherapeuticClass;
+import com.app.easypharma_backend.domain.medication.mapper.MedicationMapper;
+import com.app.easypharma_backend.domain.medication.repository.MedicationRepository;
+import com.app.easypharma_backend.domain.search.dto.SymptomMatchDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class SymptomSearchIndexTest {
+
+    @Mock
+    private MedicationRepository medicationRepository;
+
+    @Mock
+    private MedicationMapper medicationMapper;
+
+    @Mock
+    private SearchIndexBroadcaster searchIndexBroadcaster;
+
+    @InjectMocks
+    private SymptomSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(medicationMapper.toDTO(any(Medication.class))).thenAnswer(invocation -> {
+            Medication source = invocation.getArgument(0);
+            return MedicationDTO.builder().id(source.getId()).name(source.getName()).build();
+        });
+    }
+
+    @Test
+    void shouldRankMedicationsMatchingMoreSymptomsFirst() {
+        index.index(medication("Doliprane", "Fièvre, maux de tête, douleurs", "Antalgique et antipyrétique"));
+        index.index(medication("Aspirine", "Maux de tête", "Anti-inflammatoire"));
+        index.index(medication("Smecta", "Diarrhée", "Traitement des troubles digestifs"));
+
+        List<SymptomMatchDTO> results = index.search("mal de tête fièvre", 10);
+
+        assertThat(results).extracting(r -> r.getMedication().getName()).containsExactly("Doliprane", "Aspirine");
+        assertThat(results.get(0).getScore()).isGreaterThan(results.get(1).getScore());
+    }
+
+    @Test
+    void shouldMatchStemmedDescriptions() {
+        index.index(medication("Smecta", null, "Traitement des troubles digestifs"));
+
+        assertThat(index.search("trouble digestif", 10)).hasSize(1);
+        assertThat(index.search("toux", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldReindexUpdatedMedication() {
+        Medication medication = medication("Toplexil", "Toux sèche", null);
+        index.index(medication);
+        medication.setSymptoms("Rhume");
+        index.index(medication);
+
+        assertThat(index.search("toux", 10)).isEmpty();
+        assertThat(index.search("rhumes", 10)).hasSize(1);
+    }
+
+    private Medication medication(String name, String symptoms, String description) {
+        return Medication.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .symptoms(symptoms)
+                .description(description)
+                .therapeuticClass(TherapeuticClass.ANTALGIQUE)
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.app.easypharma_backend.infrastructure.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeIdGenerator.EPOCH + 86_400_000L;
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(() -> 7);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(ids).hasSize(8 * 20_000);
+    }
+
+    @Test
+    void sequenceOverflowWaitsForNextMillisecond() {
+        // L'horloge n'avance qu'après 4097 lectures : la 4097e demande épuise la séquence
+        AtomicLong reads = new AtomicLong();
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(() -> 1,
+                () -> reads.incrementAndGet() <= 4097 ? NOW : NOW + 1);
+        long previous = -1;
+        for (int i = 0; i < 4096; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+
+        long next = generator.nextId();
+
+        assertThat(next).isGreaterThan(previous);
+        assertThat(next >>> 22).isEqualTo(NOW - SnowflakeIdGenerator.EPOCH + 1);
+    }
+
+    @Test
+    void differentNodesNeverCollideInTheSameMillisecond() {
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(() -> 1, () -> NOW);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(() -> 2, () -> NOW);
+
+        assertThat(first.nextId()).isNotEqualTo(second.nextId());
+    }
+
+    @Test
+    void smallClockRegressionKeepsIdsIncreasing() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(() -> 1, clock::get);
+        long before = generator.nextId();
+
+        clock.set(NOW - 3);
+
+        assertThat(generator.nextId()).isGreaterThan(before);
+    }
+
+    @Test
+    void largeClockRegressionIsRefused() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(() -> 1, clock::get);
+        generator.nextId();
+
+        clock.set(NOW - 60_000);
+
+        assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void orderNumbersFitTheColumnAndSortByCreation() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(() -> 1023);
+        ReferenceNumberGenerator references = new ReferenceNumberGenerator(generator);
+
+        String first = references.nextOrderNumber();
+        String second = references.nextOrderNumber();
+
+        assertThat(first).matches("ORD-[0-9A-Z]{4}-[0-9A-Z]{4}-[0-9A-Z]{5}").hasSizeLessThanOrEqualTo(20);
+        assertThat(second).isGreaterThan(first);
+        assertThat(references.nextTransactionId()).startsWith("TXN-");
+        assertThat(ReferenceNumberGenerator.format(Long.MAX_VALUE)).isEqualTo("7ZZZ-ZZZZ-ZZZZZ");
+    }
+}
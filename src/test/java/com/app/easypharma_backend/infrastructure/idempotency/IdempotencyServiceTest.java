@@ -0,0 +1,133 @@
+package com.app.easypharma_backend.infrastructure.idempotency;
+
+import com.app.easypharma_backend.domain.order.dto.OrderDTO;
+import com.app.easypharma_backend.infrastructure.exception.ValidationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest {
+
+    private final InMemoryStore store = new InMemoryStore();
+    private final IdempotencyService service = new IdempotencyService(store,
+            new ObjectMapper().registerModule(new JavaTimeModule()), 24, 5);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void retryReplaysFirstResponse() {
+        OrderDTO first = service.execute("orders", "key-1", Map.of("item", 1), OrderDTO.class, this::createOrder);
+        OrderDTO retry = service.execute("orders", "key-1", Map.of("item", 1), OrderDTO.class, this::createOrder);
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getId()).isEqualTo(first.getId());
+    }
+
+    @Test
+    void withoutKeyEveryCallRuns() {
+        service.execute("orders", null, Map.of("item", 1), OrderDTO.class, this::createOrder);
+        service.execute("orders", " ", Map.of("item", 1), OrderDTO.class, this::createOrder);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void reusingKeyForAnotherRequestIsRefused() {
+        service.execute("orders", "key-2", Map.of("item", 1), OrderDTO.class, this::createOrder);
+
+        assertThatThrownBy(() -> service.execute("orders", "key-2", Map.of("item", 2), OrderDTO.class,
+                this::createOrder)).isInstanceOf(ValidationException.class);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void failureReleasesKeyForRetry() {
+        assertThatThrownBy(() -> service.execute("payments", "key-3", Map.of("order", 1), OrderDTO.class, () -> {
+            throw new IllegalStateException("Mobile Money timeout");
+        })).hasMessage("Mobile Money timeout");
+
+        OrderDTO retry = service.execute("payments", "key-3", Map.of("order", 1), OrderDTO.class, this::createOrder);
+
+        assertThat(retry).isNotNull();
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void concurrentDuplicatesShareOneExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<OrderDTO> first = executor.submit(() -> service.execute("orders", "key-4", Map.of("item", 1),
+                    OrderDTO.class, () -> {
+                        started.countDown();
+                        await(release);
+                        return createOrder();
+                    }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<OrderDTO> second = executor.submit(() -> service.execute("orders", "key-4", Map.of("item", 1),
+                    OrderDTO.class, this::createOrder));
+            Future<OrderDTO> third = executor.submit(() -> service.execute("orders", "key-4", Map.of("item", 1),
+                    OrderDTO.class, this::createOrder));
+            release.countDown();
+
+            UUID id = first.get(5, TimeUnit.SECONDS).getId();
+            assertThat(second.get(5, TimeUnit.SECONDS).getId()).isEqualTo(id);
+            assertThat(third.get(5, TimeUnit.SECONDS).getId()).isEqualTo(id);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executions).hasValue(1);
+    }
+
+    private OrderDTO createOrder() {
+        executions.incrementAndGet();
+        return OrderDTO.builder().id(UUID.randomUUID()).orderNumber("ORD-TEST").build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Stockage partagé simulé (sans expiration)
+    private static class InMemoryStore implements IdempotencyStore {
+        private final Map<String, IdempotencyEntry> entries = new ConcurrentHashMap<>();
+
+        @Override
+        public IdempotencyEntry find(String key) {
+            return entries.get(key);
+        }
+
+        @Override
+        public boolean claim(String key, String fingerprint, Duration ttl) {
+            return entries.putIfAbsent(key, new IdempotencyEntry(fingerprint, false, null)) == null;
+        }
+
+        @Override
+        public void complete(String key, String fingerprint, String response, Duration ttl) {
+            entries.put(key, new IdempotencyEntry(fingerprint, true, response));
+        }
+
+        @Override
+        public void release(String key) {
+            entries.computeIfPresent(key, (k, entry) -> entry.isCompleted() ? entry : null);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.app.easypharma_backend.infrastructure.messaging.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxTransport outboxTransport;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private OutboxRelay relay;
+
+    // Vrai pendant l'exécution d'un callback de transactionTemplate
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            inTransaction.set(true);
+            try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                inTransaction.set(false);
+            }
+        });
+        doCallRealMethod().when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void sentEventsAreMarkedSent() {
+        OutboxEvent event = event(0);
+        when(outboxEventRepository.claimBatch(eq(OutboxStatus.PENDING), any(), any())).thenReturn(List.of(event));
+
+        assertThat(relay.relayBatch()).isEqualTo(1);
+
+        verify(outboxTransport).send(event);
+        assertThat(event.getStatus()).isEqualTo(OutboxStatus.SENT);
+        assertThat(event.getSentAt()).isNotNull();
+        verify(outboxEventRepository).saveAll(List.of(event));
+    }
+
+    @Test
+    void eventsAreSentAfterTheClaimIsCommitted() {
+        OutboxEvent event = event(0);
+        LocalDateTime before = LocalDateTime.now();
+        when(outboxEventRepository.claimBatch(eq(OutboxStatus.PENDING), any(), any())).thenReturn(List.of(event));
+        doAnswer(invocation -> {
+            // Ni verrou ni connexion retenus pendant l'envoi, l'événement est réservé par son bail
+            assertThat(inTransaction).isFalse();
+            assertThat(event.getAvailableAt()).isAfterOrEqualTo(before.plusSeconds(OutboxRelay.CLAIM_LEASE_SECONDS));
+            return null;
+        }).when(outboxTransport).send(event);
+
+        relay.relayBatch();
+
+        InOrder inOrder = inOrder(outboxEventRepository, outboxTransport);
+        inOrder.verify(outboxEventRepository).claimBatch(eq(OutboxStatus.PENDING), any(), any());
+        inOrder.verify(outboxTransport).send(event);
+        inOrder.verify(outboxEventRepository).saveAll(List.of(event));
+    }
+
+    @Test
+    void failedEventIsRetriedLaterWithoutBlockingOthers() {
+        OutboxEvent failing = event(2);
+        OutboxEvent ok = event(0);
+        when(outboxEventRepository.claimBatch(eq(OutboxStatus.PENDING), any(), any()))
+                .thenReturn(List.of(failing, ok));
+        doThrow(new IllegalStateException("SMTP timeout")).when(outboxTransport).send(failing);
+
+        LocalDateTime before = LocalDateTime.now();
+        relay.relayBatch();
+
+        assertThat(failing.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(failing.getAttempts()).isEqualTo(3);
+        assertThat(failing.getLastError()).isEqualTo("SMTP timeout");
+        // 2^3 secondes de recul
+        assertThat(failing.getAvailableAt()).isAfterOrEqualTo(before.plusSeconds(8));
+        assertThat(ok.getStatus()).isEqualTo(OutboxStatus.SENT);
+    }
+
+    @Test
+    void eventIsAbandonedAfterMaxAttempts() {
+        OutboxEvent event = event(OutboxRelay.MAX_ATTEMPTS - 1);
+        when(outboxEventRepository.claimBatch(eq(OutboxStatus.PENDING), any(), any())).thenReturn(List.of(event));
+        doThrow(new IllegalStateException("unreachable")).when(outboxTransport).send(event);
+
+        relay.relayBatch();
+
+        assertThat(event.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(event.getAttempts()).isEqualTo(OutboxRelay.MAX_ATTEMPTS);
+    }
+
+    private static OutboxEvent event(int attempts) {
+        return OutboxEvent.builder()
+                .id(UUID.randomUUID())
+                .eventType("notification")
+                .payload("{}")
+                .attempts(attempts)
+                .availableAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.app.easypharma_backend.infrastructure.messaging.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class RabbitOutboxTransportTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private OutboxDispatcher dispatcher;
+
+    @InjectMocks
+    private RabbitOutboxTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doThrow(new IllegalStateException("SMTP indisponible")).when(dispatcher).dispatch(anyString(), anyString());
+    }
+
+    @Test
+    void failedMessagesAreRejectedTowardsTheRetryQueue() {
+        Message message = message(1);
+
+        assertThatThrownBy(() -> transport.onMessage(message))
+                .isInstanceOf(AmqpRejectAndDontRequeueException.class);
+        verify(rabbitTemplate, never()).send(anyString(), anyString(), any(Message.class));
+    }
+
+    @Test
+    void messagesAreParkedAfterTheLastAttempt() {
+        Message message = message(RabbitOutboxTransport.MAX_DELIVERIES - 1);
+
+        transport.onMessage(message);
+
+        verify(rabbitTemplate).send(eq(""), eq(RabbitOutboxTransport.DEAD_QUEUE), eq(message));
+    }
+
+    @Test
+    void onlyRejectionsFromTheMainQueueAreCounted() {
+        MessageProperties properties = new MessageProperties();
+        properties.getHeaders().put("x-death", List.of(
+                Map.of("queue", RabbitOutboxTransport.QUEUE, "reason", "rejected", "count", 2L),
+                Map.of("queue", RabbitOutboxTransport.RETRY_QUEUE, "reason", "expired", "count", 2L)));
+
+        assertThat(RabbitOutboxTransport.previousFailures(properties)).isEqualTo(2);
+        assertThat(RabbitOutboxTransport.previousFailures(new MessageProperties())).isZero();
+    }
+
+    // Message déjà rejeté {@code previousFailures} fois par la file principale
+    private static Message message(long previousFailures) {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId("event-1");
+        properties.setHeader("eventType", "EMAIL");
+        if (previousFailures > 0) {
+            properties.getHeaders().put("x-death", List.of(Map.of("queue", RabbitOutboxTransport.QUEUE,
+                    "reason", "rejected", "count", previousFailures)));
+        }
+        return new Message("{}".getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
@@ -0,0 +1,46 @@
+package com.app.easypharma_backend.infrastructure.util;
+
+import com.app.easypharma_backend.infrastructure.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTest {
+
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    void shouldRoundTripSortValueAndId() {
+        CursorCodec.Cursor cursor = CursorCodec.decode(CursorCodec.encode("2026-10-18T09:30:00.123", id));
+
+        assertThat(cursor.getSortValue()).isEqualTo("2026-10-18T09:30:00.123");
+        assertThat(cursor.getId()).isEqualTo(id);
+    }
+
+    @Test
+    void shouldRoundTripCursorsBoundToASortMode() {
+        CursorCodec.Cursor cursor = CursorCodec.decode(CursorCodec.encode("PRICE", "1500.00", id), "PRICE");
+
+        assertThat(cursor.getSortValue()).isEqualTo("1500.00");
+        assertThat(cursor.getId()).isEqualTo(id);
+    }
+
+    @Test
+    void shouldRejectCursorsOfAnotherSortMode() {
+        String cursor = CursorCodec.encode("PRICE", "1500.00", id);
+
+        assertThatThrownBy(() -> CursorCodec.decode(cursor, "RATING")).isInstanceOf(ValidationException.class);
+        // Un curseur sans mode de tri n'est pas accepté non plus
+        assertThatThrownBy(() -> CursorCodec.decode(CursorCodec.encode("1500.00", id), "PRICE"))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void shouldRejectMalformedCursors() {
+        assertThatThrownBy(() -> CursorCodec.decode("not-a-cursor")).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> CursorCodec.decode("%%%", "PRICE")).isInstanceOf(ValidationException.class);
+    }
+}
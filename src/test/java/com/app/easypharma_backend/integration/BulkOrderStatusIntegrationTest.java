@@ -0,0 +1,128 @@
+package com.app.easypharma_backend.integration;
+
+import com.app.easypharma_backend.domain.auth.entity.User;
+import com.app.easypharma_backend.domain.auth.entity.UserRole;
+import com.app.easypharma_backend.domain.delivery.entity.Delivery;
+import com.app.easypharma_backend.domain.delivery.service.interfaces.DeliveryServiceInterface;
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
+import com.app.easypharma_backend.domain.medication.entity.TherapeuticClass;
+import com.app.easypharma_backend.domain.order.dto.OrderDTO;
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import com.app.easypharma_backend.domain.order.service.interfaces.OrderServiceInterface;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import(IntegrationFixtures.class)
+@ActiveProfiles("test")
+@Transactional
+class BulkOrderStatusIntegrationTest {
+
+    @Autowired
+    private IntegrationFixtures fixtures;
+    @Autowired
+    private OrderServiceInterface orderService;
+    @Autowired
+    private DeliveryServiceInterface deliveryService;
+
+    private User patient;
+    private Pharmacy pharmacy;
+    private Medication medication;
+    private PharmacyMedication offer;
+
+    @BeforeEach
+    void setup() {
+        User pharmacist = fixtures.user("bulk-pharma@test.com", "611111114", UserRole.PHARMACY_ADMIN);
+        patient = fixtures.user("bulk-patient@test.com", "622222225", UserRole.PATIENT);
+        pharmacy = fixtures.pharmacy(pharmacist, "Pharmacie Lot", "LIC-BULK", "Douala", 4.05, 9.76);
+        medication = fixtures.medication("Paracétamol", TherapeuticClass.ANTALGIQUE);
+        offer = fixtures.offer(pharmacy, medication, 500, 10);
+    }
+
+    @Test
+    void ordersMoveTogetherThroughPreparation() {
+        List<UUID> ids = List.of(createOrder(), createOrder(), createOrder());
+
+        orderService.updateOrderStatuses(pharmacy.getId(), ids, OrderStatus.CONFIRMED);
+        // Chaque première confirmation sort la quantité du stock
+        assertThat(offerColumn("stock_quantity")).isEqualTo(7);
+        assertThat(offerColumn("reserved_quantity")).isZero();
+
+        orderService.updateOrderStatuses(pharmacy.getId(), ids, OrderStatus.PREPARING);
+        List<OrderDTO> ready = orderService.updateOrderStatuses(pharmacy.getId(), ids, OrderStatus.READY);
+
+        assertThat(ready).extracting(OrderDTO::getStatus).containsOnly(OrderStatus.READY);
+        assertThat(ready).allSatisfy(order -> assertThat(order.getItems()).hasSize(1));
+        assertThat(orderService.getOrderHistory(ids.get(0))).hasSize(4);
+    }
+
+    @Test
+    void oneInvalidTransitionRejectsTheWholeBatch() {
+        UUID confirmed = createOrder();
+        UUID pending = createOrder();
+        orderService.updateOrderStatus(confirmed, OrderStatus.CONFIRMED);
+        orderService.updateOrderStatus(confirmed, OrderStatus.PREPARING);
+
+        assertThatThrownBy(() -> orderService.updateOrderStatuses(pharmacy.getId(), List.of(confirmed, pending),
+                OrderStatus.READY))
+                .isInstanceOf(IllegalStateException.class);
+
+        // Les transitions ont été refusées avant toute écriture
+        assertThat(status(confirmed)).isEqualTo(OrderStatus.PREPARING);
+        assertThat(status(pending)).isEqualTo(OrderStatus.PENDING);
+    }
+
+    @Test
+    void ordersOfAnotherPharmacyAreRefused() {
+        UUID order = createOrder();
+
+        assertThatThrownBy(() -> orderService.updateOrderStatuses(UUID.randomUUID(), List.of(order),
+                OrderStatus.CONFIRMED))
+                .hasMessageContaining(order.toString());
+        assertThat(status(order)).isEqualTo(OrderStatus.PENDING);
+    }
+
+    @Test
+    void batchedAssignmentGivesEachFreeCourierOneOrder() {
+        courier("bulk-courier-a@test.com", "677777771");
+        courier("bulk-courier-b@test.com", "677777772");
+        List<UUID> ids = List.of(createOrder(), createOrder(), createOrder());
+
+        List<Delivery> deliveries = deliveryService.autoAssignCouriers(ids);
+
+        assertThat(deliveries).hasSize(2);
+        assertThat(deliveries).extracting(delivery -> delivery.getDeliveryPerson().getId()).doesNotHaveDuplicates();
+        // Rejouable : les commandes affectées sont ignorées et les livreurs sont occupés
+        assertThat(deliveryService.autoAssignCouriers(ids)).isEmpty();
+    }
+
+    private UUID createOrder() {
+        return orderService.createOrder(patient.getId(), fixtures.orderOf(pharmacy, medication, 1)).getId();
+    }
+
+    private OrderStatus status(UUID orderId) {
+        return fixtures.orderStatus(orderId);
+    }
+
+    private int offerColumn(String column) {
+        return fixtures.offerColumn(offer, column);
+    }
+
+    private void courier(String email, String phone) {
+        User courier = fixtures.user(email, phone, UserRole.DELIVERY);
+        courier.setPharmacy(pharmacy);
+    }
+}
@@ -0,0 +1,126 @@
+package com.app.easypharma_backend.integration;
+
+import com.app.easypharma_backend.domain.auth.entity.User;
+import com.app.easypharma_backend.domain.auth.entity.UserRole;
+import com.app.easypharma_backend.domain.auth.repository.UserRepository;
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
+import com.app.easypharma_backend.domain.medication.entity.TherapeuticClass;
+import com.app.easypharma_backend.domain.medication.repository.MedicationRepository;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.domain.order.dto.CreateOrderDTO;
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import com.app.easypharma_backend.domain.order.repository.OrderRepository;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.domain.pharmacy.entity.PharmacyStatus;
+import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Données de test partagées par les tests d'intégration des commandes :
+ * utilisateurs, pharmacie approuvée, médicament et offre, enregistrés dans
+ * la transaction du test. À importer avec {@code @Import(IntegrationFixtures.class)}.
+ */
+@TestComponent
+@RequiredArgsConstructor
+public class IntegrationFixtures {
+
+    private final UserRepository userRepository;
+    private final PharmacyRepository pharmacyRepository;
+    private final MedicationRepository medicationRepository;
+    private final PharmacyMedicationRepository pharmacyMedicationRepository;
+    private final OrderRepository orderRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public User user(String email, String phone, UserRole role) {
+        return userRepository.save(User.builder()
+                .email(email)
+                .password("test")
+                .firstName("Test")
+                .lastName(role.name())
+                .phone(phone)
+                .role(role)
+                .isActive(true)
+                .isVerified(true)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Pharmacie approuvée ; le numéro de licence doit être unique
+     */
+    public Pharmacy pharmacy(User owner, String name, String licenseNumber, String city, double latitude,
+            double longitude) {
+        return pharmacyRepository.save(Pharmacy.builder()
+                .user(owner)
+                .name(name)
+                .licenseNumber(licenseNumber)
+                .address("1 Rue de la Pharmacie")
+                .city(city)
+                .phone("644444444")
+                .latitude(BigDecimal.valueOf(latitude))
+                .longitude(BigDecimal.valueOf(longitude))
+                .status(PharmacyStatus.APPROVED)
+                .licenseDocumentUrl("http://doc.url")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    public Medication medication(String name, TherapeuticClass therapeuticClass) {
+        return medicationRepository.save(Medication.builder()
+                .name(name)
+                .therapeuticClass(therapeuticClass)
+                .requiresPrescription(false)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    public PharmacyMedication offer(Pharmacy pharmacy, Medication medication, long price, int stockQuantity) {
+        return pharmacyMedicationRepository.save(PharmacyMedication.builder()
+                .pharmacy(pharmacy)
+                .medication(medication)
+                .price(BigDecimal.valueOf(price))
+                .stockQuantity(stockQuantity)
+                .isAvailable(true)
+                .build());
+    }
+
+    /**
+     * Commande d'un seul médicament, livrée dans la ville de la pharmacie
+     */
+    public CreateOrderDTO orderOf(Pharmacy pharmacy, Medication medication, int quantity) {
+        CreateOrderDTO dto = new CreateOrderDTO();
+        dto.setPharmacyId(pharmacy.getId());
+        dto.setItems(List.of(new CreateOrderDTO.CreateOrderItemDTO(medication.getId(), quantity)));
+        dto.setDeliveryAddress("Centre-ville");
+        dto.setDeliveryCity(pharmacy.getCity());
+        dto.setDeliveryPhone("655555555");
+        return dto;
+    }
+
+    // Lu en SQL : le stock est écrit par PharmacyMedicationStockRepository
+    public int offerColumn(PharmacyMedication offer, String column) {
+        entityManager.flush();
+        return jdbcTemplate.queryForObject("SELECT " + column + " FROM pharmacy_medications WHERE id = ?",
+                Integer.class, offer.getId());
+    }
+
+    // Relu en base, sans le cache de premier niveau
+    public OrderStatus orderStatus(UUID orderId) {
+        entityManager.flush();
+        entityManager.clear();
+        return orderRepository.findById(orderId).orElseThrow().getStatus();
+    }
+}
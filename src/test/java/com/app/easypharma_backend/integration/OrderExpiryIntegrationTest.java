@@ -0,0 +1,146 @@
+package com.app.easypharma_backend.integration;
+
+import com.app.easypharma_backend.domain.auth.entity.User;
+import com.app.easypharma_backend.domain.auth.entity.UserRole;
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
+import com.app.easypharma_backend.domain.medication.entity.TherapeuticClass;
+import com.app.easypharma_backend.domain.order.dto.CreateOrderDTO;
+import com.app.easypharma_backend.domain.order.dto.OrderDTO;
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import com.app.easypharma_backend.domain.order.repository.OrderRepository;
+import com.app.easypharma_backend.domain.order.service.interfaces.OrderExpiryService;
+import com.app.easypharma_backend.domain.order.service.interfaces.OrderServiceInterface;
+import com.app.easypharma_backend.domain.payment.entity.Payment;
+import com.app.easypharma_backend.domain.payment.entity.PaymentMethod;
+import com.app.easypharma_backend.domain.payment.entity.PaymentStatus;
+import com.app.easypharma_backend.domain.payment.repository.PaymentRepository;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(IntegrationFixtures.class)
+@ActiveProfiles("test")
+@Transactional
+class OrderExpiryIntegrationTest {
+
+    @Autowired
+    private IntegrationFixtures fixtures;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderServiceInterface orderService;
+    @Autowired
+    private OrderExpiryService orderExpiryService;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    private User patient;
+    private Pharmacy pharmacy;
+    private Medication medication;
+    private PharmacyMedication offer;
+
+    @BeforeEach
+    void setup() {
+        User pharmacist = fixtures.user("expiry-pharma@test.com", "611111113", UserRole.PHARMACY_ADMIN);
+        patient = fixtures.user("expiry-patient@test.com", "622222224", UserRole.PATIENT);
+        pharmacy = fixtures.pharmacy(pharmacist, "Pharmacie Expiration", "LIC-EXP", "Douala", 4.05, 9.76);
+        medication = fixtures.medication("Amoxicilline", TherapeuticClass.ANTIBIOTIQUE);
+        offer = fixtures.offer(pharmacy, medication, 1500, 10);
+    }
+
+    @Test
+    void stalePendingOrderIsCancelledAndReservationReleased() {
+        OrderDTO stale = orderService.createOrder(patient.getId(), orderOf(2));
+        OrderDTO fresh = orderService.createOrder(patient.getId(), orderOf(1));
+        age(stale.getId(), "created_at", LocalDateTime.now().minusDays(1));
+
+        assertThat(orderExpiryService.cancelExpired()).isEqualTo(1);
+
+        assertThat(status(stale.getId())).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(status(fresh.getId())).isEqualTo(OrderStatus.PENDING);
+        assertThat(offerColumn("reserved_quantity")).isEqualTo(1);
+        assertThat(offerColumn("stock_quantity")).isEqualTo(10);
+    }
+
+    @Test
+    void staleConfirmedOrdersAreRestockedTogether() {
+        OrderDTO first = orderService.createOrder(patient.getId(), orderOf(3));
+        OrderDTO second = orderService.createOrder(patient.getId(), orderOf(2));
+        orderService.updateOrderStatus(first.getId(), OrderStatus.CONFIRMED);
+        orderService.updateOrderStatus(second.getId(), OrderStatus.CONFIRMED);
+        assertThat(offerColumn("stock_quantity")).isEqualTo(5);
+        for (UUID id : List.of(first.getId(), second.getId())) {
+            age(id, "confirmed_at", LocalDateTime.now().minusDays(3));
+        }
+
+        assertThat(orderExpiryService.cancelExpired()).isEqualTo(2);
+
+        assertThat(status(first.getId())).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(status(second.getId())).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(offerColumn("stock_quantity")).isEqualTo(10);
+        // Un second passage ne trouve plus rien
+        assertThat(orderExpiryService.cancelExpired()).isZero();
+    }
+
+    @Test
+    void paidConfirmedOrderIsNeverCancelled() {
+        OrderDTO paid = orderService.createOrder(patient.getId(), orderOf(3));
+        OrderDTO unpaid = orderService.createOrder(patient.getId(), orderOf(2));
+        orderService.updateOrderStatus(paid.getId(), OrderStatus.CONFIRMED);
+        orderService.updateOrderStatus(unpaid.getId(), OrderStatus.CONFIRMED);
+        paymentRepository.save(Payment.builder()
+                .order(orderRepository.getReferenceById(paid.getId()))
+                .paymentMethod(PaymentMethod.MTN_MOMO)
+                .amount(paid.getTotalAmount())
+                .status(PaymentStatus.SUCCESS)
+                .paidAt(LocalDateTime.now())
+                .build());
+        for (UUID id : List.of(paid.getId(), unpaid.getId())) {
+            age(id, "confirmed_at", LocalDateTime.now().minusDays(3));
+        }
+
+        assertThat(orderExpiryService.cancelExpired()).isEqualTo(1);
+
+        assertThat(status(paid.getId())).isEqualTo(OrderStatus.CONFIRMED);
+        assertThat(status(unpaid.getId())).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(offerColumn("stock_quantity")).isEqualTo(7);
+    }
+
+    private void age(UUID orderId, String column, LocalDateTime value) {
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE orders SET " + column + " = ? WHERE id = ?", Timestamp.valueOf(value), orderId);
+        entityManager.clear();
+    }
+
+    private OrderStatus status(UUID orderId) {
+        return fixtures.orderStatus(orderId);
+    }
+
+    private int offerColumn(String column) {
+        return fixtures.offerColumn(offer, column);
+    }
+
+    private CreateOrderDTO orderOf(int quantity) {
+        return fixtures.orderOf(pharmacy, medication, quantity);
+    }
+}
@@ -0,0 +1,126 @@
+package com.app.easypharma_backend.integration;
+
+import com.app.easypharma_backend.application.common.dto.CursorPageResponse;
+import com.app.easypharma_backend.domain.auth.entity.User;
+import com.app.easypharma_backend.domain.auth.entity.UserRole;
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.entity.TherapeuticClass;
+import com.app.easypharma_backend.domain.order.dto.OrderDTO;
+import com.app.easypharma_backend.domain.order.entity.Order;
+import com.app.easypharma_backend.domain.order.entity.OrderItem;
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import com.app.easypharma_backend.domain.order.repository.OrderRepository;
+import com.app.easypharma_backend.domain.order.service.interfaces.OrderServiceInterface;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.infrastructure.exception.ValidationException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import(IntegrationFixtures.class)
+@ActiveProfiles("test")
+@Transactional
+class OrderHistoryPaginationTest {
+
+    @Autowired
+    private IntegrationFixtures fixtures;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderServiceInterface orderService;
+    @Autowired
+    private EntityManager entityManager;
+
+    private User patient;
+    private Pharmacy pharmacy;
+    private final List<UUID> expectedOrder = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        User pharmacist = fixtures.user("history-pharma@test.com", "611111112", UserRole.PHARMACY_ADMIN);
+        patient = fixtures.user("history-patient@test.com", "622222223", UserRole.PATIENT);
+        pharmacy = fixtures.pharmacy(pharmacist, "Pharmacie Historique", "LIC-HIST", "Yaoundé", 3.848, 11.502);
+        Medication medication = fixtures.medication("Paracétamol", TherapeuticClass.ANTALGIQUE);
+
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Order order = Order.builder()
+                    .orderNumber("ORD-HIST-" + i)
+                    .patient(patient)
+                    .pharmacy(pharmacy)
+                    .totalAmount(BigDecimal.valueOf(1000))
+                    .status(i % 2 == 0 ? OrderStatus.DELIVERED : OrderStatus.PENDING)
+                    .deliveryAddress("Bastos")
+                    .deliveryCity("Yaoundé")
+                    .deliveryPhone("655555556")
+                    .build();
+            order.addItem(OrderItem.builder()
+                    .medication(medication)
+                    .quantity(i + 1)
+                    .unitPrice(BigDecimal.valueOf(1000))
+                    .build());
+            orders.add(orderRepository.save(order));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Ordre attendu : created_at puis id décroissants (ex aequo possibles)
+        orderRepository.findByPharmacyIdOrderByCreatedAtDesc(pharmacy.getId())
+                .forEach(order -> expectedOrder.add(order.getId()));
+        entityManager.clear();
+    }
+
+    @Test
+    void pagesWalkTheWholeHistoryOnceInOrder() {
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResponse<OrderDTO> page = orderService.getPharmacyOrdersPage(pharmacy.getId(), null, cursor, 3);
+            page.getContent().forEach(order -> {
+                seen.add(order.getId());
+                assertThat(order.getItems()).hasSize(1);
+                assertThat(order.getPatientId()).isEqualTo(patient.getId());
+            });
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).containsExactlyElementsOf(expectedOrder);
+    }
+
+    @Test
+    void statusFilterIsAppliedAcrossPages() {
+        CursorPageResponse<OrderDTO> first = orderService.getPatientOrdersPage(patient.getId(),
+                List.of(OrderStatus.DELIVERED), null, 2);
+        CursorPageResponse<OrderDTO> second = orderService.getPatientOrdersPage(patient.getId(),
+                List.of(OrderStatus.DELIVERED), first.getNextCursor(), 2);
+
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(second.getContent()).hasSize(2)
+                .allMatch(order -> order.getStatus() == OrderStatus.DELIVERED);
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        assertThatThrownBy(() -> orderService.getPatientOrdersPage(patient.getId(), null, "not-a-cursor", 2))
+                .isInstanceOf(ValidationException.class);
+    }
+}
@@ -10,6 +10,7 @@ import com.app.easypharma_backend.domain.medication.service.interfaces.PharmacyM
 import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
 import com.app.easypharma_backend.domain.pharmacy.entity.PharmacyStatus;
 import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
+import com.app.easypharma_backend.domain.search.service.MedicationSearchIndex;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -52,6 +53,9 @@ public class PatientScenarioTest {
     @Autowired
     private PharmacyMedicationServiceInterface pharmacyMedicationService;
 
+    @Autowired
+    private MedicationSearchIndex medicationSearchIndex;
+
     @Autowired
     private com.app.easypharma_backend.domain.order.repository.OrderRepository orderRepository;
 
@@ -104,6 +108,8 @@ public class PatientScenarioTest {
 
         pharmacyMedicationService.addMedicationToPharmacy(pharmacy.getId(), medication.getId(), BigDecimal.valueOf(100),
                 50, null);
+        // Le test ne commit jamais : on recharge l'index depuis sa transaction
+        medicationSearchIndex.rebuild();
 
         // 3. Patient
         patient = userRepository.save(User.builder()
@@ -11,6 +11,7 @@ import com.app.easypharma_backend.domain.medication.service.interfaces.PharmacyM
 import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
 import com.app.easypharma_backend.domain.pharmacy.entity.PharmacyStatus;
 import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
+import com.app.easypharma_backend.domain.search.service.MedicationSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -50,6 +51,9 @@ public class PatientSearchIntegrationTest {
         @Autowired
         private PharmacyMedicationServiceInterface pharmacyMedicationService;
 
+        @Autowired
+        private MedicationSearchIndex medicationSearchIndex;
+
         @BeforeEach
         void setup() {
                 // 1. Create Data
@@ -102,6 +106,9 @@ public class PatientSearchIntegrationTest {
                                 BigDecimal.valueOf(500), 50, null);
                 pharmacyMedicationService.addMedicationToPharmacy(pharmacy.getId(), med2.getId(),
                                 BigDecimal.valueOf(2000), 20, null);
+
+                // Le test ne commit jamais : on recharge l'index depuis sa transaction
+                medicationSearchIndex.rebuild();
         }
 
         @Test
@@ -0,0 +1,164 @@
+package com.app.easypharma_backend.integration;
+
+import com.app.easypharma_backend.domain.auth.entity.User;
+import com.app.easypharma_backend.domain.auth.entity.UserRole;
+import com.app.easypharma_backend.domain.auth.repository.UserRepository;
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
+import com.app.easypharma_backend.domain.medication.entity.TherapeuticClass;
+import com.app.easypharma_backend.domain.medication.repository.MedicationRepository;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationRepository;
+import com.app.easypharma_backend.domain.medication.repository.PharmacyMedicationStockRepository;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import com.app.easypharma_backend.domain.pharmacy.entity.PharmacyStatus;
+import com.app.easypharma_backend.domain.pharmacy.repository.PharmacyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Confirmations simultanées sur une même offre : le décrément gardé ne
+ * vend jamais plus que le stock. Sans @Transactional : chaque décrément
+ * est validé dans sa propre transaction, comme en production.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StockDecrementConcurrencyTest {
+
+    private static final int INITIAL_STOCK = 50;
+    private static final int CONFIRMATIONS = 200;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PharmacyRepository pharmacyRepository;
+    @Autowired
+    private MedicationRepository medicationRepository;
+    @Autowired
+    private PharmacyMedicationRepository pharmacyMedicationRepository;
+    @Autowired
+    private PharmacyMedicationStockRepository stockRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User pharmacist;
+    private Pharmacy pharmacy;
+    private Medication medication;
+    private PharmacyMedication offer;
+
+    @BeforeEach
+    void setup() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        pharmacist = userRepository.save(User.builder()
+                .email("stock-" + suffix + "@test.com")
+                .password("test")
+                .firstName("Stock")
+                .lastName("Test")
+                .phone("6" + suffix)
+                .role(UserRole.PHARMACY_ADMIN)
+                .isActive(true)
+                .isVerified(true)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+        pharmacy = pharmacyRepository.save(Pharmacy.builder()
+                .user(pharmacist)
+                .name("Pharmacie Concurrence")
+                .licenseNumber("LIC-" + suffix)
+                .address("1 Rue du Stock")
+                .city("Douala")
+                .phone("3" + suffix)
+                .latitude(BigDecimal.valueOf(4.051056))
+                .longitude(BigDecimal.valueOf(9.767868))
+                .status(PharmacyStatus.APPROVED)
+                .licenseDocumentUrl("http://doc.url")
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+        medication = medicationRepository.save(Medication.builder()
+                .name("Amoxicilline " + suffix)
+                .therapeuticClass(TherapeuticClass.ANTIBIOTIQUE)
+                .requiresPrescription(false)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build());
+        offer = pharmacyMedicationRepository.save(PharmacyMedication.builder()
+                .pharmacy(pharmacy)
+                .medication(medication)
+                .price(BigDecimal.valueOf(1500))
+                .stockQuantity(INITIAL_STOCK)
+                .isAvailable(true)
+                .build());
+    }
+
+    @AfterEach
+    void cleanup() {
+        pharmacyMedicationRepository.deleteById(offer.getId());
+        medicationRepository.deleteById(medication.getId());
+        pharmacyRepository.deleteById(pharmacy.getId());
+        userRepository.deleteById(pharmacist.getId());
+    }
+
+    @Test
+    void concurrentConfirmationsNeverOversell() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Callable<Boolean>> confirmations = new ArrayList<>();
+        for (int i = 0; i < CONFIRMATIONS; i++) {
+            confirmations.add(() -> transactionTemplate.execute(status -> {
+                List<UUID> rejected = stockRepository.decrement(pharmacy.getId(),
+                        new TreeMap<>(Map.of(medication.getId(), 1)));
+                if (!rejected.isEmpty()) {
+                    status.setRollbackOnly();
+                }
+                return rejected.isEmpty();
+            }));
+        }
+
+        int confirmed = 0;
+        try {
+            for (Future<Boolean> result : executor.invokeAll(confirmations)) {
+                if (Boolean.TRUE.equals(result.get())) {
+                    confirmed++;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        PharmacyMedication reloaded = pharmacyMedicationRepository.findById(offer.getId()).orElseThrow();
+        assertThat(confirmed).isEqualTo(INITIAL_STOCK);
+        assertThat(reloaded.getStockQuantity()).isZero();
+        assertThat(reloaded.getIsAvailable()).isFalse();
+    }
+
+    @Test
+    void rejectedLineLeavesStockUntouched() {
+        Boolean accepted = transactionTemplate.execute(status -> {
+            List<UUID> rejected = stockRepository.decrement(pharmacy.getId(),
+                    new TreeMap<>(Map.of(medication.getId(), INITIAL_STOCK + 1)));
+            return rejected.isEmpty();
+        });
+
+        assertThat(accepted).isFalse();
+        assertThat(pharmacyMedicationRepository.findById(offer.getId()).orElseThrow().getStockQuantity())
+                .isEqualTo(INITIAL_STOCK);
+    }
+}
@@ -0,0 +1,109 @@
+package com.app.easypharma_backend.integration;
+
+import com.app.easypharma_backend.domain.auth.entity.User;
+import com.app.easypharma_backend.domain.auth.entity.UserRole;
+import com.app.easypharma_backend.domain.medication.entity.Medication;
+import com.app.easypharma_backend.domain.medication.entity.PharmacyMedication;
+import com.app.easypharma_backend.domain.medication.entity.TherapeuticClass;
+import com.app.easypharma_backend.domain.order.dto.CreateOrderDTO;
+import com.app.easypharma_backend.domain.order.dto.OrderDTO;
+import com.app.easypharma_backend.domain.order.entity.OrderStatus;
+import com.app.easypharma_backend.domain.order.entity.StockReservation;
+import com.app.easypharma_backend.domain.order.repository.StockReservationRepository;
+import com.app.easypharma_backend.domain.order.service.interfaces.OrderServiceInterface;
+import com.app.easypharma_backend.domain.order.service.interfaces.StockReservationService;
+import com.app.easypharma_backend.domain.pharmacy.entity.Pharmacy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import(IntegrationFixtures.class)
+@ActiveProfiles("test")
+@Transactional
+class StockReservationIntegrationTest {
+
+    @Autowired
+    private IntegrationFixtures fixtures;
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+    @Autowired
+    private StockReservationService stockReservationService;
+    @Autowired
+    private OrderServiceInterface orderService;
+
+    private User firstPatient;
+    private User secondPatient;
+    private Pharmacy pharmacy;
+    private Medication medication;
+    private PharmacyMedication offer;
+
+    @BeforeEach
+    void setup() {
+        User pharmacist = fixtures.user("reservation-pharma@test.com", "611111111", UserRole.PHARMACY_ADMIN);
+        firstPatient = fixtures.user("reservation-a@test.com", "622222222", UserRole.PATIENT);
+        secondPatient = fixtures.user("reservation-b@test.com", "633333333", UserRole.PATIENT);
+        pharmacy = fixtures.pharmacy(pharmacist, "Pharmacie Réservation", "LIC-RES", "Douala", 4.051056, 9.767868);
+        medication = fixtures.medication("Artésunate", TherapeuticClass.ANTIPALUDEEN);
+        offer = fixtures.offer(pharmacy, medication, 2500, 1);
+    }
+
+    @Test
+    void lastUnitCannotBeOrderedTwice() {
+        OrderDTO first = orderService.createOrder(firstPatient.getId(), orderOfOne());
+
+        assertThat(reservedQuantity()).isEqualTo(1);
+        assertThatThrownBy(() -> orderService.createOrder(secondPatient.getId(), orderOfOne()))
+                .hasMessageContaining("Artésunate");
+
+        // L'annulation rend l'unité commandable
+        orderService.updateOrderStatus(first.getId(), OrderStatus.CANCELLED);
+        assertThat(reservedQuantity()).isZero();
+        assertThat(stockReservationRepository.findByOrderId(first.getId())).isEmpty();
+    }
+
+    @Test
+    void confirmationTurnsReservationIntoStockExit() {
+        OrderDTO order = orderService.createOrder(firstPatient.getId(), orderOfOne());
+
+        orderService.updateOrderStatus(order.getId(), OrderStatus.CONFIRMED);
+
+        assertThat(reservedQuantity()).isZero();
+        assertThat(fixtures.offerColumn(offer, "stock_quantity")).isZero();
+        assertThat(stockReservationRepository.findByOrderId(order.getId())).isEmpty();
+    }
+
+    @Test
+    void expiredReservationsAreReleasedBySweeper() {
+        OrderDTO order = orderService.createOrder(firstPatient.getId(), orderOfOne());
+        List<StockReservation> reservations = stockReservationRepository.findByOrderId(order.getId());
+        assertThat(reservations).hasSize(1);
+        reservations.forEach(reservation -> reservation.setExpiresAt(LocalDateTime.now().minusMinutes(1)));
+        stockReservationRepository.saveAll(reservations);
+
+        assertThat(stockReservationService.releaseExpired()).isEqualTo(1);
+
+        assertThat(reservedQuantity()).isZero();
+        assertThat(stockReservationRepository.findByOrderId(order.getId())).isEmpty();
+        // L'unité libérée peut être commandée par un autre patient
+        assertThat(orderService.createOrder(secondPatient.getId(), orderOfOne())).isNotNull();
+    }
+
+    private int reservedQuantity() {
+        return fixtures.offerColumn(offer, "reserved_quantity");
+    }
+
+    private CreateOrderDTO orderOfOne() {
+        return fixtures.orderOf(pharmacy, medication, 1);
+    }
+}